@@ -101,10 +101,14 @@ public abstract class AbstractRolesAuthorizationDelegate implements FedoraAuthor
 
         try {
             final FedoraSession internalSession = sessionFactory.getInternalSession();
-            final Map<String, Collection<String>> acl =
-                    accessRolesProvider.findRolesForPath(absPath,
-                            getJcrSession(internalSession));
-            roles = resolveUserRoles(acl, allPrincipals);
+            try {
+                final Map<String, Collection<String>> acl =
+                        accessRolesProvider.findRolesForPath(absPath,
+                                getJcrSession(internalSession));
+                roles = resolveUserRoles(acl, allPrincipals);
+            } finally {
+                sessionFactory.releaseInternalSession(internalSession);
+            }
             LOGGER.debug("roles for this request: {}", roles);
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException("Cannot look up node information on " + absPath +
@@ -133,8 +137,13 @@ public abstract class AbstractRolesAuthorizationDelegate implements FedoraAuthor
         if (actions.length == 1 && "remove".equals(actions[0])) {
             // you must be able to delete all the children
             // TODO make recursive/ACL-query-based check configurable
-            return canRemoveChildrenRecursive(session, absPath.toString(),
-                    allPrincipals, roles);
+            final FedoraSession internalSession = sessionFactory.getInternalSession();
+            try {
+                return canRemoveChildrenRecursive(session, absPath.toString(),
+                        allPrincipals, roles, getJcrSession(internalSession));
+            } finally {
+                sessionFactory.releaseInternalSession(internalSession);
+            }
         }
         return true;
     }
@@ -161,17 +170,18 @@ public abstract class AbstractRolesAuthorizationDelegate implements FedoraAuthor
      * @param parentPath the parent path
      * @param allPrincipals all principals
      * @param parentRoles the roles on the parent
+     * @param internalSession the internal session in which to read the children
      * @return true if permitted
      */
     private boolean canRemoveChildrenRecursive(final Session userSession,
                                                final String parentPath,
                                                final Set<Principal> allPrincipals,
-                                               final Set<String> parentRoles) {
+                                               final Set<String> parentRoles,
+                                               final Session internalSession) {
         try {
-            final FedoraSession internalSession = sessionFactory.getInternalSession();
             LOGGER.debug("Recursive child remove permission checks for: {}",
                     parentPath);
-            final Item item = getJcrSession(internalSession).getItem(parentPath);
+            final Item item = internalSession.getItem(parentPath);
             if (!item.isNode()) {
                 // this is a property and has no children...
                 return true;
@@ -197,7 +207,7 @@ public abstract class AbstractRolesAuthorizationDelegate implements FedoraAuthor
                         roles)) {
 
                     if (!canRemoveChildrenRecursive(userSession, n.getPath(),
-                            allPrincipals, roles)) {
+                            allPrincipals, roles, internalSession)) {
                         return false;
                     }
                 } else {
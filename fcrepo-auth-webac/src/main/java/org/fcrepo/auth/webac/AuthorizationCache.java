@@ -0,0 +1,320 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.Collections.unmodifiableList;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.RemovalListener;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.Striped;
+
+/**
+ * A cache of the authorizations read by the {@link WebACRolesProvider}: the acl:Authorizations of each ACL resource,
+ * and the effective ACL of each resource. Entries are invalidated by the {@link FedoraEvent}s on the internal
+ * EventBus, so this cache should only be configured where a JCR observer publishes them.
+ *
+ * Events give the path of a changed resource but not the properties that changed, so an event invalidates every
+ * entry that was read from the resource at its path. The effective ACL of a resource is read from the resource and
+ * each ancestor up to the one that links to its ACL, and the authorizations of an ACL from the ACL resource and its
+ * children, so changes to other resources leave them cached. Events are published once changes are saved, and
+ * observed asynchronously, so for a moment after an ACL is changed the cache may still answer with the ACL before.
+ *
+ * The keys of each cache are indexed in path order, so that an event looks only at the entries below its path and
+ * at its ancestors. Each entry is the version of its key that it was read for: an event retires the entries it
+ * touches, and a read that completes after its entry was retired is returned but not cached.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public class AuthorizationCache {
+
+    public static final String MAXIMUM_SIZE_PROPERTY = "fcrepo.auth.webac.cache.size";
+
+    private static final long DEFAULT_MAXIMUM_SIZE = 10000;
+
+    private static final Logger LOGGER = getLogger(AuthorizationCache.class);
+
+    private static final String FEDORA_INTERNAL_PREFIX = "info:fedora";
+
+    private static final String ROOT = "/";
+
+    @Inject
+    private EventBus eventBus;
+
+    private final IndexedCache<List<WebACAuthorization>> authorizations;
+
+    private final IndexedCache<Optional<EffectiveAcl>> effectiveAcls;
+
+    /**
+     * Default constructor.
+     */
+    public AuthorizationCache() {
+        final long maximumSize = Long.getLong(MAXIMUM_SIZE_PROPERTY, DEFAULT_MAXIMUM_SIZE);
+        authorizations = new IndexedCache<>(maximumSize);
+        effectiveAcls = new IndexedCache<>(maximumSize);
+    }
+
+    /**
+     * Subscribe to the events on the internal EventBus
+     */
+    @PostConstruct
+    public void register() {
+        eventBus.register(this);
+    }
+
+    /**
+     * Unsubscribe from the events on the internal EventBus
+     */
+    @PreDestroy
+    public void unregister() {
+        eventBus.unregister(this);
+    }
+
+    /**
+     * Get the acl:Authorizations of an ACL, reading them if they are not cached.
+     *
+     * @param location the location of the ACL resource
+     * @param reader reads the authorizations of the ACL
+     * @return the authorizations of the ACL
+     */
+    public List<WebACAuthorization> getAuthorizations(final String location,
+            final Supplier<List<WebACAuthorization>> reader) {
+        return authorizations.get(location, () -> unmodifiableList(reader.get()));
+    }
+
+    /**
+     * Get the effective ACL of a resource, reading it if it is not cached.
+     *
+     * @param path the path of the resource
+     * @param reader reads the effective ACL of the resource
+     * @return the effective ACL of the resource, if any
+     */
+    public Optional<EffectiveAcl> getEffectiveAcl(final String path, final Supplier<Optional<EffectiveAcl>> reader) {
+        return effectiveAcls.get(path, reader);
+    }
+
+    /**
+     * Invalidate the entries read from the resource changed by an event.
+     *
+     * @param event the event
+     */
+    @Subscribe
+    public void invalidate(final FedoraEvent event) {
+        final String path = event.getPath();
+        LOGGER.trace("Invalidating authorizations read from {}", path);
+        // an effective ACL was read from each resource from its own up to the one linking to the ACL
+        for (final String key : effectiveAcls.keysBelow(path)) {
+            if (isAtOrBelow(key, path)) {
+                effectiveAcls.retire(key, acl -> isAtOrBelow(path, acl.map(a -> a.path).orElse(ROOT)));
+            }
+        }
+        // authorizations were read from an ACL and its children, which go with it if an ancestor is removed
+        for (final String location : authorizations.keysBelow(FEDORA_INTERNAL_PREFIX + path)) {
+            if (isAtOrBelow(location.substring(FEDORA_INTERNAL_PREFIX.length()), path)) {
+                authorizations.retire(location, a -> true);
+            }
+        }
+        for (String ancestor = path; ancestor != null; ancestor = parentOf(ancestor)) {
+            authorizations.retire(FEDORA_INTERNAL_PREFIX + ancestor, a -> true);
+        }
+    }
+
+    /**
+     * Whether a path is the same as, or a descendant of (including a hash resource of), another.
+     */
+    private static boolean isAtOrBelow(final String path, final String ancestor) {
+        return ancestor.equals(ROOT) || path.equals(ancestor) || path.startsWith(ancestor + "/")
+                || path.startsWith(ancestor + "#");
+    }
+
+    /**
+     * The path of the parent (or, for a hash resource, the resource) of a path, or null for the root.
+     */
+    private static String parentOf(final String path) {
+        if (path.equals(ROOT)) {
+            return null;
+        }
+        final int end = Math.max(path.lastIndexOf('/'), path.lastIndexOf('#'));
+        return end <= 0 ? ROOT : path.substring(0, end);
+    }
+
+    /**
+     * One version of the value for a key: it takes the value read for it unless it was retired first.
+     */
+    private static final class Entry<V> {
+
+        private V value;
+
+        private boolean retired;
+
+        private synchronized V get() {
+            return retired ? null : value;
+        }
+
+        private synchronized boolean isRetired() {
+            return retired;
+        }
+
+        private synchronized void set(final V value) {
+            if (!retired) {
+                this.value = value;
+            }
+        }
+
+        /**
+         * Retire this entry if it is still being read, or if the test accepts its value.
+         */
+        private synchronized boolean retireIf(final Predicate<V> test) {
+            retired = retired || value == null || test.test(value);
+            return retired;
+        }
+    }
+
+    /**
+     * A cache whose keys are also held in order, for looking up the keys below a path. The index holds each key in
+     * the cache, and may briefly hold keys that have been evicted, until it is pruned.
+     */
+    private static final class IndexedCache<V> {
+
+        private final NavigableSet<String> index = new ConcurrentSkipListSet<>();
+
+        private final Queue<String> evicted = new ConcurrentLinkedQueue<>();
+
+        private final Striped<Lock> locks = Striped.lazyWeakLock(64);
+
+        private final Cache<String, Entry<V>> cache;
+
+        private IndexedCache(final long maximumSize) {
+            cache = newBuilder().maximumSize(maximumSize).removalListener((RemovalListener<String, Entry<V>>) n -> {
+                if (n.wasEvicted()) {
+                    evicted.add(n.getKey());
+                }
+            }).build();
+        }
+
+        private V get(final String key, final Supplier<V> reader) {
+            final Entry<V> cached = cache.getIfPresent(key);
+            final V value = cached == null ? null : cached.get();
+            if (value != null) {
+                return value;
+            }
+            prune();
+            Entry<V> entry;
+            final Lock lock = locks.get(key);
+            lock.lock();
+            try {
+                // indexed before it is read, so that an event during the read retires it
+                index.add(key);
+                entry = cache.getIfPresent(key);
+                if (entry == null || entry.isRetired()) {
+                    entry = new Entry<>();
+                    cache.put(key, entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+            final V loaded = reader.get();
+            entry.set(loaded);
+            return loaded;
+        }
+
+        /**
+         * The keys from a path up to the end of its subtree in path order, which include those of its subtree.
+         */
+        private NavigableSet<String> keysBelow(final String path) {
+            prune();
+            // '0' follows '/' and '#', so everything below the path sorts before the path followed by it
+            final String end = path.endsWith(ROOT) ? path.substring(0, path.length() - 1) + '0' : path + '0';
+            return index.subSet(path, true, end, false);
+        }
+
+        private void retire(final String key, final Predicate<V> test) {
+            final Entry<V> entry = cache.getIfPresent(key);
+            if (entry != null && entry.retireIf(test)) {
+                cache.asMap().remove(key, entry);
+                unindex(key);
+            }
+        }
+
+        private void prune() {
+            for (String key = evicted.poll(); key != null; key = evicted.poll()) {
+                unindex(key);
+            }
+        }
+
+        private void unindex(final String key) {
+            final Lock lock = locks.get(key);
+            lock.lock();
+            try {
+                if (!cache.asMap().containsKey(key)) {
+                    index.remove(key);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * The effective ACL of a resource: the location of the ACL, and the path and types of the resource linking to it.
+     */
+    public static class EffectiveAcl {
+
+        public final URI uri;
+
+        public final String path;
+
+        public final List<URI> types;
+
+        /**
+         * Default constructor.
+         *
+         * @param uri the location of the ACL
+         * @param path the path of the resource linking to the ACL
+         * @param types the types of the resource linking to the ACL
+         */
+        public EffectiveAcl(final URI uri, final String path, final List<URI> types) {
+            this.uri = uri;
+            this.path = path;
+            this.types = unmodifiableList(new ArrayList<>(types));
+        }
+    }
+}
@@ -67,26 +67,30 @@ public class LinkHeaderProvider implements UriAwareHttpHeaderFactory {
     @Override
     public Multimap<String, String> createHttpHeadersForResource(final UriInfo uriInfo, final FedoraResource resource) {
 
-        final FedoraSession internalSession = sessionFactory.getInternalSession();
-        final IdentifierConverter<Resource, FedoraResource> translator =
-                new DefaultIdentifierTranslator(getJcrSession(internalSession));
         final ListMultimap<String, String> headers = ArrayListMultimap.create();
 
         LOGGER.debug("Adding WebAC Link Header for Resource: {}", resource.getPath());
         // Get the correct Acl for this resource
         WebACRolesProvider.getEffectiveAcl(resource).ifPresent(acls -> {
             // If the Acl is present we need to use the internal session to get its URI
-            nodeService.find(internalSession, acls.resource.getPath())
-            .getTriples(translator, PROPERTIES)
-            .collect(toModel()).listObjectsOfProperty(createProperty(WEBAC_ACCESS_CONTROL_VALUE))
-            .forEachRemaining(linkObj -> {
-                if (linkObj.isURIResource()) {
-                    final Resource acl = linkObj.asResource();
-                    final String aclPath = translator.convert(acl).getPath();
-                    final URI aclUri = uriInfo.getBaseUriBuilder().path(aclPath).build();
-                    headers.put("Link", Link.fromUri(aclUri).rel("acl").build().toString());
-                }
-            });
+            final FedoraSession internalSession = sessionFactory.getInternalSession();
+            try {
+                final IdentifierConverter<Resource, FedoraResource> translator =
+                        new DefaultIdentifierTranslator(getJcrSession(internalSession));
+                nodeService.find(internalSession, acls.resource.getPath())
+                .getTriples(translator, PROPERTIES)
+                .collect(toModel()).listObjectsOfProperty(createProperty(WEBAC_ACCESS_CONTROL_VALUE))
+                .forEachRemaining(linkObj -> {
+                    if (linkObj.isURIResource()) {
+                        final Resource acl = linkObj.asResource();
+                        final String aclPath = translator.convert(acl).getPath();
+                        final URI aclUri = uriInfo.getBaseUriBuilder().path(aclPath).build();
+                        headers.put("Link", Link.fromUri(aclUri).rel("acl").build().toString());
+                    }
+                });
+            } finally {
+                sessionFactory.releaseInternalSession(internalSession);
+            }
         });
 
         return headers;
@@ -77,6 +77,7 @@ import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.shared.JenaException;
+import org.fcrepo.auth.webac.AuthorizationCache.EffectiveAcl;
 import org.fcrepo.http.commons.session.SessionFactory;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
@@ -89,6 +90,7 @@ import org.fcrepo.kernel.modeshape.FedoraSessionImpl;
 import org.fcrepo.kernel.modeshape.rdf.impl.DefaultIdentifierTranslator;
 import org.modeshape.jcr.value.Path;
 import org.slf4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
 
 /**
  * @author acoburn
@@ -114,6 +116,9 @@ public class WebACRolesProvider implements AccessRolesProvider {
     @Inject
     private SessionFactory sessionFactory;
 
+    @Autowired(required = false)
+    private AuthorizationCache authorizationCache;
+
     @Override
     public void postRoles(final Node node, final Map<String, Set<String>> data) throws RepositoryException {
         throw new UnsupportedOperationException("postRoles() is not implemented");
@@ -127,10 +132,17 @@ public class WebACRolesProvider implements AccessRolesProvider {
     @Override
     public Map<String, Collection<String>> findRolesForPath(final Path absPath, final Session session)
             throws RepositoryException {
-        return getAgentRoles(locateResource(absPath, new FedoraSessionImpl(session)));
+        final FedoraSession internalSession = sessionFactory.getInternalSession();
+        try {
+            return getAgentRoles(locateResource(absPath, new FedoraSessionImpl(session), internalSession),
+                    internalSession);
+        } finally {
+            sessionFactory.releaseInternalSession(internalSession);
+        }
     }
 
-    private FedoraResource locateResource(final Path path, final FedoraSession session) {
+    private FedoraResource locateResource(final Path path, final FedoraSession session,
+            final FedoraSession internalSession) {
         try {
             if (getJcrSession(session).nodeExists(path.toString()) || path.isRoot()) {
                 LOGGER.debug("findRolesForPath: {}", path.getString());
@@ -138,7 +150,7 @@ public class WebACRolesProvider implements AccessRolesProvider {
 
                 if (resource.hasType("nt:version")) {
                     LOGGER.debug("{} is a version, getting the baseVersion", resource);
-                    return getBaseVersion(resource);
+                    return getBaseVersion(resource, internalSession);
                 }
                 return resource;
             }
@@ -146,18 +158,17 @@ public class WebACRolesProvider implements AccessRolesProvider {
             throw new RepositoryRuntimeException(ex);
         }
         LOGGER.trace("Path: {} does not exist, checking parent", path.getString());
-        return locateResource(path.getParent(), session);
+        return locateResource(path.getParent(), session, internalSession);
     }
 
     /**
      * Get the versionable FedoraResource for this version resource
      *
      * @param resource the Version resource
+     * @param internalSession the internal session in which to find the base versionable resource
      * @return the base versionable resource or the version if not found.
      */
-    private FedoraResource getBaseVersion(final FedoraResource resource) {
-        final FedoraSession internalSession = sessionFactory.getInternalSession();
-
+    private FedoraResource getBaseVersion(final FedoraResource resource, final FedoraSession internalSession) {
         try {
             final VersionHistory base = ((Version) getJcrNode(resource)).getContainingHistory();
             if (base.hasProperty(JCR_VERSIONABLE_UUID_PROPERTY)) {
@@ -176,40 +187,47 @@ public class WebACRolesProvider implements AccessRolesProvider {
 
     @Override
     public Map<String, Collection<String>> getRoles(final Node node, final boolean effective) {
+        final FedoraSession internalSession = sessionFactory.getInternalSession();
         try {
-            return getAgentRoles(nodeService.find(new FedoraSessionImpl(node.getSession()), node.getPath()));
+            return getAgentRoles(nodeService.find(new FedoraSessionImpl(node.getSession()), node.getPath()),
+                    internalSession);
         } catch (final RepositoryException ex) {
             throw new RepositoryRuntimeException(ex);
+        } finally {
+            sessionFactory.releaseInternalSession(internalSession);
         }
     }
 
     /**
-     *  For a given FedoraResource, get a mapping of acl:agent values to acl:mode values.
+     *  For a given FedoraResource, get a mapping of acl:agent values to acl:mode values, reading ACLs and groups
+     *  in the given internal session.
      */
-    private Map<String, Collection<String>> getAgentRoles(final FedoraResource resource) {
+    private Map<String, Collection<String>> getAgentRoles(final FedoraResource resource,
+            final FedoraSession internalSession) {
         LOGGER.debug("Getting agent roles for: {}", resource.getPath());
 
         // Get the effective ACL by searching the target node and any ancestors.
-        final Optional<ACLHandle> effectiveAcl = getEffectiveAcl(
-                isNonRdfSourceDescription.test(getJcrNode(resource)) ?
-                    ((NonRdfSourceDescription)nodeConverter.convert(getJcrNode(resource))).getDescribedResource() :
-                    resource);
+        final FedoraResource target = isNonRdfSourceDescription.test(getJcrNode(resource)) ?
+                ((NonRdfSourceDescription)nodeConverter.convert(getJcrNode(resource))).getDescribedResource() :
+                resource;
+        final Optional<EffectiveAcl> effectiveAcl = useCache(target) ?
+                authorizationCache.getEffectiveAcl(target.getPath(), () -> findEffectiveAcl(target)) :
+                findEffectiveAcl(target);
 
         // Construct a list of acceptable acl:accessTo values for the target resource.
         final List<String> resourcePaths = new ArrayList<>();
         resourcePaths.add(FEDORA_INTERNAL_PREFIX + resource.getPath());
 
         // Construct a list of acceptable acl:accessToClass values for the target resource.
-        final List<URI> rdfTypes = resource.getTypes();
+        final List<URI> rdfTypes = new ArrayList<>(resource.getTypes());
 
         // Add the resource location and types of the ACL-bearing parent,
         // if present and if different than the target resource.
         effectiveAcl
-            .map(aclHandle -> aclHandle.resource)
-            .filter(effectiveResource -> !effectiveResource.getPath().equals(resource.getPath()))
-            .ifPresent(effectiveResource -> {
-                resourcePaths.add(FEDORA_INTERNAL_PREFIX + effectiveResource.getPath());
-                rdfTypes.addAll(effectiveResource.getTypes());
+            .filter(acl -> !acl.path.equals(resource.getPath()))
+            .ifPresent(acl -> {
+                resourcePaths.add(FEDORA_INTERNAL_PREFIX + acl.path);
+                rdfTypes.addAll(acl.types);
             });
 
         // If we fall through to the system/classpath-based Authorization and it
@@ -232,7 +250,9 @@ public class WebACRolesProvider implements AccessRolesProvider {
 
         // Read the effective Acl and return a list of acl:Authorization statements
         final List<WebACAuthorization> authorizations = effectiveAcl
-                .map(auth -> getAuthorizations(auth.uri.toString()))
+                .map(acl -> authorizationCache == null ? getAuthorizations(acl.uri.toString(), internalSession) :
+                        authorizationCache.getAuthorizations(acl.uri.toString(),
+                                () -> getAuthorizations(acl.uri.toString(), internalSession)))
                 .orElseGet(() -> getDefaultAuthorizations());
 
         // Filter the acl:Authorization statements so that they correspond only to statements that apply to
@@ -243,7 +263,8 @@ public class WebACRolesProvider implements AccessRolesProvider {
         authorizations.stream()
             .filter(checkAccessTo.or(checkAccessToClass))
             .forEach(auth -> {
-                concat(auth.getAgents().stream(), dereferenceAgentGroups(auth.getAgentGroups()).stream())
+                concat(auth.getAgents().stream().flatMap(WebACRolesProvider::withAdditionalAgentValues),
+                        dereferenceAgentGroups(auth.getAgentGroups(), internalSession).stream())
                     .forEach(agent -> {
                         effectiveRoles.computeIfAbsent(agent, key -> new HashSet<>())
                             .addAll(auth.getModes().stream().map(URI::toString).collect(toSet()));
@@ -255,6 +276,26 @@ public class WebACRolesProvider implements AccessRolesProvider {
         return effectiveRoles;
     }
 
+    /**
+     * The effective ACL of a resource can only be cached when it is read from saved changes, which every session
+     * sees: a session with changes of its own may see another.
+     */
+    private boolean useCache(final FedoraResource resource) {
+        if (authorizationCache == null) {
+            return false;
+        }
+        try {
+            return !getJcrNode(resource).getSession().hasPendingChanges();
+        } catch (final RepositoryException ex) {
+            throw new RepositoryRuntimeException(ex);
+        }
+    }
+
+    private static Optional<EffectiveAcl> findEffectiveAcl(final FedoraResource resource) {
+        return getEffectiveAcl(resource)
+                .map(acl -> new EffectiveAcl(acl.uri, acl.resource.getPath(), acl.resource.getTypes()));
+    }
+
     /**
      * Given a path (e.g. /a/b/c/d) retrieve a list of all ancestor paths.
      * In this case, that would be a list of "/a/b/c", "/a/b", "/a" and "/".
@@ -286,8 +327,8 @@ public class WebACRolesProvider implements AccessRolesProvider {
      *  This maps a Collection of acl:agentGroup values to a List of agents.
      *  Any out-of-domain URIs are silently ignored.
      */
-    private List<String> dereferenceAgentGroups(final Collection<String> agentGroups) {
-        final FedoraSession internalSession = sessionFactory.getInternalSession();
+    private List<String> dereferenceAgentGroups(final Collection<String> agentGroups,
+            final FedoraSession internalSession) {
         final IdentifierConverter<Resource, FedoraResource> translator =
                 new DefaultIdentifierTranslator(getJcrSession(internalSession));
 
@@ -352,11 +393,12 @@ public class WebACRolesProvider implements AccessRolesProvider {
      *  full list is returned.
      *
      *  @param location the location of the ACL resource
+     *  @param internalSession the internal session in which to read the ACL resource
      *  @return a list of acl:Authorization objects
      */
-    private List<WebACAuthorization> getAuthorizations(final String location) {
+    private List<WebACAuthorization> getAuthorizations(final String location,
+            final FedoraSession internalSession) {
 
-        final FedoraSession internalSession = sessionFactory.getInternalSession();
         final List<WebACAuthorization> authorizations = new ArrayList<>();
         final IdentifierConverter<Resource, FedoraResource> translator =
                 new DefaultIdentifierTranslator(getJcrSession(internalSession));
@@ -380,9 +422,6 @@ public class WebACRolesProvider implements AccessRolesProvider {
                             final List<String> values = aclTriples.computeIfAbsent(predicate,
                                 key -> new ArrayList<>());
                             nodeToStringStream(triple.getObject()).forEach(values::add);
-                            if (predicate.equals(WEBAC_AGENT_VALUE)) {
-                                additionalAgentValues(triple.getObject()).forEach(values::add);
-                            }
                         });
                     // Create a WebACAuthorization object from the provided triples.
                     LOGGER.debug("Adding acl:Authorization from {}", child.getPath());
@@ -454,9 +493,6 @@ public class WebACRolesProvider implements AccessRolesProvider {
                 final List<String> values = aclTriples.computeIfAbsent(predicate,
                     key -> new ArrayList<>());
                 nodeToStringStream(triple.getObject()).forEach(values::add);
-                if (predicate.equals(WEBAC_AGENT_VALUE)) {
-                    additionalAgentValues(triple.getObject()).forEach(values::add);
-                }
             }
         });
 
@@ -464,19 +500,21 @@ public class WebACRolesProvider implements AccessRolesProvider {
         return authorizations;
     }
 
-    private static Stream<String> additionalAgentValues(final org.apache.jena.graph.Node object) {
+    /**
+     * Map an acl:agent value to itself and, if it is in the user or group agent base URI, the agent it names.
+     * This is done when roles are assigned rather than when authorizations are read, so that the authorizations
+     * can be cached whatever the base URIs.
+     */
+    private static Stream<String> withAdditionalAgentValues(final String agent) {
         final String groupBaseUri = System.getProperty(GROUP_AGENT_BASE_URI_PROPERTY);
         final String userBaseUri = System.getProperty(USER_AGENT_BASE_URI_PROPERTY);
 
-        if (object.isURI()) {
-            final String uri = object.getURI();
-            if (userBaseUri != null && uri.startsWith(userBaseUri)) {
-                return of(uri.substring(userBaseUri.length()));
-            } else if (groupBaseUri != null && uri.startsWith(groupBaseUri)) {
-                return of(uri.substring(groupBaseUri.length()));
-            }
+        if (userBaseUri != null && agent.startsWith(userBaseUri)) {
+            return of(agent, agent.substring(userBaseUri.length()));
+        } else if (groupBaseUri != null && agent.startsWith(groupBaseUri)) {
+            return of(agent, agent.substring(groupBaseUri.length()));
         }
-        return empty();
+        return of(agent);
     }
 
     private static Model getDefaultAcl() {
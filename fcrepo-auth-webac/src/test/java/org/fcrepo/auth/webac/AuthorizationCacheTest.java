@@ -0,0 +1,223 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.auth.webac;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.fcrepo.auth.webac.AuthorizationCache.MAXIMUM_SIZE_PROPERTY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.fcrepo.auth.webac.AuthorizationCache.EffectiveAcl;
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import com.google.common.eventbus.EventBus;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class AuthorizationCacheTest {
+
+    private static final String ACL = "info:fedora/acls/01/acl";
+
+    @Mock
+    private EventBus mockEventBus;
+
+    @Mock
+    private FedoraEvent mockEvent;
+
+    private AuthorizationCache cache;
+
+    private AtomicInteger reads;
+
+    @Before
+    public void setUp() {
+        cache = new AuthorizationCache();
+        setField(cache, "eventBus", mockEventBus);
+        reads = new AtomicInteger();
+    }
+
+    @Test
+    public void testRegister() {
+        cache.register();
+        verify(mockEventBus).register(cache);
+        cache.unregister();
+        verify(mockEventBus).unregister(cache);
+    }
+
+    @Test
+    public void testAuthorizationsAreCached() {
+        assertEquals(1, getAuthorizations(ACL).size());
+        assertEquals(1, getAuthorizations(ACL).size());
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testAuthorizationsInvalidatedByAChild() {
+        getAuthorizations(ACL);
+        changed("/acls/01/acl/authorization");
+        getAuthorizations(ACL);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testAuthorizationsInvalidatedByAHashChild() {
+        getAuthorizations(ACL);
+        changed("/acls/01/acl#authorization");
+        getAuthorizations(ACL);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testAuthorizationsInvalidatedByAnAncestor() {
+        getAuthorizations(ACL);
+        changed("/acls");
+        getAuthorizations(ACL);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testAuthorizationsNotInvalidatedByOthers() {
+        getAuthorizations(ACL);
+        changed("/acls/01/acl2");
+        changed("/acls/02/acl");
+        getAuthorizations(ACL);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testEffectiveAclInvalidatedBetweenResourceAndAcl() {
+        getEffectiveAcl("/a/b/c", "/a");
+        changed("/a/b");
+        getEffectiveAcl("/a/b/c", "/a");
+        changed("/a");
+        getEffectiveAcl("/a/b/c", "/a");
+        changed("/a/b/c");
+        getEffectiveAcl("/a/b/c", "/a");
+        assertEquals(4, reads.get());
+    }
+
+    @Test
+    public void testEffectiveAclNotInvalidatedOutsideResourceAndAcl() {
+        getEffectiveAcl("/a/b/c", "/a/b");
+        changed("/a");
+        changed("/");
+        changed("/a/b/c/d");
+        changed("/a/b/d");
+        getEffectiveAcl("/a/b/c", "/a/b");
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testMissingEffectiveAclInvalidatedByAnyAncestor() {
+        assertFalse(cache.getEffectiveAcl("/a/b", this::readNoAcl).isPresent());
+        changed("/a/c");
+        assertFalse(cache.getEffectiveAcl("/a/b", this::readNoAcl).isPresent());
+        assertEquals(1, reads.get());
+        changed("/");
+        assertFalse(cache.getEffectiveAcl("/a/b", this::readNoAcl).isPresent());
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testNotCachedIfChangedWhileReading() {
+        final List<WebACAuthorization> read = cache.getAuthorizations(ACL, () -> {
+            reads.incrementAndGet();
+            changed("/acls/01/acl");
+            return emptyList();
+        });
+        assertTrue(read.isEmpty());
+        getAuthorizations(ACL);
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void testCachedIfOthersChangedWhileReading() {
+        cache.getAuthorizations(ACL, () -> {
+            reads.incrementAndGet();
+            changed("/acls/02/acl");
+            changed("/a/b");
+            return emptyList();
+        });
+        getAuthorizations(ACL);
+        assertEquals(1, reads.get());
+    }
+
+    @Test
+    public void testEvictedEntriesLeaveTheIndex() {
+        System.setProperty(MAXIMUM_SIZE_PROPERTY, "2");
+        try {
+            cache = new AuthorizationCache();
+        } finally {
+            System.clearProperty(MAXIMUM_SIZE_PROPERTY);
+        }
+        for (int i = 0; i < 10; i++) {
+            getAuthorizations(ACL + i);
+        }
+        changed("/other");
+        final Set<?> index = (Set<?>) getField(getField(cache, "authorizations"), "index");
+        assertTrue(index.size() <= 2);
+        getAuthorizations(ACL + 9);
+        changed("/acls/01/acl9");
+        getAuthorizations(ACL + 9);
+        assertEquals(11, reads.get());
+    }
+
+    private List<WebACAuthorization> getAuthorizations(final String location) {
+        return cache.getAuthorizations(location, () -> {
+            reads.incrementAndGet();
+            return singletonList(new WebACAuthorization(emptyList(), emptyList(), emptyList(), emptyList(),
+                    emptyList(), emptyList()));
+        });
+    }
+
+    private void getEffectiveAcl(final String path, final String aclPath) {
+        final Optional<EffectiveAcl> acl = cache.getEffectiveAcl(path, () -> {
+            reads.incrementAndGet();
+            return Optional.of(new EffectiveAcl(URI.create(ACL), aclPath, emptyList()));
+        });
+        assertEquals(aclPath, acl.get().path);
+    }
+
+    private Optional<EffectiveAcl> readNoAcl() {
+        reads.incrementAndGet();
+        return Optional.empty();
+    }
+
+    private void changed(final String path) {
+        when(mockEvent.getPath()).thenReturn(path);
+        cache.invalidate(mockEvent);
+    }
+}
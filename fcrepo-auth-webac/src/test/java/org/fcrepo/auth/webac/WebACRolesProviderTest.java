@@ -35,6 +35,7 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
@@ -180,6 +181,45 @@ public class WebACRolesProviderTest {
         assertTrue("The agent should be able to write", roles.get(agent).contains(WEBAC_MODE_WRITE_VALUE));
     }
 
+    @Test
+    public void acl01CachedTest() throws RepositoryException {
+        final String agent = "user01";
+        final String accessTo = "/webacl_box1";
+        final String acl = "/acls/01";
+        final String auth = acl + "/authorization.ttl";
+        setField(roleProvider, "authorizationCache", new AuthorizationCache());
+
+        when(mockResource.getContainer()).thenReturn(mockParentResource);
+        when(mockResource.getPath()).thenReturn(accessTo + "/foo");
+        when(mockResource.getTriples(anyObject(), eq(PROPERTIES)))
+                .thenReturn(new DefaultRdfStream(createURI("subject")));
+        when(mockNode.getDepth()).thenReturn(1);
+
+        when(mockParentResource.getNode()).thenReturn(mockParentNode);
+        when(mockParentResource.getPath()).thenReturn(accessTo);
+        when(mockParentResource.getTriples(anyObject(), eq(PROPERTIES)))
+                .thenReturn(getResourceRdfStream(accessTo, acl));
+        when(mockParentNode.getDepth()).thenReturn(0);
+
+        when(mockNodeService.find(mockSession, acl)).thenReturn(mockAclResource);
+        when(mockAclResource.getPath()).thenReturn(acl);
+
+        when(mockAuthorizationResource1.getTypes()).thenReturn(Arrays.asList(WEBAC_AUTHORIZATION));
+        when(mockAuthorizationResource1.getPath()).thenReturn(auth);
+        when(mockAuthorizationResource1.getTriples(anyObject(), eq(PROPERTIES)))
+                .thenReturn(getRdfStreamFromResource(auth, TTL));
+
+        when(mockAclResource.getChildren()).thenReturn(of(mockAuthorizationResource1));
+
+        roleProvider.getRoles(mockNode, true);
+        final Map<String, Collection<String>> roles = roleProvider.getRoles(mockNode, true);
+
+        assertEquals("There should be exactly one agent in the role map", 1, roles.size());
+        assertEquals("The agent should have exactly two modes", 2, roles.get(agent).size());
+        verify(mockParentResource).getTriples(anyObject(), eq(PROPERTIES));
+        verify(mockAclResource).getChildren();
+    }
+
     @Test
     public void acl01Test1() throws RepositoryException {
         final String agent = "user01";
@@ -19,6 +19,7 @@ package org.fcrepo.http.api;
 
 import static com.google.common.base.Strings.nullToEmpty;
 import static java.util.EnumSet.of;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.empty;
 import static javax.ws.rs.core.HttpHeaders.ACCEPT;
@@ -43,9 +44,16 @@ import static javax.ws.rs.core.Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE;
 import static javax.ws.rs.core.Variant.mediaTypes;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
+import static org.apache.jena.atlas.web.ContentType.create;
 import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
 import static org.apache.jena.riot.RDFLanguages.contentTypeToLang;
+import static org.apache.jena.riot.WebContent.ctSPARQLUpdate;
+import static org.apache.jena.riot.WebContent.ctTextCSV;
+import static org.apache.jena.riot.WebContent.ctTextPlain;
+import static org.apache.jena.riot.WebContent.matchContentType;
 import static org.apache.jena.vocabulary.RDF.type;
 import static org.fcrepo.kernel.api.FedoraTypes.FCR_VERSIONS;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_BASIC_CONTAINER;
@@ -54,10 +62,15 @@ import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.CONSTRAINED_BY;
 import static org.fcrepo.kernel.api.RdfLexicon.CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
 import static org.fcrepo.kernel.api.RdfLexicon.DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.HAS_CHILD_COUNT;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_MEMBER_RELATION;
 import static org.fcrepo.kernel.api.RdfLexicon.INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.RdfLexicon.INTERACTION_MODELS;
 import static org.fcrepo.kernel.api.RdfLexicon.LDP_NAMESPACE;
+import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
+import static org.fcrepo.kernel.api.RdfLexicon.VERSIONED_RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.isManagedNamespace;
 import static org.fcrepo.kernel.api.RdfLexicon.isManagedPredicate;
 import static org.fcrepo.kernel.api.RequiredRdfContext.EMBED_RESOURCES;
@@ -67,6 +80,7 @@ import static org.fcrepo.kernel.api.RequiredRdfContext.LDP_MEMBERSHIP;
 import static org.fcrepo.kernel.api.RequiredRdfContext.MINIMAL;
 import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
 import static org.fcrepo.kernel.api.RequiredRdfContext.SERVER_MANAGED;
+import static org.fcrepo.http.api.FedoraVersioning.ACCEPT_DATETIME_HEADER;
 import static org.fcrepo.http.api.FedoraVersioning.MEMENTO_DATETIME_HEADER;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -106,10 +120,14 @@ import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Request;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.ResponseBuilder;
+import javax.ws.rs.core.UriBuilderException;
+import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.atlas.RuntimeIOException;
+import org.apache.jena.atlas.web.ContentType;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.RDFNode;
+import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 import org.apache.jena.riot.Lang;
 import org.apache.jena.riot.RiotException;
@@ -125,9 +143,12 @@ import org.fcrepo.http.commons.session.HttpSession;
 import org.fcrepo.kernel.api.RdfLexicon;
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.TripleCategory;
+import org.fcrepo.kernel.api.exception.CannotCreateResourceException;
 import org.fcrepo.kernel.api.exception.InsufficientStorageException;
+import org.fcrepo.kernel.api.exception.InteractionModelViolationException;
 import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
+import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
 import org.fcrepo.kernel.api.exception.PreconditionException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.exception.ServerManagedPropertyException;
@@ -160,6 +181,21 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
     private static final Logger LOGGER = getLogger(ContentExposingResource.class);
     public static final String URL_ACCESS_TYPE = "URL";
 
+    /**
+     * The query parameter naming the child after which a page of the containment listing starts
+     */
+    public static final String CHILDREN_AFTER_PARAM = "after";
+
+    /**
+     * The query parameter giving the number of inbound references in a page of them
+     */
+    public static final String REFERENCES_LIMIT_PARAM = "referencesLimit";
+
+    /**
+     * The query parameter giving the number of inbound references passed over before a page of them starts
+     */
+    public static final String REFERENCES_OFFSET_PARAM = "referencesOffset";
+
     private static final List<String> VARY_HEADERS = Arrays.asList("Accept", "Range", "Accept-Encoding",
             "Accept-Language");
 
@@ -205,6 +241,93 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         return getContent(rangeValue, -1, rdfStream);
     }
 
+    /**
+     * A page of the containment triples of this resource, read through a cursor over its children that starts after
+     * a given child. When children are left out, the response links to the next page, and the page says how many
+     * children there are in all if the container has recorded it.
+     *
+     * @param limit the number of children in the page, -1 for all
+     * @param after the URI of the child to start after, or null to start from the first child
+     * @return the containment triples
+     */
+    private Stream<Triple> getContainmentPage(final int limit, final String after) {
+        final String afterPath;
+        if (after == null) {
+            afterPath = null;
+        } else if (translator().inDomain(createResource(after))) {
+            afterPath = translator().asString(createResource(after));
+        } else {
+            throw new ClientErrorException("Invalid '" + CHILDREN_AFTER_PARAM + "' value: " + after, SC_BAD_REQUEST);
+        }
+
+        final List<String> children;
+        try (final Stream<String> paths = resource().getChildPaths(afterPath)) {
+            children = (limit == -1 ? paths : paths.limit(limit + 1L)).collect(toList());
+        } catch (final PathNotFoundRuntimeException e) {
+            throw new ClientErrorException("No child to start after: " + after, SC_BAD_REQUEST, e);
+        }
+        final boolean truncated = limit != -1 && children.size() > limit;
+        final org.apache.jena.graph.Node subject = asNode(resource());
+        final List<Triple> page = children.stream().limit(truncated ? limit : children.size())
+                .map(path -> Triple.create(subject, CONTAINS.asNode(), translator().pathToDomain(path).asNode()))
+                .collect(toList());
+
+        if (truncated) {
+            final String last = page.get(page.size() - 1).getObject().getURI();
+            servletResponse.addHeader(LINK, Link.fromUri(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam(CHILDREN_AFTER_PARAM, last).build()).rel("next").build().toString());
+        }
+        if (!truncated && after == null) {
+            return page.stream();
+        }
+        // the listing is paged, so say how many children there are in all, if that is known without counting them
+        return concat(page.stream(), resource().getChildCount().map(count -> Triple.create(subject,
+                HAS_CHILD_COUNT.asNode(), createTypedLiteral(count).asNode())).map(Stream::of).orElse(empty()));
+    }
+
+    /**
+     * A page of the inbound references to this resource. The references are read lazily, so a page costs no more
+     * than the references before and in it. When references are left out, the response links to the next page.
+     *
+     * @param limit the number of references in the page, -1 for all
+     * @param offset the number of references to pass over before the page starts
+     * @return the inbound reference triples
+     */
+    private Stream<Triple> getReferencesPage(final int limit, final int offset) {
+        final Stream<Triple> references = getTriples(INBOUND_REFERENCES).skip(offset);
+        if (limit == -1) {
+            return references;
+        }
+        final List<Triple> page = references.limit(limit + 1L).collect(toList());
+        if (page.size() > limit) {
+            servletResponse.addHeader(LINK, Link.fromUri(uriInfo.getRequestUriBuilder()
+                    .replaceQueryParam(REFERENCES_OFFSET_PARAM, offset + limit).build()).rel("next").build()
+                    .toString());
+            return page.subList(0, limit).stream();
+        }
+        return page.stream();
+    }
+
+    /**
+     * Read a paging query parameter, which must be a non-negative integer if it is given.
+     */
+    private static int parsePageParam(final String name, final String value, final int absent) {
+        if (value == null) {
+            return absent;
+        }
+        final int parsed;
+        try {
+            parsed = Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            LOGGER.warn("Invalid '{}' value: {}", name, value);
+            throw new ClientErrorException("Invalid '" + name + "' value: " + value, SC_BAD_REQUEST, e);
+        }
+        if (parsed < 0) {
+            throw new ClientErrorException("Invalid '" + name + "' value: " + value, SC_BAD_REQUEST);
+        }
+        return parsed;
+    }
+
     /**
      * This method returns an HTTP response with content body appropriate to the following arguments.
      *
@@ -248,7 +371,7 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         final List<String> varyValues = new ArrayList<>(VARY_HEADERS);
 
         if (resource().isVersioned()) {
-            varyValues.add("Accept-Datetime");
+            varyValues.add(ACCEPT_DATETIME_HEADER);
         }
 
         varyValues.stream().forEach(x -> servletResponse.addHeader("Vary", x));
@@ -322,10 +445,13 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
             // containment triples about this resource
             if (ldpPreferences.prefersContainment()) {
-                if (limit == -1) {
+                final String after = uriInfo.getQueryParameters().getFirst(CHILDREN_AFTER_PARAM);
+                if (resource().isMemento()) {
+                    streams.add(limit == -1 ? getTriples(LDP_CONTAINMENT) : getTriples(LDP_CONTAINMENT).limit(limit));
+                } else if (limit == -1 && after == null) {
                     streams.add(getTriples(LDP_CONTAINMENT));
                 } else {
-                    streams.add(getTriples(LDP_CONTAINMENT).limit(limit));
+                    streams.add(getContainmentPage(limit, after));
                 }
             }
 
@@ -336,7 +462,14 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
             // Include inbound references to this object
             if (ldpPreferences.prefersReferences()) {
-                streams.add(getTriples(INBOUND_REFERENCES));
+                final String referencesLimit = uriInfo.getQueryParameters().getFirst(REFERENCES_LIMIT_PARAM);
+                final String referencesOffset = uriInfo.getQueryParameters().getFirst(REFERENCES_OFFSET_PARAM);
+                if (referencesLimit == null && referencesOffset == null) {
+                    streams.add(getTriples(INBOUND_REFERENCES));
+                } else {
+                    streams.add(getReferencesPage(parsePageParam(REFERENCES_LIMIT_PARAM, referencesLimit, -1),
+                            parsePageParam(REFERENCES_OFFSET_PARAM, referencesOffset, 0)));
+                }
             }
 
             // Embed the children of this object
@@ -658,13 +791,10 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
 
         // See the related note about the next block of code in the
         // ContentExposingResource::addCacheControlHeaders method
+        etag = new EntityTag(getStrongEtagValue(resource));
         if (resource instanceof FedoraBinary) {
-            // Use a strong ETag for the LDP-NR
-            etag = new EntityTag(resource.getDescription().getEtagValue());
             date = resource.getDescription().getLastModifiedDate();
         } else {
-            // Use a strong ETag for the LDP-RS when validating If-(None)-Match headers
-            etag = new EntityTag(resource.getDescribedResource().getEtagValue());
             date = resource.getDescribedResource().getLastModifiedDate();
         }
 
@@ -695,6 +825,21 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         }
     }
 
+    /**
+     * Get the value of the strong ETag used to validate If-(None)-Match headers for a resource.
+     *
+     * @param resource the resource
+     * @return the ETag value
+     */
+    protected static String getStrongEtagValue(final FedoraResource resource) {
+        if (resource instanceof FedoraBinary) {
+            // Use a strong ETag for the LDP-NR
+            return resource.getDescription().getEtagValue();
+        }
+        // Use a strong ETag for the LDP-RS when validating If-(None)-Match headers
+        return resource.getDescribedResource().getEtagValue();
+    }
+
     /**
      * Returns an acceptable plain text media type if possible, or null if not.
      */
@@ -756,6 +901,114 @@ public abstract class ContentExposingResource extends FedoraBaseResource {
         }
     }
 
+    /**
+     * Create a resource at the given path, as a binary if it is declared to be a NonRDFSource or if it is given
+     * content that is not RDF, and as a container otherwise.
+     *
+     * @param path the path of the resource
+     * @param interactionModel the requested interaction model, if any
+     * @param contentType the content type of the request body
+     * @param contentPresent whether the request has a body
+     * @return the created resource (or the existing one at that path)
+     */
+    protected FedoraResource createFedoraResource(final String path, final String interactionModel,
+            final MediaType contentType, final boolean contentPresent) {
+        final FedoraResource result;
+        if ("ldp:NonRDFSource".equals(interactionModel) ||
+                (contentPresent && interactionModel == null && !isRDF(contentType))) {
+            result = binaryService.findOrCreate(session.getFedoraSession(), path);
+        } else {
+            result = containerService.findOrCreate(session.getFedoraSession(), path);
+        }
+
+        final String resInteractionModel = getInteractionModel(result);
+        if (StringUtils.isNoneBlank(interactionModel) && StringUtils.isNoneBlank(resInteractionModel)
+                && !resInteractionModel.equals(interactionModel)) {
+            throw new InteractionModelViolationException("Changing the interaction model " + resInteractionModel
+                        + " to " + interactionModel + " is not allowed!");
+        }
+
+        return result;
+    }
+
+    /*
+     * Get the interaction model from the Fedora Resource
+     * @param resource Fedora Resource
+     * @return String the Interaction Model
+     */
+    protected static String getInteractionModel(final FedoraResource resource) {
+        return INTERACTION_MODELS.stream().filter(resource::hasType).findFirst().orElse(null);
+    }
+
+    /**
+     * Make sure the resource has the specified interaction model
+     */
+    protected static void ensureInteractionType(final FedoraResource resource, final String interactionModel,
+            final boolean defaultContent) {
+        if (interactionModel != null) {
+            if (!interactionModel.equals("ldp:NonRDFSource") && !resource.hasType(interactionModel)) {
+                resource.addType(interactionModel);
+            }
+        } else if (defaultContent) {
+            resource.addType("ldp:BasicContainer");
+        }
+    }
+
+    /**
+     * Get the interaction model requested by the type Link headers of a request, if any.
+     */
+    protected static String checkInteractionModel(final List<String> links) {
+        if (links == null) {
+            return null;
+        }
+
+        try {
+            for (final String link : links) {
+                final Link linq = Link.valueOf(link);
+                if ("type".equals(linq.getRel())) {
+                    final Resource type = createResource(linq.getUri().toString());
+                    if (type.equals(NON_RDF_SOURCE) || type.equals(BASIC_CONTAINER) ||
+                            type.equals(DIRECT_CONTAINER) || type.equals(INDIRECT_CONTAINER)) {
+                        return "ldp:" + type.getLocalName();
+                    } else if (type.equals(VERSIONED_RESOURCE)) {
+                        // skip if versioned resource link header
+                        // NB: the versioned resource header is used for enabling
+                        // versioning on a resource and is thus orthogonal to
+                        // issue of interaction models. Nevertheless, it is
+                        // a possible link header and, therefore, must be ignored.
+                    } else {
+                        LOGGER.info("Invalid interaction model: {}", type);
+                        throw new CannotCreateResourceException("Invalid interaction model: " + type);
+                    }
+                }
+            }
+        } catch (final RuntimeException e) {
+            if (e instanceof IllegalArgumentException | e instanceof UriBuilderException) {
+                throw new ClientErrorException("Invalid link specified: " + String.join(", ", links), BAD_REQUEST);
+            }
+            throw e;
+        }
+
+        return null;
+    }
+
+    private static boolean isRDF(final MediaType requestContentType) {
+        if (requestContentType == null) {
+            return false;
+        }
+
+        final ContentType ctRequest = create(requestContentType.toString());
+
+        // Text files and CSV files are not considered RDF to Fedora, though CSV is a valid
+        // RDF type to Jena (although deprecated).
+        if (matchContentType(ctRequest, ctTextPlain) || matchContentType(ctRequest, ctTextCSV)) {
+            return false;
+        }
+
+        // SPARQL updates are done on containers.
+        return isRdfContentType(requestContentType.toString()) || matchContentType(ctRequest, ctSPARQLUpdate);
+    }
+
     protected static MediaType getSimpleContentType(final MediaType requestContentType) {
         return requestContentType != null ? new MediaType(requestContentType.getType(), requestContentType.getSubtype())
                 : APPLICATION_OCTET_STREAM_TYPE;
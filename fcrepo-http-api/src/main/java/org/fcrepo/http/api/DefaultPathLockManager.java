@@ -18,9 +18,12 @@
 
 package org.fcrepo.http.api;
 
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -150,9 +153,9 @@ public class DefaultPathLockManager implements PathLockManager {
     /**
      * The AcquiredLock implementation that's returned by the surrounding class.
      * Two main constructors exist, one that accepts a bunch of locks, all of which
-     * must be acquired and a second representing a "delete" lock, for which at
-     * acquisition time the locks necessary are determined from the current pool of
-     * active locks.
+     * must be acquired and a second representing "delete" locks (along with any
+     * other locks to be acquired with them), for which at acquisition time the
+     * locks necessary are determined from the current pool of active locks.
      *
      * Never, outside of a block of code synchronized with the surrounding class
      * instance, does this class hold an incomplete subset of the locks required:
@@ -161,7 +164,7 @@ public class DefaultPathLockManager implements PathLockManager {
      */
     private class AcquiredMultiPathLock implements AcquiredLock {
 
-        private String deletePath;
+        private List<String> deletePaths = new ArrayList<>();
 
         private List<ActivePath.PathScopedLock> locks;
 
@@ -203,16 +206,33 @@ public class DefaultPathLockManager implements PathLockManager {
          * @throws InterruptedException
          */
         private AcquiredMultiPathLock(final String deletePath) throws InterruptedException {
-            this.deletePath = deletePath;
+            this(new ArrayList<>(), singletonList(deletePath));
+        }
+
+        /**
+         * Instantiates and initializes an AcquiredMultiPathLock that requires
+         * the given locks as well as locks on the given paths and all active
+         * paths that are descendants of them.  This constructor blocks until
+         * all of the necessary locks have been acquired, but to avoid possible
+         * deadlocks releases all acquired locks when it fails to acquire even
+         * one of them.
+         * @param writeLocks each PathLock that must be acquired
+         * @param deletePaths the paths for which all descendant paths must also be
+         *        write locked.
+         * @throws InterruptedException
+         */
+        private AcquiredMultiPathLock(final List<ActivePath.PathScopedLock> writeLocks,
+                final List<String> deletePaths) throws InterruptedException {
+            this.deletePaths = deletePaths;
 
             boolean success = false;
             while (!success) {
                 synchronized (DefaultPathLockManager.this) {
-                    this.locks = new ArrayList<>();
+                    this.locks = new ArrayList<>(writeLocks);
 
                     // find all paths to lock
                     activePaths.forEach((path, lock) -> {
-                        if (isOrIsDescendantOf(path, deletePath)) {
+                        if (deletePaths.stream().anyMatch(deletePath -> isOrIsDescendantOf(path, deletePath))) {
                             locks.add(lock.getWriteLock());
                         }
                         });
@@ -230,9 +250,9 @@ public class DefaultPathLockManager implements PathLockManager {
                         // ...well, in that case we set a special note that this path is being
                         // deleted so that whenever a new lock is attempted on a to-be-deleted
                         // path, those locks fail to acquire.
-                        LOGGER.trace("Thread {} acquired delete lock on path {}.",
-                                Thread.currentThread().getId(), deletePath);
-                        activeDeletePaths.add(deletePath);
+                        LOGGER.trace("Thread {} acquired delete locks on paths {}.",
+                                Thread.currentThread().getId(), deletePaths);
+                        activeDeletePaths.addAll(deletePaths);
                     }
                 }
 
@@ -269,7 +289,7 @@ public class DefaultPathLockManager implements PathLockManager {
                         activePaths.remove(lock.getPath().path);
                     }
                 }
-                if (deletePath != null) {
+                for (final String deletePath : deletePaths) {
                     LOGGER.trace("Thread {} releasing delete lock on path {}.",
                             Thread.currentThread().getId(), deletePath);
                     activeDeletePaths.remove(deletePath);
@@ -334,20 +354,7 @@ public class DefaultPathLockManager implements PathLockManager {
         final List<ActivePath.PathScopedLock> locks = new ArrayList<>();
 
         synchronized (this) {
-            // lock the specified path while iterating through the path's
-            // ancestry to also lock each path that would be created implicitly
-            // by this write (ie, non-existent ancestral paths)
-            final String startingPath = normalizePath(path);
-            for (String currentPath = startingPath ;
-                    currentPath == null || currentPath.length() > 0;
-                    currentPath = getParentPath(currentPath)) {
-                if (currentPath == null || (currentPath != startingPath && nodeService.exists(session, currentPath))) {
-                    // either we've followed the path back to the root, or we've found an ancestor that exists...
-                    // so there are no more locks to create.
-                    break;
-                }
-                locks.add(getActivePath(currentPath).getWriteLock());
-            }
+            addWriteLocks(locks, normalizePath(path), session, nodeService);
         }
 
         try {
@@ -357,6 +364,27 @@ public class DefaultPathLockManager implements PathLockManager {
         }
     }
 
+    /*
+     * Adds a write lock for the given path to the list, along with one for each path that would
+     * be created implicitly by a write to it.  Must be called while synchronized on this instance.
+     */
+    private void addWriteLocks(final List<ActivePath.PathScopedLock> locks, final String startingPath,
+            final FedoraSession session, final NodeService nodeService) {
+        // lock the specified path while iterating through the path's
+        // ancestry to also lock each path that would be created implicitly
+        // by this write (ie, non-existent ancestral paths)
+        for (String currentPath = startingPath ;
+                currentPath == null || currentPath.length() > 0;
+                currentPath = getParentPath(currentPath)) {
+            if (currentPath == null || (currentPath != startingPath && nodeService.exists(session, currentPath))) {
+                // either we've followed the path back to the root, or we've found an ancestor that exists...
+                // so there are no more locks to create.
+                break;
+            }
+            locks.add(getActivePath(currentPath).getWriteLock());
+        }
+    }
+
     @Override
     public AcquiredLock lockForDelete(final String path) {
         try {
@@ -365,4 +393,22 @@ public class DefaultPathLockManager implements PathLockManager {
             throw new InterruptedRuntimeException(e);
         }
     }
+
+    @Override
+    public AcquiredLock lockForBatch(final Collection<String> writePaths, final Collection<String> deletePaths,
+            final FedoraSession session, final NodeService nodeService) {
+        final List<ActivePath.PathScopedLock> locks = new ArrayList<>();
+
+        synchronized (this) {
+            writePaths.stream().map(DefaultPathLockManager::normalizePath).distinct()
+                    .forEach(path -> addWriteLocks(locks, path, session, nodeService));
+        }
+
+        try {
+            return new AcquiredMultiPathLock(locks,
+                    deletePaths.stream().map(DefaultPathLockManager::normalizePath).distinct().collect(toList()));
+        } catch (InterruptedException e) {
+            throw new InterruptedRuntimeException(e);
+        }
+    }
 }
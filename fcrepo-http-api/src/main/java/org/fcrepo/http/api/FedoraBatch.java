@@ -0,0 +1,276 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.http.api;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_LOCATION;
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.HttpHeaders.LINK;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
+import static javax.ws.rs.core.Response.ok;
+import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.METHOD_NOT_ALLOWED;
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+import static org.apache.jena.riot.WebContent.contentTypeSPARQLUpdate;
+import static org.fcrepo.kernel.api.FedoraTypes.FCR_VERSIONS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.NotSupportedException;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status;
+import javax.ws.rs.core.StreamingOutput;
+
+import org.apache.commons.io.IOUtils;
+import org.fcrepo.http.api.PathLockManager.AcquiredLock;
+import org.fcrepo.kernel.api.RdfStream;
+import org.fcrepo.kernel.api.exception.InteractionModelViolationException;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.exception.MalformedRdfException;
+import org.fcrepo.kernel.api.exception.UnsupportedAlgorithmException;
+import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
+import org.glassfish.jersey.media.multipart.BodyPart;
+import org.glassfish.jersey.media.multipart.BodyPartEntity;
+import org.glassfish.jersey.media.multipart.MultiPart;
+import org.slf4j.Logger;
+import org.springframework.context.annotation.Scope;
+
+import com.codahale.metrics.annotation.Timed;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Apply many LDP operations to the repository in a single request and a single save.
+ *
+ * The request is a multipart/mixed body with one part per operation, applied in order. Each part names its
+ * operation in a {@value #METHOD_HEADER} header (PUT to create or replace a resource, PATCH to update one with
+ * SPARQL, or DELETE) and its target in a Content-Location header, as a path from the root of the repository. The
+ * body, Content-Type, Link, Digest and Content-Disposition headers of a part are treated as they are for the
+ * corresponding request to the resource itself.
+ *
+ * The paths of all of the operations are locked together before any is applied, and the changes are saved only once
+ * all have been applied, so either every operation succeeds or none does. The response has one line per operation,
+ * giving its status and the URI of its resource.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+@Scope("request")
+@Path("/fcr:batch")
+public class FedoraBatch extends ContentExposingResource {
+
+    private static final Logger LOGGER = getLogger(FedoraBatch.class);
+
+    public static final String METHOD_HEADER = "Fcrepo-Method";
+
+    private static final Set<String> METHODS = ImmutableSet.of("PUT", "PATCH", "DELETE");
+
+    /**
+     * The path of the operation being applied
+     */
+    private String externalPath;
+
+    @Override
+    protected String externalPath() {
+        return externalPath;
+    }
+
+    /**
+     * Apply a batch of operations.
+     *
+     * @param multiPart the operations
+     * @return the status of each operation
+     * @throws InvalidChecksumException if invalid checksum exception occurred
+     * @throws MalformedRdfException if malformed rdf exception occurred
+     * @throws UnsupportedAlgorithmException if an unsupported algorithm exception occurs
+     * @throws IOException if IO exception occurred
+     */
+    @POST
+    @Consumes("multipart/mixed")
+    @Timed
+    public Response applyBatch(final MultiPart multiPart)
+            throws InvalidChecksumException, MalformedRdfException, UnsupportedAlgorithmException, IOException {
+        try {
+            final List<BodyPart> operations = multiPart.getBodyParts();
+            if (operations.isEmpty()) {
+                throw new BadRequestException("A batch must have at least one operation");
+            }
+
+            final Set<String> writePaths = new LinkedHashSet<>();
+            final Set<String> deletePaths = new LinkedHashSet<>();
+            for (final BodyPart operation : operations) {
+                final String path = toPath(translator(), getExternalPath(operation));
+                if ("DELETE".equals(getMethod(operation))) {
+                    deletePaths.add(path);
+                } else {
+                    writePaths.add(path);
+                }
+            }
+
+            final List<String> results = new ArrayList<>(operations.size());
+            final AcquiredLock lock = lockManager.lockForBatch(writePaths, deletePaths, session.getFedoraSession(),
+                    nodeService);
+            try {
+                for (final BodyPart operation : operations) {
+                    externalPath = getExternalPath(operation);
+                    resource = null;
+                    final Status status = apply(getMethod(operation), operation);
+                    results.add(status.getStatusCode() + " " + translator().toDomain(externalPath).getURI());
+                }
+                session.commit();
+            } finally {
+                lock.release();
+            }
+
+            LOGGER.info("Applied a batch of {} operations", results.size());
+            final StreamingOutput output = out -> {
+                final Writer writer = new OutputStreamWriter(out, UTF_8);
+                for (final String result : results) {
+                    writer.write(result + "\n");
+                }
+                writer.flush();
+            };
+            return ok(output, TEXT_PLAIN_TYPE).build();
+        } finally {
+            multiPart.cleanup();
+        }
+    }
+
+    private Status apply(final String method, final BodyPart operation)
+            throws InvalidChecksumException, MalformedRdfException, UnsupportedAlgorithmException, IOException {
+        hasRestrictedPath(externalPath);
+        if (externalPath.contains(FCR_VERSIONS)) {
+            throw new ClientErrorException("Versions cannot be changed in a batch", METHOD_NOT_ALLOWED);
+        }
+        switch (method) {
+            case "PUT":
+                return put(operation);
+            case "PATCH":
+                patch(operation);
+                return NO_CONTENT;
+            case "DELETE":
+                LOGGER.debug("Batch DELETE for '{}'", externalPath);
+                resource().delete();
+                return NO_CONTENT;
+            default:
+                throw new IllegalStateException("Unexpected batch operation: " + method);
+        }
+    }
+
+    private Status put(final BodyPart operation)
+            throws InvalidChecksumException, MalformedRdfException, UnsupportedAlgorithmException {
+        final String interactionModel = checkInteractionModel(operation.getHeaders().get(LINK));
+        // a part without a Content-Type is text/plain by default, so only one with a Content-Type has content
+        final boolean hasContent = operation.getHeaders().containsKey(CONTENT_TYPE);
+        final MediaType contentType = getSimpleContentType(operation.getMediaType());
+        final String path = toPath(translator(), externalPath);
+
+        // nothing is saved until the whole batch is applied, so a resource created earlier in the batch is still
+        // new: whether it existed before this operation decides how it is replaced
+        final boolean created = !nodeService.exists(session.getFedoraSession(), path);
+        if (!created) {
+            resource = resource();
+            final String resInteractionModel = getInteractionModel(resource);
+            if (interactionModel != null && resInteractionModel != null
+                    && !resInteractionModel.equals(interactionModel)) {
+                throw new InteractionModelViolationException("Changing the interaction model " + resInteractionModel
+                        + " to " + interactionModel + " is not allowed!");
+            }
+        } else {
+            resource = createFedoraResource(path, interactionModel, hasContent ? contentType : null, hasContent);
+        }
+
+        LOGGER.debug("Batch PUT for '{}'", externalPath);
+        try (final RdfStream resourceTriples =
+                created ? new DefaultRdfStream(asNode(resource)) : getResourceTriples()) {
+            if (resource instanceof FedoraBinary) {
+                replaceResourceBinaryWithStream((FedoraBinary) resource, getBody(operation),
+                        operation.getContentDisposition(), operation.getMediaType(),
+                        parseDigestHeader(operation.getHeaders().getFirst("Digest")));
+            } else if (hasContent && isRdfContentType(contentType.toString())) {
+                replaceResourceWithStream(resource, getBody(operation), contentType, resourceTriples);
+            } else if (hasContent || !created) {
+                throw new NotSupportedException("Invalid Content Type " + operation.getMediaType());
+            }
+        } catch (final Exception e) {
+            checkForInsufficientStorageException(e, e);
+        }
+
+        ensureInteractionType(resource, interactionModel, !hasContent);
+        return created ? CREATED : NO_CONTENT;
+    }
+
+    private void patch(final BodyPart operation) throws IOException {
+        if (!contentTypeSPARQLUpdate.equals(getSimpleContentType(operation.getMediaType()).toString())) {
+            throw new NotSupportedException("A batch PATCH must be a SPARQL-UPDATE");
+        }
+        if (resource() instanceof FedoraBinary) {
+            throw new BadRequestException(resource().getPath() + " is not a valid object to receive a PATCH");
+        }
+        final String requestBody = IOUtils.toString(getBody(operation), UTF_8);
+        if (isBlank(requestBody)) {
+            throw new BadRequestException("SPARQL-UPDATE requests must have content!");
+        }
+
+        LOGGER.debug("Batch PATCH for '{}'", externalPath);
+        try (final RdfStream resourceTriples = getResourceTriples()) {
+            patchResourcewithSparql(resource(), requestBody, resourceTriples);
+        } catch (final IllegalArgumentException iae) {
+            throw new BadRequestException(iae.getMessage());
+        }
+    }
+
+    private static String getMethod(final BodyPart operation) {
+        final String method = operation.getHeaders().getFirst(METHOD_HEADER);
+        if (isBlank(method)) {
+            throw new BadRequestException("Each operation in a batch must have a " + METHOD_HEADER + " header");
+        }
+        final String normalized = method.trim().toUpperCase();
+        if (!METHODS.contains(normalized)) {
+            throw new BadRequestException("Unsupported batch operation: " + method);
+        }
+        return normalized;
+    }
+
+    private static String getExternalPath(final BodyPart operation) {
+        final String location = operation.getHeaders().getFirst(CONTENT_LOCATION);
+        if (isBlank(location)) {
+            throw new BadRequestException("Each operation in a batch must have a " + CONTENT_LOCATION + " header");
+        }
+        return location.trim().replaceFirst("^/+", "");
+    }
+
+    private static InputStream getBody(final BodyPart operation) {
+        return operation.getEntityAs(BodyPartEntity.class).getInputStream();
+    }
+}
@@ -30,6 +30,9 @@ public class FedoraHttpConfiguration {
     @Value("${fcrepo.http.ldp.putRequiresIfMatch:false}")
     private boolean putRequiresIfMatch;
 
+    @Value("${fcrepo.http.ldp.optimisticIfMatch:false}")
+    private boolean optimisticIfMatch;
+
     /**
      * Should PUT requests require an If-Match header?
      * @return put request if match
@@ -37,4 +40,13 @@ public class FedoraHttpConfiguration {
     public boolean putRequiresIfMatch() {
         return putRequiresIfMatch;
     }
+
+    /**
+     * Should requests conditional on a strong ETag in an If-Match header be applied optimistically, without a path
+     * lock until their changes are saved?
+     * @return whether optimistic writes are enabled
+     */
+    public boolean optimisticIfMatch() {
+        return optimisticIfMatch;
+    }
 }
@@ -21,6 +21,7 @@ package org.fcrepo.http.api;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.base.Strings.nullToEmpty;
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_DISPOSITION;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.HttpHeaders.LINK;
@@ -29,20 +30,21 @@ import static javax.ws.rs.core.Response.noContent;
 import static javax.ws.rs.core.Response.notAcceptable;
 import static javax.ws.rs.core.Response.ok;
 import static javax.ws.rs.core.Response.status;
+import static javax.ws.rs.core.Response.Status.ACCEPTED;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.Status.FORBIDDEN;
+import static javax.ws.rs.core.Response.Status.FOUND;
 import static javax.ws.rs.core.Response.Status.METHOD_NOT_ALLOWED;
+import static javax.ws.rs.core.Response.Status.NOT_ACCEPTABLE;
 import static javax.ws.rs.core.Response.Status.UNSUPPORTED_MEDIA_TYPE;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.apache.http.HttpStatus.SC_BAD_REQUEST;
-import static org.apache.jena.atlas.web.ContentType.create;
+import static org.apache.http.HttpStatus.SC_PRECONDITION_FAILED;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.riot.WebContent.contentTypeSPARQLUpdate;
-import static org.apache.jena.riot.WebContent.ctSPARQLUpdate;
-import static org.apache.jena.riot.WebContent.ctTextCSV;
-import static org.apache.jena.riot.WebContent.ctTextPlain;
-import static org.apache.jena.riot.WebContent.matchContentType;
+import static org.fcrepo.http.api.FedoraVersioning.ACCEPT_DATETIME_HEADER;
+import static org.fcrepo.http.commons.domain.RDFMediaType.APPLICATION_LINK_FORMAT;
 import static org.fcrepo.http.commons.domain.RDFMediaType.JSON_LD;
 import static org.fcrepo.http.commons.domain.RDFMediaType.N3;
 import static org.fcrepo.http.commons.domain.RDFMediaType.N3_ALT2;
@@ -55,12 +57,8 @@ import static org.fcrepo.http.commons.domain.RDFMediaType.TEXT_PLAIN_WITH_CHARSE
 import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_WITH_CHARSET;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_X;
+import static org.fcrepo.kernel.api.FedoraTypes.FCR_VERSIONS;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_PAIRTREE;
-import static org.fcrepo.kernel.api.RdfLexicon.BASIC_CONTAINER;
-import static org.fcrepo.kernel.api.RdfLexicon.DIRECT_CONTAINER;
-import static org.fcrepo.kernel.api.RdfLexicon.INDIRECT_CONTAINER;
-import static org.fcrepo.kernel.api.RdfLexicon.INTERACTION_MODELS;
-import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONED_RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.WEBAC_NAMESPACE_VALUE;
 import static org.fcrepo.kernel.api.RdfLexicon.FEDORA_WEBAC_ACL_VALUE;
@@ -71,11 +69,12 @@ import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -95,6 +94,7 @@ import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.core.EntityTag;
 import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
@@ -105,15 +105,16 @@ import javax.ws.rs.core.Variant.VariantListBuilder;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.jena.atlas.web.ContentType;
 import org.apache.jena.rdf.model.Resource;
 import org.fcrepo.http.api.PathLockManager.AcquiredLock;
+import org.fcrepo.http.commons.api.rdf.HttpResourceConverter;
 import org.fcrepo.http.commons.domain.ContentLocation;
 import org.fcrepo.http.commons.domain.PATCH;
+import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.FedoraTypes;
 import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.api.exception.AccessDeniedException;
-import org.fcrepo.kernel.api.exception.CannotCreateResourceException;
 import org.fcrepo.kernel.api.exception.ConstraintViolationException;
 import org.fcrepo.kernel.api.exception.InsufficientStorageException;
 import org.fcrepo.kernel.api.exception.InvalidACLException;
@@ -121,14 +122,18 @@ import org.fcrepo.kernel.api.exception.InteractionModelViolationException;
 import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
 import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
+import org.fcrepo.kernel.api.exception.PreconditionException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.exception.UnsupportedAccessTypeException;
 import org.fcrepo.kernel.api.exception.UnsupportedAlgorithmException;
 import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.FedoraTimeMap;
 import org.fcrepo.kernel.api.models.NonRdfSourceDescription;
+import org.fcrepo.kernel.api.models.Tombstone;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
+import org.fcrepo.kernel.api.services.DeletionService;
 import org.fcrepo.kernel.api.utils.ContentDigest;
 import org.fcrepo.kernel.api.utils.MessageExternalBodyContentType;
 import org.glassfish.jersey.media.multipart.ContentDisposition;
@@ -160,10 +165,17 @@ public class FedoraLdp extends ContentExposingResource {
 
     static final String ACCEPT_EXTERNAL_CONTENT = "Accept-External-Content-Handling";
 
+    /**
+     * Stands in for the path lock of a request applied optimistically
+     */
+    private static final AcquiredLock NO_LOCK = () -> { };
+
     @PathParam("path") protected String externalPath;
 
     @Inject private FedoraHttpConfiguration httpConfiguration;
 
+    @Inject private DeletionService deletionService;
+
     /**
      * Default JAX-RS entry point
      */
@@ -203,6 +215,11 @@ public class FedoraLdp extends ContentExposingResource {
     public Response head() throws UnsupportedAlgorithmException, UnsupportedAccessTypeException {
         LOGGER.info("HEAD for: {}", externalPath);
 
+        final String acceptDatetime = headers.getHeaderString(ACCEPT_DATETIME_HEADER);
+        if (acceptDatetime != null && resource().isVersioned() && !resource().isMemento()) {
+            return getMementoRedirect(acceptDatetime);
+        }
+
         checkCacheControlHeaders(request, servletResponse, resource(), session);
 
         addResourceHttpHeaders(resource());
@@ -236,6 +253,34 @@ public class FedoraLdp extends ContentExposingResource {
         return builder.build();
     }
 
+    /**
+     * Redirect to the Memento of the resource nearest to the requested datetime, acting as its TimeGate.
+     *
+     * @param acceptDatetime the Accept-Datetime header
+     * @return the redirect
+     */
+    private Response getMementoRedirect(final String acceptDatetime) {
+        final Instant datetime;
+        try {
+            datetime = Instant.from(RFC_1123_DATE_TIME.parse(acceptDatetime));
+        } catch (final DateTimeParseException e) {
+            throw new BadRequestException("Invalid " + ACCEPT_DATETIME_HEADER + " value. "
+                    + "Please use RFC-1123 date-time format, such as 'Tue, 3 Jun 2008 11:05:30 GMT'");
+        }
+        final FedoraResource memento = ((FedoraTimeMap) resource().getTimeMap()).findMementoByDatetime(datetime);
+        if (memento == null) {
+            throw new ClientErrorException("There are no Mementos of " + externalPath, NOT_ACCEPTABLE);
+        }
+        LOGGER.info("Negotiated Memento {} of '{}' for {}", memento.getPath(), externalPath, acceptDatetime);
+
+        final URI original = getUri(resource());
+        servletResponse.addHeader("Vary", ACCEPT_DATETIME_HEADER);
+        servletResponse.addHeader(LINK, Link.fromUri(original).rel("original").build().toString());
+        servletResponse.addHeader(LINK, Link.fromUri(original + "/" + FCR_VERSIONS).rel("timemap")
+                .type(APPLICATION_LINK_FORMAT).build().toString());
+        return status(FOUND).location(getUri(memento.getDescribedResource())).build();
+    }
+
     /**
      * Outputs information about the supported HTTP methods, etc.
      * @return the outputs information about the supported HTTP methods, etc.
@@ -264,6 +309,11 @@ public class FedoraLdp extends ContentExposingResource {
             TURTLE_X, TEXT_HTML_WITH_CHARSET})
     public Response getResource(@HeaderParam("Range") final String rangeValue)
             throws IOException, UnsupportedAlgorithmException, UnsupportedAccessTypeException {
+        final String acceptDatetime = headers.getHeaderString(ACCEPT_DATETIME_HEADER);
+        if (acceptDatetime != null && resource().isVersioned() && !resource().isMemento()) {
+            return getMementoRedirect(acceptDatetime);
+        }
+
         checkCacheControlHeaders(request, servletResponse, resource(), session);
 
         LOGGER.info("GET resource '{}'", externalPath);
@@ -320,11 +370,22 @@ public class FedoraLdp extends ContentExposingResource {
 
         LOGGER.info("Delete resource '{}'", externalPath);
 
-        final AcquiredLock lock = lockManager.lockForDelete(resource().getPath());
+        final String optimisticEtag = getOptimisticEtag(headers.getHeaderString("If-Match"));
+        final AcquiredLock lock = optimisticEtag == null ? lockManager.lockForDelete(resource().getPath()) : NO_LOCK;
 
         try {
+            final Resource uri = translator().reverse().convert(resource());
+            final String path = resource().getPath();
+            // with Prefer: respond-async, a container is tombstoned now and its descendants removed in the background
+            if (prefer != null && prefer.hasRespondAsync() && resource() instanceof Container
+                    && !path.equals("/")) {
+                deletionService.deleteInBackground(session.getFedoraSession(), path);
+                commit(uri, path, optimisticEtag, true);
+                servletResponse.addHeader("Preference-Applied", "respond-async");
+                return status(ACCEPTED).location(URI.create(uri.getURI() + "/fcr:tombstone")).build();
+            }
             resource().delete();
-            session.commit();
+            commit(uri, path, optimisticEtag, true);
             return noContent().build();
         } finally {
             lock.release();
@@ -381,7 +442,9 @@ public class FedoraLdp extends ContentExposingResource {
 
         final String path = toPath(translator(), externalPath);
 
-        final AcquiredLock lock = lockManager.lockForWrite(path, session.getFedoraSession(), nodeService);
+        final String optimisticEtag = getOptimisticEtag(ifMatch);
+        final AcquiredLock lock = optimisticEtag == null ?
+                lockManager.lockForWrite(path, session.getFedoraSession(), nodeService) : NO_LOCK;
 
         try {
 
@@ -446,7 +509,7 @@ public class FedoraLdp extends ContentExposingResource {
 
             addResourceAcl(resourceAcl);
 
-            session.commit();
+            commit(translator().reverse().convert(resource), path, optimisticEtag, false);
             return createUpdateResponse(resource, created);
 
         } finally {
@@ -459,16 +522,65 @@ public class FedoraLdp extends ContentExposingResource {
     }
 
     /**
-     * Make sure the resource has the specified interaction model
+     * Get the ETag of a request that is to be applied optimistically: one made conditional on a single strong ETag
+     * while optimistic writes are enabled. Such a request does not hold a path lock while it is processed, but only
+     * while the ETag is compared with the stored one and its changes are saved.
+     *
+     * @param ifMatch the If-Match header of the request
+     * @return the ETag, or null if the request is to be applied under a path lock as usual
+     */
+    private String getOptimisticEtag(final String ifMatch) {
+        if (!httpConfiguration.optimisticIfMatch() || session.isBatchSession() || isBlank(ifMatch)
+                || ifMatch.contains(",")) {
+            return null;
+        }
+        try {
+            final EntityTag etag = EntityTag.valueOf(ifMatch.trim());
+            return etag.isWeak() || "*".equals(etag.getValue()) ? null : etag.getValue();
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Save the changes of a request. A request applied optimistically locks its path only now, and its changes are
+     * saved only if the stored ETag of its resource is still the one the request was conditional on, so that a
+     * concurrent change to the resource is never overwritten.
+     *
+     * @param uri the resource
+     * @param path the path of the resource
+     * @param expectedEtag the ETag the request was conditional on, or null if its path is already locked
+     * @param delete whether the request deletes the resource
      */
-    private static void ensureInteractionType(final FedoraResource resource, final String interactionModel,
-            final boolean defaultContent) {
-        if (interactionModel != null) {
-            if (!interactionModel.equals("ldp:NonRDFSource") && !resource.hasType(interactionModel)) {
-                resource.addType(interactionModel);
+    private void commit(final Resource uri, final String path, final String expectedEtag, final boolean delete) {
+        if (expectedEtag == null) {
+            session.commit();
+            return;
+        }
+        final AcquiredLock lock = delete ? lockManager.lockForDelete(path)
+                : lockManager.lockForWrite(path, session.getFedoraSession(), nodeService);
+        try {
+            final FedoraSession internalSession = sessions.getInternalSession();
+            try {
+                final String storedEtag;
+                if (nodeService.exists(internalSession, path)) {
+                    final FedoraResource stored = new HttpResourceConverter(new HttpSession(internalSession),
+                            uriInfo.getBaseUriBuilder().clone().path(FedoraLdp.class)).convert(uri);
+                    storedEtag = stored instanceof Tombstone ? null : getStrongEtagValue(stored);
+                } else {
+                    storedEtag = null;
+                }
+                if (!expectedEtag.equals(storedEtag)) {
+                    LOGGER.debug("Resource {} was changed by a concurrent request", path);
+                    throw new PreconditionException("The resource was changed by a concurrent request",
+                            SC_PRECONDITION_FAILED);
+                }
+            } finally {
+                sessions.releaseInternalSession(internalSession);
             }
-        } else if (defaultContent) {
-            resource.addType("ldp:BasicContainer");
+            session.commit();
+        } finally {
+            lock.release();
         }
     }
 
@@ -500,8 +612,9 @@ public class FedoraLdp extends ContentExposingResource {
             throw new BadRequestException(resource().getPath() + " is not a valid object to receive a PATCH");
         }
 
-        final AcquiredLock lock = lockManager.lockForWrite(resource().getPath(), session.getFedoraSession(),
-                nodeService);
+        final String optimisticEtag = getOptimisticEtag(headers.getHeaderString("If-Match"));
+        final AcquiredLock lock = optimisticEtag == null ?
+                lockManager.lockForWrite(resource().getPath(), session.getFedoraSession(), nodeService) : NO_LOCK;
 
         try {
             final String requestBody = IOUtils.toString(requestBodyStream, UTF_8);
@@ -511,12 +624,15 @@ public class FedoraLdp extends ContentExposingResource {
 
             evaluateRequestPreconditions(request, servletResponse, resource(), session);
 
+            // reading the triples of a description moves resource() on to its binary
+            final Resource uri = translator().reverse().convert(resource());
+            final String path = resource().getPath();
             try (final RdfStream resourceTriples =
                     resource().isNew() ? new DefaultRdfStream(asNode(resource())) : getResourceTriples()) {
                 LOGGER.info("PATCH for '{}'", externalPath);
                 patchResourcewithSparql(resource(), requestBody, resourceTriples);
             }
-            session.commit();
+            commit(uri, path, optimisticEtag, false);
 
             addCacheControlHeaders(servletResponse, resource().getDescription(), session);
 
@@ -854,53 +970,6 @@ public class FedoraLdp extends ContentExposingResource {
         servletResponse.addHeader("Allow", options);
     }
 
-    private static boolean isRDF(final MediaType requestContentType) {
-        if (requestContentType == null) {
-            return false;
-        }
-
-        final ContentType ctRequest = create(requestContentType.toString());
-
-        // Text files and CSV files are not considered RDF to Fedora, though CSV is a valid
-        // RDF type to Jena (although deprecated).
-        if (matchContentType(ctRequest, ctTextPlain) || matchContentType(ctRequest, ctTextCSV)) {
-            return false;
-        }
-
-        // SPARQL updates are done on containers.
-        return isRdfContentType(requestContentType.toString()) || matchContentType(ctRequest, ctSPARQLUpdate);
-    }
-
-    private FedoraResource createFedoraResource(final String path, final String interactionModel,
-            final MediaType contentType, final boolean contentPresent) {
-        final FedoraResource result;
-        if ("ldp:NonRDFSource".equals(interactionModel) ||
-                (contentPresent && interactionModel == null && !isRDF(contentType))) {
-            result = binaryService.findOrCreate(session.getFedoraSession(), path);
-        } else {
-            result = containerService.findOrCreate(session.getFedoraSession(), path);
-        }
-
-        final String resInteractionModel = getInteractionModel(result);
-        if (StringUtils.isNoneBlank(interactionModel) && StringUtils.isNoneBlank(resInteractionModel)
-                && !resInteractionModel.equals(interactionModel)) {
-            throw new InteractionModelViolationException("Changing the interaction model " + resInteractionModel
-                        + " to " + interactionModel + " is not allowed!");
-        }
-
-        return result;
-    }
-
-    /*
-     * Get the interaction model from the Fedora Resource
-     * @param resource Fedora Resource
-     * @return String the Interaction Model
-     */
-    private String getInteractionModel(final FedoraResource resource) {
-        final Optional<String> result = INTERACTION_MODELS.stream().filter(x -> resource.hasType(x)).findFirst();
-        return result.isPresent() ? result.get() : null;
-    }
-
     private String mintNewPid(final String slug) {
         String pid;
 
@@ -951,41 +1020,6 @@ public class FedoraLdp extends ContentExposingResource {
         return digestValue;
     }
 
-    private static String checkInteractionModel(final List<String> links) {
-        if (links == null) {
-            return null;
-        }
-
-        try {
-            for (final String link : links) {
-                final Link linq = Link.valueOf(link);
-                if ("type".equals(linq.getRel())) {
-                    final Resource type = createResource(linq.getUri().toString());
-                    if (type.equals(NON_RDF_SOURCE) || type.equals(BASIC_CONTAINER) ||
-                            type.equals(DIRECT_CONTAINER) || type.equals(INDIRECT_CONTAINER)) {
-                        return "ldp:" + type.getLocalName();
-                    } else if (type.equals(VERSIONED_RESOURCE)) {
-                        // skip if versioned resource link header
-                        // NB: the versioned resource header is used for enabling
-                        // versioning on a resource and is thus orthogonal to
-                        // issue of interaction models. Nevertheless, it is
-                        // a possible link header and, therefore, must be ignored.
-                    } else {
-                        LOGGER.info("Invalid interaction model: {}", type);
-                        throw new CannotCreateResourceException("Invalid interaction model: " + type);
-                    }
-                }
-            }
-        } catch (final RuntimeException e) {
-            if (e instanceof IllegalArgumentException | e instanceof UriBuilderException) {
-                throw new ClientErrorException("Invalid link specified: " + String.join(", ", links), BAD_REQUEST);
-            }
-            throw e;
-        }
-
-        return null;
-    }
-
     /**
      * Parse the RFC-3230 Digest response header value.  Look for a
      * sha1 checksum and return it as a urn, if missing or malformed
@@ -17,17 +17,49 @@
  */
 package org.fcrepo.http.api;
 
+import com.codahale.metrics.annotation.Timed;
 import com.google.common.annotations.VisibleForTesting;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.rdf.model.Resource;
+import org.fcrepo.http.commons.responses.RdfNamespacedStream;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.Tombstone;
+import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
+import org.fcrepo.kernel.api.services.DeletionService;
+import org.fcrepo.kernel.api.services.DeletionService.Progress;
 import org.slf4j.Logger;
 import org.springframework.context.annotation.Scope;
 
+import javax.inject.Inject;
+import javax.ws.rs.ClientErrorException;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response;
 
+import java.util.Calendar;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.Date.from;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.noContent;
+import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
+import static org.fcrepo.http.commons.domain.RDFMediaType.JSON_LD;
+import static org.fcrepo.http.commons.domain.RDFMediaType.N3_ALT2_WITH_CHARSET;
+import static org.fcrepo.http.commons.domain.RDFMediaType.N3_WITH_CHARSET;
+import static org.fcrepo.http.commons.domain.RDFMediaType.NTRIPLES;
+import static org.fcrepo.http.commons.domain.RDFMediaType.RDF_XML;
+import static org.fcrepo.http.commons.domain.RDFMediaType.TEXT_PLAIN_WITH_CHARSET;
+import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_WITH_CHARSET;
+import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_X;
+import static org.fcrepo.kernel.api.RdfLexicon.DELETED_RESOURCES;
+import static org.fcrepo.kernel.api.RdfLexicon.DELETION_IN_PROGRESS;
+import static org.fcrepo.kernel.api.RdfLexicon.DELETION_STARTED;
 import static org.slf4j.LoggerFactory.getLogger;
 
 /**
@@ -43,6 +75,9 @@ public class FedoraTombstones extends FedoraBaseResource {
 
     @PathParam("path") protected String externalPath;
 
+    @Inject
+    protected DeletionService deletionService;
+
     /**
      * Default JAX-RS entry point
      */
@@ -60,12 +95,52 @@ public class FedoraTombstones extends FedoraBaseResource {
     }
 
 
+    /**
+     * Get the status of a tombstone: whether the resource is still being deleted in the background and, if so, when
+     * the deletion started and how many of its descendants have been removed so far
+     *
+     * GET /path/to/some/resource/fcr:tombstone
+     *
+     * @return the status of the tombstone
+     */
+    @GET
+    @Timed
+    @Produces({TURTLE_WITH_CHARSET + ";qs=1.0", JSON_LD + ";qs=0.8", N3_WITH_CHARSET, N3_ALT2_WITH_CHARSET,
+            RDF_XML, NTRIPLES, TEXT_PLAIN_WITH_CHARSET, TURTLE_X, "*/*"})
+    public RdfNamespacedStream getTombstone() {
+        final FedoraResource resource = resource();
+        if (!(resource instanceof Tombstone)) {
+            throw new NotFoundException(resource + " is not a tombstone");
+        }
+
+        // the resource may be replaced by its final tombstone at any moment, so it is only identified by its path
+        LOGGER.info("Get tombstone: {}", externalPath);
+        final Resource uri = translator().toDomain(externalPath);
+        final Node subject = uri.asNode();
+        final Optional<Progress> progress = deletionService.getProgress(session.getFedoraSession(),
+                translator().asString(uri));
+        final Stream<Triple> status = progress.map(p -> {
+            final Calendar started = Calendar.getInstance();
+            started.setTime(from(p.getStarted()));
+            return Stream.of(
+                    new Triple(subject, DELETION_IN_PROGRESS.asNode(), createTypedLiteral(true).asNode()),
+                    new Triple(subject, DELETION_STARTED.asNode(), createTypedLiteral(started).asNode()),
+                    new Triple(subject, DELETED_RESOURCES.asNode(), createTypedLiteral(p.getDeleted()).asNode()));
+        }).orElseGet(() ->
+                Stream.of(new Triple(subject, DELETION_IN_PROGRESS.asNode(), createTypedLiteral(false).asNode())));
+        return new RdfNamespacedStream(new DefaultRdfStream(subject, status),
+                session.getFedoraSession().getNamespaces());
+    }
+
     /**
      * Delete a tombstone resource (freeing the original resource to be reused)
      * @return the free resource
      */
     @DELETE
     public Response delete() {
+        if (deletionService.getProgress(session.getFedoraSession(), resource().getPath()).isPresent()) {
+            throw new ClientErrorException(resource() + " is still being deleted", CONFLICT);
+        }
         LOGGER.info("Delete tombstone: {}", resource());
         resource().delete();
         session.commit();
@@ -19,20 +19,28 @@ package org.fcrepo.http.api;
 
 import static java.util.Date.from;
 import static javax.ws.rs.core.Response.created;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.noContent;
+import static javax.ws.rs.core.Response.ok;
 import static javax.ws.rs.core.Response.status;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import javax.inject.Inject;
+import javax.ws.rs.GET;
 import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
 import javax.ws.rs.core.Response;
 
+import org.fcrepo.kernel.api.ChangeSetSize;
+import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.services.BatchService;
 import org.slf4j.Logger;
 import org.springframework.context.annotation.Scope;
@@ -88,6 +96,30 @@ public class FedoraTransactions extends FedoraBaseResource {
         return res.build();
     }
 
+    /**
+     * Describe a transaction, with the size of the changes it holds
+     *
+     * @param externalPath the external path
+     * @return 200 with the transaction id, expiration date and the size of its changes
+     */
+    @GET
+    @Produces(APPLICATION_JSON)
+    public Response getTransaction(@PathParam("path") final String externalPath) {
+        if (!session.isBatchSession() || !toPath(translator(), externalPath).equals("/")) {
+            return status(BAD_REQUEST).build();
+        }
+
+        final FedoraSession fedoraSession = session.getFedoraSession();
+        final ChangeSetSize changeSet = fedoraSession.getChangeSetSize();
+        final Map<String, Object> transaction = new LinkedHashMap<>();
+        transaction.put("id", session.getId());
+        fedoraSession.getExpires().ifPresent(expires -> transaction.put("expires", expires.toString()));
+        transaction.put("nodes", changeSet.getNodes());
+        transaction.put("properties", changeSet.getProperties());
+        transaction.put("binaryBytes", changeSet.getBinaryBytes());
+        return ok(transaction).build();
+    }
+
     /**
      * Commit a transaction resource
      *
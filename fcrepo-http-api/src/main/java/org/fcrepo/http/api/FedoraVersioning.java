@@ -24,6 +24,10 @@ import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.noContent;
 import static javax.ws.rs.core.Response.ok;
 import static javax.ws.rs.core.Response.Status.UNSUPPORTED_MEDIA_TYPE;
+import static java.time.ZoneOffset.UTC;
+import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Stream.concat;
 import static org.apache.commons.lang3.StringUtils.isBlank;
 import static org.fcrepo.http.commons.domain.RDFMediaType.APPLICATION_LINK_FORMAT;
 import static org.fcrepo.http.commons.domain.RDFMediaType.JSON_LD;
@@ -38,6 +42,7 @@ import static org.fcrepo.http.commons.domain.RDFMediaType.TURTLE_X;
 import static org.fcrepo.kernel.api.FedoraTypes.FCR_VERSIONS;
 import static org.fcrepo.kernel.api.RdfLexicon.LDP_NAMESPACE;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONING_TIMEMAP_TYPE;
+import static org.fcrepo.kernel.api.services.VersionService.MEMENTO_DATETIME_ID_FORMATTER;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import com.google.common.annotations.VisibleForTesting;
@@ -61,6 +66,7 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.MediaType;
@@ -82,6 +88,7 @@ import org.fcrepo.kernel.api.exception.RepositoryVersionRuntimeException;
 import org.fcrepo.kernel.api.exception.UnsupportedAccessTypeException;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.FedoraTimeMap;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.glassfish.jersey.media.multipart.ContentDisposition;
 import org.slf4j.Logger;
@@ -100,6 +107,10 @@ public class FedoraVersioning extends ContentExposingResource {
     @VisibleForTesting
     public static final String MEMENTO_DATETIME_HEADER = "Memento-Datetime";
 
+    public static final String ACCEPT_DATETIME_HEADER = "Accept-Datetime";
+
+    public static final int TIMEMAP_PAGE_SIZE = 500;
+
     @Context protected Request request;
     @Context protected HttpServletResponse servletResponse;
     @Context protected UriInfo uriInfo;
@@ -230,9 +241,17 @@ public class FedoraVersioning extends ContentExposingResource {
     }
 
     /**
-     * Get the list of versions for the object
+     * Get the list of versions for the object. As application/link-format, the Mementos are listed in pages of
+     * {@value #TIMEMAP_PAGE_SIZE}, optionally limited to those between the from and until parameters, given as
+     * Memento identifiers (yyyyMMddHHmmss).
      *
+     * @param rangeValue the range value
+     * @param acceptValue the Accept header
+     * @param from the identifier of the earliest Memento to list
+     * @param until the identifier of the latest Memento to list
      * @return List of versions for the object as RDF
+     * @throws IOException if IO exception occurred
+     * @throws UnsupportedAccessTypeException if unsupported access-type occurred
      */
     @GET
     @HtmlTemplate(value = "fcr:versions")
@@ -240,7 +259,8 @@ public class FedoraVersioning extends ContentExposingResource {
         N3_WITH_CHARSET, N3_ALT2_WITH_CHARSET, RDF_XML, NTRIPLES, TEXT_PLAIN_WITH_CHARSET,
         TURTLE_X, TEXT_HTML_WITH_CHARSET, APPLICATION_LINK_FORMAT, "*/*" })
     public Response getVersionList(@HeaderParam("Range") final String rangeValue,
-        @HeaderParam("Accept") final String acceptValue) throws IOException, UnsupportedAccessTypeException {
+        @HeaderParam("Accept") final String acceptValue, @QueryParam("from") final String from,
+        @QueryParam("until") final String until) throws IOException, UnsupportedAccessTypeException {
         if (!resource().isVersioned()) {
             throw new RepositoryVersionRuntimeException("This operation requires that the node be versionable");
         }
@@ -260,19 +280,32 @@ public class FedoraVersioning extends ContentExposingResource {
 
         if (acceptValue != null && acceptValue.equalsIgnoreCase(APPLICATION_LINK_FORMAT)) {
             final URI parentUri = getUri(resource());
-            final List<Link> versionLinks = new ArrayList<Link>();
+            final String timeMapUri = parentUri + "/" + FCR_VERSIONS;
+            final List<Link> versionLinks = new ArrayList<>();
             versionLinks.add(Link.fromUri(parentUri).rel("original").build());
             versionLinks.add(Link.fromUri(parentUri).rel("timegate").build());
 
-            theTimeMap.getChildren().forEach(t -> {
-                // Add mementos later.
-                // https://jira.duraspace.org/browse/FCREPO-2617
-            });
-            // Based on the dates of the above mementos, add the range to the below link.
-            final Link timeMapLink =
-                Link.fromUri(parentUri + "/" + FCR_VERSIONS).rel("self").type(APPLICATION_LINK_FORMAT).build();
-            versionLinks.add(timeMapLink);
-            return ok(new LinkFormatStream(versionLinks.stream())).build();
+            // one more than a page, to tell whether there is a next page
+            final List<Instant> page = ((FedoraTimeMap) theTimeMap)
+                    .getMementoDatetimes(parseMementoId(from, false), parseMementoId(until, true))
+                    .limit(TIMEMAP_PAGE_SIZE + 1).collect(toList());
+            final List<Instant> mementos = page.subList(0, Math.min(page.size(), TIMEMAP_PAGE_SIZE));
+
+            final Link.Builder timeMapLink = Link.fromUri(timeMapUri + pageQuery(from, until)).rel("self")
+                    .type(APPLICATION_LINK_FORMAT);
+            if (!mementos.isEmpty()) {
+                timeMapLink.param("from", formatDatetime(mementos.get(0)))
+                        .param("until", formatDatetime(mementos.get(mementos.size() - 1)));
+            }
+            versionLinks.add(timeMapLink.build());
+            if (page.size() > TIMEMAP_PAGE_SIZE) {
+                versionLinks.add(Link.fromUri(timeMapUri + pageQuery(
+                        MEMENTO_DATETIME_ID_FORMATTER.format(page.get(TIMEMAP_PAGE_SIZE)), until))
+                        .rel("next").type(APPLICATION_LINK_FORMAT).build());
+            }
+            return ok(new LinkFormatStream(concat(versionLinks.stream(), mementos.stream().map(datetime ->
+                    Link.fromUri(timeMapUri + "/" + MEMENTO_DATETIME_ID_FORMATTER.format(datetime))
+                            .rel("memento").param("datetime", formatDatetime(datetime)).build())))).build();
         } else {
             final AcquiredLock readLock = lockManager.lockForRead(theTimeMap.getPath());
             try (final RdfStream rdfStream = new DefaultRdfStream(asNode(theTimeMap))) {
@@ -286,6 +319,34 @@ public class FedoraVersioning extends ContentExposingResource {
         }
     }
 
+    private static Instant parseMementoId(final String mementoId, final boolean endOfSecond) {
+        if (isBlank(mementoId)) {
+            return null;
+        }
+        try {
+            final Instant instant = Instant.from(MEMENTO_DATETIME_ID_FORMATTER.parse(mementoId));
+            // identifiers are to the second, so a range until one includes all of that second
+            return endOfSecond ? instant.plusSeconds(1).minusNanos(1) : instant;
+        } catch (final DateTimeParseException e) {
+            throw new BadRequestException("Invalid Memento identifier " + mementoId + ", expected yyyyMMddHHmmss");
+        }
+    }
+
+    private static String pageQuery(final String from, final String until) {
+        final List<String> params = new ArrayList<>();
+        if (!isBlank(from)) {
+            params.add("from=" + from);
+        }
+        if (!isBlank(until)) {
+            params.add("until=" + until);
+        }
+        return params.isEmpty() ? "" : "?" + String.join("&", params);
+    }
+
+    private static String formatDatetime(final Instant datetime) {
+        return RFC_1123_DATE_TIME.format(datetime.atZone(UTC));
+    }
+
     /**
      * Set the resource to an alternate from that retrieved automatically.
      *
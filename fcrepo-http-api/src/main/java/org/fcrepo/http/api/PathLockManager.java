@@ -17,6 +17,8 @@
  */
 package org.fcrepo.http.api;
 
+import java.util.Collection;
+
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.services.NodeService;
 
@@ -84,4 +86,21 @@ public interface PathLockManager {
      */
     public AcquiredLock lockForDelete(String path);
 
+    /**
+     * Locks the necessary resources affected in order to safely write to and delete
+     * resources at all of the given paths at once, as for a batch of operations applied
+     * in a single save.  A successful return from this method should guarantee the
+     * same as a successful return from lockForWrite for each of the write paths and
+     * lockForDelete for each of the delete paths, all of which are acquired together
+     * (or not at all) so that no other caller can interleave with the batch.
+     *
+     * @param writePaths the paths to resources to be created or modified
+     * @param deletePaths the paths to resources to be deleted
+     * @param session the current session
+     * @param nodeService the repository NodeService implementation
+     * @return an acquired Lock on the relevant resources
+     */
+    public AcquiredLock lockForBatch(Collection<String> writePaths, Collection<String> deletePaths,
+            FedoraSession session, NodeService nodeService);
+
 }
@@ -17,6 +17,8 @@
  */
 package org.fcrepo.http.api;
 
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
@@ -167,6 +169,34 @@ public class DefaultPathLockManagerTest {
                 new Actor(() -> m.lockForWrite("root/other", session, nodeService)).canComplete());
     }
 
+    @Test
+    public void batchShouldBlockAccessToAllItsPaths() {
+        final DefaultPathLockManager m = new DefaultPathLockManager();
+        final AcquiredLock l = m.lockForBatch(asList("batch/write1", "batch/write2"), asList("batch/delete"),
+                session, nodeService);
+        assertEquals("One delete lock should exist!", 1, m.activeDeletePaths.size());
+        final Actor writer = new Actor(() -> m.lockForWrite("batch/write2", session, nodeService));
+        final Actor reader = new Actor(() -> m.lockForRead("batch/delete/child"));
+        assertTrue("Writing to a path written by a batch should block!", writer.isBlocked());
+        assertTrue("Reading a path deleted by a batch should block!", reader.isBlocked());
+        assertTrue("Writing to a peer of the paths of a batch should not block.",
+                new Actor(() -> m.lockForWrite("batch/other", session, nodeService)).canComplete());
+        l.release();
+        assertEquals("Delete lock should have been cleaned up!", 0, m.activeDeletePaths.size());
+    }
+
+    @Test
+    public void batchShouldAcquireAllOrNothing() {
+        final DefaultPathLockManager m = new DefaultPathLockManager();
+        final AcquiredLock l = m.lockForWrite("batch/write2", session, nodeService);
+        final Actor batch = new Actor(() -> m.lockForBatch(asList("batch/write1", "batch/write2"), emptyList(),
+                session, nodeService));
+        assertTrue("Writing to a path not yet held by a waiting batch should not block.",
+                new Actor(() -> m.lockForWrite("batch/write1", session, nodeService)).canComplete());
+        l.release();
+        assertTrue("Batch should complete once all of its paths are free.", batch.canComplete());
+    }
+
     /**
      * An interface whose single method acquires an AcquiredLock.
      */
@@ -28,6 +28,7 @@ import static javax.ws.rs.core.HttpHeaders.LINK;
 import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
 import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM_TYPE;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
+import static javax.ws.rs.core.Response.Status.ACCEPTED;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
@@ -66,6 +67,7 @@ import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -82,8 +84,10 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.EnumSet;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.ServletContext;
@@ -128,7 +132,9 @@ import org.fcrepo.kernel.api.models.NonRdfSourceDescription;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.kernel.api.services.BinaryService;
 import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.DeletionService;
 import org.fcrepo.kernel.api.services.NodeService;
+import org.fcrepo.kernel.api.services.functions.UniqueValueSupplier;
 import org.glassfish.jersey.internal.PropertiesDelegate;
 import org.glassfish.jersey.server.ContainerRequest;
 import org.junit.Before;
@@ -191,6 +197,9 @@ public class FedoraLdpTest {
     @Mock
     private BinaryService mockBinaryService;
 
+    @Mock
+    private DeletionService mockDeletionService;
+
     @Mock
     private FedoraHttpConfiguration mockHttpConfiguration;
 
@@ -235,6 +244,7 @@ public class FedoraLdpTest {
         setField(testObj, "nodeService", mockNodeService);
         setField(testObj, "containerService", mockContainerService);
         setField(testObj, "binaryService", mockBinaryService);
+        setField(testObj, "deletionService", mockDeletionService);
         setField(testObj, "httpConfiguration", mockHttpConfiguration);
         setField(testObj, "session", mockSession);
         setField(testObj, "securityContext", mockSecurityContext);
@@ -824,6 +834,28 @@ public class FedoraLdpTest {
         verify(fedoraResource).delete();
     }
 
+    @Test
+    public void testDeleteInBackground() throws Exception {
+        final FedoraResource fedoraResource = setResource(Container.class);
+        when(prefer.hasRespondAsync()).thenReturn(true);
+        final Response actual = testObj.deleteObject();
+        assertEquals(ACCEPTED.getStatusCode(), actual.getStatus());
+        assertTrue(actual.getLocation().toString().endsWith(path + "/fcr:tombstone"));
+        assertEquals("respond-async", mockResponse.getHeader("Preference-Applied"));
+        verify(mockDeletionService).deleteInBackground(any(), eq(path));
+        verify(fedoraResource, never()).delete();
+    }
+
+    @Test
+    public void testDeleteBinaryIgnoresRespondAsync() throws Exception {
+        final FedoraResource fedoraResource = setResource(FedoraBinary.class);
+        when(prefer.hasRespondAsync()).thenReturn(true);
+        final Response actual = testObj.deleteObject();
+        assertEquals(NO_CONTENT.getStatusCode(), actual.getStatus());
+        verify(fedoraResource).delete();
+        verify(mockDeletionService, never()).deleteInBackground(any(), any());
+    }
+
     @Test
     public void testPutNewObject() throws Exception {
         setField(testObj, "externalPath", "some/path");
@@ -967,6 +999,30 @@ public class FedoraLdpTest {
         assertEquals(CREATED.getStatusCode(), actual.getStatus());
     }
 
+    @Test
+    public void testCreateNewObjectWithUniqueMinterChecksExistence() throws MalformedRdfException,
+           InvalidChecksumException, IOException, UnsupportedAlgorithmException, UnsupportedAccessTypeException {
+        setResource(Container.class);
+        setField(testObj, "pidMinter", (UniqueValueSupplier) () -> "b");
+        when(mockContainerService.findOrCreate(mockFedoraSession, "/b")).thenReturn(mockContainer);
+        final Response actual = testObj.createObject(null, null, null, null, null, null);
+        assertEquals(CREATED.getStatusCode(), actual.getStatus());
+        verify(mockNodeService).exists(mockFedoraSession, "/b");
+    }
+
+    @Test
+    public void testCreateNewObjectWithCollidingMinter() throws MalformedRdfException, InvalidChecksumException,
+           IOException, UnsupportedAlgorithmException, UnsupportedAccessTypeException {
+        setResource(Container.class);
+        final Iterator<String> pids = Arrays.asList("b", "c").iterator();
+        setField(testObj, "pidMinter", (Supplier<String>) pids::next);
+        when(mockNodeService.exists(mockFedoraSession, "/b")).thenReturn(true);
+        when(mockContainerService.findOrCreate(mockFedoraSession, "/c")).thenReturn(mockContainer);
+        final Response actual = testObj.createObject(null, null, null, null, null, null);
+        assertEquals(CREATED.getStatusCode(), actual.getStatus());
+        verify(mockContainerService).findOrCreate(mockFedoraSession, "/c");
+    }
+
     @Test
     public void testCreateNewObjectWithVersionedResource() throws MalformedRdfException, InvalidChecksumException,
            IOException, UnsupportedAlgorithmException, UnsupportedAccessTypeException {
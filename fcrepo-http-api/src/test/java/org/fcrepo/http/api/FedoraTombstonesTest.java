@@ -17,23 +17,47 @@
  */
 package org.fcrepo.http.api;
 
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
+import org.fcrepo.http.commons.responses.RdfNamespacedStream;
 import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
+import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.Tombstone;
+import org.fcrepo.kernel.api.services.DeletionService;
+import org.fcrepo.kernel.api.services.DeletionService.Progress;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import javax.ws.rs.ClientErrorException;
+import javax.ws.rs.NotFoundException;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 
+import java.time.Instant;
+import java.util.Optional;
+
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
+import static org.fcrepo.kernel.api.RdfCollectors.toModel;
+import static org.fcrepo.kernel.api.RdfLexicon.DELETED_RESOURCES;
+import static org.fcrepo.kernel.api.RdfLexicon.DELETION_IN_PROGRESS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 /**
@@ -55,12 +79,27 @@ public class FedoraTombstonesTest {
     @Mock
     private SecurityContext mockSecurityContext;
 
+    @Mock
+    private FedoraSession mockFedoraSession;
+
+    @Mock
+    private DeletionService mockDeletionService;
+
+    @Mock
+    private IdentifierConverter<Resource, FedoraResource> mockTranslator;
 
     @Before
     public void setUp() {
         testObj = spy(new FedoraTombstones(path));
         setField(testObj, "session", mockSession);
         setField(testObj, "securityContext", mockSecurityContext);
+        setField(testObj, "deletionService", mockDeletionService);
+        when(mockSession.getFedoraSession()).thenReturn(mockFedoraSession);
+        when(mockResource.getPath()).thenReturn(path);
+        when(mockDeletionService.getProgress(any(), any())).thenReturn(Optional.empty());
+        setField(testObj, "idTranslator", mockTranslator);
+        when(mockTranslator.toDomain(path)).thenReturn(createResource("info:fedora" + path));
+        when(mockTranslator.asString(createResource("info:fedora" + path))).thenReturn(path);
     }
 
     @Test
@@ -74,4 +113,48 @@ public class FedoraTombstonesTest {
         verify(mockResource).delete();
         verify(mockSession).commit();
     }
+
+    @Test(expected = ClientErrorException.class)
+    public void testDeleteInProgress() {
+        doReturn(mockResource).when(testObj).resource();
+        when(mockDeletionService.getProgress(mockFedoraSession, path))
+                .thenReturn(Optional.of(new Progress(Instant.now(), 5)));
+        try {
+            testObj.delete();
+        } finally {
+            verify(mockResource, never()).delete();
+        }
+    }
+
+    @Test
+    public void testGetInProgress() {
+        doReturn(mockResource).when(testObj).resource();
+        when(mockDeletionService.getProgress(mockFedoraSession, path))
+                .thenReturn(Optional.of(new Progress(Instant.now(), 5)));
+        try (final RdfNamespacedStream entity = testObj.getTombstone()) {
+            final Model model = entity.stream.collect(toModel());
+            assertTrue(model.contains(createResource("info:fedora" + path), DELETION_IN_PROGRESS,
+                    createTypedLiteral(true)));
+            assertTrue(model.contains(createResource("info:fedora" + path), DELETED_RESOURCES,
+                    createTypedLiteral(5L)));
+        }
+    }
+
+    @Test
+    public void testGetCompleted() {
+        doReturn(mockResource).when(testObj).resource();
+        when(mockDeletionService.getProgress(mockFedoraSession, path)).thenReturn(Optional.empty());
+        try (final RdfNamespacedStream entity = testObj.getTombstone()) {
+            final Model model = entity.stream.collect(toModel());
+            assertTrue(model.contains(createResource("info:fedora" + path), DELETION_IN_PROGRESS,
+                    createTypedLiteral(false)));
+            assertFalse(model.contains(createResource("info:fedora" + path), DELETED_RESOURCES));
+        }
+    }
+
+    @Test(expected = NotFoundException.class)
+    public void testGetNotATombstone() {
+        doReturn(mock(Container.class)).when(testObj).resource();
+        testObj.getTombstone();
+    }
 }
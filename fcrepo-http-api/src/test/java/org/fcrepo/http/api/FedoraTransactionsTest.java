@@ -28,11 +28,13 @@ import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.net.URISyntaxException;
 import java.security.Principal;
+import java.util.Map;
 
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.SecurityContext;
 
 import org.fcrepo.http.commons.session.HttpSession;
+import org.fcrepo.kernel.api.ChangeSetSize;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.services.BatchService;
 import org.junit.Before;
@@ -64,6 +66,9 @@ public class FedoraTransactionsTest {
     @Mock
     private BatchService mockTxService;
 
+    @Mock
+    private ChangeSetSize mockChangeSet;
+
     @Mock
     private Principal mockPrincipal;
 
@@ -100,6 +105,26 @@ public class FedoraTransactionsTest {
         verify(mockTxService).refresh(any(String.class), any(String.class));
     }
 
+    @Test
+    public void shouldDescribeATransaction() {
+        when(mockSession.getChangeSetSize()).thenReturn(mockChangeSet);
+        when(mockChangeSet.getNodes()).thenReturn(2L);
+        when(mockChangeSet.getBinaryBytes()).thenReturn(10L);
+        final Response response = testObj.getTransaction(null);
+        assertEquals(200, response.getStatus());
+        final Map<?, ?> transaction = (Map<?, ?>) response.getEntity();
+        assertEquals("123", transaction.get("id"));
+        assertEquals(2L, transaction.get("nodes"));
+        assertEquals(0L, transaction.get("properties"));
+        assertEquals(10L, transaction.get("binaryBytes"));
+    }
+
+    @Test
+    public void shouldErrorDescribingIfTheContextSessionIsNotATransaction() {
+        setField(testObj, "session", new HttpSession(regularSession));
+        assertEquals(400, testObj.getTransaction(null).getStatus());
+    }
+
     @Test
     public void shouldCommitATransaction() {
         when(mockTxService.exists(any(String.class), any(String.class))).thenReturn(true);
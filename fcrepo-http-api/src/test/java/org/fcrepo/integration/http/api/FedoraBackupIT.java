@@ -19,6 +19,8 @@ package org.fcrepo.integration.http.api;
 
 import static com.google.common.io.Files.createTempDir;
 import static java.util.UUID.randomUUID;
+import static javax.ws.rs.core.Response.Status.GONE;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.junit.Assert.assertEquals;
@@ -81,4 +83,30 @@ public class FedoraBackupIT extends AbstractResourceIT {
         // check that we made it
         assertEquals(OK.getStatusCode(), getStatus(new HttpGet(serverAddress + objName)));
     }
+
+    @Test
+    public void shouldRestoreTombstones() throws Exception {
+        final String objName = randomUUID().toString();
+        createObjectAndClose(objName);
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(new HttpDelete(serverAddress + objName)));
+        assertDeleted(objName);
+
+        // back it up
+        final File requestedDir = createTempDir();
+        final HttpPost backupRequest = new HttpPost(serverAddress + "fcr:backup");
+        backupRequest.setEntity(new StringEntity(requestedDir.getCanonicalPath()));
+        assertEquals(OK.getStatusCode(), getStatus(backupRequest));
+
+        // remove its tombstone
+        assertEquals(NO_CONTENT.getStatusCode(),
+                getStatus(new HttpDelete(serverAddress + objName + "/fcr:tombstone")));
+        assertEquals(NOT_FOUND.getStatusCode(), getStatus(new HttpGet(serverAddress + objName)));
+
+        // the restored tombstone is found again
+        final HttpPost restoreMethod = new HttpPost(serverAddress + "fcr:restore");
+        restoreMethod.setEntity(new StringEntity(requestedDir.getCanonicalPath()));
+        assertEquals("Couldn't import!", NO_CONTENT.getStatusCode(), getStatus(restoreMethod));
+        assertDeleted(objName);
+        assertEquals(GONE.getStatusCode(), getStatus(new HttpGet(serverAddress + objName + "/child")));
+    }
 }
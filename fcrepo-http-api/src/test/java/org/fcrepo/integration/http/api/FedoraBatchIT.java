@@ -0,0 +1,137 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.http.api;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.OK;
+import static org.apache.http.entity.ContentType.TEXT_PLAIN;
+import static org.apache.http.entity.ContentType.create;
+import static org.apache.jena.graph.Node.ANY;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.fcrepo.http.api.FedoraBatch.METHOD_HEADER;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.mime.FormBodyPartBuilder;
+import org.apache.http.entity.mime.MultipartEntityBuilder;
+import org.apache.http.entity.mime.content.StringBody;
+import org.apache.http.util.EntityUtils;
+import org.fcrepo.http.commons.test.util.CloseableDataset;
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class FedoraBatchIT extends AbstractResourceIT {
+
+    private static final ContentType TURTLE = create("text/turtle", UTF_8);
+
+    private static final ContentType SPARQL_UPDATE = create("application/sparql-update", UTF_8);
+
+    private static final String TITLE = "http://purl.org/dc/elements/1.1/title";
+
+    @Test
+    public void testBatch() throws IOException {
+        final String id = getRandomUniqueId();
+        final String oldId = getRandomUniqueId();
+        createObjectAndClose(oldId);
+
+        final MultipartEntityBuilder batch = MultipartEntityBuilder.create().setMimeSubtype("mixed");
+        addOperation(batch, "PUT", id, "<> <" + TITLE + "> \"first\" .", TURTLE);
+        addOperation(batch, "PUT", id + "/binary", "some content", TEXT_PLAIN);
+        addOperation(batch, "PATCH", id,
+                "DELETE { <> <" + TITLE + "> ?t } INSERT { <> <" + TITLE + "> \"second\" } WHERE { <> <" + TITLE
+                        + "> ?t }", SPARQL_UPDATE);
+        addOperation(batch, "DELETE", oldId, "", TEXT_PLAIN);
+
+        try (final CloseableHttpResponse response = execute(batchMethod(batch.build()))) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            assertEquals("201 " + serverAddress + id + "\n"
+                    + "201 " + serverAddress + id + "/binary\n"
+                    + "204 " + serverAddress + id + "\n"
+                    + "204 " + serverAddress + oldId + "\n", EntityUtils.toString(response.getEntity()));
+        }
+
+        try (final CloseableDataset dataset = getDataset(getObjMethod(id))) {
+            assertTrue(dataset.asDatasetGraph().contains(ANY, createURI(serverAddress + id), createURI(TITLE),
+                    createLiteral("second")));
+        }
+        try (final CloseableHttpResponse response = execute(getObjMethod(id + "/binary"))) {
+            assertEquals("some content", EntityUtils.toString(response.getEntity()));
+        }
+        assertDeleted(oldId);
+    }
+
+    @Test
+    public void testBatchIsAtomic() throws IOException {
+        final String id = getRandomUniqueId();
+
+        final MultipartEntityBuilder batch = MultipartEntityBuilder.create().setMimeSubtype("mixed");
+        addOperation(batch, "PUT", id, "<> <" + TITLE + "> \"first\" .", TURTLE);
+        addOperation(batch, "PUT", id + "/child", "<> <" + TITLE + "> \"child\" .", TURTLE);
+        addOperation(batch, "PATCH", id + "/child", "this is not SPARQL", SPARQL_UPDATE);
+
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(batchMethod(batch.build())));
+        assertEquals("No operation in a failed batch should be saved",
+                NOT_FOUND.getStatusCode(), getStatus(getObjMethod(id)));
+    }
+
+    @Test
+    public void testBatchWithoutMethod() throws IOException {
+        final String id = getRandomUniqueId();
+
+        final MultipartEntityBuilder batch = MultipartEntityBuilder.create().setMimeSubtype("mixed");
+        batch.addPart(FormBodyPartBuilder.create("operation", new StringBody("", TURTLE))
+                .addField("Content-Location", id).build());
+
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(batchMethod(batch.build())));
+    }
+
+    @Test
+    public void testBatchWithUnsupportedMethod() throws IOException {
+        final String id = getRandomUniqueId();
+
+        final MultipartEntityBuilder batch = MultipartEntityBuilder.create().setMimeSubtype("mixed");
+        addOperation(batch, "POST", id, "", TURTLE);
+
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(batchMethod(batch.build())));
+        assertEquals(NOT_FOUND.getStatusCode(), getStatus(getObjMethod(id)));
+    }
+
+    private static HttpPost batchMethod(final HttpEntity entity) {
+        final HttpPost post = new HttpPost(serverAddress + "fcr:batch");
+        post.setEntity(entity);
+        return post;
+    }
+
+    private static void addOperation(final MultipartEntityBuilder batch, final String method, final String path,
+            final String body, final ContentType contentType) {
+        batch.addPart(FormBodyPartBuilder.create("operation", new StringBody(body, contentType))
+                .addField(METHOD_HEADER, method)
+                .addField("Content-Location", "/" + path).build());
+    }
+}
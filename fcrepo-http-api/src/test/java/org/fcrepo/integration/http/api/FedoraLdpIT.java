@@ -17,6 +17,8 @@
  */
 package org.fcrepo.integration.http.api;
 
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
 import static java.lang.Thread.sleep;
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.time.ZoneId.of;
@@ -28,12 +30,15 @@ import static javax.ws.rs.core.HttpHeaders.CONTENT_LENGTH;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_LOCATION;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.HttpHeaders.LINK;
+import static javax.ws.rs.core.HttpHeaders.LOCATION;
 import static javax.ws.rs.core.Link.fromUri;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.Response.Status.ACCEPTED;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.FORBIDDEN;
+import static javax.ws.rs.core.Response.Status.GONE;
 import static javax.ws.rs.core.Response.Status.NOT_ACCEPTABLE;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
@@ -57,6 +62,7 @@ import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 import static org.apache.jena.rdf.model.ModelFactory.createModelForGraph;
 import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
 import static org.apache.jena.riot.RDFLanguages.contentTypeToLang;
 import static org.apache.jena.riot.WebContent.contentTypeN3;
 import static org.apache.jena.riot.WebContent.contentTypeN3Alt2;
@@ -66,6 +72,8 @@ import static org.apache.jena.riot.WebContent.contentTypeSPARQLUpdate;
 import static org.apache.jena.riot.WebContent.contentTypeTurtle;
 import static org.apache.jena.vocabulary.DC_11.title;
 import static org.apache.jena.vocabulary.RDF.type;
+import static org.fcrepo.http.api.ContentExposingResource.REFERENCES_LIMIT_PARAM;
+import static org.fcrepo.http.api.ContentExposingResource.REFERENCES_OFFSET_PARAM;
 import static org.fcrepo.http.commons.domain.RDFMediaType.POSSIBLE_RDF_RESPONSE_VARIANTS_STRING;
 import static org.fcrepo.http.commons.domain.RDFMediaType.POSSIBLE_RDF_VARIANTS;
 import static org.fcrepo.http.commons.domain.RDFMediaType.TEXT_PLAIN_WITH_CHARSET;
@@ -76,8 +84,10 @@ import static org.fcrepo.kernel.api.RdfLexicon.CONSTRAINED_BY;
 import static org.fcrepo.kernel.api.RdfLexicon.CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
 import static org.fcrepo.kernel.api.RdfLexicon.CREATED_DATE;
+import static org.fcrepo.kernel.api.RdfLexicon.DELETION_IN_PROGRESS;
 import static org.fcrepo.kernel.api.RdfLexicon.DIRECT_CONTAINER;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_CHILD;
+import static org.fcrepo.kernel.api.RdfLexicon.HAS_CHILD_COUNT;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_MEMBER_RELATION;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_MIME_TYPE;
 import static org.fcrepo.kernel.api.RdfLexicon.HAS_ORIGINAL_NAME;
@@ -115,11 +125,13 @@ import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
 
 import javax.ws.rs.core.Link;
 import javax.ws.rs.core.Response.Status;
@@ -893,6 +905,40 @@ public class FedoraLdpIT extends AbstractResourceIT {
         assertEquals(NOT_FOUND.getStatusCode(), getStatus(httpGet));
     }
 
+    @Test
+    public void testDeleteObjectInBackground() throws IOException, InterruptedException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        createObjectAndClose(id + "/a");
+        createObjectAndClose(id + "/a/b");
+        final HttpDelete httpDelete = deleteObjMethod(id);
+        httpDelete.addHeader("Prefer", "respond-async");
+        final String status;
+        try (final CloseableHttpResponse response = execute(httpDelete)) {
+            assertEquals(ACCEPTED.getStatusCode(), getStatus(response));
+            assertEquals("respond-async", response.getFirstHeader("Preference-Applied").getValue());
+            status = response.getFirstHeader(LOCATION).getValue();
+        }
+        assertEquals(serverAddress + id + "/fcr:tombstone", status);
+        assertDeleted(id);
+        assertEquals(GONE.getStatusCode(), getStatus(getObjMethod(id + "/a/b")));
+        assertEquals(GONE.getStatusCode(), getStatus(putObjMethod(id + "/a/c")));
+
+        final org.apache.jena.graph.Node completed = createTypedLiteral(false).asNode();
+        for (int i = 0; i < 50; i++) {
+            try (final CloseableDataset dataset = getDataset(new HttpGet(status))) {
+                if (dataset.asDatasetGraph().contains(ANY, createURI(serverAddress + id),
+                        DELETION_IN_PROGRESS.asNode(), completed)) {
+                    assertEquals(NO_CONTENT.getStatusCode(), getStatus(new HttpDelete(status)));
+                    assertEquals(NOT_FOUND.getStatusCode(), getStatus(getObjMethod(id)));
+                    return;
+                }
+            }
+            sleep(100);
+        }
+        fail("Background deletion of " + id + " did not complete");
+    }
+
     @Test
     public void testEmptyPatch() {
         final String id = getRandomUniqueId();
@@ -2280,6 +2326,7 @@ public class FedoraLdpIT extends AbstractResourceIT {
         for (int x = 0; x < CHILDREN_TOTAL; ++x) {
             createObjectAndClose(id + "/child-" + x);
         }
+        awaitChildCount(id, location, CHILDREN_TOTAL);
 
         final int CHILDREN_LIMIT = 12;
         final HttpGet httpGet = getObjMethod(id);
@@ -2290,10 +2337,79 @@ public class FedoraLdpIT extends AbstractResourceIT {
                 final Iterator<Quad> contains = graph.find(ANY, createURI(location), CONTAINS.asNode(), ANY);
                 assertTrue("Should find contained child!", contains.hasNext());
                 assertEquals(CHILDREN_LIMIT, Iterators.size(contains));
+                final Iterator<Quad> count = graph.find(ANY, createURI(location), HAS_CHILD_COUNT.asNode(), ANY);
+                assertTrue("Should find the number of children!", count.hasNext());
+                assertEquals(CHILDREN_TOTAL, ((Number) count.next().getObject().getLiteralValue()).intValue());
             }
         }
     }
 
+    /**
+     * Wait for the count of a container's children, which is kept in the background, to be brought up to date.
+     */
+    private void awaitChildCount(final String id, final String location, final int expected) {
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> {
+            final HttpGet httpGet = getObjMethod(id);
+            httpGet.setHeader("Limit", "1");
+            try (final CloseableDataset dataset = getDataset(httpGet)) {
+                final Iterator<Quad> count = dataset.asDatasetGraph().find(ANY, createURI(location),
+                        HAS_CHILD_COUNT.asNode(), ANY);
+                return count.hasNext() && ((Number) count.next().getObject().getLiteralValue()).intValue() == expected;
+            }
+        });
+    }
+
+    @Test
+    public void testGetObjectGraphWithChildrenInPages() throws IOException {
+        final String id = getRandomUniqueId();
+        final String location = getLocation(createObject(id));
+
+        final Set<String> expected = new HashSet<>();
+        for (int x = 0; x < 6; ++x) {
+            createObjectAndClose(id + "/child-" + x);
+            expected.add(location + "/child-" + x);
+        }
+        createObjectAndClose(id + "/a/b/c");
+        expected.add(location + "/a/b/c");
+        createDatastream(id, "binary", "content");
+        expected.add(location + "/binary");
+        awaitChildCount(id, location, expected.size());
+
+        final List<String> listed = new ArrayList<>();
+        HttpGet httpGet = getObjMethod(id);
+        int pages = 0;
+        while (httpGet != null) {
+            httpGet.setHeader("Limit", "3");
+            try (final CloseableHttpResponse response = execute(httpGet)) {
+                assertEquals(OK.getStatusCode(), getStatus(response));
+                final Optional<Link> next = getLinkHeaders(response).stream().map(Link::valueOf)
+                        .filter(link -> "next".equals(link.getRel())).findFirst();
+                try (final CloseableDataset dataset = getDataset(response)) {
+                    final DatasetGraph graph = dataset.asDatasetGraph();
+                    graph.find(ANY, createURI(location), CONTAINS.asNode(), ANY)
+                            .forEachRemaining(quad -> listed.add(quad.getObject().getURI()));
+                    final Iterator<Quad> count = graph.find(ANY, createURI(location), HAS_CHILD_COUNT.asNode(), ANY);
+                    assertTrue("Should find the number of children!", count.hasNext());
+                    assertEquals(expected.size(), ((Number) count.next().getObject().getLiteralValue()).intValue());
+                }
+                httpGet = next.map(link -> new HttpGet(link.getUri())).orElse(null);
+            }
+            pages++;
+        }
+        assertEquals(3, pages);
+        assertEquals("Should list each child once!", expected.size(), listed.size());
+        assertEquals(expected, new HashSet<>(listed));
+    }
+
+    @Test
+    public void testGetObjectGraphAfterNonChild() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final HttpGet httpGet = new HttpGet(serverAddress + id + "?after=" + serverAddress + id + "/missing");
+        httpGet.setHeader("Limit", "3");
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(httpGet));
+    }
+
     @Test
     public void testGetObjectGraphWithBadLimit() throws IOException {
         final String id = getRandomUniqueId();
@@ -2538,6 +2654,53 @@ public class FedoraLdpIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testGetObjectReferencesInPages() throws IOException {
+        final String id = getRandomUniqueId();
+        final String target = serverAddress + id + "/target";
+        createObjectAndClose(id);
+        createObjectAndClose(id + "/target");
+        final Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 5; i++) {
+            final HttpPost post = postObjMethod(id);
+            post.setHeader(CONTENT_TYPE, "text/turtle");
+            post.setEntity(new StringEntity("<> <http://purl.org/dc/terms/isPartOf> <" + target + "> ."));
+            expected.add(getLocation(post));
+        }
+
+        final List<String> listed = new ArrayList<>();
+        HttpGet httpGet = new HttpGet(target + "?" + REFERENCES_LIMIT_PARAM + "=2");
+        int pages = 0;
+        while (httpGet != null) {
+            httpGet.addHeader("Prefer", "return=representation; include=\"" + INBOUND_REFERENCES + "\"");
+            // the Limit header bounds the containment triples only
+            httpGet.setHeader("Limit", "1");
+            try (final CloseableHttpResponse response = execute(httpGet)) {
+                assertEquals(OK.getStatusCode(), getStatus(response));
+                final Optional<Link> next = getLinkHeaders(response).stream().map(Link::valueOf)
+                        .filter(link -> "next".equals(link.getRel())).findFirst();
+                try (final CloseableDataset dataset = getDataset(response)) {
+                    dataset.asDatasetGraph().find(ANY, ANY, createURI("http://purl.org/dc/terms/isPartOf"),
+                            createURI(target)).forEachRemaining(quad -> listed.add(quad.getSubject().getURI()));
+                }
+                httpGet = next.map(link -> new HttpGet(link.getUri())).orElse(null);
+            }
+            pages++;
+        }
+        assertEquals(3, pages);
+        assertEquals("Should list each reference once!", expected.size(), listed.size());
+        assertEquals(expected, new HashSet<>(listed));
+    }
+
+    @Test
+    public void testGetObjectReferencesWithBadOffset() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final HttpGet httpGet = new HttpGet(serverAddress + id + "?" + REFERENCES_OFFSET_PARAM + "=-1");
+        httpGet.addHeader("Prefer", "return=representation; include=\"" + INBOUND_REFERENCES + "\"");
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(httpGet));
+    }
+
     @Test
     public void testGetObjectReferencesIndirect() throws Exception {
         final String uuid = getRandomUniqueId();
@@ -0,0 +1,191 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.http.api;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.MINUTES;
+import static java.util.regex.Pattern.compile;
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.PRECONDITION_FAILED;
+import static org.apache.jena.graph.Node.ANY;
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPatch;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+import org.apache.jena.graph.Node;
+import org.fcrepo.http.commons.test.util.CloseableDataset;
+import org.junit.Test;
+
+/**
+ * Conditional writes are applied optimistically (the failsafe configuration turns this on for the integration
+ * tests), so these tests mix them with unconditional writes to the same resource and check that no update is lost.
+ *
+ * @author agent
+ */
+public class FedoraOptimisticWritesIT extends AbstractResourceIT {
+
+    private static final String COUNTER = "http://purl.org/dc/elements/1.1/title";
+
+    private static final String NOTE = "http://purl.org/dc/elements/1.1/description";
+
+    private static final Pattern COUNTER_VALUE = compile("<" + COUNTER + "> \"(\\d+)\"");
+
+    private static final int OPTIMISTIC_WRITERS = 4;
+
+    private static final int PESSIMISTIC_WRITERS = 4;
+
+    private static final int WRITES_PER_WRITER = 10;
+
+    @Test
+    public void testStaleIfMatch() throws IOException {
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        final String etag = getEtag(id);
+
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(patch(id, "INSERT DATA { <> <" + NOTE + "> \"1\" }",
+                etag)));
+        assertEquals(PRECONDITION_FAILED.getStatusCode(), getStatus(patch(id,
+                "INSERT DATA { <> <" + NOTE + "> \"2\" }", etag)));
+    }
+
+    @Test
+    public void testMixedWriters() throws Exception {
+        setLogger();
+        final String id = getRandomUniqueId();
+        createObjectAndClose(id);
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(patch(id, "INSERT DATA { <> <" + COUNTER + "> \"0\" }",
+                null)));
+
+        final ExecutorService executor = newFixedThreadPool(OPTIMISTIC_WRITERS + PESSIMISTIC_WRITERS);
+        final List<Future<Integer>> optimistic = new ArrayList<>();
+        final List<Future<Integer>> pessimistic = new ArrayList<>();
+        final long start = System.currentTimeMillis();
+        try {
+            for (int i = 0; i < OPTIMISTIC_WRITERS; i++) {
+                optimistic.add(executor.submit(() -> increment(id)));
+            }
+            for (int i = 0; i < PESSIMISTIC_WRITERS; i++) {
+                final int writer = i;
+                pessimistic.add(executor.submit(() -> note(id, writer)));
+            }
+            int conflicts = 0;
+            for (final Future<Integer> f : optimistic) {
+                conflicts += f.get(5, MINUTES);
+            }
+            for (final Future<Integer> f : pessimistic) {
+                f.get(5, MINUTES);
+            }
+            final long elapsed = System.currentTimeMillis() - start;
+            final int writes = (OPTIMISTIC_WRITERS + PESSIMISTIC_WRITERS) * WRITES_PER_WRITER;
+            logger.info("{} mixed writes to one resource in {} ms ({} writes/s), {} optimistic conflicts",
+                    writes, elapsed, writes * 1000L / Math.max(elapsed, 1), conflicts);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (final CloseableDataset dataset = getDataset(getObjMethod(id))) {
+            final Node subject = createURI(serverAddress + id);
+            assertTrue("An optimistic write was lost!", dataset.asDatasetGraph().contains(ANY, subject,
+                    createURI(COUNTER), createLiteral(Integer.toString(OPTIMISTIC_WRITERS * WRITES_PER_WRITER))));
+            for (int i = 0; i < PESSIMISTIC_WRITERS; i++) {
+                for (int j = 0; j < WRITES_PER_WRITER; j++) {
+                    assertTrue("A pessimistic write was lost!", dataset.asDatasetGraph().contains(ANY, subject,
+                            createURI(NOTE), createLiteral(i + "-" + j)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Increment the counter of a resource, reading it and writing it back conditionally on its ETag until each
+     * write succeeds.
+     *
+     * @return the number of writes that failed because another writer got there first
+     */
+    private static int increment(final String id) throws IOException {
+        int conflicts = 0;
+        for (int i = 0; i < WRITES_PER_WRITER; ) {
+            final HttpGet get = getObjMethod(id);
+            get.addHeader("Accept", "application/n-triples");
+            final String etag;
+            final int value;
+            try (final CloseableHttpResponse response = execute(get)) {
+                etag = response.getFirstHeader("ETag").getValue().replaceFirst("^W/", "");
+                final Matcher matcher = COUNTER_VALUE.matcher(EntityUtils.toString(response.getEntity()));
+                if (!matcher.find()) {
+                    fail("No counter in " + id);
+                }
+                value = Integer.parseInt(matcher.group(1));
+            }
+            final int status = getStatus(patch(id, "DELETE DATA { <> <" + COUNTER + "> \"" + value + "\" } ; "
+                    + "INSERT DATA { <> <" + COUNTER + "> \"" + (value + 1) + "\" }", etag));
+            if (status == NO_CONTENT.getStatusCode()) {
+                i++;
+            } else if (status == PRECONDITION_FAILED.getStatusCode()) {
+                conflicts++;
+            } else {
+                fail("Unexpected status " + status + " incrementing " + id);
+            }
+        }
+        return conflicts;
+    }
+
+    /**
+     * Add notes to a resource unconditionally.
+     *
+     * @return the number of notes added
+     */
+    private static int note(final String id, final int writer) {
+        for (int i = 0; i < WRITES_PER_WRITER; i++) {
+            assertEquals(NO_CONTENT.getStatusCode(), getStatus(patch(id,
+                    "INSERT DATA { <> <" + NOTE + "> \"" + writer + "-" + i + "\" }", null)));
+        }
+        return WRITES_PER_WRITER;
+    }
+
+    private static HttpPatch patch(final String id, final String sparql, final String etag) {
+        final HttpPatch patch = patchObjMethod(id);
+        patch.addHeader("Content-Type", "application/sparql-update");
+        if (etag != null) {
+            patch.addHeader("If-Match", etag);
+        }
+        patch.setEntity(new StringEntity(sparql, "UTF-8"));
+        return patch;
+    }
+
+    private static String getEtag(final String id) throws IOException {
+        try (final CloseableHttpResponse response = execute(getObjMethod(id))) {
+            return response.getFirstHeader("ETag").getValue().replaceFirst("^W/", "");
+        }
+    }
+}
@@ -27,14 +27,18 @@ import static java.util.UUID.randomUUID;
 import static java.util.regex.Pattern.compile;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
 import static javax.ws.rs.core.HttpHeaders.LINK;
+import static javax.ws.rs.core.HttpHeaders.ACCEPT;
 import static javax.ws.rs.core.HttpHeaders.CACHE_CONTROL;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.Response.Status.CREATED;
 import static javax.ws.rs.core.Response.Status.GONE;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.REQUEST_ENTITY_TOO_LARGE;
 import static org.apache.http.util.EntityUtils.consume;
 import static org.apache.jena.vocabulary.DC.title;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.NODES_PROPERTY;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.DEFAULT_TIMEOUT;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.TIMEOUT_SYSTEM_PROPERTY;
 import static org.fcrepo.kernel.modeshape.services.BatchServiceImpl.REAP_INTERVAL;
@@ -58,6 +62,9 @@ import org.apache.http.entity.StringEntity;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 /**
  * <p>FedoraTransactionsIT class.</p>
  *
@@ -394,6 +401,40 @@ public class FedoraTransactionsIT extends AbstractResourceIT {
                 NO_CONTENT.getStatusCode(), getStatus(new HttpPost(deleterTxLocation + "/fcr:tx/fcr:commit")));
     }
 
+    @Test
+    public void testTransactionChangeSetLimit() throws IOException {
+        System.setProperty(NODES_PROPERTY, "3");
+        final String txLocation;
+        try {
+            txLocation = createTransaction();
+        } finally {
+            System.clearProperty(NODES_PROPERTY);
+        }
+
+        /* create objects inside the tx until it holds too many changes */
+        int status = CREATED.getStatusCode();
+        for (int i = 0; i < 5 && status == CREATED.getStatusCode(); i++) {
+            status = getStatus(new HttpPost(txLocation));
+        }
+        assertEquals(REQUEST_ENTITY_TOO_LARGE.getStatusCode(), status);
+
+        /* the tx reports the size of its changes */
+        final HttpGet getTx = new HttpGet(txLocation + "/fcr:tx");
+        getTx.addHeader(ACCEPT, APPLICATION_JSON);
+        try (final CloseableHttpResponse response = execute(getTx)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            final JsonNode json = new ObjectMapper().readTree(response.getEntity().getContent());
+            assertTrue(txLocation.endsWith(json.get("id").asText()));
+            assertTrue(json.get("nodes").asLong() > 3);
+            assertEquals(0, json.get("binaryBytes").asLong());
+        }
+
+        /* it can no longer be committed, only rolled back */
+        assertEquals(REQUEST_ENTITY_TOO_LARGE.getStatusCode(),
+                getStatus(new HttpPost(txLocation + "/fcr:tx/fcr:commit")));
+        assertEquals(NO_CONTENT.getStatusCode(), getStatus(new HttpPost(txLocation + "/fcr:tx/fcr:rollback")));
+    }
+
     private void verifyProperty(final String assertionMessage, final String pid, final String txId,
             final String propertyUri, final String propertyValue, final boolean shouldExist) throws IOException {
         final HttpGet getObjCommitted = new HttpGet(serverAddress + (txId != null ? txId + "/" : "") + pid);
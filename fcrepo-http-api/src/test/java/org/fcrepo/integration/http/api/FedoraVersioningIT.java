@@ -19,6 +19,7 @@ package org.fcrepo.integration.http.api;
 
 import static com.google.common.collect.Iterators.size;
 import static java.time.format.DateTimeFormatter.RFC_1123_DATE_TIME;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
 import static javax.ws.rs.core.HttpHeaders.ACCEPT;
@@ -29,6 +30,8 @@ import static javax.ws.rs.core.Link.fromUri;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.Status.CREATED;
+import static javax.ws.rs.core.Response.Status.FOUND;
+import static javax.ws.rs.core.Response.Status.NOT_ACCEPTABLE;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.NO_CONTENT;
 import static javax.ws.rs.core.Response.Status.OK;
@@ -41,6 +44,7 @@ import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.vocabulary.DC_11.title;
 import static org.apache.jena.vocabulary.RDF.type;
+import static org.fcrepo.http.api.FedoraVersioning.ACCEPT_DATETIME_HEADER;
 import static org.fcrepo.http.api.FedoraVersioning.MEMENTO_DATETIME_HEADER;
 import static org.fcrepo.http.commons.domain.RDFMediaType.APPLICATION_LINK_FORMAT;
 import static org.fcrepo.http.commons.domain.RDFMediaType.POSSIBLE_RDF_RESPONSE_VARIANTS_STRING;
@@ -52,8 +56,10 @@ import static org.fcrepo.kernel.api.RdfLexicon.EMBED_CONTAINED;
 import static org.fcrepo.kernel.api.RdfLexicon.NON_RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.RDF_SOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
+import static org.fcrepo.kernel.api.RdfLexicon.SERVER_MANAGED;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONED_RESOURCE;
 import static org.fcrepo.kernel.api.RdfLexicon.VERSIONING_TIMEMAP_TYPE;
+import static org.fcrepo.kernel.modeshape.services.VersionServiceImpl.MEMENTO_STORAGE_PROPERTY;
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -78,6 +84,7 @@ import java.util.stream.Collectors;
 import javax.ws.rs.core.Link;
 
 import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpDelete;
 import org.apache.http.client.methods.HttpGet;
@@ -156,6 +163,34 @@ public class FedoraVersioningIT extends AbstractResourceIT {
         assertEquals(404, getStatus(new HttpGet(timeMapUri)));
     }
 
+    @Test
+    public void testGetStoredMementoOmittingServerManaged() throws Exception {
+        System.setProperty(MEMENTO_STORAGE_PROPERTY, "delta");
+        try {
+            createVersionedContainer(id, subjectUri);
+            patchLiteralProperty(subjectUri, title.getURI(), "Foo");
+            final String mementoUri = createMemento(subjectUri, null, null, null);
+            final Node mementoSubject = createURI(mementoUri);
+            final Node created = createURI(REPOSITORY_NAMESPACE + "created");
+
+            final HttpGet getOmitting = new HttpGet(mementoUri);
+            getOmitting.addHeader("Prefer", "return=representation; omit=\"" + SERVER_MANAGED + "\"");
+            try (final CloseableDataset dataset = getDataset(getOmitting)) {
+                final DatasetGraph graph = dataset.asDatasetGraph();
+                assertTrue(graph.contains(ANY, mementoSubject, title.asNode(), createLiteral("Foo")));
+                assertFalse(graph.contains(ANY, mementoSubject, created, ANY));
+            }
+
+            try (final CloseableDataset dataset = getDataset(new HttpGet(mementoUri))) {
+                final DatasetGraph graph = dataset.asDatasetGraph();
+                assertTrue(graph.contains(ANY, mementoSubject, title.asNode(), createLiteral("Foo")));
+                assertTrue(graph.contains(ANY, mementoSubject, created, ANY));
+            }
+        } finally {
+            System.clearProperty(MEMENTO_STORAGE_PROPERTY);
+        }
+    }
+
     @Test
     public void testGetTimeMapResponse() throws Exception {
         createVersionedContainer(id, subjectUri);
@@ -426,6 +461,103 @@ public class FedoraVersioningIT extends AbstractResourceIT {
         }
     }
 
+    @Test
+    public void testGetTimeMapLinkFormatMementos() throws Exception {
+        createVersionedContainer(id, subjectUri);
+        final List<String> datetimes = new ArrayList<>();
+        for (int day = 1; day <= 3; day++) {
+            datetimes.add(RFC_1123_DATE_TIME.format(LocalDateTime.of(2000, 1, day, 0, 0).atZone(ZoneOffset.UTC)));
+            createContainerMementoWithBody(subjectUri, datetimes.get(day - 1));
+        }
+
+        final List<Link> links = getTimeMapLinks("");
+        final List<Link> mementos = links.stream().filter(l -> l.getRel().equals("memento")).collect(toList());
+        assertEquals(3, mementos.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(subjectUri + "/" + FCR_VERSIONS + "/2000010" + (i + 1) + "000000",
+                    mementos.get(i).getUri().toString());
+            assertEquals(datetimes.get(i), mementos.get(i).getParams().get("datetime"));
+        }
+        final Link self = links.stream().filter(l -> l.getRel().equals("self")).findFirst().get();
+        assertEquals(datetimes.get(0), self.getParams().get("from"));
+        assertEquals(datetimes.get(2), self.getParams().get("until"));
+
+        final List<Link> range = getTimeMapLinks("?from=20000102000000&until=20000102000000");
+        assertEquals(1, range.stream().filter(l -> l.getRel().equals("memento")).count());
+        assertEquals(subjectUri + "/" + FCR_VERSIONS + "?from=20000102000000&until=20000102000000",
+                range.stream().filter(l -> l.getRel().equals("self")).findFirst().get().getUri().toString());
+        assertFalse(range.stream().anyMatch(l -> l.getRel().equals("next")));
+
+        final HttpGet badRange = getObjMethod(id + "/" + FCR_VERSIONS + "?from=yesterday");
+        badRange.setHeader(ACCEPT, APPLICATION_LINK_FORMAT);
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(badRange));
+    }
+
+    @Test
+    public void testAcceptDatetime() throws Exception {
+        createVersionedContainer(id, subjectUri);
+        assertEquals(NOT_ACCEPTABLE.getStatusCode(), getStatus(getWithAcceptDatetime(subjectUri, MEMENTO_DATETIME)));
+
+        for (int day = 1; day <= 3; day++) {
+            createContainerMementoWithBody(subjectUri,
+                    RFC_1123_DATE_TIME.format(LocalDateTime.of(2000, 1, day, 0, 0).atZone(ZoneOffset.UTC)));
+        }
+
+        try (final CloseableHttpResponse response = execute(getWithAcceptDatetime(subjectUri,
+                "Sun, 2 Jan 2000 05:00:00 GMT"))) {
+            assertEquals(FOUND.getStatusCode(), getStatus(response));
+            assertEquals(subjectUri + "/" + FCR_VERSIONS + "/20000102000000",
+                    response.getFirstHeader(LOCATION).getValue());
+            assertTrue(Arrays.stream(response.getHeaders("Vary"))
+                    .anyMatch(h -> h.getValue().equals(ACCEPT_DATETIME_HEADER)));
+            checkForLinkHeader(response, subjectUri, "original");
+        }
+        try (final CloseableHttpResponse response = execute(getWithAcceptDatetime(subjectUri,
+                "Mon, 1 Jan 1990 00:00:00 GMT"))) {
+            assertEquals(FOUND.getStatusCode(), getStatus(response));
+            assertEquals(subjectUri + "/" + FCR_VERSIONS + "/20000101000000",
+                    response.getFirstHeader(LOCATION).getValue());
+        }
+        assertEquals(BAD_REQUEST.getStatusCode(), getStatus(getWithAcceptDatetime(subjectUri, "yesterday")));
+    }
+
+    @Test
+    public void testAcceptDatetimeBinary() throws Exception {
+        createVersionedBinary(id);
+        final String mementoUri = createMemento(subjectUri, null, null, null);
+
+        try (final CloseableHttpResponse response = execute(getWithAcceptDatetime(subjectUri,
+                RFC_1123_DATE_TIME.format(Instant.now().atZone(ZoneOffset.UTC))))) {
+            assertEquals(FOUND.getStatusCode(), getStatus(response));
+            assertEquals(mementoUri, response.getFirstHeader(LOCATION).getValue());
+        }
+    }
+
+    @Test
+    public void testAcceptDatetimeUnversioned() throws Exception {
+        createObjectAndClose(id);
+        assertEquals(OK.getStatusCode(), getStatus(getWithAcceptDatetime(subjectUri, MEMENTO_DATETIME)));
+    }
+
+    private HttpGet getWithAcceptDatetime(final String uri, final String acceptDatetime) {
+        final HttpGet httpGet = new HttpGet(uri);
+        httpGet.setHeader(ACCEPT_DATETIME_HEADER, acceptDatetime);
+        httpGet.setConfig(RequestConfig.custom().setRedirectsEnabled(false).build());
+        return httpGet;
+    }
+
+    private List<Link> getTimeMapLinks(final String query) throws Exception {
+        final HttpGet httpGet = getObjMethod(id + "/" + FCR_VERSIONS + query);
+        httpGet.setHeader(ACCEPT, APPLICATION_LINK_FORMAT);
+        try (final CloseableHttpResponse response = execute(httpGet)) {
+            assertEquals(OK.getStatusCode(), getStatus(response));
+            // one link per line, each followed by a comma
+            return Arrays.stream(EntityUtils.toString(response.getEntity()).split("\n")).map(String::trim)
+                    .filter(l -> !l.isEmpty()).map(l -> Link.valueOf(l.substring(0, l.length() - 1)))
+                    .collect(toList());
+        }
+    }
+
     @Test
     public void testCreateVersionOfBinary() throws Exception {
         createVersionedBinary(id);
@@ -30,6 +30,7 @@ import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getClosestExistingAncestor;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.validatePath;
+import static org.fcrepo.kernel.modeshape.utils.TombstoneIndex.mayBeTombstoned;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.springframework.web.context.ContextLoader.getCurrentWebApplicationContext;
 
@@ -146,7 +147,8 @@ public class HttpResourceConverter extends IdentifierConverter<Resource,FedoraRe
         } catch (final RepositoryException e) {
             validatePath(jcrSession, path);
 
-            if ( e instanceof PathNotFoundException ) {
+            // most missing paths were never tombstoned, which the tombstone index answers without any JCR calls
+            if ( e instanceof PathNotFoundException && mayBeTombstoned(jcrSession, path) ) {
                 try {
                     final Node preexistingNode = getClosestExistingAncestor(jcrSession, path);
                     if (TombstoneImpl.hasMixin(preexistingNode)) {
@@ -200,6 +202,11 @@ public class HttpResourceConverter extends IdentifierConverter<Resource,FedoraRe
         return createResource(uri.build().toString());
     }
 
+    @Override
+    public Resource pathToDomain(final String path) {
+        return toDomain(reverse.convert(path));
+    }
+
     @Override
     public String asString(final Resource resource) {
         final Map<String, String> values = new HashMap<>();
@@ -64,6 +64,15 @@ public class SinglePrefer {
         return preferTags().stream().map(PreferTag::getTag).anyMatch("handling"::equals);
     }
 
+    /**
+     * Does the Prefer: header have a respond-async tag
+     *
+     * @return true if the header has a respond-async tag
+     */
+    public Boolean hasRespondAsync() {
+        return preferTags().stream().map(PreferTag::getTag).anyMatch("respond-async"::equals);
+    }
+
     /**
      * Get the return tag, or a blank default, if none exists.
      *
@@ -35,6 +35,7 @@ import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toMap;
 import static org.fcrepo.kernel.api.FedoraTypes.FCR_METADATA;
 import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
+import static org.fcrepo.kernel.api.RdfLexicon.HAS_CHILD_COUNT;
 import static org.fcrepo.kernel.api.RdfLexicon.CREATED_DATE;
 import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
 import static org.fcrepo.kernel.api.RdfLexicon.WRITABLE;
@@ -229,7 +230,7 @@ public class ViewHelpers {
 
     /**
      * Get the number of child resources associated with the arg 'subject' as specified by the triple found in the arg
-     * 'graph' with the predicate RdfLexicon.HAS_CHILD_COUNT.
+     * 'graph' with the predicate RdfLexicon.HAS_CHILD_COUNT, or else by counting its ldp:contains triples.
      *
      * @param graph   of triples
      * @param subject for which child resources is sought
@@ -237,6 +238,13 @@ public class ViewHelpers {
      */
     public int getNumChildren(final Graph graph, final Node subject) {
         LOGGER.trace("Getting number of children: s:{}, g:{}", subject, graph);
+        final Iterator<Node> count = listObjects(graph, subject, HAS_CHILD_COUNT.asNode());
+        if (count.hasNext()) {
+            final Node value = count.next();
+            if (value.isLiteral() && value.getLiteralValue() instanceof Number) {
+                return ((Number) value.getLiteralValue()).intValue();
+            }
+        }
         return (int) asStream(listObjects(graph, subject, CONTAINS.asNode())).count();
     }
 
@@ -17,13 +17,22 @@
  */
 package org.fcrepo.http.commons.session;
 
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.lang.Integer.parseInt;
 import static java.util.Objects.requireNonNull;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.security.Principal;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.servlet.http.HttpServletRequest;
 
 import org.fcrepo.kernel.api.FedoraRepository;
@@ -31,13 +40,27 @@ import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.SessionMissingException;
 import org.fcrepo.kernel.api.services.CredentialsService;
 import org.fcrepo.kernel.api.services.BatchService;
+import org.fcrepo.kernel.modeshape.ChangeSetAccount;
+import org.fcrepo.kernel.modeshape.FedoraSessionImpl;
+import org.fcrepo.metrics.RegistryService;
 
 import org.slf4j.Logger;
 
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.common.collect.ImmutableSet;
+
 /**
  * Factory for generating sessions for HTTP requests, taking
  * into account transactions and authentication.
  *
+ * Internal sessions, used e.g. to read ACLs regardless of the permissions of the user, are borrowed from a pool of
+ * idle sessions and must be given back with {@link #releaseInternalSession}. At most
+ * {@value #INTERNAL_POOL_SIZE_PROPERTY} (10 by default) idle sessions are kept; a session given back to a full pool
+ * is logged out. Only the idle sessions are bounded: a session is logged in for each borrower while the pool is
+ * empty, so there are as many live internal sessions as there are borrowers at once, plus the idle ones. Borrowed
+ * sessions are tracked, and any that are never given back are logged out when the factory is closed.
+ *
  * @author awoods
  * @author gregjan
  * @author kaisternad
@@ -60,6 +83,23 @@ public class SessionFactory {
 
     private static final Logger LOGGER = getLogger(SessionFactory.class);
 
+    public static final String INTERNAL_POOL_SIZE_PROPERTY = "fcrepo.session.internalPoolSize";
+
+    private static final String DEFAULT_INTERNAL_POOL_SIZE = "10";
+
+    private static final Set<String> SAFE_METHODS = ImmutableSet.of("GET", "HEAD", "OPTIONS");
+
+    static final Counter LIVE_INTERNAL_SESSIONS = RegistryService.getInstance().getMetrics()
+            .counter(name(SessionFactory.class, "internalSessions", "live"));
+
+    static final Meter INTERNAL_SESSION_LOGINS = RegistryService.getInstance().getMetrics()
+            .meter(name(SessionFactory.class, "internalSessions", "logins"));
+
+    private final Set<FedoraSession> borrowedInternalSessions = ConcurrentHashMap.newKeySet();
+
+    private final BlockingDeque<FedoraSession> idleInternalSessions = new LinkedBlockingDeque<>(
+            parseInt(System.getProperty(INTERNAL_POOL_SIZE_PROPERTY, DEFAULT_INTERNAL_POOL_SIZE)));
+
     @Inject
     private FedoraRepository repo;
 
@@ -95,12 +135,90 @@ public class SessionFactory {
     }
 
     /**
-     * Get a new JCR Session
+     * Log out the idle internal sessions, and any borrowed ones that were never given back
+     */
+    @PreDestroy
+    public void close() {
+        for (FedoraSession session = idleInternalSessions.poll(); session != null;
+                session = idleInternalSessions.poll()) {
+            logout(session);
+        }
+        for (final FedoraSession session : borrowedInternalSessions) {
+            if (borrowedInternalSessions.remove(session)) {
+                LOGGER.warn("Logging out an internal session that was never given back");
+                logout(session);
+            }
+        }
+    }
+
+    /**
+     * Borrow an internal session, reusing an idle one if there is any. The session must be given back with
+     * {@link #releaseInternalSession} once it is no longer used.
      *
      * @return an internal session
      */
     public FedoraSession getInternalSession() {
-        return repo.login();
+        for (FedoraSession session = idleInternalSessions.pollFirst(); session != null;
+                session = idleInternalSessions.pollFirst()) {
+            if (isLive(session)) {
+                borrowedInternalSessions.add(session);
+                return session;
+            }
+            LIVE_INTERNAL_SESSIONS.dec();
+        }
+        final FedoraSession session = repo.login();
+        INTERNAL_SESSION_LOGINS.mark();
+        LIVE_INTERNAL_SESSIONS.inc();
+        borrowedInternalSessions.add(session);
+        return session;
+    }
+
+    /**
+     * Give back an internal session borrowed with {@link #getInternalSession}. Any pending changes in it are
+     * discarded. A session that was not borrowed from this factory, or was already given back, is left alone.
+     *
+     * @param session the internal session, which must not be used afterwards
+     */
+    public void releaseInternalSession(final FedoraSession session) {
+        if (session == null || !borrowedInternalSessions.remove(session)) {
+            return;
+        }
+        if (!reset(session) || !idleInternalSessions.offerFirst(session)) {
+            logout(session);
+        }
+    }
+
+    private static boolean isLive(final FedoraSession session) {
+        return session instanceof FedoraSessionImpl && ((FedoraSessionImpl) session).getJcrSession().isLive();
+    }
+
+    /**
+     * Discard the pending changes in a session and refresh it, so that it can be reused.
+     *
+     * @return whether the session can be reused
+     */
+    private static boolean reset(final FedoraSession session) {
+        if (!isLive(session)) {
+            return false;
+        }
+        try {
+            final Session jcrSession = ((FedoraSessionImpl) session).getJcrSession();
+            jcrSession.refresh(false);
+            ChangeSetAccount.discarded(jcrSession);
+            return true;
+        } catch (final RepositoryException e) {
+            LOGGER.warn("Could not reset internal session: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    private static void logout(final FedoraSession session) {
+        LIVE_INTERNAL_SESSIONS.dec();
+        try {
+            session.expire();
+        } catch (final RuntimeException e) {
+            LOGGER.warn("Could not log out internal session: {}", e.getMessage());
+        }
     }
 
     /**
@@ -131,13 +249,17 @@ public class SessionFactory {
 
     /**
      * Create a JCR session for the given HTTP servlet request with a
-     * SecurityContext attached.
+     * SecurityContext attached. Requests with safe methods get a read-only session.
      *
      * @param servletRequest the servlet request
      * @return a newly created JCR session
      */
     protected HttpSession createSession(final HttpServletRequest servletRequest) {
 
+        if (SAFE_METHODS.contains(servletRequest.getMethod())) {
+            LOGGER.debug("Returning an authenticated read-only session in the default workspace");
+            return new HttpSession(repo.loginReadOnly(credentialsService.getCredentials(servletRequest)));
+        }
         LOGGER.debug("Returning an authenticated session in the default workspace");
         return  new HttpSession(repo.login(credentialsService.getCredentials(servletRequest)));
     }
@@ -231,6 +231,15 @@ public class HttpResourceConverterTest {
         assertEquals(resource, converted);
     }
 
+    @Test
+    public void testPathToDomainWithTransaction() throws Exception {
+        setField(testTxSession, "id", "xyz");
+        final HttpResourceConverter converter = new HttpResourceConverter(testHttpBatchSession,
+                UriBuilder.fromUri(uriTemplate));
+        assertEquals(createResource("http://localhost:8080/some/tx:xyz/" + path),
+                converter.pathToDomain("/" + path));
+    }
+
     @Test
     public void testToStringWithRoot() {
         assertEquals("/", converter.asString(createResource("http://localhost:8080/some/")));
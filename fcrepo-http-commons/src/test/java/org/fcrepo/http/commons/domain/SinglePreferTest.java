@@ -22,6 +22,7 @@ import org.junit.Test;
 import java.text.ParseException;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 /**
@@ -86,4 +87,11 @@ public class SinglePreferTest  {
         final String returnParams = prefer.getHandling().getParams().get("some");
         assertTrue(returnParams.contains("parameter"));
     }
+
+    @Test
+    public void testHasRespondAsync() throws ParseException {
+        assertTrue(createTestPreferTypeFromHeader("respond-async").hasRespondAsync());
+        assertTrue(createTestPreferTypeFromHeader("respond-async, wait=10").hasRespondAsync());
+        assertFalse(createTestPreferTypeFromHeader("handling=lenient").hasRespondAsync());
+    }
 }
@@ -30,6 +30,7 @@ import static org.apache.jena.vocabulary.RDFS.label;
 import static org.apache.jena.vocabulary.SKOS.prefLabel;
 import static org.fcrepo.http.commons.test.util.TestHelpers.getUriInfoImpl;
 import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
+import static org.fcrepo.kernel.api.RdfLexicon.HAS_CHILD_COUNT;
 import static org.fcrepo.kernel.api.RdfLexicon.CREATED_DATE;
 import static org.fcrepo.kernel.api.RdfLexicon.DESCRIBES;
 import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
@@ -352,6 +353,14 @@ public class ViewHelpersTest {
         assertEquals(4, testObj.getNumChildren(mem, createURI("a/b/c")));
     }
 
+    @Test
+    public void testGetNumChildrenFromCount() {
+        final Graph mem = createDefaultModel().getGraph();
+        mem.add(new Triple(createURI("a/b/c"), CONTAINS.asNode(), createResource("a/b/c/1").asNode()));
+        mem.add(new Triple(createURI("a/b/c"), HAS_CHILD_COUNT.asNode(), createTypedLiteral(250L).asNode()));
+        assertEquals(250, testObj.getNumChildren(mem, createURI("a/b/c")));
+    }
+
     @Test
     public void testGetNumChildrenEmpty() {
         final Graph mem = createDefaultModel().getGraph();
@@ -18,15 +18,30 @@
 package org.fcrepo.http.commons.session;
 
 import static org.fcrepo.http.commons.test.util.TestHelpers.setField;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.jcr.Credentials;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 import javax.servlet.http.HttpServletRequest;
 
 import org.fcrepo.kernel.api.FedoraRepository;
@@ -34,6 +49,7 @@ import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.SessionMissingException;
 import org.fcrepo.kernel.api.services.BatchService;
 import org.fcrepo.kernel.api.services.CredentialsService;
+import org.fcrepo.kernel.modeshape.FedoraSessionImpl;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -95,10 +111,123 @@ public class SessionFactoryTest {
 
    @Test
     public void testGetSessionUnauthenticated() {
+        when(mockRepo.login()).thenReturn(mockSession);
         testObj.getInternalSession();
         verify(mockRepo).login();
     }
 
+    @Test
+    public void testReuseInternalSession() throws RepositoryException {
+        final FedoraSessionImpl internalSession = newInternalSession();
+        when(mockRepo.login()).thenReturn(internalSession);
+        final long logins = SessionFactory.INTERNAL_SESSION_LOGINS.getCount();
+
+        testObj.releaseInternalSession(testObj.getInternalSession());
+        assertSame(internalSession, testObj.getInternalSession());
+        verify(mockRepo).login();
+        verify(internalSession.getJcrSession()).refresh(false);
+        assertEquals(logins + 1, SessionFactory.INTERNAL_SESSION_LOGINS.getCount());
+    }
+
+    @Test
+    public void testDiscardDeadInternalSession() {
+        final FedoraSessionImpl deadSession = newInternalSession();
+        final FedoraSessionImpl liveSession = newInternalSession();
+        when(mockRepo.login()).thenReturn(deadSession, liveSession);
+
+        testObj.releaseInternalSession(testObj.getInternalSession());
+        when(deadSession.getJcrSession().isLive()).thenReturn(false);
+        assertSame(liveSession, testObj.getInternalSession());
+    }
+
+    @Test
+    public void testInternalSessionsDoNotLeak() throws Exception {
+        final AtomicInteger logins = new AtomicInteger();
+        final AtomicInteger logouts = new AtomicInteger();
+        when(mockRepo.login()).thenAnswer(invocation -> {
+            logins.incrementAndGet();
+            final FedoraSessionImpl session = newInternalSession();
+            doAnswer(i -> logouts.incrementAndGet()).when(session).expire();
+            return session;
+        });
+        final long live = SessionFactory.LIVE_INTERNAL_SESSIONS.getCount();
+
+        final int threads = 16;
+        final ExecutorService executor = newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    for (int j = 0; j < 500; j++) {
+                        final FedoraSession outer = testObj.getInternalSession();
+                        try {
+                            final FedoraSession inner = testObj.getInternalSession();
+                            assertNotSame(outer, inner);
+                            testObj.releaseInternalSession(inner);
+                        } finally {
+                            testObj.releaseInternalSession(outer);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get(60, SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+            executor.awaitTermination(60, SECONDS);
+        }
+
+        // no more sessions than were ever borrowed at once, and only the idle pool left open
+        assertTrue(logins.get() <= threads * 2);
+        assertTrue(logins.get() - logouts.get() <= 10);
+        assertEquals(live + logins.get() - logouts.get(), SessionFactory.LIVE_INTERNAL_SESSIONS.getCount());
+
+        testObj.close();
+        assertEquals(logins.get(), logouts.get());
+        assertEquals(live, SessionFactory.LIVE_INTERNAL_SESSIONS.getCount());
+        verify(mockRepo, times(logins.get())).login();
+    }
+
+    @Test
+    public void testCloseLogsOutBorrowedInternalSessions() {
+        final FedoraSessionImpl idleSession = newInternalSession();
+        final FedoraSessionImpl borrowedSession = newInternalSession();
+        when(mockRepo.login()).thenReturn(idleSession, borrowedSession);
+        final long live = SessionFactory.LIVE_INTERNAL_SESSIONS.getCount();
+
+        final FedoraSession idle = testObj.getInternalSession();
+        testObj.getInternalSession();
+        testObj.releaseInternalSession(idle);
+        testObj.releaseInternalSession(idle);
+        assertEquals(live + 2, SessionFactory.LIVE_INTERNAL_SESSIONS.getCount());
+
+        testObj.close();
+        verify(idleSession).expire();
+        verify(borrowedSession).expire();
+        assertEquals(live, SessionFactory.LIVE_INTERNAL_SESSIONS.getCount());
+    }
+
+    @Test
+    public void testDoNotPoolForeignSessions() {
+        final FedoraSessionImpl foreignSession = newInternalSession();
+        final FedoraSessionImpl internalSession = newInternalSession();
+        when(mockRepo.login()).thenReturn(internalSession);
+
+        testObj.releaseInternalSession(foreignSession);
+        assertSame(internalSession, testObj.getInternalSession());
+        verify(foreignSession, never()).expire();
+    }
+
+    private static synchronized FedoraSessionImpl newInternalSession() {
+        final FedoraSessionImpl session = mock(FedoraSessionImpl.class);
+        final Session jcrSession = mock(Session.class);
+        when(session.getJcrSession()).thenReturn(jcrSession);
+        when(jcrSession.isLive()).thenReturn(true);
+        return session;
+    }
+
     @Test
     public void testCreateSession() {
         when(mockRequest.getPathInfo()).thenReturn("/some/path");
@@ -106,6 +235,15 @@ public class SessionFactoryTest {
         verify(mockRepo).login(any(Credentials.class));
     }
 
+    @Test
+    public void testCreateReadOnlySession() {
+        when(mockRequest.getPathInfo()).thenReturn("/some/path");
+        when(mockRequest.getMethod()).thenReturn("GET");
+        when(mockRepo.loginReadOnly(any(Credentials.class))).thenReturn(mockSession);
+        assertEquals(mockSession, testObj.createSession(mockRequest).getFedoraSession());
+        verify(mockRepo).loginReadOnly(any(Credentials.class));
+    }
+
     @Test
     public void testGetSessionFromTransaction() {
         when(mockRequest.getPathInfo()).thenReturn("/tx:123/some/path");
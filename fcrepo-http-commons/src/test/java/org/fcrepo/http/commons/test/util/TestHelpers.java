@@ -54,6 +54,7 @@ import javax.jcr.nodetype.NodeTypeManager;
 import javax.jcr.query.Query;
 import javax.jcr.query.QueryResult;
 import javax.servlet.ServletContext;
+import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.SecurityContext;
 import javax.ws.rs.core.UriBuilder;
 import javax.ws.rs.core.UriInfo;
@@ -111,6 +112,7 @@ public abstract class TestHelpers {
         when(ui.getBaseUri()).thenReturn(create("http://localhost/fcrepo"));
         when(ui.getBaseUriBuilder()).thenAnswer(answer);
         when(ui.getAbsolutePathBuilder()).thenAnswer(answer);
+        when(ui.getQueryParameters()).thenReturn(new MultivaluedHashMap<>());
 
         return ui;
     }
@@ -20,6 +20,7 @@ package org.fcrepo.jms;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.io.IOException;
+import java.util.Iterator;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
@@ -33,6 +34,7 @@ import javax.jms.Session;
 
 import org.apache.activemq.ActiveMQConnectionFactory;
 import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.observer.MovedDescendants;
 import org.slf4j.Logger;
 
 import com.google.common.eventbus.EventBus;
@@ -63,6 +65,8 @@ abstract class AbstractJMSPublisher {
 
     protected MessageProducer producer;
 
+    protected boolean expandMoves = true;
+
     protected static final Logger LOGGER = getLogger(AbstractJMSPublisher.class);
 
     protected abstract Destination createDestination() throws JMSException;
@@ -86,6 +90,35 @@ abstract class AbstractJMSPublisher {
         LOGGER.debug("Put event: {} onto JMS.", tm.getJMSMessageID());
     }
 
+    /**
+     * When the descendants of a moved resource are received, publish an event for each of them, unless moves are
+     * published only as the events of the moved resources.
+     *
+     * @param descendants the descendants of a moved resource
+     * @throws JMSException if JMS exception occurred
+     * @throws IOException if IO exception occurred
+     */
+    @Subscribe
+    public void publishMovedDescendants(final MovedDescendants descendants) throws JMSException, IOException {
+        if (!expandMoves) {
+            return;
+        }
+        for (final Iterator<FedoraEvent> events = descendants.getEvents().iterator(); events.hasNext();) {
+            publishJCREvent(events.next());
+        }
+    }
+
+    /**
+     * Whether to publish a RESOURCE_RELOCATION and a RESOURCE_DELETION event for each descendant of a moved
+     * resource (the default). When false, only the events for the moved resource itself are published, and consumers
+     * must apply the move to its descendants using the srcAbsPath and destAbsPath of the event.
+     *
+     * @param expandMoves whether to publish events for the descendants of moved resources
+     */
+    public void setExpandMoves(final boolean expandMoves) {
+        this.expandMoves = expandMoves;
+    }
+
     /**
      * Connect to JCR Repostory and JMS queue
      *
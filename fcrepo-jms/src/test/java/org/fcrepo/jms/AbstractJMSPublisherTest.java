@@ -21,11 +21,14 @@ import static javax.jms.Session.AUTO_ACKNOWLEDGE;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.io.IOException;
+import java.util.stream.Stream;
 
 import javax.jms.Connection;
 import javax.jms.JMSException;
@@ -35,6 +38,7 @@ import javax.jms.MessageProducer;
 import org.apache.activemq.ActiveMQConnectionFactory;
 
 import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.observer.MovedDescendants;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -101,6 +105,26 @@ abstract class AbstractJMSPublisherTest {
         verify(mockProducer).send(mockMsg);
     }
 
+    @Test
+    public void testPublishMovedDescendants() throws IOException, JMSException {
+        final Message mockMsg = mock(Message.class);
+        final FedoraEvent mockEvent = mock(FedoraEvent.class);
+        final MovedDescendants mockDescendants = mock(MovedDescendants.class);
+        when(mockDescendants.getEvents()).thenReturn(Stream.of(mockEvent, mockEvent));
+        when(mockEventFactory.getMessage(eq(mockEvent), any(javax.jms.Session.class))).thenReturn(mockMsg);
+        testJMSPublisher.publishMovedDescendants(mockDescendants);
+        verify(mockProducer, times(2)).send(mockMsg);
+    }
+
+    @Test
+    public void testPublishMovedDescendantsNotExpanded() throws IOException, JMSException {
+        final MovedDescendants mockDescendants = mock(MovedDescendants.class);
+        testJMSPublisher.setExpandMoves(false);
+        testJMSPublisher.publishMovedDescendants(mockDescendants);
+        verify(mockDescendants, never()).getEvents();
+        verify(mockProducer, never()).send(any(Message.class));
+    }
+
     @Test
     public void testReleaseConnections() throws JMSException  {
         setField(testJMSPublisher, "connection", mockConn);
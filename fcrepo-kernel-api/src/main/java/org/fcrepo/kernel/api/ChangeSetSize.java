@@ -0,0 +1,45 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api;
+
+/**
+ * The size of the changes made in a session that have not yet been committed.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public interface ChangeSetSize {
+
+    /**
+     * Get the number of nodes created, modified or removed
+     * @return the number of nodes
+     */
+    long getNodes();
+
+    /**
+     * Get the number of changes to properties of those nodes
+     * @return the number of property changes
+     */
+    long getProperties();
+
+    /**
+     * Get the number of bytes of binary content written
+     * @return the number of bytes
+     */
+    long getBinaryBytes();
+}
@@ -38,4 +38,12 @@ public interface FedoraRepository {
      * @return a FedoraSession
      */
     FedoraSession login(final Object credentials);
+
+    /**
+     * Login to the repository with credentials, for reading only. The session refuses to commit changes.
+     *
+     * @param credentials the credentials
+     * @return a read-only FedoraSession
+     */
+    FedoraSession loginReadOnly(final Object credentials);
 }
@@ -109,4 +109,19 @@ public interface FedoraSession {
     default void removeSessionData(String key) {
         getSessionData(key).forEach(v -> removeSessionData(key, v));
     }
+
+    /**
+     * Get the size of the changes made in this session that have not yet been committed, which may be measured only
+     * while the size of change sets is limited
+     * @return the size of the pending change set
+     */
+    ChangeSetSize getChangeSetSize();
+
+    /**
+     * Whether this session refuses to commit changes
+     * @return true if the session is read-only
+     */
+    default boolean isReadOnly() {
+        return false;
+    }
 }
@@ -97,6 +97,8 @@ public final class RdfLexicon {
             createProperty(REPOSITORY_NAMESPACE + "hasParent");
     public static final Property HAS_CHILD =
             createProperty(REPOSITORY_NAMESPACE + "hasChild");
+    public static final Property HAS_CHILD_COUNT =
+            createProperty(REPOSITORY_NAMESPACE + "numberOfChildren");
 
     public static final Set<Property> membershipProperties = of(HAS_PARENT, HAS_CHILD);
 
@@ -196,6 +198,14 @@ public final class RdfLexicon {
     public static final Set<Property> repositoryProperties = of(
             HAS_OBJECT_COUNT, HAS_OBJECT_SIZE, HAS_TRANSACTION_SERVICE);
 
+    // BACKGROUND DELETION
+    public static final Property DELETION_STARTED =
+            createProperty(REPOSITORY_NAMESPACE + "deletionStarted");
+    public static final Property DELETED_RESOURCES =
+            createProperty(REPOSITORY_NAMESPACE + "deletedResources");
+    public static final Property DELETION_IN_PROGRESS =
+            createProperty(REPOSITORY_NAMESPACE + "deletionInProgress");
+
     // NAMESPACES
     public static final Property HAS_NAMESPACE_PREFIX =
             createProperty("http://purl.org/vocab/vann/preferredNamespacePrefix");
@@ -46,6 +46,16 @@ public abstract class IdentifierConverter<A, B> extends Converter<A, B> {
      */
     abstract public A toDomain(final String resource);
 
+    /**
+     * Convert the path of a resource, as given by FedoraResource#getPath, to a resource appropriate to this
+     * converter without loading it. The path must not be that of a binary description or of a version.
+     * @param path the path of the resource
+     * @return the resource appropriate to this converter
+     */
+    public A pathToDomain(final String path) {
+        return toDomain(path);
+    }
+
     /**
      * Convert the given resource into a plain string representation of the conversion to the resource
      * @param resource the given resource
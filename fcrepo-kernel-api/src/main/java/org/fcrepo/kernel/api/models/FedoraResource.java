@@ -21,6 +21,7 @@ import java.net.URI;
 import java.time.Instant;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -62,6 +63,19 @@ public interface FedoraResource {
      */
     Stream<FedoraResource> getChildren(Boolean recursive);
 
+    /**
+     * Get the paths of the children of this resource, in repository order, without loading them as resources
+     * @param after the path of the child to start after, or null to start from the first child
+     * @return a stream of child paths
+     */
+    Stream<String> getChildPaths(String after);
+
+    /**
+     * Get the number of children of this resource, as recorded when children are added and removed
+     * @return the number of children, or empty if none has been recorded
+     */
+    Optional<Long> getChildCount();
+
     /**
      * Get the container of this resource
      * @return the container of this resource
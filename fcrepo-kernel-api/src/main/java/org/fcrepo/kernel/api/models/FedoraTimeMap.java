@@ -17,6 +17,9 @@
  */
 package org.fcrepo.kernel.api.models;
 
+import java.time.Instant;
+import java.util.stream.Stream;
+
 /**
  * @author lsitu
  * @since Oct. 04, 2017
@@ -29,4 +32,21 @@ public interface FedoraTimeMap extends FedoraResource {
      * @return the original resource for this
      */
     FedoraResource getOriginalResource();
+
+    /**
+     * Get the datetimes of the Mementos in this TimeMap within a range, in ascending order.
+     *
+     * @param from the earliest datetime to include, or null for no lower bound
+     * @param until the latest datetime to include, or null for no upper bound
+     * @return the Memento datetimes
+     */
+    Stream<Instant> getMementoDatetimes(Instant from, Instant until);
+
+    /**
+     * Find the Memento in this TimeMap whose datetime is nearest to the given datetime.
+     *
+     * @param mementoDatetime the requested datetime
+     * @return the nearest Memento, or null if the TimeMap has no Mementos
+     */
+    FedoraResource findMementoByDatetime(Instant mementoDatetime);
 }
@@ -0,0 +1,45 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.observer;
+
+import java.util.stream.Stream;
+
+/**
+ * The descendants of a moved resource, posted on the event bus just after the RESOURCE_RELOCATION event of the
+ * resource itself, and before any later event. Consumers that want an event for each descendant subscribe to this
+ * type; others get only the event of the moved resource, whose info carries its srcAbsPath and destAbsPath.
+ *
+ * The events are generated from the repository as they are read, so they are to be read while this is being
+ * delivered, and are generated again for each consumer that reads them.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public interface MovedDescendants {
+
+    /**
+     * @return the RESOURCE_RELOCATION event of the moved resource
+     */
+    FedoraEvent getMove();
+
+    /**
+     * @return a RESOURCE_RELOCATION event for each descendant at its new path, each followed by a RESOURCE_DELETION
+     *         event for its old path
+     */
+    Stream<FedoraEvent> getEvents();
+}
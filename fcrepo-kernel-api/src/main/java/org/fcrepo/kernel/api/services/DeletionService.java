@@ -0,0 +1,83 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.services;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.fcrepo.kernel.api.FedoraSession;
+
+/**
+ * Service for deleting resources with many descendants in the background
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public interface DeletionService {
+
+    /**
+     * Delete a resource in the background. The resource is treated as a tombstone as soon as the session is
+     * committed, and its descendants are then removed in batches, each in its own save.
+     *
+     * @param session the session
+     * @param path the path of the resource
+     */
+    void deleteInBackground(FedoraSession session, String path);
+
+    /**
+     * Get the progress of the background deletion of a resource
+     *
+     * @param session the session
+     * @param path the path of the resource
+     * @return the progress, if the resource is being deleted in the background
+     */
+    Optional<Progress> getProgress(FedoraSession session, String path);
+
+    /**
+     * The progress of a background deletion
+     */
+    final class Progress {
+
+        private final Instant started;
+
+        private final long deleted;
+
+        /**
+         * @param started when the deletion started
+         * @param deleted the number of descendants removed so far
+         */
+        public Progress(final Instant started, final long deleted) {
+            this.started = started;
+            this.deleted = deleted;
+        }
+
+        /**
+         * @return when the deletion started
+         */
+        public Instant getStarted() {
+            return started;
+        }
+
+        /**
+         * @return the number of descendants removed so far
+         */
+        public long getDeleted() {
+            return deleted;
+        }
+    }
+}
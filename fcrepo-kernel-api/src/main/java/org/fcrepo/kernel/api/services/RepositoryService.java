@@ -60,4 +60,10 @@ public interface RepositoryService {
      */
     Collection<Throwable> restoreRepository(FedoraSession session, File backupDirectory);
 
+    /**
+     * Count the size of the repository and the number of objects in it again from the index, replacing the totals
+     * maintained as the repository changes
+     */
+    void reconcileRepositoryStatistics();
+
 }
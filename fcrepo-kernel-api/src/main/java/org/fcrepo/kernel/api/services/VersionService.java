@@ -20,6 +20,8 @@ package org.fcrepo.kernel.api.services;
 import java.io.InputStream;
 import java.net.URI;
 import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.Collection;
 
 import org.apache.jena.rdf.model.Resource;
@@ -37,6 +39,12 @@ import org.fcrepo.kernel.api.models.FedoraResource;
  */
 public interface VersionService {
 
+    /**
+     * The format of the identifiers of Mementos within their TimeMap, derived from their datetimes
+     */
+    DateTimeFormatter MEMENTO_DATETIME_ID_FORMATTER =
+            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneId.of("GMT"));
+
     /**
      * Explicitly creates a version for the resource at the path provided.
      *
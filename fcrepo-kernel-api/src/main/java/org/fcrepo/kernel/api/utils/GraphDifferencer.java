@@ -17,23 +17,29 @@
  */
 package org.fcrepo.kernel.api.utils;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
 
-import static java.util.Spliterator.IMMUTABLE;
-import static java.util.Spliterators.spliteratorUnknownSize;
-import static java.util.stream.StreamSupport.stream;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.Collections.unmodifiableList;
 import static org.apache.jena.graph.Node.ANY;
-import static org.apache.jena.sparql.graph.GraphFactory.createDefaultGraph;
 
 /**
- * A wrapping {@link Stream} that calculates two differences between a
- * {@link Graph} A and a source Stream B. The differences are (A - (A ∩ B)) and
- * (B - (A ∩ B)). The ordinary output of this stream is (B - (A ∩ B)), and
- * after exhaustion, sets containing (A - (A ∩ B)) and (A ∩ B) are available.
+ * Calculates the differences between a {@link Graph} A and a source Stream B. The differences are
+ * (A - (A ∩ B)) and (B - (A ∩ B)). All three sets are computed in a single pass over B when the
+ * differencer is constructed and may be consumed any number of times afterwards; the input graph
+ * is not modified.
+ *
+ * <p>Triples are compared the same way a Jena graph compares them (literals by value), but are held
+ * in an open-addressed table keyed by a primitive hash rather than in intermediate graphs.</p>
  *
  * @author ajs6f
  * @author acoburn
@@ -41,11 +47,11 @@ import static org.apache.jena.sparql.graph.GraphFactory.createDefaultGraph;
  */
 public class GraphDifferencer {
 
-    private Graph notCommon;
+    private final List<Triple> notCommon;
 
-    private Graph common;
+    private final List<Triple> common;
 
-    private Stream.Builder<Triple> source = Stream.builder();
+    private final List<Triple> source;
 
     /**
      * Diff a Model against a stream of triples
@@ -66,18 +72,27 @@ public class GraphDifferencer {
      */
     public GraphDifferencer(final Graph replacement,
                                      final Stream<Triple> original) {
-        notCommon = replacement;
-        common = createDefaultGraph();
-        original.forEach(x -> {
-            synchronized (this) {
-                if (notCommon.contains(x)) {
-                    notCommon.remove(x.getSubject(), x.getPredicate(), x.getObject());
-                    common.add(x);
-                } else if (!common.contains(x)) {
-                    source.accept(x);
-                }
+        final TripleTable replacements = new TripleTable(replacement.size());
+        replacement.find(ANY, ANY, ANY).forEachRemaining(t -> replacements.add(t, false));
+
+        final TripleTable removed = new TripleTable(0);
+        final List<Triple> commonTriples = new ArrayList<>();
+        final List<Triple> sourceTriples = new ArrayList<>();
+
+        final Iterator<Triple> originals = original.iterator();
+        while (originals.hasNext()) {
+            final Triple x = originals.next();
+            final int matched = replacements.markMatches(x);
+            if (matched == TripleTable.NEWLY_MARKED) {
+                commonTriples.add(x);
+            } else if (matched == TripleTable.NOT_FOUND && removed.add(x, true)) {
+                sourceTriples.add(x);
             }
-        });
+        }
+
+        this.common = unmodifiableList(commonTriples);
+        this.source = unmodifiableList(sourceTriples);
+        this.notCommon = unmodifiableList(replacements.unmarked());
     }
 
     /**
@@ -86,24 +101,162 @@ public class GraphDifferencer {
      * @return The differences between the two inputs.
      */
     public Stream<Triple> difference() {
-        return source.build();
+        return source.stream();
     }
 
     /**
-     * This method will return null until the source iterator is exhausted.
+     * This method returns the elements common to both inputs.
      *
      * @return The elements that turned out to be common to the two inputs.
      */
     public Stream<Triple> common() {
-        return stream(spliteratorUnknownSize(common.find(ANY, ANY, ANY), IMMUTABLE), false);
+        return common.stream();
     }
 
     /**
-     * This method will return null until the source iterator is exhausted.
+     * This method returns the elements of the graph that were not found in the source stream.
      *
      * @return The elements that turned out not to be common to the two inputs.
      */
     public Stream<Triple> notCommon() {
-        return stream(spliteratorUnknownSize(notCommon.find(ANY, ANY, ANY), IMMUTABLE), false);
+        return notCommon.stream();
+    }
+
+    /**
+     * An insertion-ordered, open-addressed hash table of triples. Slots are addressed by an int hash
+     * derived from each node's indexing value, so that value-equivalent literals (e.g. "0"^^xsd:int
+     * and "000"^^xsd:int) land in the same probe sequence, and are confirmed with
+     * {@link Triple#matches(Triple)}.
+     */
+    private static final class TripleTable {
+
+        static final int NOT_FOUND = 0;
+
+        static final int NEWLY_MARKED = 1;
+
+        static final int ALREADY_MARKED = 2;
+
+        private static final int EMPTY = -1;
+
+        /* index into the insertion-ordered arrays, or EMPTY */
+        private int[] slots;
+
+        /* cached hashes, parallel to slots */
+        private int[] slotHashes;
+
+        private Triple[] triples;
+
+        private boolean[] marked;
+
+        private int size;
+
+        TripleTable(final int expected) {
+            int capacity = 16;
+            while (capacity < expected * 2) {
+                capacity <<= 1;
+            }
+            slots = new int[capacity];
+            slotHashes = new int[capacity];
+            fill(slots, EMPTY);
+            triples = new Triple[Math.max(expected, 8)];
+            marked = new boolean[triples.length];
+        }
+
+        /**
+         * Add a triple.
+         *
+         * @param t the triple
+         * @param distinct whether to skip the triple if an equivalent one is already present
+         * @return whether the triple was added
+         */
+        boolean add(final Triple t, final boolean distinct) {
+            final int hash = hash(t);
+            final int mask = slots.length - 1;
+            int i = hash & mask;
+            while (slots[i] != EMPTY) {
+                if (distinct && slotHashes[i] == hash && triples[slots[i]].matches(t)) {
+                    return false;
+                }
+                i = (i + 1) & mask;
+            }
+            if (size == triples.length) {
+                triples = copyOf(triples, size * 2);
+                marked = copyOf(marked, size * 2);
+            }
+            triples[size] = t;
+            slots[i] = size;
+            slotHashes[i] = hash;
+            size++;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return true;
+        }
+
+        /**
+         * Mark every entry equivalent to the given triple.
+         *
+         * @param t the triple
+         * @return NOT_FOUND, NEWLY_MARKED if at least one unmarked entry was marked, or ALREADY_MARKED
+         */
+        int markMatches(final Triple t) {
+            final int hash = hash(t);
+            final int mask = slots.length - 1;
+            int result = NOT_FOUND;
+            for (int i = hash & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+                final int idx = slots[i];
+                if (slotHashes[i] == hash && triples[idx].matches(t)) {
+                    if (!marked[idx]) {
+                        marked[idx] = true;
+                        result = NEWLY_MARKED;
+                    } else if (result == NOT_FOUND) {
+                        result = ALREADY_MARKED;
+                    }
+                }
+            }
+            return result;
+        }
+
+        List<Triple> unmarked() {
+            final List<Triple> result = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                if (!marked[i]) {
+                    result.add(triples[i]);
+                }
+            }
+            return result;
+        }
+
+        private void rehash() {
+            final int capacity = slots.length << 1;
+            final int mask = capacity - 1;
+            final int[] newSlots = new int[capacity];
+            final int[] newHashes = new int[capacity];
+            fill(newSlots, EMPTY);
+            for (int s = 0; s < slots.length; s++) {
+                if (slots[s] != EMPTY) {
+                    int i = slotHashes[s] & mask;
+                    while (newSlots[i] != EMPTY) {
+                        i = (i + 1) & mask;
+                    }
+                    newSlots[i] = slots[s];
+                    newHashes[i] = slotHashes[s];
+                }
+            }
+            slots = newSlots;
+            slotHashes = newHashes;
+        }
+
+        private static int hash(final Triple t) {
+            int h = hash(t.getSubject());
+            h = 31 * h + hash(t.getPredicate());
+            h = 31 * h + hash(t.getObject());
+            // spread the high bits, as the table is indexed by the low ones
+            return h ^ (h >>> 16);
+        }
+
+        private static int hash(final Node n) {
+            return n.getIndexingValue().hashCode();
+        }
     }
 }
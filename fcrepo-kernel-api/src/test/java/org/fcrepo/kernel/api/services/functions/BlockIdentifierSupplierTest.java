@@ -0,0 +1,83 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.api.services.functions;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.IntStream;
+
+import org.junit.Test;
+
+/**
+ * @author agent
+ */
+public class BlockIdentifierSupplierTest {
+
+    @Test
+    public void testHierarchy() {
+        final String pid = new BlockIdentifierSupplier().get();
+        final String[] segments = pid.split("/");
+        assertEquals(5, segments.length);
+        final String id = segments[4];
+        assertEquals(id, UUID.fromString(id).toString());
+        assertEquals(4, UUID.fromString(id).version());
+        assertEquals(2, UUID.fromString(id).variant());
+        assertEquals(id.replace("-", "").substring(0, 8), segments[0] + segments[1] + segments[2] + segments[3]);
+    }
+
+    @Test
+    public void testUniqueAcrossBlocks() {
+        final BlockIdentifierSupplier supplier = new BlockIdentifierSupplier(1, 2, 16);
+        final Set<String> pids = IntStream.range(0, 1000).mapToObj(i -> supplier.get()).collect(toSet());
+        assertEquals(1000, pids.size());
+    }
+
+    @Test
+    public void testSpreadsAcrossSegments() {
+        final BlockIdentifierSupplier supplier = new BlockIdentifierSupplier();
+        final Set<String> segments = IntStream.range(0, 256).mapToObj(i -> supplier.get().substring(0, 2))
+                .collect(toSet());
+        assertTrue(segments.size() > 100);
+    }
+
+    @Test
+    public void testConcurrentMinting() throws InterruptedException {
+        final BlockIdentifierSupplier supplier = new BlockIdentifierSupplier(2, 4, 64);
+        final Set<String> pids = ConcurrentHashMap.newKeySet();
+        final ExecutorService executor = newFixedThreadPool(8);
+        for (int i = 0; i < 8; i++) {
+            executor.execute(() -> IntStream.range(0, 5000).forEach(j -> pids.add(supplier.get())));
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, SECONDS));
+        assertEquals(40000, pids.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHierarchyTooDeep() {
+        new BlockIdentifierSupplier(8, 5, 16);
+    }
+}
@@ -180,4 +180,77 @@ public class GraphDifferencerTest {
             assertTrue(common.filter(x -> x.equals(t_int)).findFirst().isPresent());
         }
     }
+
+    @Test
+    public void testRepeatableConsumption() {
+
+        final Graph graph = GraphFactory.createDefaultGraph();
+        graph.add(t_xyz);
+        graph.add(t_int);
+
+        try (final DefaultRdfStream original = new DefaultRdfStream(subject, of(t_abc, t_xyz))) {
+            final GraphDifferencer diff = new GraphDifferencer(graph, original);
+
+            assertEquals(1, diff.difference().count());
+            assertEquals(1, diff.difference().count());
+            assertEquals(1, diff.notCommon().count());
+            assertTrue(diff.notCommon().anyMatch(t_int::equals));
+            assertEquals(1, diff.common().count());
+            assertTrue(diff.common().anyMatch(t_xyz::equals));
+        }
+    }
+
+    @Test
+    public void testReplacementGraphUnmodified() {
+
+        final Graph graph = GraphFactory.createDefaultGraph();
+        graph.add(t_xyz);
+        graph.add(t_abc);
+
+        try (final DefaultRdfStream original = new DefaultRdfStream(subject, of(t_xyz))) {
+            new GraphDifferencer(graph, original);
+
+            assertEquals(2, graph.size());
+            assertTrue(graph.contains(t_xyz));
+        }
+    }
+
+    @Test
+    public void testDuplicateOriginals() {
+
+        final Graph graph = GraphFactory.createDefaultGraph();
+        graph.add(t_xyz);
+
+        try (final DefaultRdfStream original = new DefaultRdfStream(subject, of(t_xyz, t_abc, t_xyz, t_abc))) {
+            final GraphDifferencer diff = new GraphDifferencer(graph, original);
+
+            assertEquals(1, diff.difference().count());
+            assertEquals(0, diff.notCommon().count());
+            assertEquals(1, diff.common().count());
+        }
+    }
+
+    @Test
+    public void testManyTriples() {
+
+        final Graph graph = GraphFactory.createDefaultGraph();
+        final Stream.Builder<Triple> original = Stream.builder();
+        for (int i = 0; i < 1000; i++) {
+            final Triple t = new Triple(subject, createURI("p"),
+                    createLiteral(Integer.toString(i), XSDDatatype.XSDint));
+            if (i % 2 == 0) {
+                graph.add(t);
+            }
+            if (i % 3 == 0) {
+                original.accept(t);
+            }
+        }
+
+        final GraphDifferencer diff = new GraphDifferencer(graph, original.build());
+
+        // multiples of 6 are common, other multiples of 3 are removed, other multiples of 2 are added
+        assertEquals(167, diff.common().count());
+        assertEquals(167, diff.difference().count());
+        assertEquals(333, diff.notCommon().count());
+    }
 }
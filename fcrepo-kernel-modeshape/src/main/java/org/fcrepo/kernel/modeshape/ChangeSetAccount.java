@@ -0,0 +1,396 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape;
+
+import static com.codahale.metrics.MetricRegistry.name;
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.Long.MAX_VALUE;
+import static java.lang.Long.parseLong;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.ChangeSetSize;
+import org.fcrepo.kernel.api.exception.ChangeSetTooLargeException;
+import org.fcrepo.kernel.api.exception.InsufficientStorageException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.metrics.RegistryService;
+import org.slf4j.Logger;
+
+import com.codahale.metrics.Meter;
+import com.google.common.cache.Cache;
+
+/**
+ * An account of the changes made in a JCR session that have not yet been saved, which ModeShape holds in memory
+ * until they are: the nodes created, modified or removed, the changes to their properties, and the bytes of binary
+ * content written.
+ *
+ * Each can be limited by system properties: {@value #NODES_PROPERTY}, {@value #PROPERTIES_PROPERTY} and
+ * {@value #BINARY_BYTES_PROPERTY} for a hard limit, and the same with a ".soft" suffix for a soft limit. Passing a soft
+ * limit is logged, once for each change set; passing a hard limit fails the change that passed it, and any later
+ * change or commit, with a {@link ChangeSetTooLargeException}, or an {@link InsufficientStorageException} for binary
+ * content. A session that has passed a hard limit can only be rolled back. Neither limit is set by default.
+ *
+ * The account is kept for the JCR session, so that the kernel can record changes from the nodes it changes. Sessions
+ * started while no limit is set keep no account, and their changes are not measured. The nodes of a removed subtree
+ * are counted only as far as its limit.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public class ChangeSetAccount implements ChangeSetSize {
+
+    private static final Logger LOGGER = getLogger(ChangeSetAccount.class);
+
+    public static final String NODES_PROPERTY = "fcrepo.session.limit.nodes";
+
+    public static final String PROPERTIES_PROPERTY = "fcrepo.session.limit.properties";
+
+    public static final String BINARY_BYTES_PROPERTY = "fcrepo.session.limit.binaryBytes";
+
+    private static final String SOFT = ".soft";
+
+    private static final Cache<Session, ChangeSetAccount> ACCOUNTS = newBuilder().weakKeys().build();
+
+    /**
+     * The size of the changes in a session that keeps no account.
+     */
+    public static final ChangeSetSize UNMEASURED = new ChangeSetSize() {
+
+        @Override
+        public long getNodes() {
+            return 0;
+        }
+
+        @Override
+        public long getProperties() {
+            return 0;
+        }
+
+        @Override
+        public long getBinaryBytes() {
+            return 0;
+        }
+    };
+
+    static final Meter SOFT_LIMIT_EXCEEDED = RegistryService.getInstance().getMetrics()
+            .meter(name(ChangeSetAccount.class, "soft-limit-exceeded"));
+
+    static final Meter HARD_LIMIT_EXCEEDED = RegistryService.getInstance().getMetrics()
+            .meter(name(ChangeSetAccount.class, "hard-limit-exceeded"));
+
+    private final Set<String> nodes = ConcurrentHashMap.newKeySet();
+
+    // the nodes below the roots of removed subtrees, which are counted rather than listed
+    private final AtomicLong removedNodes = new AtomicLong();
+
+    private final AtomicLong properties = new AtomicLong();
+
+    private final AtomicLong binaryBytes = new AtomicLong();
+
+    private final Limit nodeLimit = new Limit("nodes", NODES_PROPERTY, false);
+
+    private final Limit propertyLimit = new Limit("property changes", PROPERTIES_PROPERTY, false);
+
+    private final Limit binaryByteLimit = new Limit("bytes of binary content", BINARY_BYTES_PROPERTY, true);
+
+    /**
+     * A soft and hard limit on one measure of a change set.
+     */
+    private static final class Limit {
+
+        private final String measure;
+
+        private final long soft;
+
+        private final long hard;
+
+        private final boolean storage;
+
+        private final AtomicBoolean warned = new AtomicBoolean();
+
+        private Limit(final String measure, final String property, final boolean storage) {
+            this.measure = measure;
+            this.hard = parseLong(System.getProperty(property, Long.toString(MAX_VALUE)));
+            this.soft = parseLong(System.getProperty(property + SOFT, Long.toString(hard)));
+            this.storage = storage;
+        }
+
+        private static boolean isSet(final String property) {
+            return System.getProperty(property) != null || System.getProperty(property + SOFT) != null;
+        }
+
+        private boolean isSet() {
+            return soft < MAX_VALUE;
+        }
+
+        /**
+         * The value past which nothing more is learnt by measuring: the hard limit, or the soft one if there is no
+         * hard limit.
+         */
+        private long extent() {
+            return hard < MAX_VALUE ? hard : soft;
+        }
+
+        private void check(final long value) {
+            if (value > hard) {
+                HARD_LIMIT_EXCEEDED.mark();
+                final String msg = "The changes in this session hold " + value + " " + measure
+                        + ", more than the limit of " + hard;
+                if (storage) {
+                    throw new InsufficientStorageException(msg, null);
+                }
+                throw new ChangeSetTooLargeException(msg);
+            }
+            if (value > soft && warned.compareAndSet(false, true)) {
+                SOFT_LIMIT_EXCEEDED.mark();
+                LOGGER.warn("The changes in a session hold {} {}, more than the soft limit of {}", value, measure,
+                        soft);
+            }
+        }
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.size() + removedNodes.get();
+    }
+
+    @Override
+    public long getProperties() {
+        return properties.get();
+    }
+
+    @Override
+    public long getBinaryBytes() {
+        return binaryBytes.get();
+    }
+
+    /**
+     * Check that the change set is within its hard limits.
+     */
+    public void check() {
+        nodeLimit.check(getNodes());
+        propertyLimit.check(getProperties());
+        binaryByteLimit.check(getBinaryBytes());
+    }
+
+    /**
+     * Forget the changes, once they have been saved or discarded.
+     */
+    public void clear() {
+        nodes.clear();
+        removedNodes.set(0);
+        properties.set(0);
+        binaryBytes.set(0);
+        nodeLimit.warned.set(false);
+        propertyLimit.warned.set(false);
+        binaryByteLimit.warned.set(false);
+    }
+
+    /**
+     * Get the account for a JCR session, starting one if it has none and any limit is set.
+     *
+     * @param session the JCR session
+     * @return the account of its changes, or null if no limit is set
+     */
+    public static ChangeSetAccount forSession(final Session session) {
+        if (!Limit.isSet(NODES_PROPERTY) && !Limit.isSet(PROPERTIES_PROPERTY) &&
+                !Limit.isSet(BINARY_BYTES_PROPERTY)) {
+            return ACCOUNTS.getIfPresent(session);
+        }
+        try {
+            return ACCOUNTS.get(session, ChangeSetAccount::new);
+        } catch (final ExecutionException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Forget the changes in a JCR session whose pending changes have been discarded.
+     *
+     * @param session the JCR session
+     */
+    public static void discarded(final Session session) {
+        final ChangeSetAccount account = ACCOUNTS.getIfPresent(session);
+        if (account != null) {
+            account.clear();
+        }
+    }
+
+    /**
+     * Record that a node has been created, modified or is about to be removed.
+     *
+     * @param node the JCR node
+     */
+    public static void touched(final Node node) {
+        final ChangeSetAccount account = of(node);
+        if (account != null) {
+            try {
+                if (account.nodes.add(node.getPath())) {
+                    account.nodeLimit.check(account.getNodes());
+                }
+            } catch (final RepositoryException e) {
+                throw new RepositoryRuntimeException(e);
+            }
+        }
+    }
+
+    /**
+     * Record that a subtree is about to be removed: its root node and each of its descendants, which are counted
+     * only until the count passes the limit on nodes.
+     *
+     * @param node the JCR node at the root of the subtree
+     */
+    public static void removing(final Node node) {
+        final ChangeSetAccount account = of(node);
+        if (account == null) {
+            return;
+        }
+        try {
+            if (account.nodes.add(node.getPath())) {
+                account.nodeLimit.check(account.getNodes());
+            }
+            if (!account.nodeLimit.isSet()) {
+                return;
+            }
+            final Deque<NodeIterator> levels = new ArrayDeque<>();
+            levels.push(node.getNodes());
+            while (!levels.isEmpty() && account.getNodes() <= account.nodeLimit.extent()) {
+                final NodeIterator level = levels.peek();
+                if (!level.hasNext()) {
+                    levels.pop();
+                    continue;
+                }
+                final Node child = level.nextNode();
+                account.nodeLimit.check(account.removedNodes.incrementAndGet() + account.nodes.size());
+                levels.push(child.getNodes());
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Record a change to a property of a node.
+     *
+     * @param node the JCR node
+     */
+    public static void propertyChanged(final Node node) {
+        propertyChanged(node, 1);
+    }
+
+    /**
+     * Record a number of changes to the properties of a node, such as values appended to a property at once.
+     *
+     * @param node the JCR node
+     * @param changes the number of changes
+     */
+    public static void propertyChanged(final Node node, final long changes) {
+        final ChangeSetAccount account = of(node);
+        if (account != null) {
+            account.propertyLimit.check(account.properties.addAndGet(changes));
+        }
+    }
+
+    /**
+     * Limit binary content about to be written to a node: the stream returned fails once reading it would pass the
+     * limit on bytes of binary content, before the rest of the content is read or stored.
+     *
+     * @param node the JCR node
+     * @param content the content
+     * @return the content, limited if the session has a limit on bytes of binary content
+     */
+    public static InputStream binaryContent(final Node node, final InputStream content) {
+        final ChangeSetAccount account = of(node);
+        if (account == null || !account.binaryByteLimit.isSet()) {
+            return content;
+        }
+        return new FilterInputStream(content) {
+
+            private long read;
+
+            private void counted(final long bytes) {
+                if (bytes > 0) {
+                    read += bytes;
+                    account.binaryByteLimit.check(account.binaryBytes.get() + read);
+                }
+            }
+
+            @Override
+            public int read() throws IOException {
+                final int b = super.read();
+                counted(b < 0 ? 0 : 1);
+                return b;
+            }
+
+            @Override
+            public int read(final byte[] b, final int off, final int len) throws IOException {
+                final int count = super.read(b, off, len);
+                counted(count);
+                return count;
+            }
+
+            @Override
+            public long skip(final long n) throws IOException {
+                final long count = super.skip(n);
+                counted(count);
+                return count;
+            }
+        };
+    }
+
+    /**
+     * Record binary content written to a node.
+     *
+     * @param node the JCR node
+     * @param bytes the size of the content
+     */
+    public static void binaryWritten(final Node node, final long bytes) {
+        final ChangeSetAccount account = of(node);
+        if (account != null) {
+            account.binaryByteLimit.check(account.binaryBytes.addAndGet(bytes));
+        }
+    }
+
+    private static ChangeSetAccount of(final Node node) {
+        // most sessions keep no account, so look for one only if any is kept
+        if (ACCOUNTS.size() == 0) {
+            return null;
+        }
+        try {
+            final Session session = node.getSession();
+            return session == null ? null : ACCOUNTS.getIfPresent(session);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+}
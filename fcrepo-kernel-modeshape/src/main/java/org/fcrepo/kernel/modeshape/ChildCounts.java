@@ -0,0 +1,434 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Optional.empty;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static javax.jcr.observation.Event.NODE_ADDED;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_PAIRTREE;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TIME_MAP;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.DELETIONS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_CHILD_COUNT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIEDBY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.REPOSITORY_STATISTICS;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.getJcrRepository;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.isClustered;
+import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.isPairtree;
+import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.nastyChildren;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isMemento;
+import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.modeshape.utils.ChildNodeIterator;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The numbers of children of containers, kept in the fedora:childCount property of each container so that they can
+ * be read without walking its children.
+ *
+ * The counts are maintained from the JCR event stream, so every save is counted, whichever service made it, and no
+ * save waits for them: a count is brought up to date shortly after the children of its container change. A container
+ * with no count, e.g. one created before counts were kept, is counted from its children the first time one of them
+ * changes, on the observation thread. Children added or removed while a container is being counted are counted once;
+ * when the container of a removed child can no longer be told, because a pairtree node above it has since been
+ * removed too, the nearest container is counted again.
+ *
+ * Every member of a cluster observes the changes saved on every other member, so they would each apply every change:
+ * counts are not kept when the repository is clustered.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+@Component
+public class ChildCounts implements EventListener {
+
+    private static final Logger LOGGER = getLogger(ChildCounts.class);
+
+    private static final int EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED;
+
+    private static final Set<String> HIDDEN =
+            ImmutableSet.of(JCR_CONTENT, "#", MEMBERSHIP_INDEX, REPOSITORY_STATISTICS, DELETIONS);
+
+    private static final Set<String> MODIFIED = ImmutableSet.of(JCR_LASTMODIFIED, JCR_LASTMODIFIEDBY);
+
+    // marks the changes saved by the counts, so that they are not taken for changes to the containers
+    private static final String COUNTS_USER_DATA = "{\"fcrepo.childCounts\":true}";
+
+    // the repositories whose counts are kept
+    private static final Cache<Repository, Boolean> COUNTED = newBuilder().weakKeys().build();
+
+    @Inject
+    private FedoraRepository repository;
+
+    private Repository jcrRepository;
+
+    private boolean counting;
+
+    // when each container was last counted from its children, to skip the changes that were counted then
+    private final Cache<String, Long> recounted = newBuilder().expireAfterWrite(1, HOURS).build();
+
+    // used only to register and deregister this listener
+    private volatile Session session;
+
+    /**
+     * Start listening for changes.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PostConstruct
+    public void start() throws RepositoryException {
+        jcrRepository = getJcrRepository(repository);
+        counting = !isClustered(jcrRepository);
+        if (counting) {
+            COUNTED.put(jcrRepository, true);
+        } else {
+            LOGGER.info("Child counts are not kept in a clustered repository");
+        }
+        ChildNodeIterator.listen(jcrRepository);
+        listen();
+    }
+
+    /**
+     * Listen again for changes to a repository that has been restored from a backup, which drops its listeners. The
+     * restored content has its own counts.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    public synchronized void restored() throws RepositoryException {
+        session.logout();
+        recounted.invalidateAll();
+        ChildNodeIterator.listen(jcrRepository);
+        listen();
+    }
+
+    /**
+     * Stop listening for changes.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PreDestroy
+    public void stop() throws RepositoryException {
+        try {
+            session.getWorkspace().getObservationManager().removeEventListener(this);
+        } finally {
+            session.logout();
+            COUNTED.invalidate(jcrRepository);
+            ChildNodeIterator.forget(jcrRepository);
+        }
+    }
+
+    /**
+     * Get the number of children of a container.
+     *
+     * @param node the JCR node of the container
+     * @return the number of children, if it has been counted
+     */
+    public static Optional<Long> of(final Node node) {
+        try {
+            final Session session = node.getSession();
+            final Repository repository = session == null ? null : session.getRepository();
+            if (repository == null || COUNTED.getIfPresent(repository) == null ||
+                    !node.hasProperty(FEDORA_CHILD_COUNT)) {
+                return empty();
+            }
+            return Optional.of(node.getProperty(FEDORA_CHILD_COUNT).getLong());
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * @param event a JCR event
+     * @return whether the event was saved with the child counts, rather than by a change to their containers
+     */
+    public static boolean isCount(final Event event) {
+        try {
+            return COUNTS_USER_DATA.equals(event.getUserData());
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Apply the changes to the children of containers.
+     *
+     * @param events the JCR events
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        final List<Event> batch = new ArrayList<>();
+        while (events.hasNext()) {
+            batch.add(events.nextEvent());
+        }
+        final Set<String> parents = new HashSet<>();
+        final Set<String> sources = new HashSet<>();
+        final Set<String> destinations = new HashSet<>();
+        final Map<String, Boolean> removed = new HashMap<>();
+        try {
+            for (final Event event : batch) {
+                final String path = event.getPath();
+                switch (event.getType()) {
+                    case NODE_ADDED:
+                        parents.add(parentOf(path));
+                        break;
+                    case NODE_REMOVED:
+                        parents.add(parentOf(path));
+                        removed.put(path, isType(event, FEDORA_PAIRTREE) && !HIDDEN.contains(nameOf(path)));
+                        break;
+                    case NODE_MOVED:
+                        parents.add(parentOf(path));
+                        destinations.add(path);
+                        final Object source = event.getInfo().get("srcAbsPath");
+                        if (source != null) {
+                            sources.add(source.toString());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (final RepositoryException | RuntimeException e) {
+            LOGGER.warn("Could not read events for child counts: {}", e.getMessage());
+            return;
+        }
+        ChildNodeIterator.changed(jcrRepository, parents, sources);
+        if (!counting) {
+            return;
+        }
+        final Session lookupSession = getJcrSession(repository.login());
+        try {
+            lookupSession.getWorkspace().getObservationManager().setUserData(COUNTS_USER_DATA);
+            new Changes(lookupSession, removed).apply(batch, destinations);
+        } catch (final RepositoryException | RuntimeException e) {
+            LOGGER.warn("Could not apply events to child counts: {}", e.getMessage());
+        } finally {
+            lookupSession.logout();
+        }
+    }
+
+    /**
+     * The changes to child counts made by one batch of events.
+     */
+    private final class Changes {
+
+        private final Session session;
+
+        // the nodes removed in the batch, and whether their children would have been looked through to theirs
+        private final Map<String, Boolean> removed;
+
+        private final Map<String, Long> deltas = new HashMap<>();
+
+        private final Set<String> recounts = new LinkedHashSet<>();
+
+        private Changes(final Session session, final Map<String, Boolean> removed) {
+            this.session = session;
+            this.removed = removed;
+        }
+
+        private void apply(final List<Event> batch, final Set<String> destinations) throws RepositoryException {
+            for (final Event event : batch) {
+                final String path = event.getPath();
+                switch (event.getType()) {
+                    case NODE_ADDED:
+                        if (isChild(event, path)) {
+                            child(path, 1, event.getDate());
+                        }
+                        // a new or copied container is counted, but a moved one keeps its count
+                        if (!destinations.contains(path) && session.nodeExists(path) &&
+                                isCounted(session.getNode(path))) {
+                            recounts.add(path);
+                        }
+                        break;
+                    case NODE_REMOVED:
+                        if (isChild(event, path)) {
+                            child(path, -1, event.getDate());
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+            final Set<String> containers = new LinkedHashSet<>(recounts);
+            containers.addAll(deltas.keySet());
+            for (final String path : containers) {
+                save(path);
+            }
+        }
+
+        /**
+         * Record a change to the count of a child's container, looking through the pairtree nodes above the child,
+         * including those removed in the same batch.
+         */
+        private void child(final String path, final long delta, final long date) throws RepositoryException {
+            String ancestor = parentOf(path);
+            for (Boolean pairtree = removed.get(ancestor); pairtree != null; pairtree = removed.get(ancestor)) {
+                if (!pairtree) {
+                    // its container was removed with it
+                    return;
+                }
+                ancestor = parentOf(ancestor);
+            }
+            if (!session.nodeExists(ancestor)) {
+                // removed since, so whether it was a pairtree node cannot be told
+                while (!session.nodeExists(ancestor)) {
+                    ancestor = parentOf(ancestor);
+                }
+                containing(session.getNode(ancestor)).ifPresent(recounts::add);
+                return;
+            }
+            final Optional<String> container = containing(session.getNode(ancestor));
+            if (container.isPresent()) {
+                final Long counted = recounted.getIfPresent(container.get());
+                if (counted == null || date > counted) {
+                    deltas.merge(container.get(), delta, Long::sum);
+                }
+            }
+        }
+
+        private void save(final String path) {
+            try {
+                if (!session.nodeExists(path)) {
+                    return;
+                }
+                final Node container = session.getNode(path);
+                if (!recounts.contains(path) && container.hasProperty(FEDORA_CHILD_COUNT)) {
+                    final long delta = deltas.get(path);
+                    if (delta == 0) {
+                        return;
+                    }
+                    container.setProperty(FEDORA_CHILD_COUNT, container.getProperty(FEDORA_CHILD_COUNT).getLong()
+                            + delta);
+                } else {
+                    final long started = currentTimeMillis();
+                    container.setProperty(FEDORA_CHILD_COUNT, new FedoraResourceImpl(container).getChildPaths(null)
+                            .count());
+                    recounted.put(path, started);
+                }
+                // a count is not a modification of its container, so its modification date is kept as it was
+                for (final String modified : MODIFIED) {
+                    if (container.hasProperty(modified)) {
+                        container.setProperty(modified, container.getProperty(modified).getValue());
+                    }
+                }
+                session.save();
+            } catch (final RepositoryException | RuntimeException e) {
+                LOGGER.warn("Could not count the children of {}: {}", path, e.getMessage());
+                try {
+                    session.refresh(false);
+                } catch (final RepositoryException ex) {
+                    throw new RepositoryRuntimeException(ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the container whose children include those of an existing node, looking through pairtree nodes.
+     */
+    private static Optional<String> containing(final Node ancestor) throws RepositoryException {
+        Node node = ancestor;
+        while (isPairtree.test(node)) {
+            if (nastyChildren.test(node)) {
+                return empty();
+            }
+            node = node.getParent();
+        }
+        return isCounted(node) ? Optional.of(node.getPath()) : empty();
+    }
+
+    private static boolean isCounted(final Node node) throws RepositoryException {
+        return node.getDepth() == 0 ||
+                (node.isNodeType(FEDORA_CONTAINER) && !TombstoneImpl.hasMixin(node) && !isMemento.test(node));
+    }
+
+    /**
+     * Whether a node is listed among the children of its container, as FedoraResource#getChildPaths lists them.
+     */
+    private static boolean isChild(final Event event, final String path) throws RepositoryException {
+        return !HIDDEN.contains(nameOf(path)) && !isType(event, FEDORA_PAIRTREE) && !isType(event, FEDORA_TOMBSTONE)
+                && !isType(event, FEDORA_TIME_MAP) && !isType(event, "mode:system");
+    }
+
+    private static boolean isType(final Event event, final String type) throws RepositoryException {
+        if (!(event instanceof org.modeshape.jcr.api.observation.Event)) {
+            return false;
+        }
+        final org.modeshape.jcr.api.observation.Event modeEvent = (org.modeshape.jcr.api.observation.Event) event;
+        if (modeEvent.getPrimaryNodeType().isNodeType(type)) {
+            return true;
+        }
+        for (final NodeType mixin : modeEvent.getMixinNodeTypes()) {
+            if (mixin.isNodeType(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void listen() throws RepositoryException {
+        session = getJcrSession(repository.login());
+        session.getWorkspace().getObservationManager()
+                .addEventListener(this, EVENT_TYPES, "/", true, null, null, false);
+    }
+
+    private static String parentOf(final String path) {
+        final int end = path.lastIndexOf('/');
+        return end <= 0 ? "/" : path.substring(0, end);
+    }
+
+    private static String nameOf(final String path) {
+        final String segment = path.substring(path.lastIndexOf('/') + 1);
+        return segment.endsWith("]") ? segment.substring(0, segment.lastIndexOf('[')) : segment;
+    }
+}
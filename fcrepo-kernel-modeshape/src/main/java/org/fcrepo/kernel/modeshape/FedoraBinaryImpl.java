@@ -77,6 +77,13 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
 
     private static final Logger LOGGER = getLogger(FedoraBinaryImpl.class);
 
+    // the keys of the metadata snapshot
+    private static final String CONTENT_SIZE_KEY = "contentSize";
+
+    private static final String CONTENT_DIGEST_KEY = "contentDigest";
+
+    private static final String MIME_TYPE_KEY = "mimeType";
+
 
     static final RegistryService registryService = RegistryService.getInstance();
     static final Counter fixityCheckCounter
@@ -88,6 +95,8 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
     static final Histogram contentSizeHistogram =
             registryService.getMetrics().histogram(name(FedoraBinary.class, "content-size"));
 
+    private NonRdfSourceDescriptionImpl description;
+
     /**
      * Wrap an existing Node as a Fedora Binary
      * @param node the node
@@ -110,7 +119,18 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
 
     @Override
     public FedoraResource getDescription() {
-        return new NonRdfSourceDescriptionImpl(getDescriptionNode());
+        if (description == null) {
+            description = new NonRdfSourceDescriptionImpl(getDescriptionNode());
+        }
+        return description;
+    }
+
+    @Override
+    protected void invalidate() {
+        super.invalidate();
+        if (description != null) {
+            description.invalidate();
+        }
     }
 
     protected Node getDescriptionNode() {
@@ -160,6 +180,7 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
                            final StoragePolicyDecisionPoint storagePolicyDecisionPoint)
             throws InvalidChecksumException {
 
+        invalidate();
         try {
             final Node contentNode = getNode();
 
@@ -184,7 +205,7 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
             }
             final ValueFactory modevf =
                     (ValueFactory) node.getSession().getValueFactory();
-            final Binary binary = modevf.createBinary(content, hint);
+            final Binary binary = modevf.createBinary(ChangeSetAccount.binaryContent(contentNode, content), hint);
 
         /*
          * This next line of code deserves explanation. If we chose for the
@@ -206,6 +227,7 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
             verifyChecksums(nonNullChecksums, dataProperty);
 
             decorateContentNode(contentNode, nonNullChecksums);
+            ChangeSetAccount.binaryWritten(contentNode, dataProperty.getLength());
             FedoraTypesUtils.touch(getNode());
             FedoraTypesUtils.touch(((FedoraResourceImpl) getDescription()).getNode());
 
@@ -277,6 +299,10 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
      */
     @Override
     public long getContentSize() {
+        return memoize(CONTENT_SIZE_KEY, this::readContentSize);
+    }
+
+    private long readContentSize() {
         try {
             if (hasProperty(CONTENT_SIZE)) {
                 return getProperty(CONTENT_SIZE).getLong();
@@ -294,6 +320,10 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
      */
     @Override
     public URI getContentDigest() {
+        return memoize(CONTENT_DIGEST_KEY, this::readContentDigest);
+    }
+
+    private URI readContentDigest() {
         try {
             // Determine which digest algorithm to use
             final String algorithm = hasProperty(DEFAULT_DIGEST_ALGORITHM) ?
@@ -333,6 +363,10 @@ public class FedoraBinaryImpl extends FedoraResourceImpl implements FedoraBinary
      */
     @Override
     public String getMimeType() {
+        return memoize(MIME_TYPE_KEY, this::readMimeType);
+    }
+
+    private String readMimeType() {
         try {
             if (hasProperty(HAS_MIME_TYPE)) {
                 return getProperty(HAS_MIME_TYPE).getString().replace(FIELD_DELIMITER + XSDstring.getURI(), "");
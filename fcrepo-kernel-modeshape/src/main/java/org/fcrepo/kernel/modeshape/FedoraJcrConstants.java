@@ -48,6 +48,54 @@ public final class FedoraJcrConstants {
 
     public static final String FIELD_DELIMITER = "\30^^\30";
 
+    public static final String FEDORA_ETAG = "fedora:etag";
+
+    public static final String MEMBERSHIP_INDEX = "fedora:membership";
+
+    public static final String FEDORA_MEMBERSHIP_INDEX = "fedora:MembershipIndex";
+
+    public static final String FEDORA_MEMBERSHIP_ENTRY = "fedora:MembershipEntry";
+
+    public static final String REPOSITORY_STATISTICS = "fedora:statistics";
+
+    public static final String FEDORA_STATISTICS = "fedora:Statistics";
+
+    public static final String FEDORA_OBJECT_COUNT = "fedora:objectCount";
+
+    public static final String FEDORA_REPOSITORY_SIZE = "fedora:repositorySize";
+
+    public static final String FEDORA_DELETING = "fedora:Deleting";
+
+    public static final String FEDORA_DELETION_STARTED = "fedora:deletionStarted";
+
+    public static final String FEDORA_DELETED_RESOURCES = "fedora:deletedResources";
+
+    public static final String FEDORA_DELETION = "fedora:deletion";
+
+    public static final String DELETIONS = "fedora:deletions";
+
+    public static final String FEDORA_DELETIONS = "fedora:Deletions";
+
+    public static final String FEDORA_DELETION_ENTRY = "fedora:DeletionEntry";
+
+    public static final String FEDORA_DELETED_FROM = "fedora:deletedFrom";
+
+    public static final String FEDORA_CHILD_COUNT = "fedora:childCount";
+
+    public static final String MEMENTO_DATETIMES = "fedora:mementoDatetimes";
+
+    public static final String MEMENTO_TRIPLES = "fedora:mementoTriples";
+
+    public static final String MEMENTO_SNAPSHOT = "fedora:mementoSnapshot";
+
+    public static final String MEMENTO_ADDED = "fedora:mementoAdded";
+
+    public static final String MEMENTO_REMOVED = "fedora:mementoRemoved";
+
+    public static final String LATEST_MEMENTO_SNAPSHOT = "fedora:latestMementoSnapshot";
+
+    public static final String MEMENTO_DELTA_COUNT = "fedora:mementoDeltaCount";
+
     private FedoraJcrConstants() {
         // Prevent instantiation
     }
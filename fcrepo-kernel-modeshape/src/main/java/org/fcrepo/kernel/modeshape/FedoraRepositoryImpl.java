@@ -24,6 +24,7 @@ import javax.jcr.RepositoryException;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.modeshape.jcr.JcrRepository;
 
 /**
  * The basic abstraction for a Fedora repository
@@ -64,6 +65,19 @@ public class FedoraRepositoryImpl implements FedoraRepository {
                 Credentials.class.getCanonicalName());
     }
 
+    @Override
+    public FedoraSession loginReadOnly(final Object credentials) {
+        if (credentials instanceof Credentials) {
+            try {
+                return new FedoraSessionImpl(repository.login((Credentials) credentials), true);
+            } catch (final RepositoryException ex) {
+                throw new RepositoryRuntimeException(ex);
+            }
+        }
+        throw new ClassCastException("login credentials are not an instance of " +
+                Credentials.class.getCanonicalName());
+    }
+
     /**
      * Retrieve the internal JCR Repository object
      *
@@ -85,4 +99,16 @@ public class FedoraRepositoryImpl implements FedoraRepository {
         }
         throw new ClassCastException("FedoraRepository is not a " + FedoraRepositoryImpl.class.getCanonicalName());
     }
+
+    /**
+     * Whether a JCR repository is one member of a cluster, so that changes saved on other members are also observed
+     * on this one.
+     *
+     * @param repository the JCR repository
+     * @return whether the repository is clustered
+     */
+    public static boolean isClustered(final Repository repository) {
+        return repository instanceof JcrRepository &&
+                ((JcrRepository) repository).getConfiguration().getClustering().isEnabled();
+    }
 }
@@ -21,12 +21,13 @@ import static com.google.common.net.MediaType.parse;
 import static java.time.Instant.ofEpochMilli;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singleton;
+import static java.util.Collections.unmodifiableList;
 import static java.util.stream.Collectors.joining;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.empty;
 import static java.util.stream.Stream.of;
-import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createTypedLiteral;
 import static org.apache.jena.update.UpdateAction.execute;
@@ -47,16 +48,17 @@ import static org.fcrepo.kernel.api.RequiredRdfContext.LDP_MEMBERSHIP;
 import static org.fcrepo.kernel.api.RequiredRdfContext.MINIMAL;
 import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
 import static org.fcrepo.kernel.api.RequiredRdfContext.SERVER_MANAGED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_ETAG;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_MIXIN_TYPES;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_CREATED;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIED;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.jcrProperties;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
-import static org.fcrepo.kernel.modeshape.rdf.JcrRdfTools.getRDFNamespaceForJcrNamespace;
 import static org.fcrepo.kernel.modeshape.services.functions.JcrPropertyFunctions.isFrozen;
 import static org.fcrepo.kernel.modeshape.services.functions.JcrPropertyFunctions.property2values;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getEtag;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.hasInternalNamespace;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isInternalNode;
@@ -64,6 +66,8 @@ import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.ldpInsertedCont
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.resourceToProperty;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.touchLdpMembershipResource;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getNamespace;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getTypeURI;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
@@ -76,6 +80,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -84,6 +90,7 @@ import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -132,9 +139,17 @@ import org.fcrepo.kernel.modeshape.rdf.impl.ReferencesRdfContext;
 import org.fcrepo.kernel.modeshape.rdf.impl.RootRdfContext;
 import org.fcrepo.kernel.modeshape.rdf.impl.SkolemNodeRdfContext;
 import org.fcrepo.kernel.modeshape.rdf.impl.TypeRdfContext;
+import org.fcrepo.kernel.modeshape.services.DeletionServiceImpl;
+import org.fcrepo.kernel.modeshape.services.RepositoryStatistics;
 import org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils;
+import org.fcrepo.kernel.modeshape.utils.ChildNodeIterator;
 import org.fcrepo.kernel.modeshape.utils.FilteringJcrPropertyStatementListener;
+import org.fcrepo.kernel.modeshape.utils.MembershipIndex;
+import org.fcrepo.kernel.modeshape.utils.MementoDeltas;
+import org.fcrepo.kernel.modeshape.utils.MementoIndex;
 import org.fcrepo.kernel.modeshape.utils.PropertyChangedListener;
+import org.fcrepo.kernel.modeshape.utils.SaveCounter;
+import org.fcrepo.kernel.modeshape.utils.TombstoneIndex;
 import org.fcrepo.kernel.modeshape.utils.UncheckedPredicate;
 import org.fcrepo.kernel.modeshape.utils.iterators.RdfAdder;
 import org.fcrepo.kernel.modeshape.utils.iterators.RdfRemover;
@@ -237,6 +252,24 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
     protected Node node;
 
+    // the keys of the metadata snapshot
+    private static final String CREATED_DATE_KEY = "createdDate";
+
+    private static final String LAST_MODIFIED_DATE_KEY = "lastModifiedDate";
+
+    private static final String TYPES_KEY = "types";
+
+    private static final String ETAG_KEY = "etag";
+
+    // metadata read from the node, kept until this resource is written, the node has unsaved changes or any save
+    private final Map<String, Object> snapshot = new HashMap<>();
+
+    // the types this resource has been asked whether it has, kept with the snapshot
+    private final Map<String, Boolean> hasTypes = new HashMap<>();
+
+    // the number of saves counted when the snapshot was started
+    private long snapshotSaves = -1;
+
     /*
      * A terminating slash means ModeShape has trouble extracting the localName, e.g., for http://myurl.org/.
      *
@@ -321,14 +354,27 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
      */
     @Override
     public Stream<FedoraResource> getChildren(final Boolean recursive) {
-        try {
-            if (recursive) {
-                return nodeToGoodChildren(node).flatMap(FedoraResourceImpl::getAllChildren);
-            }
-            return nodeToGoodChildren(node);
-        } catch (final RepositoryException e) {
-            throw new RepositoryRuntimeException(e);
+        final Stream<FedoraResource> children = childNodes(null).map(nodeToObjectBinaryConverter::convert);
+        if (recursive) {
+            return children.flatMap(FedoraResourceImpl::getAllChildren);
         }
+        return children;
+    }
+
+    /* (non-Javadoc)
+     * @see org.fcrepo.kernel.api.models.FedoraResource#getChildPaths(java.lang.String)
+     */
+    @Override
+    public Stream<String> getChildPaths(final String after) {
+        return childNodes(after).map(uncheck(Node::getPath));
+    }
+
+    /* (non-Javadoc)
+     * @see org.fcrepo.kernel.api.models.FedoraResource#getChildCount()
+     */
+    @Override
+    public Optional<Long> getChildCount() {
+        return ChildCounts.of(node);
     }
 
     /* (non-Javadoc)
@@ -352,16 +398,13 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
     }
 
     /**
-     * Get the "good" children for a node by skipping all pairtree nodes in the way.
-     * @param input
-     * @return
-     * @throws RepositoryException
+     * Get the "good" children of this resource's node, looking through all pairtree nodes in the way. Child
+     * nodes are read lazily, as the stream is consumed.
+     * @param after the path of the child to start after, or null
+     * @return the child nodes
      */
-    @SuppressWarnings("unchecked")
-    private Stream<FedoraResource> nodeToGoodChildren(final Node input) throws RepositoryException {
-        return iteratorToStream(input.getNodes()).filter(nastyChildren.negate())
-            .flatMap(uncheck((final Node child) -> child.isNodeType(FEDORA_PAIRTREE) ? nodeToGoodChildren(child) :
-                        of(nodeToObjectBinaryConverter.convert(child))));
+    private Stream<Node> childNodes(final String after) {
+        return iteratorToStream(new ChildNodeIterator(node, nastyChildren, isPairtree, after));
     }
 
     /**
@@ -371,14 +414,19 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
         return concat(of(resource), resource.getChildren().flatMap(FedoraResourceImpl::getAllChildren));
     }
 
+    static Predicate<Node> isPairtree = UncheckedPredicate.uncheck(p -> p.isNodeType(FEDORA_PAIRTREE));
+
     /**
      * Children for whom we will not generate triples.
      */
-    private static Predicate<Node> nastyChildren = isInternalNode
+    static Predicate<Node> nastyChildren = isInternalNode
                     .or(TombstoneImpl::hasMixin)
                     .or(FedoraTimeMapImpl::hasMixin)
                     .or(UncheckedPredicate.uncheck(p -> p.getName().equals(JCR_CONTENT)))
-                    .or(UncheckedPredicate.uncheck(p -> p.getName().equals("#")));
+                    .or(UncheckedPredicate.uncheck(p -> p.getName().equals("#")))
+                    .or(MembershipIndex::isIndex)
+                    .or(RepositoryStatistics::isStatistics)
+                    .or(DeletionServiceImpl::isDeletions);
 
     private static final Converter<FedoraResource, FedoraResource> datastreamToBinary
             = new Converter<FedoraResource, FedoraResource>() {
@@ -491,6 +539,7 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
     @Override
     public void delete() {
+        invalidate();
         try {
             // Remove inbound references to this resource and, recursively, any of its children
             removeReferences(node);
@@ -499,33 +548,12 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
             final String name = getNode().getName();
 
-            // This is resolved immediately b/c we delete the node before updating an indirect container's target
-            final boolean shouldUpdateIndirectResource = ldpInsertedContentProperty(node)
-                .flatMap(resourceToProperty(getSession())).filter(this::hasProperty).isPresent();
-
-            final Optional<Node> containingNode = getContainingNode(getNode());
-
+            leaving(node);
+            removing(node);
             node.remove();
 
             if (parent != null) {
                 createTombstone(parent, name);
-
-                // also update membershipResources for Direct/Indirect Containers
-                containingNode.filter(UncheckedPredicate.uncheck((final Node ancestor) ->
-                            ancestor.hasProperty(LDP_MEMBER_RESOURCE) && (ancestor.isNodeType(LDP_DIRECT_CONTAINER) ||
-                            shouldUpdateIndirectResource)))
-                    .ifPresent(ancestor -> {
-                        try {
-                            FedoraTypesUtils.touch(ancestor.getProperty(LDP_MEMBER_RESOURCE).getNode());
-                        } catch (final RepositoryException ex) {
-                            throw new RepositoryRuntimeException(ex);
-                        }
-                    });
-
-                // update the lastModified date on the parent node
-                containingNode.ifPresent(ancestor -> {
-                    FedoraTypesUtils.touch(ancestor);
-                });
             }
         } catch (final javax.jcr.AccessDeniedException e) {
             throw new AccessDeniedException(e);
@@ -534,7 +562,61 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
         }
     }
 
-    protected void removeReferences(final Node n) {
+    /**
+     * Record that a resource is leaving its container, before its node is removed or moved out of the way of a
+     * tombstone: drop it from the indexes kept by its container and TimeMap, and update the membership resource and
+     * last-modified date of its container.
+     *
+     * @param node the JCR node of the resource
+     */
+    public static void leaving(final Node node) {
+        try {
+            final boolean shouldUpdateIndirectResource = ldpInsertedContentProperty(node)
+                .flatMap(resourceToProperty(node.getSession()))
+                .filter(UncheckedPredicate.uncheck(node::hasProperty)).isPresent();
+
+            final Optional<Node> containingNode = getContainingNode(node);
+
+            MembershipIndex.remove(node);
+            MementoIndex.remove(node);
+            MementoDeltas.remove(node);
+
+            // also update membershipResources for Direct/Indirect Containers
+            containingNode.filter(UncheckedPredicate.uncheck((final Node ancestor) ->
+                        ancestor.hasProperty(LDP_MEMBER_RESOURCE) && (ancestor.isNodeType(LDP_DIRECT_CONTAINER) ||
+                        shouldUpdateIndirectResource)))
+                .ifPresent(ancestor -> {
+                    try {
+                        FedoraTypesUtils.touch(ancestor.getProperty(LDP_MEMBER_RESOURCE).getNode());
+                    } catch (final RepositoryException ex) {
+                        throw new RepositoryRuntimeException(ex);
+                    }
+                });
+
+            // update the lastModified date on the parent node
+            containingNode.ifPresent(FedoraTypesUtils::touch);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Record that a node and its descendants are about to be removed, in the repository's statistics and the account
+     * of its session's changes.
+     *
+     * @param node the JCR node
+     */
+    public static void removing(final Node node) {
+        RepositoryStatistics.removing(node);
+        ChangeSetAccount.removing(node);
+    }
+
+    /**
+     * Remove the references to a node and its descendants, e.g. before they are removed.
+     *
+     * @param n the JCR node
+     */
+    public void removeReferences(final Node n) {
         try {
             // Remove references to this resource
             doRemoveReferences(n);
@@ -574,7 +656,7 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
     }
 
     private void createTombstone(final Node parent, final String path) throws RepositoryException {
-        findOrCreateChild(parent, path, FEDORA_TOMBSTONE);
+        TombstoneIndex.add(findOrCreateChild(parent, path, FEDORA_TOMBSTONE));
     }
 
     /* (non-Javadoc)
@@ -582,6 +664,10 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
      */
     @Override
     public Instant getCreatedDate() {
+        return memoize(CREATED_DATE_KEY, this::readCreatedDate);
+    }
+
+    private Instant readCreatedDate() {
         try {
             if (hasProperty(FEDORA_CREATED)) {
                 return ofEpochMilli(getTimestamp(FEDORA_CREATED, NO_TIME));
@@ -618,6 +704,10 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
      */
     @Override
     public Instant getLastModifiedDate() {
+        return memoize(LAST_MODIFIED_DATE_KEY, this::readLastModifiedDate);
+    }
+
+    private Instant readLastModifiedDate() {
 
         final Instant createdDate = getCreatedDate();
         try {
@@ -654,6 +744,19 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
     @Override
     public boolean hasType(final String type) {
+        if (!validateSnapshot()) {
+            return readHasType(type);
+        }
+        final Boolean cached = hasTypes.get(type);
+        if (cached != null) {
+            return cached;
+        }
+        final boolean value = readHasType(type);
+        hasTypes.put(type, value);
+        return value;
+    }
+
+    private boolean readHasType(final String type) {
         try {
             if (type.equals(FEDORA_REPOSITORY_ROOT)) {
                 return node.isNodeType(ROOT);
@@ -671,6 +774,10 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
     @Override
     public List<URI> getTypes() {
+        return memoize(TYPES_KEY, this::readTypes);
+    }
+
+    private List<URI> readTypes() {
         try {
             final List<NodeType> nodeTypes = new ArrayList<>();
             final NodeType primaryNodeType = node.getPrimaryNodeType();
@@ -692,7 +799,7 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
                 .peek(x -> LOGGER.debug("node has rdf:type {}", x))
                 .collect(Collectors.toList());
 
-            return types;
+            return unmodifiableList(types);
 
         } catch (final PathNotFoundException e) {
             throw new PathNotFoundRuntimeException(e);
@@ -701,12 +808,7 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
         }
     }
 
-    private final Function<String, URI> nodeTypeNameToURI = uncheck(name -> {
-        final String prefix = name.split(":")[0];
-        final String typeName = name.split(":")[1];
-        final String namespace = getSession().getWorkspace().getNamespaceRegistry().getURI(prefix);
-        return URI.create(getRDFNamespaceForJcrNamespace(namespace) + typeName);
-    });
+    private final Function<String, URI> nodeTypeNameToURI = name -> getTypeURI(getSession(), name);
 
     /* (non-Javadoc)
      * @see org.fcrepo.kernel.api.models.FedoraResource#updateProperties
@@ -717,11 +819,16 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
                                  final String sparqlUpdateStatement, final RdfStream originalTriples)
             throws MalformedRdfException, AccessDeniedException {
 
-        final Model model = originalTriples.collect(toModel());
+        invalidate();
 
         final UpdateRequest request = create(sparqlUpdateStatement,
                 idTranslator.reverse().convert(this).toString());
 
+        // INSERT DATA and DELETE DATA never read the graph they are applied to, and Jena notifies
+        // listeners whether or not a triple was present, so the existing triples are only needed
+        // when the request contains a pattern-based operation.
+        final Model model = isDataOnly(request) ? createDefaultModel() : originalTriples.collect(toModel());
+
         final Collection<IllegalArgumentException> errors = validateUpdateRequest(request);
 
         final NamespaceRegistry namespaceRegistry = getNamespaceRegistry(getSession());
@@ -762,13 +869,17 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
             model.register(new PropertyChangedListener(resource, propertyChanged));
         });
 
+        final String membership = MembershipIndex.getConfiguration(getNode());
+
         model.setNsPrefixes(request.getPrefixMapping());
         execute(request, model);
 
-        removeEmptyFragments();
+        removeEmptyFragments(idTranslator, listener.getModifiedFragments());
 
         listener.assertNoExceptions();
 
+        MembershipIndex.reconfigure(getNode(), membership);
+
         try {
             touch(propertyChanged.get(), listener.getAddedCreatedDate(), listener.getAddedCreatedBy(),
                     listener.getAddedModifiedDate(), listener.getAddedModifiedBy());
@@ -842,7 +953,19 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
     public RdfStream getTriples(final IdentifierConverter<Resource, FedoraResource> idTranslator,
                                 final Set<? extends TripleCategory> contexts) {
 
-        return new DefaultRdfStream(idTranslator.reverse().convert(this).asNode(), contexts.stream()
+        final org.apache.jena.graph.Node topic = idTranslator.reverse().convert(this).asNode();
+        if (MementoDeltas.isStored(getNode())) {
+            // the triples of the Memento are reconstructed from its snapshot, in place of its properties
+            return new DefaultRdfStream(topic, concat(
+                    MementoDeltas.getTriples(getNode(), topic.getURI(), idTranslator.toDomain("/").getURI(),
+                            contexts),
+                    contexts.stream().filter(contextMap::containsKey)
+                            .filter(x -> !MementoDeltas.STORED_CONTEXTS.contains(x))
+                            .map(x -> contextMap.get(x).apply(this).apply(idTranslator)
+                                    .apply(contexts.contains(MINIMAL)))
+                            .reduce(empty(), Stream::concat)));
+        }
+        return new DefaultRdfStream(topic, contexts.stream()
                 .filter(contextMap::containsKey)
                 .map(x -> contextMap.get(x).apply(this).apply(idTranslator).apply(contexts.contains(MINIMAL)))
                 .reduce(empty(), Stream::concat));
@@ -864,7 +987,9 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
     @Override
     public void replaceProperties(final IdentifierConverter<Resource, FedoraResource> idTranslator,
         final Model inputModel, final RdfStream originalTriples) throws MalformedRdfException {
+        invalidate();
         final Optional<String> resIxn = INTERACTION_MODELS.stream().filter(x -> hasType(x)).findFirst();
+        final String membership = MembershipIndex.getConfiguration(getNode());
 
         // remove any statements that update "relaxed" server-managed triples so they can be updated separately
         final List<Statement> filteredStatements = new ArrayList<>();
@@ -896,9 +1021,15 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
                 new GraphDifferencer(inputModel, filteredTriples);
 
             final StringBuilder exceptions = new StringBuilder();
+            final Set<Resource> modifiedFragments = new HashSet<>();
             try (final DefaultRdfStream diffStream =
                     new DefaultRdfStream(replacementStream.topic(), differencer.difference())) {
-                new RdfRemover(idTranslator, getSession(), diffStream).consume();
+                final RdfRemover remover = new RdfRemover(idTranslator, getSession(), diffStream);
+                try {
+                    remover.consume();
+                } finally {
+                    modifiedFragments.addAll(remover.getModifiedFragments());
+                }
             } catch (final ConstraintViolationException e) {
                 throw e;
             } catch (final MalformedRdfException e) {
@@ -925,7 +1056,13 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
                             errors.stream().map(Exception::getMessage).collect(joining(", \n")));
                 }
 
-                new RdfAdder(idTranslator, getSession(), notCommonStream, inputModel.getNsPrefixMap()).consume();
+                final RdfAdder adder =
+                        new RdfAdder(idTranslator, getSession(), notCommonStream, inputModel.getNsPrefixMap());
+                try {
+                    adder.consume();
+                } finally {
+                    modifiedFragments.addAll(adder.getModifiedFragments());
+                }
             } catch (final ConstraintViolationException e) {
                 throw e;
             } catch (final MalformedRdfException e) {
@@ -940,12 +1077,14 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
                 propertyChanged.set(differencer.notCommon().map(Triple::getPredicate).anyMatch(resource::equals));
             });
 
-            removeEmptyFragments();
+            removeEmptyFragments(idTranslator, modifiedFragments);
 
             if (exceptions.length() > 0) {
                 throw new MalformedRdfException(exceptions.toString());
             }
 
+            MembershipIndex.reconfigure(getNode(), membership);
+
             try {
                 touch(propertyChanged.get(), RelaxedPropertiesHelper.getCreatedDate(filteredStatements),
                         RelaxedPropertiesHelper.getCreatedBy(filteredStatements),
@@ -971,60 +1110,155 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
     @VisibleForTesting
     public void touch(final boolean includeMembershipResource, final Calendar createdDate, final String createdUser,
                       final Calendar modifiedDate, final String modifyingUser) throws RepositoryException {
+        invalidate();
         FedoraTypesUtils.touch(getNode(), createdDate, createdUser, modifiedDate, modifyingUser);
 
         // If the ldp:insertedContentRelation property was changed, update the
-        // ldp:membershipResource resource.
+        // ldp:membershipResource resource. Either way, bring the container's membership index up to date.
         if (includeMembershipResource) {
             touchLdpMembershipResource(getNode(), modifiedDate, modifyingUser);
+        } else {
+            MembershipIndex.update(getNode());
         }
     }
 
-    private void removeEmptyFragments() {
+    /**
+     * Remove those of the given hash URI resources that belong to this resource and no longer carry any user
+     * properties or types and are no longer referred to. Only the fragments touched by an update can have become
+     * empty, so the cost depends on the size of the update rather than on the number of fragments.
+     *
+     * @param idTranslator the id translator
+     * @param fragments the hash URI resources touched by an update
+     */
+    private void removeEmptyFragments(final IdentifierConverter<Resource, FedoraResource> idTranslator,
+                                      final Collection<Resource> fragments) {
         try {
-            if (node.hasNode("#")) {
-                @SuppressWarnings("unchecked")
-                final Iterator<Node> nodes = node.getNode("#").getNodes();
-                nodes.forEachRemaining(n -> {
-                    try {
-                        @SuppressWarnings("unchecked")
-                        final Iterator<Property> properties = n.getProperties();
-                        final boolean hasUserProps = iteratorToStream(properties).map(propertyConverter::convert)
-                            .filter(p -> !jcrProperties.contains(p))
-                            .anyMatch(isManagedPredicate.negate());
-
-                        final boolean hasUserTypes = Arrays.stream(n.getMixinNodeTypes())
-                            .map(uncheck(NodeType::getName)).filter(hasInternalNamespace.negate())
-                            .map(uncheck(type ->
-                                getSession().getWorkspace().getNamespaceRegistry().getURI(type.split(":")[0])))
-                            .anyMatch(isManagedNamespace.negate());
-
-                        if (!hasUserProps && !hasUserTypes && !n.getWeakReferences().hasNext() &&
-                                !n.getReferences().hasNext()) {
-                            LOGGER.debug("Removing empty hash URI node: {}", n.getName());
-                            n.remove();
-                        }
-                    } catch (final RepositoryException ex) {
-                        throw new RepositoryRuntimeException("Error removing empty fragments", ex);
-                    }
-                });
+            if (fragments.isEmpty() || !node.hasNode("#")) {
+                return;
+            }
+            final String hashPath = node.getNode("#").getPath() + "/";
+            for (final Resource fragment : fragments) {
+                final String path = idTranslator.inDomain(fragment) ? idTranslator.asString(fragment) : null;
+                if (path != null && path.startsWith(hashPath) && path.indexOf('/', hashPath.length()) < 0
+                        && getSession().nodeExists(path)) {
+                    removeIfEmpty(getSession().getNode(path));
+                }
             }
         } catch (final RepositoryException ex) {
             throw new RepositoryRuntimeException("Error removing empty fragments", ex);
         }
     }
 
+    private void removeIfEmpty(final Node n) throws RepositoryException {
+        @SuppressWarnings("unchecked")
+        final Iterator<Property> properties = n.getProperties();
+        final boolean hasUserProps = iteratorToStream(properties).map(propertyConverter::convert)
+            .filter(p -> !jcrProperties.contains(p))
+            .anyMatch(isManagedPredicate.negate());
+
+        final boolean hasUserTypes = Arrays.stream(n.getMixinNodeTypes())
+            .map(uncheck(NodeType::getName)).filter(hasInternalNamespace.negate())
+            .map(type -> getNamespace(getSession(), type))
+            .anyMatch(isManagedNamespace.negate());
+
+        if (!hasUserProps && !hasUserTypes && !n.getWeakReferences().hasNext() &&
+                !n.getReferences().hasNext()) {
+            LOGGER.debug("Removing empty hash URI node: {}", n.getName());
+            n.remove();
+        }
+    }
+
     /* (non-Javadoc)
      * @see org.fcrepo.kernel.api.models.FedoraResource#getEtagValue()
      */
     @Override
     public String getEtagValue() {
-        final Instant lastModifiedDate = getLastModifiedDate();
+        return memoize(ETAG_KEY, () -> {
+            // stored by FedoraTypesUtils#touch; resources last touched before it was stored fall back to computing it
+            if (hasProperty(FEDORA_ETAG)) {
+                try {
+                    return getProperty(FEDORA_ETAG).getString();
+                } catch (final RepositoryException e) {
+                    throw new RepositoryRuntimeException(e);
+                }
+            }
+            final Instant lastModifiedDate = getLastModifiedDate();
 
-        if (lastModifiedDate != null) {
-            return sha1Hex(getPath() + lastModifiedDate.toEpochMilli());
+            if (lastModifiedDate != null) {
+                return getEtag(getPath(), lastModifiedDate);
+            }
+            return "";
+        });
+    }
+
+    /**
+     * Read a value through this resource's metadata snapshot. The value is loaded from the node once and kept
+     * until {@link #invalidate()} is called, or until any save is counted by {@link SaveCounter}, so that a write
+     * saved through another instance, or directly on the node, is not hidden. While the node has unsaved changes,
+     * values are loaded every time.
+     *
+     * @param key the name of the value, one of the constant keys
+     * @param loader reads the value from the node
+     * @param <T> the type of the value
+     * @return the value
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> T memoize(final String key, final Supplier<T> loader) {
+        if (!validateSnapshot()) {
+            return loader.get();
+        }
+        if (snapshot.containsKey(key)) {
+            return (T) snapshot.get(key);
+        }
+        final T value = loader.get();
+        snapshot.put(key, value);
+        return value;
+    }
+
+    /**
+     * Discard the snapshot if it may be out of date.
+     *
+     * @return whether values may be kept in the snapshot
+     */
+    private boolean validateSnapshot() {
+        final long saves = SaveCounter.get();
+        if (saves != snapshotSaves) {
+            invalidateSnapshot();
+            snapshotSaves = saves;
         }
-        return "";
+        if (isModified()) {
+            invalidateSnapshot();
+            return false;
+        }
+        return true;
+    }
+
+    private void invalidateSnapshot() {
+        snapshot.clear();
+        hasTypes.clear();
+    }
+
+    /**
+     * Discard the metadata snapshot for this resource. Called by every operation that writes to the resource.
+     */
+    protected void invalidate() {
+        invalidateSnapshot();
+    }
+
+    private boolean isModified() {
+        try {
+            return node.isNew() || node.isModified();
+        } catch (final IllegalStateException e) {
+            // the session has gone away, so there is nothing worth keeping
+            return true;
+        }
+    }
+
+    /*
+     * Whether every operation in the request is an INSERT DATA or DELETE DATA operation.
+     */
+    private static boolean isDataOnly(final UpdateRequest request) {
+        return request.getOperations().stream().allMatch(UpdateData.class::isInstance);
     }
 
     private static Collection<IllegalArgumentException> validateUpdateRequest(final UpdateRequest request) {
@@ -1078,9 +1312,12 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
     @Override
     public void addType(final String type) {
+        invalidate();
         try {
             if (node.canAddMixin(type)) {
+                final String membership = MembershipIndex.getConfiguration(node);
                 node.addMixin(type);
+                MembershipIndex.reconfigure(node, membership);
             }
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
@@ -1128,6 +1365,7 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
   @Override
   public void enableVersioning() {
+        invalidate();
         if (!isVersioned()) {
            getDescription().findOrCreateTimeMap();
         }
@@ -1135,6 +1373,7 @@ public class FedoraResourceImpl extends JcrTools implements FedoraTypes, FedoraR
 
   @Override
   public void disableVersioning() {
+      invalidate();
       getDescription().getTimeMap().delete();
   }
 
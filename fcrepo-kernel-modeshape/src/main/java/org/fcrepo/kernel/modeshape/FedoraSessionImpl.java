@@ -41,11 +41,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.annotations.VisibleForTesting;
+import org.fcrepo.kernel.api.ChangeSetSize;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.AccessDeniedException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.modeshape.utils.FedoraSessionUserUtil;
 import org.fcrepo.kernel.modeshape.utils.NamespaceTools;
+import org.fcrepo.kernel.modeshape.utils.SaveCounter;
 
 /**
  * An implementation of the FedoraSession abstraction
@@ -63,6 +65,9 @@ public class FedoraSessionImpl implements FedoraSession {
     private final String id;
     private final Instant created;
     private final ConcurrentHashMap<String, String> sessionData;
+    private final boolean readOnly;
+    // null if the session was started while no change set limit was set
+    private final ChangeSetAccount changeSet;
     private Instant expires;
 
     /**
@@ -77,23 +82,48 @@ public class FedoraSessionImpl implements FedoraSession {
      * @param session the JCR session
      */
     public FedoraSessionImpl(final Session session) {
+        this(session, false);
+    }
+
+    /**
+     * Create a Fedora session with a JCR session. A read-only session is never saved: committing it does nothing
+     * if it has no changes, and fails if it has any.
+     * @param session the JCR session
+     * @param readOnly whether the session is read-only
+     */
+    public FedoraSessionImpl(final Session session, final boolean readOnly) {
         this.jcrSession = session;
+        this.readOnly = readOnly;
 
         created = now();
         id = randomUUID().toString();
         expires = created.plus(operationTimeout());
         sessionData = new ConcurrentHashMap<>();
+        changeSet = ChangeSetAccount.forSession(session);
     }
 
     @Override
     public void commit() {
         try {
+            if (readOnly) {
+                if (jcrSession.isLive() && jcrSession.hasPendingChanges()) {
+                    throw new RepositoryRuntimeException("Cannot commit changes in a read-only session");
+                }
+                return;
+            }
             if (jcrSession.isLive()) {
                 final ObservationManager obs = jcrSession.getWorkspace().getObservationManager();
                 final ObjectNode json = mapper.createObjectNode();
                 sessionData.forEach(json::put);
                 obs.setUserData(mapper.writeValueAsString(json));
+                if (changeSet != null) {
+                    changeSet.check();
+                }
                 jcrSession.save();
+                SaveCounter.saved();
+                if (changeSet != null) {
+                    changeSet.clear();
+                }
             }
         } catch (final javax.jcr.AccessDeniedException ex) {
             throw new AccessDeniedException(ex);
@@ -107,7 +137,13 @@ public class FedoraSessionImpl implements FedoraSession {
         expires = now();
         try {
             if (jcrSession.isLive()) {
-                jcrSession.refresh(false);
+                // a read-only session has nothing worth discarding before logging out
+                if (!readOnly) {
+                    jcrSession.refresh(false);
+                    if (changeSet != null) {
+                        changeSet.clear();
+                    }
+                }
                 jcrSession.logout();
             }
         } catch (final RepositoryException ex) {
@@ -133,6 +169,16 @@ public class FedoraSessionImpl implements FedoraSession {
         return of(expires);
     }
 
+    @Override
+    public ChangeSetSize getChangeSetSize() {
+        return changeSet == null ? ChangeSetAccount.UNMEASURED : changeSet;
+    }
+
+    @Override
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
     @Override
     public String getId() {
         return id;
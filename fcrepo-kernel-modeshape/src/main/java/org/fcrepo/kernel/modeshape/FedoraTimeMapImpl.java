@@ -17,18 +17,24 @@
  */
 package org.fcrepo.kernel.modeshape;
 
+import static org.fcrepo.kernel.api.services.VersionService.MEMENTO_DATETIME_ID_FORMATTER;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
 
+import java.time.Instant;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
 
 import org.fcrepo.kernel.api.exception.AccessDeniedException;
+import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.models.FedoraTimeMap;
+import org.fcrepo.kernel.modeshape.utils.MementoIndex;
 
 /**
  * @author lsitu
@@ -51,6 +57,7 @@ public class FedoraTimeMapImpl extends FedoraResourceImpl implements FedoraTimeM
             removeReferences(node);
 
             // delete the TimeMap node
+            ChangeSetAccount.removing(node);
             node.remove();
         } catch (final javax.jcr.AccessDeniedException e) {
             throw new AccessDeniedException(e);
@@ -83,4 +90,24 @@ public class FedoraTimeMapImpl extends FedoraResourceImpl implements FedoraTimeM
             throw new RepositoryRuntimeException(e);
         }
     }
+
+    @Override
+    public Stream<Instant> getMementoDatetimes(final Instant from, final Instant until) {
+        return MementoIndex.range(MementoIndex.getDatetimes(node), from, until).stream();
+    }
+
+    @Override
+    public FedoraResource findMementoByDatetime(final Instant mementoDatetime) {
+        final Optional<Instant> closest = MementoIndex.closest(MementoIndex.getDatetimes(node), mementoDatetime);
+        if (!closest.isPresent()) {
+            return null;
+        }
+        try {
+            return nodeConverter.convert(node.getNode(MEMENTO_DATETIME_ID_FORMATTER.format(closest.get())));
+        } catch (final PathNotFoundException e) {
+            throw new PathNotFoundRuntimeException(e);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
 }
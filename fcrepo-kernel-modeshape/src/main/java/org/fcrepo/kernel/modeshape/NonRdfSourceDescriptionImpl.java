@@ -41,6 +41,8 @@ public class NonRdfSourceDescriptionImpl extends FedoraResourceImpl implements N
 
     private static final Logger LOGGER = getLogger(NonRdfSourceDescriptionImpl.class);
 
+    private FedoraBinaryImpl describedResource;
+
     /**
      * The JCR node for this datastream
      *
@@ -52,7 +54,18 @@ public class NonRdfSourceDescriptionImpl extends FedoraResourceImpl implements N
 
     @Override
     public FedoraResource getDescribedResource() {
-        return new FedoraBinaryImpl(getContentNode());
+        if (describedResource == null) {
+            describedResource = new FedoraBinaryImpl(getContentNode());
+        }
+        return describedResource;
+    }
+
+    @Override
+    protected void invalidate() {
+        super.invalidate();
+        if (describedResource != null) {
+            describedResource.invalidate();
+        }
     }
 
     @Override
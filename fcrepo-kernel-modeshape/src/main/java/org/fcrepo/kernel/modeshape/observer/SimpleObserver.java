@@ -19,8 +19,10 @@ package org.fcrepo.kernel.modeshape.observer;
 
 import static com.codahale.metrics.MetricRegistry.name;
 import static com.google.common.collect.Iterators.filter;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toSet;
-import static java.util.stream.Stream.concat;
 import static java.util.stream.Stream.of;
 import static javax.jcr.observation.Event.NODE_ADDED;
 import static javax.jcr.observation.Event.NODE_MOVED;
@@ -36,7 +38,6 @@ import static org.fcrepo.kernel.api.FedoraTypes.LDP_BASIC_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_NON_RDF_SOURCE;
 import static org.fcrepo.kernel.api.FedoraTypes.LDP_RDF_SOURCE;
-import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_DELETION;
 import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_RELOCATION;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
@@ -44,36 +45,36 @@ import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.JCR_NAMESPACE;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.JCR_NT_NAMESPACE;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.MIX_NAMESPACE;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.MODE_NAMESPACE;
-import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
-import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getNamespace;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import  org.fcrepo.metrics.RegistryService;
 
 import java.util.Iterator;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
-import javax.jcr.NamespaceRegistry;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.observation.Event;
 import javax.jcr.observation.EventListener;
 
 import org.fcrepo.kernel.api.FedoraRepository;
-import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
-import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.observer.FedoraEvent;
-import org.fcrepo.kernel.modeshape.FedoraResourceImpl;
-import org.fcrepo.kernel.modeshape.FedoraSessionImpl;
+import org.fcrepo.kernel.modeshape.ChildCounts;
 import org.fcrepo.kernel.modeshape.observer.eventmappings.InternalExternalEventMapper;
+import org.fcrepo.kernel.modeshape.services.DeletionServiceImpl;
 import org.fcrepo.kernel.modeshape.utils.FedoraSessionUserUtil;
 
 import org.slf4j.Logger;
@@ -84,7 +85,8 @@ import com.google.common.eventbus.EventBus;
 
 /**
  * Simple JCR EventListener that filters JCR Events through a Fedora EventFilter, maps the results through a mapper,
- * and puts the resulting stream onto the internal Fedora EventBus as a stream of FedoraEvents.
+ * and puts the resulting stream onto the internal Fedora EventBus as a stream of FedoraEvents. Each MOVE is followed
+ * by the {@link org.fcrepo.kernel.api.observer.MovedDescendants} of the moved resource.
  *
  * @author eddies
  * @author ajs6f
@@ -103,40 +105,15 @@ public class SimpleObserver implements EventListener {
     static final Counter EVENT_COUNTER =
             RegistryService.getInstance().getMetrics().counter(name(SimpleObserver.class, "onEvent"));
 
+    private static final int DEFAULT_MOVE_BATCH_SIZE = 1000;
+
+    private static final int PENDING_BATCHES = 64;
+
+    private static final long POSTING_SHUTDOWN_TIMEOUT = 30;
+
     static final Integer EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
             + PROPERTY_REMOVED;
 
-    /**
-     * Note: This function maps a FedoraEvent to a Stream of some number of FedoraEvents. This is because a MOVE event
-     * may lead to an arbitrarily large number of additional events for any child resources. In the event of this not
-     * being a MOVE event, the same FedoraEvent is returned, wrapped in a Stream. For a MOVEd resource, the resource in
-     * question will be translated to two FedoraEvents: a MOVED event for the new resource location and a REMOVED event
-     * corresponding to the old location. The same pair of FedoraEvents will also be generated for each child resource.
-     */
-    private static Function<FedoraEvent, Stream<FedoraEvent>> handleMoveEvents(final Session session) {
-        return evt -> {
-            if (evt.getTypes().contains(RESOURCE_RELOCATION)) {
-                final Map<String, String> movePath = evt.getInfo();
-                final String dest = movePath.get("destAbsPath");
-                final String src = movePath.get("srcAbsPath");
-                final FedoraSession fsession = new FedoraSessionImpl(session);
-
-                try {
-                    final FedoraResource resource = new FedoraResourceImpl(session.getNode(evt.getPath()));
-                    return concat(of(evt), resource.getChildren(true).map(FedoraResource::getPath)
-                        .flatMap(path -> of(
-                            new FedoraEventImpl(RESOURCE_RELOCATION, path, evt.getResourceTypes(), evt.getUserID(),
-                                fsession.getUserURI(), evt.getDate(), evt.getInfo()),
-                            new FedoraEventImpl(RESOURCE_DELETION, path.replaceFirst(dest, src), evt.getResourceTypes(),
-                                evt.getUserID(), fsession.getUserURI(), evt.getDate(), evt.getInfo()))));
-                } catch (final RepositoryException ex) {
-                    throw new RepositoryRuntimeException(ex);
-                }
-            }
-            return of(evt);
-        };
-    }
-
     /**
      * Note: Certain RDF types are generated dynamically. These are added here, based on
      * certain type hints.
@@ -155,11 +132,10 @@ public class SimpleObserver implements EventListener {
     };
 
     private static Function<FedoraEvent, FedoraEvent> filterAndDerefResourceTypes(final Session session) {
-        final NamespaceRegistry registry = getNamespaceRegistry(session);
         return evt -> {
             final Set<String> resourceTypes = evt.getResourceTypes().stream()
-                .flatMap(dynamicTypes).map(type -> type.split(":"))
-                .filter(pair -> pair.length == 2).map(uncheck(pair -> new String[]{registry.getURI(pair[0]), pair[1]}))
+                .flatMap(dynamicTypes).filter(type -> type.split(":").length == 2)
+                .map(type -> new String[]{getNamespace(session, type), type.substring(type.indexOf(':') + 1)})
                 .filter(pair -> !filteredNamespaces.contains(pair[0])).map(pair -> pair[0] + pair[1]).collect(toSet());
             return new FedoraEventImpl(evt.getTypes(), evt.getPath(), resourceTypes, evt.getUserID(),
                     FedoraSessionUserUtil.getUserURI(evt.getUserID()), evt.getDate(), evt.getInfo());
@@ -182,6 +158,42 @@ public class SimpleObserver implements EventListener {
     // it is used only to register and deregister this observer to the JCR
     private Session session;
 
+    private int moveBatchSize = DEFAULT_MOVE_BATCH_SIZE;
+
+    /**
+     * Posts the events, in the order they were observed, away from the observation thread: a consumer of the
+     * descendants of a moved resource may read an arbitrarily large number of events. When too many batches of
+     * events are waiting, the observer waits for one of them to be taken up. Once the observer has been shut down,
+     * the events are posted on the observation thread.
+     */
+    private final ExecutorService posting = new ThreadPoolExecutor(1, 1, 0, MILLISECONDS,
+            new ArrayBlockingQueue<>(PENDING_BATCHES), r -> {
+                final Thread thread = new Thread(r, "fcrepo-events");
+                thread.setDaemon(true);
+                return thread;
+            }, (r, executor) -> {
+                if (!executor.isShutdown()) {
+                    try {
+                        executor.getQueue().put(r);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException(e);
+                    }
+                    // the observer may have been shut down while we waited
+                    if (!executor.isShutdown() || !executor.getQueue().remove(r)) {
+                        return;
+                    }
+                }
+                r.run();
+            });
+
+    /**
+     * @param moveBatchSize the number of descendants of a moved resource to read in each session
+     */
+    public void setMoveBatchSize(final int moveBatchSize) {
+        this.moveBatchSize = moveBatchSize;
+    }
+
     /**
      * Register this observer with the JCR event listeners
      *
@@ -206,7 +218,14 @@ public class SimpleObserver implements EventListener {
         try {
             LOGGER.debug("Destroying an observer for JCR events...");
             session.getWorkspace().getObservationManager().removeEventListener(this);
+            posting.shutdown();
+            if (!posting.awaitTermination(POSTING_SHUTDOWN_TIMEOUT, SECONDS)) {
+                LOGGER.warn("Events observed before shutdown were not all posted");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
         } finally {
+            posting.shutdownNow();
             session.logout();
         }
     }
@@ -219,20 +238,45 @@ public class SimpleObserver implements EventListener {
     @Override
     public void onEvent(final javax.jcr.observation.EventIterator events) {
         Session lookupSession = null;
+        final List<FedoraEvent> batch;
         try {
             lookupSession = getJcrSession(repository.login());
 
+            // child counts are kept up to date in the background, and are not changes to their containers; resources
+            // deleted in the background were reported deleted when they were moved out of their paths
             @SuppressWarnings("unchecked")
-            final Iterator<Event> filteredEvents = filter(events, eventFilter::test);
-            eventMapper.apply(iteratorToStream(filteredEvents))
+            final Iterator<Event> filteredEvents = filter(events, (final Event event) ->
+                    !ChildCounts.isCount(event) && !isDeleted(event) && eventFilter.test(event));
+            batch = eventMapper.apply(iteratorToStream(filteredEvents))
                 .map(filterAndDerefResourceTypes(lookupSession))
-                .flatMap(handleMoveEvents(lookupSession))
-                .forEach(this::post);
+                .collect(toList());
         } finally {
             if (lookupSession != null) {
                 lookupSession.logout();
             }
         }
+        if (!batch.isEmpty()) {
+            posting.execute(() -> batch.forEach(this::handleMoveEvents));
+        }
+    }
+
+    private static boolean isDeleted(final Event event) {
+        try {
+            return DeletionServiceImpl.isDeleted(event.getPath());
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Post an event, and for a MOVE, the descendants of the moved resource, for the consumers that want an event for
+     * each of them.
+     */
+    private void handleMoveEvents(final FedoraEvent evt) {
+        post(evt);
+        if (evt.getTypes().contains(RESOURCE_RELOCATION)) {
+            eventBus.post(new SubtreeMoveWalker(repository, evt, moveBatchSize));
+        }
     }
 
     private void post(final FedoraEvent evt) {
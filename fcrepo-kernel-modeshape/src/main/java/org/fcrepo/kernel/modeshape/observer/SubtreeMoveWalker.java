@@ -0,0 +1,204 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.observer;
+
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+import static java.util.Spliterators.spliteratorUnknownSize;
+import static java.util.stream.StreamSupport.stream;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_DELETION;
+import static org.fcrepo.kernel.api.observer.EventType.RESOURCE_RELOCATION;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.observer.MovedDescendants;
+import org.fcrepo.kernel.modeshape.FedoraResourceImpl;
+import org.slf4j.Logger;
+
+/**
+ * Generates the events for the descendants of a moved resource: a RESOURCE_RELOCATION event for each descendant at
+ * its new location and a RESOURCE_DELETION event for it at its old location.
+ *
+ * The subtree is walked depth-first, reading children lazily, and a fresh session is used for each batch of
+ * descendants so that the nodes already visited are not held in memory. Only the path from the moved resource to the
+ * current descendant, with the last child visited at each level, is kept between batches. A descendant removed
+ * before it is reached is skipped with its own descendants; if the last child visited at a level has been removed,
+ * that level is read again from its first child, so its earlier children may be reported twice.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+class SubtreeMoveWalker implements MovedDescendants {
+
+    private static final Logger LOGGER = getLogger(SubtreeMoveWalker.class);
+
+    private final FedoraRepository repository;
+
+    private final FedoraEvent move;
+
+    private final int batchSize;
+
+    /**
+     * A level of the walk: the children of a node, resumed after the last child visited.
+     */
+    private static final class Cursor {
+
+        private final String path;
+
+        private String after;
+
+        private Iterator<String> children;
+
+        private Cursor(final String path) {
+            this.path = path;
+        }
+    }
+
+    /**
+     * @param repository the repository
+     * @param move the RESOURCE_RELOCATION event of the moved resource
+     * @param batchSize the number of descendants to visit in each session
+     */
+    SubtreeMoveWalker(final FedoraRepository repository, final FedoraEvent move, final int batchSize) {
+        this.repository = repository;
+        this.move = move;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public FedoraEvent getMove() {
+        return move;
+    }
+
+    @Override
+    public Stream<FedoraEvent> getEvents() {
+        return stream(spliteratorUnknownSize(new Walk(), ORDERED | NONNULL), false);
+    }
+
+    /**
+     * One walk of the subtree, read a batch at a time.
+     */
+    private final class Walk implements Iterator<FedoraEvent> {
+
+        private final String dest = move.getInfo().get("destAbsPath");
+
+        private final String src = move.getInfo().get("srcAbsPath");
+
+        private final Deque<Cursor> cursors = new ArrayDeque<>();
+
+        private Iterator<FedoraEvent> batch;
+
+        private long visited;
+
+        private Walk() {
+            cursors.push(new Cursor(move.getPath()));
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((batch == null || !batch.hasNext()) && !cursors.isEmpty()) {
+                batch = nextBatch().iterator();
+            }
+            if (batch == null || !batch.hasNext()) {
+                LOGGER.debug("Generated move events for {} descendants of {}", visited, move.getPath());
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public FedoraEvent next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return batch.next();
+        }
+
+        private List<FedoraEvent> nextBatch() {
+            final List<FedoraEvent> events = new ArrayList<>();
+            final Session session = getJcrSession(repository.login());
+            try {
+                for (int i = 0; i < batchSize && !cursors.isEmpty();) {
+                    final Cursor cursor = cursors.peek();
+                    if (cursor.children == null && !open(session, cursor)) {
+                        cursors.pop();
+                        continue;
+                    }
+                    if (!cursor.children.hasNext()) {
+                        cursors.pop();
+                        continue;
+                    }
+                    final String path = cursor.children.next();
+                    cursor.after = path;
+                    events.add(new FedoraEventImpl(RESOURCE_RELOCATION, path, move.getResourceTypes(),
+                            move.getUserID(), move.getUserURI(), move.getDate(), move.getInfo()));
+                    events.add(new FedoraEventImpl(RESOURCE_DELETION, src + path.substring(dest.length()),
+                            move.getResourceTypes(), move.getUserID(), move.getUserURI(), move.getDate(),
+                            move.getInfo()));
+                    cursors.push(new Cursor(path));
+                    i++;
+                    visited++;
+                }
+            } catch (final RepositoryException e) {
+                throw new RepositoryRuntimeException(e);
+            } finally {
+                session.logout();
+                cursors.forEach(cursor -> cursor.children = null);
+            }
+            return events;
+        }
+
+        /**
+         * Read the children of a level after the last one visited, if its node still exists.
+         */
+        private boolean open(final Session session, final Cursor cursor) throws RepositoryException {
+            final FedoraResourceImpl resource;
+            try {
+                resource = new FedoraResourceImpl(session.getNode(cursor.path));
+            } catch (final PathNotFoundException e) {
+                LOGGER.debug("Descendant {} of moved resource {} was removed before it was visited", cursor.path,
+                        move.getPath());
+                return false;
+            }
+            try {
+                cursor.children = resource.getChildPaths(cursor.after).iterator();
+            } catch (final PathNotFoundRuntimeException e) {
+                LOGGER.debug("Child {} of {} was removed during the walk; reading its siblings again", cursor.after,
+                        cursor.path);
+                cursor.children = resource.getChildPaths(null).iterator();
+            }
+            return true;
+        }
+    }
+}
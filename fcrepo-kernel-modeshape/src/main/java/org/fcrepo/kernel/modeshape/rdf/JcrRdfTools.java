@@ -37,16 +37,26 @@ import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_CREATED;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_CREATEDBY;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.jcrProperties;
 import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.JCR_NAMESPACE;
+import static org.fcrepo.kernel.modeshape.rdf.converters.PropertyConverter.FCR_PREFIX;
 import static org.fcrepo.kernel.modeshape.rdf.converters.PropertyConverter.getPropertyNameFromPredicate;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getClosestExistingAncestor;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getPropertyType;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isMultivaluedProperty;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isReferenceProperty;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getNodeTypeName;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.invalidate;
 import static org.modeshape.jcr.api.JcrConstants.NT_FOLDER;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import javax.jcr.Node;
 import javax.jcr.PathNotFoundException;
@@ -115,6 +125,9 @@ public class JcrRdfTools {
 
     private final Map<AnonId, Resource> skolemizedBnodeMap;
 
+    // node types already known to be registered, so that repeated type assertions skip the lookup
+    private final Set<String> knownTypes;
+
     private static final Model m = createDefaultModel();
 
     /**
@@ -129,6 +142,7 @@ public class JcrRdfTools {
         this.session = session;
         this.valueConverter = new ValueConverter(session, idTranslator);
         this.skolemizedBnodeMap = new HashMap<>();
+        this.knownTypes = new HashSet<>();
     }
 
     /**
@@ -228,15 +242,17 @@ public class JcrRdfTools {
 
         final Node node = getJcrNode(resource);
         final Session session = node.getSession();
-        final String mixinName = getPropertyNameFromPredicate(node, mixinResource, namespaces);
-        if (!repositoryHasType(session, mixinName)) {
+        final String mixinName = getMixinName(node, mixinResource, namespaces);
+        if (!knownTypes.contains(mixinName) && !repositoryHasType(session, mixinName)) {
             final NodeTypeManager mgr = session.getWorkspace().getNodeTypeManager();
             final NodeTypeTemplate type = mgr.createNodeTypeTemplate();
             type.setName(mixinName);
             type.setMixin(true);
             type.setQueryable(true);
             mgr.registerNodeType(type, false);
+            invalidate(session);
         }
+        knownTypes.add(mixinName);
 
         if (node.isNodeType(mixinName)) {
             LOGGER.trace("Subject {} is already a {}; skipping", node, mixinName);
@@ -285,6 +301,75 @@ public class JcrRdfTools {
                             final boolean allowRelaxedProperties) throws RepositoryException {
 
         final Node node = getJcrNode(resource);
+        final String propertyName = getWritablePropertyName(node, predicate, namespaces, allowRelaxedProperties);
+
+        if (value.isURIResource()
+                && idTranslator.inDomain(value.asResource())
+                && !isReferenceProperty(node, propertyName)) {
+            nodePropertiesTools.addReferencePlaceholders(idTranslator, node, propertyName, value.asResource());
+        } else {
+            final Value v = createValue(node, value, propertyName);
+            nodePropertiesTools.appendOrReplaceNodeProperty(node, propertyName, v);
+        }
+    }
+
+    /**
+     * Add several values of one property to a node, writing a multi-valued property once rather than once
+     * per value. Single-valued properties are written value by value, so that the last value wins as it
+     * would with {@link #addProperty}.
+     * @param resource the fedora resource
+     * @param predicate the predicate
+     * @param values the values, in the order they were asserted
+     * @param namespaces the namespace
+     * @param allowRelaxedProperties if true, relaxed server managed properties are allowed
+     * @throws RepositoryException if repository exception occurred
+     */
+    public void addProperties(final FedoraResource resource,
+                              final org.apache.jena.rdf.model.Property predicate,
+                              final List<RDFNode> values,
+                              final Map<String, String> namespaces,
+                              final boolean allowRelaxedProperties) throws RepositoryException {
+
+        final Node node = getJcrNode(resource);
+        final String propertyName = getWritablePropertyName(node, predicate, namespaces, allowRelaxedProperties);
+
+        if (!isMultivaluedProperty(node, propertyName)) {
+            for (final RDFNode value : values) {
+                addProperty(resource, predicate, value, namespaces, allowRelaxedProperties);
+            }
+            return;
+        }
+
+        final boolean isReference = isReferenceProperty(node, propertyName);
+        final ValueFactory valueFactory = node.getSession().getValueFactory();
+        final int type = getPropertyType(node, propertyName).orElse(UNDEFINED);
+        final List<Value> newValues = new ArrayList<>(values.size());
+        final List<String> errors = new ArrayList<>();
+
+        for (final RDFNode value : values) {
+            try {
+                if (value.isURIResource() && idTranslator.inDomain(value.asResource()) && !isReference) {
+                    nodePropertiesTools.addReferencePlaceholders(idTranslator, node, propertyName,
+                            value.asResource());
+                } else {
+                    newValues.add(createValue(valueFactory, value, type));
+                }
+            } catch (final RepositoryException | RepositoryRuntimeException e) {
+                errors.add(e.getMessage());
+            }
+        }
+
+        nodePropertiesTools.appendOrReplaceNodeProperty(node, propertyName, newValues);
+
+        if (!errors.isEmpty()) {
+            throw new MalformedRdfException(String.join("\n", errors));
+        }
+    }
+
+    private String getWritablePropertyName(final Node node,
+                                           final org.apache.jena.rdf.model.Property predicate,
+                                           final Map<String, String> namespaces,
+                                           final boolean allowRelaxedProperties) throws RepositoryException {
 
         if ((!allowRelaxedProperties && isManagedPredicate.test(predicate)) || jcrProperties.contains(predicate)) {
 
@@ -294,7 +379,7 @@ public class JcrRdfTools {
                     + node.getPath());
         }
 
-        String propertyName =
+        final String propertyName =
                 getPropertyNameFromPredicate(node, predicate, namespaces);
 
         // In earlier versions of Fedora the following JCR properties were
@@ -303,23 +388,15 @@ public class JcrRdfTools {
         // such that the "fedora"-namespaced property could be set, and when present
         // would be presented instead of the underlying JCR-managed property.
         if (propertyName.equals(JCR_LASTMODIFIEDBY)) {
-            propertyName = FEDORA_LASTMODIFIEDBY;
+            return FEDORA_LASTMODIFIEDBY;
         } else if (propertyName.equals(JCR_LASTMODIFIED)) {
-            propertyName = FEDORA_LASTMODIFIED;
+            return FEDORA_LASTMODIFIED;
         } else if (propertyName.equals(JCR_CREATEDBY)) {
-            propertyName = FEDORA_CREATEDBY;
+            return FEDORA_CREATEDBY;
         } else if (propertyName.equals(JCR_CREATED)) {
-            propertyName = FEDORA_CREATED;
-        }
-
-        if (value.isURIResource()
-                && idTranslator.inDomain(value.asResource())
-                && !isReferenceProperty(node, propertyName)) {
-            nodePropertiesTools.addReferencePlaceholders(idTranslator, node, propertyName, value.asResource());
-        } else {
-            final Value v = createValue(node, value, propertyName);
-            nodePropertiesTools.appendOrReplaceNodeProperty(node, propertyName, v);
+            return FEDORA_CREATED;
         }
+        return propertyName;
     }
 
     protected boolean repositoryHasType(final Session session, final String mixinName) throws RepositoryException {
@@ -338,13 +415,29 @@ public class JcrRdfTools {
                             final Map<String, String> nsPrefixMap) throws RepositoryException {
 
         final Node node = getJcrNode(resource);
-        final String mixinName = getPropertyNameFromPredicate(node, mixinResource, nsPrefixMap);
+        final String mixinName = getMixinName(node, mixinResource, nsPrefixMap);
         if (repositoryHasType(session, mixinName) && node.isNodeType(mixinName)) {
             node.removeMixin(mixinName);
         }
 
     }
 
+    /**
+     * Resolve the JCR node type name of an RDF type, from the type name cache where its namespace has
+     * already been registered, registering the namespace otherwise.
+     */
+    private static String getMixinName(final Node node, final Resource mixinResource,
+            final Map<String, String> namespaces) throws RepositoryException {
+        // an update declaring the fcr prefix must reach getPropertyNameFromPredicate, which rejects it
+        if (namespaces == null || !namespaces.containsKey(FCR_PREFIX)) {
+            final Optional<String> name = getNodeTypeName(node.getSession(), mixinResource);
+            if (name.isPresent()) {
+                return name.get();
+            }
+        }
+        return getPropertyNameFromPredicate(node, mixinResource, namespaces);
+    }
+
     /**
      * Remove a property from a node
      * @param resource the fedora resource
@@ -417,6 +510,23 @@ public class JcrRdfTools {
         return skolemized;
     }
 
+    /**
+     * Get the hash URI resources a statement refers to, either as its subject or as its object.
+     *
+     * @param t the statement
+     * @return the hash URIs in the statement
+     */
+    public static Stream<Resource> getHashUris(final Statement t) {
+        final Stream.Builder<Resource> hashUris = Stream.builder();
+        if (t.getSubject().isURIResource() && t.getSubject().getURI().contains("#")) {
+            hashUris.add(t.getSubject());
+        }
+        if (t.getObject().isURIResource() && t.getObject().asResource().getURI().contains("#")) {
+            hashUris.add(t.getObject().asResource());
+        }
+        return hashUris.build();
+    }
+
     private void findOrCreateHashUri(final IdentifierConverter<Resource, FedoraResource> idTranslator,
                                      final Resource s) throws RepositoryException {
         final String absPath = idTranslator.asString(s);
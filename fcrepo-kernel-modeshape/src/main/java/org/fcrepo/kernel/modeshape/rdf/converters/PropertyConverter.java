@@ -30,6 +30,7 @@ import org.slf4j.Logger;
 
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 
 import java.util.Map;
 
@@ -39,6 +40,8 @@ import static org.fcrepo.kernel.modeshape.rdf.JcrRdfTools.getRDFNamespaceForJcrN
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyOriginalName;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isInternalReferenceProperty;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getPrefix;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.invalidate;
 import static org.slf4j.LoggerFactory.getLogger;
 
 
@@ -50,6 +53,12 @@ import static org.slf4j.LoggerFactory.getLogger;
 public class PropertyConverter extends Converter<javax.jcr.Property, Property> {
     private static final Logger LOGGER = getLogger(PropertyConverter.class);
 
+    /**
+     * The prefix reserved for the repository's own namespace. An update that declares it is rejected, whatever
+     * its predicates, so it must never be mapped to properties.
+     */
+    public static final String FCR_PREFIX = "fcr";
+
     @Override
     protected Property doForward(final javax.jcr.Property property) {
         LOGGER.trace("Creating predicate for property: {}",
@@ -97,10 +106,18 @@ public class PropertyConverter extends Converter<javax.jcr.Property, Property> {
                                                       final Map<String, String> namespaceMapping)
             throws RepositoryException {
 
-        final NamespaceRegistry namespaceRegistry = (NamespaceRegistry)getNamespaceRegistry(node.getSession());
+        final Session session = node.getSession();
+        final NamespaceRegistry namespaceRegistry = (NamespaceRegistry)getNamespaceRegistry(session);
+        final String namespace = getJcrNamespaceForRDFNamespace(predicate.getNameSpace());
+        final boolean known = getPrefix(session, namespace).isPresent();
 
-        return getPropertyNameFromPredicate(namespaceRegistry,
+        final String propertyName = getPropertyNameFromPredicate(namespaceRegistry,
                 predicate, namespaceMapping);
+        if (!known) {
+            // a new prefix may have been registered, or an existing one remapped
+            invalidate(session);
+        }
+        return propertyName;
     }
 
     /**
@@ -118,7 +135,7 @@ public class PropertyConverter extends Converter<javax.jcr.Property, Property> {
             throws RepositoryException {
 
         // reject if update request contains any fcr namespaces
-        if (namespaceMapping != null && namespaceMapping.containsKey("fcr")) {
+        if (namespaceMapping != null && namespaceMapping.containsKey(FCR_PREFIX)) {
             throw new FedoraInvalidNamespaceException("Invalid fcr namespace properties " + predicate + ".");
         }
 
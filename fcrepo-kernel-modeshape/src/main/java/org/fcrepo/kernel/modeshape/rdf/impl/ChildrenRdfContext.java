@@ -53,8 +53,9 @@ public class ChildrenRdfContext extends NodeRdfContext {
         if (getJcrNode(resource).hasNodes()) {
             LOGGER.trace("Found children of this resource: {}", resource.getPath());
 
-            concat(resource().getChildren().peek(child -> LOGGER.trace("Creating triple for child node: {}", child))
-                    .map(child -> create(subject(), CONTAINS.asNode(), uriFor(child.getDescribedResource()))));
+            // children are read lazily, and identified by their paths without being loaded as resources
+            concat(resource().getChildPaths(null).peek(child -> LOGGER.trace("Creating triple for child: {}", child))
+                    .map(child -> create(subject(), CONTAINS.asNode(), translator().pathToDomain(child).asNode())));
         }
     }
 
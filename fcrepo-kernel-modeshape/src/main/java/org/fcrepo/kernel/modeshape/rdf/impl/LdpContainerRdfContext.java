@@ -24,6 +24,7 @@ import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.modeshape.rdf.converters.ValueConverter;
 import org.fcrepo.kernel.modeshape.rdf.impl.mappings.PropertyValueIterator;
+import org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils;
 import org.fcrepo.kernel.modeshape.utils.UncheckedFunction;
 import org.fcrepo.kernel.modeshape.utils.UncheckedPredicate;
 
@@ -52,6 +53,7 @@ import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.node
 import static org.fcrepo.kernel.modeshape.rdf.converters.PropertyConverter.getPropertyNameFromPredicate;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.MembershipIndex.getMemberSources;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -91,7 +93,8 @@ public class LdpContainerRdfContext extends NodeRdfContext {
     }
 
     /**
-     * Get the member relations assert on the subject by the given node
+     * Get the member relations assert on the subject by the given node, reading the container's membership index
+     * when it has one
      * @param container
      * @return
      * @throws RepositoryException
@@ -121,9 +124,14 @@ public class LdpContainerRdfContext extends NodeRdfContext {
             insertedContainerProperty = MEMBER_SUBJECT.getURI();
         }
 
-        return container.getChildren().flatMap(
-            UncheckedFunction.<FedoraResource, Stream<Triple>>uncheck(child -> {
-                final org.apache.jena.graph.Node childSubject = uriFor(child.getDescribedResource());
+        final Node containerNode = getJcrNode(container);
+        final Stream<Node> memberSources = getMemberSources(containerNode)
+                .orElseGet(() -> container.getChildren().map(FedoraTypesUtils::getJcrNode));
+
+        return memberSources.flatMap(
+            UncheckedFunction.<Node, Stream<Triple>>uncheck(child -> {
+                final org.apache.jena.graph.Node childSubject =
+                        uriFor(nodeConverter.convert(child).getDescribedResource());
 
                 if (insertedContainerProperty.equals(MEMBER_SUBJECT.getURI())) {
                     return of(create(subject(), memberRelation, childSubject));
@@ -143,10 +151,9 @@ public class LdpContainerRdfContext extends NodeRdfContext {
                     return empty();
                 }
 
-                return iteratorToStream(new PropertyValueIterator(
-                        getJcrNode(child).getProperty(insertedContentProperty)))
+                return iteratorToStream(new PropertyValueIterator(child.getProperty(insertedContentProperty)))
                     .map(uncheck(v -> create(subject(), memberRelation,
-                        new ValueConverter(getJcrNode(container).getSession(), translator()).convert(v).asNode())));
+                        new ValueConverter(containerNode.getSession(), translator()).convert(v).asNode())));
             }));
     }
 }
@@ -17,9 +17,21 @@
  */
 package org.fcrepo.kernel.modeshape.rdf.impl;
 
+import static java.util.stream.Stream.empty;
+import static java.util.stream.Stream.of;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.graph.Triple.create;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_HAS_MEMBER_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_MEMBER_RESOURCE;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
-import static org.fcrepo.kernel.modeshape.rdf.converters.ValueConverter.nodeForValue;
+import static org.fcrepo.kernel.modeshape.services.DeletionServiceImpl.isDeleted;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.resourceToProperty;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedFunction.uncheck;
 import static java.util.Arrays.asList;
@@ -32,15 +44,14 @@ import org.apache.jena.rdf.model.Resource;
 import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.modeshape.rdf.impl.mappings.PropertyToTriple;
-import org.fcrepo.kernel.modeshape.rdf.impl.mappings.PropertyValueIterator;
+import org.fcrepo.kernel.modeshape.utils.UncheckedPredicate;
 
 import javax.jcr.Node;
 import javax.jcr.Property;
 import javax.jcr.RepositoryException;
-import javax.jcr.Value;
 
 import java.util.List;
-import java.util.function.Predicate;
+import java.util.Optional;
 import java.util.stream.Stream;
 
 /**
@@ -71,31 +82,40 @@ public class ReferencesRdfContext extends NodeRdfContext {
         concat(putReferencesIntoContext(getJcrNode(resource)));
     }
 
-    private final Predicate<Triple> INBOUND = t -> {
-        return t.getObject().getURI().equals(uriFor(resource()).getURI());
-    };
+    /* The repository keeps the properties that refer to each node, so the inbound references are read straight
+       from the node, one referencing property at a time, and are produced only as fast as they are consumed. */
+    private Stream<Triple> putReferencesIntoContext(final Node node) throws RepositoryException {
+        return getAllReferences(node).flatMap(uncheck((final Property p) ->
+                Stream.concat(property2triple.apply(p), indirectReferences(p))));
+    }
 
     /* References from LDP indirect containers are generated dynamically by LdpContainerRdfContext, so they won't
-       show up in getReferences()/getWeakReferences().  Instead, we should check referencers to see if they are
-       members of an IndirectContainer and generate the appropriate inbound references. */
-    private Stream<Triple> putReferencesIntoContext(final Node node) throws RepositoryException {
-        return Stream.concat(
-            getAllReferences(node).flatMap(property2triple),
-            getAllReferences(node).flatMap(uncheck((final Property x) -> {
-                    @SuppressWarnings("unchecked")
-                    final Stream<Value> values = iteratorToStream(new PropertyValueIterator(x.getParent()
-                            .getProperties())).filter((final Value y) -> REFERENCE_TYPES.contains(y.getType()));
-                    return values;
-                }))
-                .flatMap(uncheck((final Value x) -> {
-                    return new LdpContainerRdfContext(nodeConverter.convert(nodeForValue(node.getSession(), x)),
-                        translator());
-                }))
-                .filter(INBOUND));
+       show up in getReferences()/getWeakReferences().  A reference from a child of an IndirectContainer through
+       the container's ldp:insertedContentRelation is exactly what produces such a membership triple, though, so
+       the triple is synthesized from the referencing property and the configuration of the child's container. */
+    private Stream<Triple> indirectReferences(final Property property) throws RepositoryException {
+        final Optional<Node> container = getContainingNode(property.getParent()).filter(UncheckedPredicate.uncheck(
+                (final Node c) -> c.isNodeType(LDP_INDIRECT_CONTAINER) && c.hasProperty(LDP_MEMBER_RESOURCE) &&
+                        c.hasProperty(LDP_HAS_MEMBER_RELATION) && c.hasProperty(LDP_INSERTED_CONTENT_RELATION)));
+        if (!container.isPresent()) {
+            return empty();
+        }
+        final String name = property.getName();
+        final Optional<String> insertedContentProperty = resourceToProperty(property.getSession())
+                .apply(createResource(container.get().getProperty(LDP_INSERTED_CONTENT_RELATION).getString()));
+        if (!insertedContentProperty.filter(p -> p.equals(name) || getReferencePropertyName(p).equals(name))
+                .isPresent()) {
+            return empty();
+        }
+        return of(create(uriFor(nodeConverter.convert(container.get().getProperty(LDP_MEMBER_RESOURCE).getNode())),
+                createURI(container.get().getProperty(LDP_HAS_MEMBER_RELATION).getString()),
+                uriFor(resource())));
     }
 
+    /* References from resources that are being deleted in the background are already gone. */
     @SuppressWarnings("unchecked")
     private static Stream<Property> getAllReferences(final Node node) throws RepositoryException {
-        return Stream.concat(iteratorToStream(node.getReferences()), iteratorToStream(node.getWeakReferences()));
+        return Stream.concat(iteratorToStream(node.getReferences()), iteratorToStream(node.getWeakReferences()))
+                .filter(UncheckedPredicate.uncheck((final Property p) -> !isDeleted(p.getParent().getPath())));
     }
 }
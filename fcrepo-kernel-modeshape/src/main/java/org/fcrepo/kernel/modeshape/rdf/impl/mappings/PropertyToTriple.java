@@ -20,7 +20,12 @@ package org.fcrepo.kernel.modeshape.rdf.impl.mappings;
 import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDstring;
 import static org.apache.jena.graph.NodeFactory.createLiteral;
 import static org.apache.jena.graph.Triple.create;
+import static javax.jcr.PropertyType.PATH;
+import static javax.jcr.PropertyType.REFERENCE;
+import static javax.jcr.PropertyType.WEAKREFERENCE;
 import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeToResource;
+import static org.fcrepo.kernel.modeshape.rdf.converters.ValueConverter.nodeForValue;
+import static org.fcrepo.kernel.modeshape.services.DeletionServiceImpl.isDeleted;
 import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -58,6 +63,7 @@ public class PropertyToTriple implements Function<Property, Stream<Triple>> {
     private static final PropertyConverter propertyConverter = new PropertyConverter();
     private final ValueConverter valueConverter;
     private final Converter<Node, Resource> translator;
+    private final Session session;
 
     /**
      * Default constructor. We require a {@link Converter} in order to construct the RDF subjects of our triples.
@@ -68,6 +74,7 @@ public class PropertyToTriple implements Function<Property, Stream<Triple>> {
     public PropertyToTriple(final Session session, final Converter<Resource, FedoraResource> converter) {
         this.valueConverter = new ValueConverter(session, converter);
         this.translator = nodeToResource(converter);
+        this.session = session;
     }
 
     @Override
@@ -77,7 +84,8 @@ public class PropertyToTriple implements Function<Property, Stream<Triple>> {
             final org.apache.jena.graph.Node propPredicate = propertyConverter.convert(p).asNode();
             final String propertyName = p.getName();
 
-            return iteratorToStream(new PropertyValueIterator(p)).filter(this::valueCanBeConverted).map(v -> {
+            return iteratorToStream(new PropertyValueIterator(p)).filter(v -> !refersToDeleted(v))
+                    .filter(this::valueCanBeConverted).map(v -> {
                 final org.apache.jena.graph.Node object = valueConverter.convert(v).asNode();
                 if (object.isLiteral()) {
                     // unpack the name of the property for information about what kind of literal
@@ -101,6 +109,24 @@ public class PropertyToTriple implements Function<Property, Stream<Triple>> {
         }
     }
 
+    /**
+     * Does a value refer to a resource that is being deleted in the background, and so is already gone?
+     *
+     * @param value the value
+     * @return true if the value refers to a resource being deleted
+     */
+    private boolean refersToDeleted(final Value value) {
+        if (value.getType() != REFERENCE && value.getType() != WEAKREFERENCE && value.getType() != PATH) {
+            return false;
+        }
+        try {
+            return isDeleted(nodeForValue(session, value).getPath());
+        } catch (final RepositoryException e) {
+            // left to the conversion
+            return false;
+        }
+    }
+
     /**
      * This method tests if a given value can be converted.
      * The scenario when this may not be true is for (weak)reference properties that target an non-existent resource.
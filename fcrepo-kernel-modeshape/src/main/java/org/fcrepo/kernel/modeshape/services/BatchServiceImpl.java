@@ -21,21 +21,32 @@
 
 package org.fcrepo.kernel.modeshape.services;
 
+import static com.codahale.metrics.MetricRegistry.name;
+import static java.lang.System.currentTimeMillis;
 import static java.time.Instant.now;
-import static java.util.stream.Collectors.toSet;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static com.google.common.base.Strings.nullToEmpty;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.operationTimeout;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.time.Instant;
 import java.util.Map;
-import java.util.Set;
+import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
 
+import org.fcrepo.kernel.api.ChangeSetSize;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.exception.SessionMissingException;
 import org.fcrepo.kernel.api.services.BatchService;
+import org.fcrepo.metrics.RegistryService;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
 import com.google.common.annotations.VisibleForTesting;
 import org.slf4j.Logger;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -47,6 +58,11 @@ import org.springframework.stereotype.Component;
  * create/commit/rollback {@link FedoraSession} objects. A {@link Scheduled}
  * annotation is used for removing timed out operations
  *
+ * Open sessions are queued by the time they are due to expire, so that removing timed out operations touches only
+ * the sessions that are due. Refreshing a session does not requeue it: when it falls due, a session that has been
+ * refreshed in the meantime is queued again for its new expiry. The queue holds only the keys of the sessions, so
+ * that a session committed or aborted before it falls due is not kept reachable by the queue.
+ *
  * @author frank asseg
  * @author ajs6f
  * @author acoburn
@@ -63,6 +79,25 @@ public class BatchServiceImpl extends AbstractService implements BatchService {
      */
     private static Map<String, FedoraSession> sessions = new ConcurrentHashMap<>();
 
+    private static final DelayQueue<Expiry> expiries = new DelayQueue<>();
+
+    static final Meter EXPIRED_SESSIONS = RegistryService.getInstance().getMetrics()
+            .meter(name(BatchServiceImpl.class, "expired"));
+
+    static final Histogram CHANGED_NODES = RegistryService.getInstance().getMetrics()
+            .histogram(name(BatchServiceImpl.class, "changed-nodes"));
+
+    static final Histogram CHANGED_PROPERTIES = RegistryService.getInstance().getMetrics()
+            .histogram(name(BatchServiceImpl.class, "changed-properties"));
+
+    static final Histogram BINARY_BYTES = RegistryService.getInstance().getMetrics()
+            .histogram(name(BatchServiceImpl.class, "binary-bytes"));
+
+    static {
+        RegistryService.getInstance().getMetrics()
+                .register(name(BatchServiceImpl.class, "open"), (Gauge<Integer>) sessions::size);
+    }
+
     @VisibleForTesting
     public static final long REAP_INTERVAL = 1000;
 
@@ -73,26 +108,37 @@ public class BatchServiceImpl extends AbstractService implements BatchService {
     @Override
     @Scheduled(fixedRate = REAP_INTERVAL)
     public void removeExpired() {
-        final Set<String> reapable = sessions.entrySet().stream()
-                .filter(e -> e.getValue().getExpires().isPresent())
-                .filter(e -> e.getValue().getExpires().get().isBefore(now()))
-                .map(Map.Entry::getKey).collect(toSet());
-        reapable.forEach(key -> {
-            final FedoraSession s = sessions.get(key);
-            if (s != null) {
-                try {
-                    s.expire();
-                } catch (final RepositoryRuntimeException e) {
-                    LOGGER.error("Got exception rolling back expired session {}: {}", s, e.getMessage());
-                }
+        for (Expiry expiry = expiries.poll(); expiry != null; expiry = expiries.poll()) {
+            final FedoraSession s = sessions.get(expiry.key);
+            if (s == null) {
+                // committed or aborted since it was queued
+                continue;
+            }
+            final Optional<Instant> expires = s.getExpires();
+            if (!expires.isPresent()) {
+                continue;
+            }
+            if (expires.get().isAfter(now())) {
+                // refreshed since it was queued
+                expiries.add(new Expiry(expiry.key, expires.get()));
+                continue;
+            }
+            try {
+                recordChangeSet(s);
+                s.expire();
+            } catch (final RepositoryRuntimeException e) {
+                LOGGER.error("Got exception rolling back expired session {}: {}", s, e.getMessage());
             }
-            sessions.remove(key);
-        });
+            sessions.remove(expiry.key, s);
+            EXPIRED_SESSIONS.mark();
+        }
     }
 
     @Override
     public void begin(final FedoraSession session, final String username) {
-        sessions.put(getTxKey(session.getId(), username), session);
+        final String key = getTxKey(session.getId(), username);
+        sessions.put(key, session);
+        session.getExpires().ifPresent(expires -> expiries.add(new Expiry(key, expires)));
     }
 
     @Override
@@ -112,6 +158,7 @@ public class BatchServiceImpl extends AbstractService implements BatchService {
     @Override
     public void commit(final String sessionId, final String username) {
         final FedoraSession session = getSession(sessionId, username);
+        recordChangeSet(session);
         session.commit();
         sessions.remove(getTxKey(sessionId, username));
     }
@@ -125,11 +172,47 @@ public class BatchServiceImpl extends AbstractService implements BatchService {
     @Override
     public void abort(final String sessionId, final String username) {
         final FedoraSession session = getSession(sessionId, username);
+        recordChangeSet(session);
         session.expire();
         sessions.remove(getTxKey(sessionId, username));
     }
 
+    /**
+     * Record the size of the changes a transaction holds when it is finished.
+     */
+    private static void recordChangeSet(final FedoraSession session) {
+        final ChangeSetSize changeSet = session.getChangeSetSize();
+        CHANGED_NODES.update(changeSet.getNodes());
+        CHANGED_PROPERTIES.update(changeSet.getProperties());
+        BINARY_BYTES.update(changeSet.getBinaryBytes());
+    }
+
     private static String getTxKey(final String sessionId, final String username) {
         return nullToEmpty(username) + ":" + sessionId;
     }
+
+    /**
+     * The key of an open session, queued until the time the session was due to expire when it was queued.
+     */
+    private static final class Expiry implements Delayed {
+
+        private final String key;
+
+        private final long due;
+
+        private Expiry(final String key, final Instant due) {
+            this.key = key;
+            this.due = due.toEpochMilli();
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(due - currentTimeMillis(), MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return Long.compare(getDelay(MILLISECONDS), other.getDelay(MILLISECONDS));
+        }
+    }
 }
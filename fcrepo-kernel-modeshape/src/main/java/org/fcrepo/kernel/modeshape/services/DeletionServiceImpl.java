@@ -0,0 +1,362 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static java.lang.Integer.parseInt;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static java.util.UUID.randomUUID;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.DELETIONS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETED_FROM;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETED_RESOURCES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETING;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETION;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETIONS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETION_ENTRY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETION_STARTED;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.modeshape.jcr.api.JcrConstants.NT_FILE;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.AccessDeniedException;
+import org.fcrepo.kernel.api.exception.ChangeSetTooLargeException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.services.DeletionService;
+import org.fcrepo.kernel.modeshape.FedoraResourceImpl;
+import org.fcrepo.kernel.modeshape.utils.TombstoneIndex;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+/**
+ * Service for deleting resources with many descendants in the background.
+ *
+ * A resource deleted in the background is moved, in the session of the request, out of its path into an entry of
+ * its own under a hidden node below the root, and a tombstone marked with the fedora:Deleting mixin takes its place.
+ * Its descendants are then no longer found at their paths, so requests for them meet the tombstone the way requests
+ * under any other tombstone do. Once that session is committed, a worker removes the resource and its descendants,
+ * children before their parents, in batches (of 1000 by default, see {@value #BATCH_SIZE_PROPERTY}), each in its own
+ * session and commit, and finally leaves a plain tombstone. A batch that holds more changes than the limits on a
+ * session allow is tried again at half the size. Deletions still pending when the repository starts are resumed.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+@Component
+public class DeletionServiceImpl extends AbstractService implements DeletionService, EventListener {
+
+    private static final Logger LOGGER = getLogger(DeletionServiceImpl.class);
+
+    public static final String BATCH_SIZE_PROPERTY = "fcrepo.deletion.batchSize";
+
+    private static final String DEFAULT_BATCH_SIZE = "1000";
+
+    @Inject
+    private FedoraRepository repository;
+
+    private int batchSize;
+
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+
+    private ExecutorService worker;
+
+    // used only to register and deregister this listener
+    private Session session;
+
+    /**
+     * Listen for committed deletions, and resume those that were interrupted.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PostConstruct
+    public void start() throws RepositoryException {
+        batchSize = parseInt(System.getProperty(BATCH_SIZE_PROPERTY, DEFAULT_BATCH_SIZE));
+        worker = newSingleThreadExecutor(r -> {
+            final Thread thread = new Thread(r, "fcrepo-deletion");
+            thread.setDaemon(true);
+            return thread;
+        });
+        session = getJcrSession(repository.login());
+        session.getWorkspace().getObservationManager()
+                .addEventListener(this, PROPERTY_ADDED, "/" + DELETIONS, true, null, null, false);
+        final Node deletions = deletions(session);
+        session.save();
+        for (final NodeIterator entries = deletions.getNodes(); entries.hasNext();) {
+            enqueue(entries.nextNode().getPath());
+        }
+    }
+
+    /**
+     * @param node a JCR node
+     * @return whether the node holds the resources being deleted in the background
+     */
+    public static boolean isDeletions(final Node node) {
+        try {
+            return node.getDepth() == 1 && node.getName().equals(DELETIONS);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * @param path a JCR path
+     * @return whether the path lies among the resources being deleted in the background
+     */
+    public static boolean isDeleted(final String path) {
+        return path.startsWith("/" + DELETIONS + "/");
+    }
+
+    private static Node deletions(final Session session) throws RepositoryException {
+        final Node root = session.getRootNode();
+        return root.hasNode(DELETIONS) ? root.getNode(DELETIONS) : root.addNode(DELETIONS, FEDORA_DELETIONS);
+    }
+
+    /**
+     * Stop listening and stop the worker. Deletions in progress are resumed when the repository next starts.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PreDestroy
+    public void stop() throws RepositoryException {
+        try {
+            session.getWorkspace().getObservationManager().removeEventListener(this);
+        } finally {
+            worker.shutdownNow();
+            session.logout();
+        }
+    }
+
+    @Override
+    public void deleteInBackground(final FedoraSession session, final String path) {
+        final Node node = findNode(session, path);
+        try {
+            if (node.getDepth() == 0) {
+                throw new RepositoryRuntimeException("The repository root cannot be deleted");
+            }
+            FedoraResourceImpl.leaving(node);
+
+            // move the resource out of the way, and leave a tombstone that names where it went
+            final Session jcrSession = node.getSession();
+            final Node parent = node.getParent();
+            final String name = node.getName();
+            final Node entry = deletions(jcrSession).addNode(randomUUID().toString(), FEDORA_DELETION_ENTRY);
+            entry.setProperty(FEDORA_DELETED_FROM, node.getPath());
+            jcrSession.move(node.getPath(), entry.getPath() + "/" + name);
+            final Node tombstone = parent.addNode(name, FEDORA_TOMBSTONE);
+            tombstone.addMixin(FEDORA_DELETING);
+            tombstone.setProperty(FEDORA_DELETION_STARTED, Calendar.getInstance());
+            tombstone.setProperty(FEDORA_DELETED_RESOURCES, 0L);
+            tombstone.setProperty(FEDORA_DELETION, entry.getName());
+            TombstoneIndex.add(tombstone);
+        } catch (final javax.jcr.AccessDeniedException e) {
+            throw new AccessDeniedException(e);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    @Override
+    public Optional<Progress> getProgress(final FedoraSession session, final String path) {
+        final Session jcrSession = getJcrSession(session);
+        try {
+            if (!jcrSession.nodeExists(path)) {
+                return Optional.empty();
+            }
+            final Node node = jcrSession.getNode(path);
+            if (!node.isNodeType(FEDORA_DELETING)) {
+                return Optional.empty();
+            }
+            return Optional.of(new Progress(node.getProperty(FEDORA_DELETION_STARTED).getDate().toInstant(),
+                    node.getProperty(FEDORA_DELETED_RESOURCES).getLong()));
+        } catch (final PathNotFoundException | InvalidItemStateException e) {
+            // the deletion completed while we looked
+            return Optional.empty();
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Start removing the resources whose deletion has been committed.
+     *
+     * @param events the JCR events
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        while (events.hasNext()) {
+            final Event event = events.nextEvent();
+            try {
+                final String path = event.getPath();
+                if (path.endsWith("/" + FEDORA_DELETED_FROM)) {
+                    enqueue(path.substring(0, path.length() - FEDORA_DELETED_FROM.length() - 1));
+                }
+            } catch (final RepositoryException e) {
+                LOGGER.warn("Could not read event: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void enqueue(final String path) {
+        if (queued.add(path)) {
+            worker.execute(() -> {
+                try {
+                    removeDescendants(path);
+                } finally {
+                    queued.remove(path);
+                }
+            });
+        }
+    }
+
+    /**
+     * Remove the contents of an entry batch by batch, keeping count on the tombstone the resource left, and finally
+     * remove the entry and leave a plain tombstone.
+     */
+    private void removeDescendants(final String path) {
+        LOGGER.info("Deleting {} in the background", path);
+        // halved whenever a batch holds more changes than a session may
+        int limit = batchSize;
+        while (!Thread.currentThread().isInterrupted()) {
+            final FedoraSession fedoraSession = repository.login();
+            final Session lookupSession = getJcrSession(fedoraSession);
+            try {
+                if (!lookupSession.nodeExists(path)) {
+                    return;
+                }
+                final Node entry = lookupSession.getNode(path);
+                final Optional<Node> tombstone = tombstone(entry);
+                final List<Node> batch = descendants(entry, limit);
+                for (final Node node : batch) {
+                    remove(node);
+                }
+                if (batch.isEmpty()) {
+                    final String deletedFrom = entry.getProperty(FEDORA_DELETED_FROM).getString();
+                    entry.remove();
+                    if (tombstone.isPresent()) {
+                        for (final String property : asList(FEDORA_DELETION_STARTED, FEDORA_DELETED_RESOURCES,
+                                FEDORA_DELETION)) {
+                            tombstone.get().getProperty(property).remove();
+                        }
+                        tombstone.get().removeMixin(FEDORA_DELETING);
+                    }
+                    fedoraSession.commit();
+                    LOGGER.info("Deleted {}", deletedFrom);
+                    return;
+                }
+                if (tombstone.isPresent()) {
+                    tombstone.get().setProperty(FEDORA_DELETED_RESOURCES,
+                            tombstone.get().getProperty(FEDORA_DELETED_RESOURCES).getLong() + batch.size());
+                }
+                fedoraSession.commit();
+            } catch (final ChangeSetTooLargeException e) {
+                if (limit == 1) {
+                    LOGGER.error("Could not delete the contents of {}; the deletion will resume when the repository "
+                            + "next starts", path, e);
+                    return;
+                }
+                LOGGER.warn("Too many changes to delete {} resources at once from {}: {}", limit, path,
+                        e.getMessage());
+                limit = (limit + 1) / 2;
+            } catch (final RepositoryException | RuntimeException e) {
+                LOGGER.error("Could not delete the contents of {}; the deletion will resume when the repository "
+                        + "next starts", path, e);
+                return;
+            } finally {
+                fedoraSession.expire();
+            }
+        }
+    }
+
+    /**
+     * Find the tombstone left by the resource in an entry, unless it has since been removed or replaced.
+     */
+    private static Optional<Node> tombstone(final Node entry) throws RepositoryException {
+        final Session session = entry.getSession();
+        final String deletedFrom = entry.getProperty(FEDORA_DELETED_FROM).getString();
+        if (!session.nodeExists(deletedFrom)) {
+            return Optional.empty();
+        }
+        final Node tombstone = session.getNode(deletedFrom);
+        return tombstone.isNodeType(FEDORA_DELETING) && tombstone.hasProperty(FEDORA_DELETION) &&
+                tombstone.getProperty(FEDORA_DELETION).getString().equals(entry.getName()) ?
+                Optional.of(tombstone) : Optional.empty();
+    }
+
+    /**
+     * Collect up to a given number of the descendants of a node, each after its own descendants, so that they can be
+     * removed in order. Binary descriptions are removed whole, with their content.
+     */
+    private static List<Node> descendants(final Node root, final int limit) throws RepositoryException {
+        final List<Node> batch = new ArrayList<>();
+        final Deque<Node> parents = new ArrayDeque<>();
+        final Deque<NodeIterator> levels = new ArrayDeque<>();
+        parents.push(root);
+        levels.push(root.getNodes());
+        while (!levels.isEmpty() && batch.size() < limit) {
+            final NodeIterator level = levels.peek();
+            if (level.hasNext()) {
+                final Node child = level.nextNode();
+                if (child.hasNodes() && !child.isNodeType(NT_FILE)) {
+                    parents.push(child);
+                    levels.push(child.getNodes());
+                } else {
+                    batch.add(child);
+                }
+            } else {
+                levels.pop();
+                final Node parent = parents.pop();
+                if (parent != root) {
+                    batch.add(parent);
+                }
+            }
+        }
+        return batch;
+    }
+
+    private static void remove(final Node node) throws RepositoryException {
+        new FedoraResourceImpl(node).removeReferences(node);
+        FedoraResourceImpl.removing(node);
+        node.remove();
+    }
+}
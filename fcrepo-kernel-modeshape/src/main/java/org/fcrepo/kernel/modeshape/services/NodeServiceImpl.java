@@ -19,11 +19,15 @@ package org.fcrepo.kernel.modeshape.services;
 
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.touchLdpMembershipResource;
+import static org.fcrepo.kernel.modeshape.utils.MembershipIndex.rebuildAll;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.validatePath;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Optional;
+
 import javax.jcr.Node;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
@@ -34,6 +38,8 @@ import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.services.NodeService;
 import org.fcrepo.kernel.modeshape.FedoraResourceImpl;
+import org.fcrepo.kernel.modeshape.utils.MembershipIndex;
+import org.fcrepo.kernel.modeshape.utils.TombstoneIndex;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;
 
@@ -94,7 +100,11 @@ public class NodeServiceImpl extends AbstractService implements NodeService {
         final Session jcrSession = getJcrSession(session);
         try {
             jcrSession.getWorkspace().copy(source, destination);
-            touchLdpMembershipResource(getJcrNode(find(session, destination)));
+            final Node destinationNode = getJcrNode(find(session, destination));
+            // the copies of any member sources have new identifiers
+            rebuildAll(destinationNode);
+            TombstoneIndex.addDescendants(jcrSession.getNode(destination));
+            touchLdpMembershipResource(destinationNode);
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
         }
@@ -115,13 +125,17 @@ public class NodeServiceImpl extends AbstractService implements NodeService {
             final Node sourceNode = getJcrNode(srcResource);
             final String name = sourceNode.getName();
             final Node parent = sourceNode.getDepth() > 0 ? sourceNode.getParent() : null;
-
+            final Optional<Node> container = getContainingNode(sourceNode);
+            final String identifier = sourceNode.getIdentifier();
             jcrSession.getWorkspace().move(source, destination);
 
             if (parent != null) {
                 createTombstone(parent, name);
             }
 
+            container.ifPresent(c -> MembershipIndex.remove(c, identifier));
+            TombstoneIndex.addDescendants(jcrSession.getNode(destination));
+
             touchLdpMembershipResource(getJcrNode(find(session, source)));
             touchLdpMembershipResource(getJcrNode(find(session, destination)));
 
@@ -133,6 +147,7 @@ public class NodeServiceImpl extends AbstractService implements NodeService {
     private static void createTombstone(final Node parent, final String path) throws RepositoryException {
         final FedoraResourceImpl fedoraResource = new FedoraResourceImpl(parent);
         final Node n  = fedoraResource.findOrCreateChild(parent, path, FEDORA_TOMBSTONE);
+        TombstoneIndex.add(n);
         LOGGER.info("Created tombstone at {} ", n.getPath());
     }
 
@@ -26,11 +26,17 @@ import static org.slf4j.LoggerFactory.getLogger;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.modeshape.ChildCounts;
+import org.fcrepo.kernel.modeshape.utils.MembershipIndex;
+import org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache;
+import org.fcrepo.kernel.modeshape.utils.SaveCounter;
+import org.fcrepo.kernel.modeshape.utils.TombstoneIndex;
 import org.fcrepo.metrics.RegistryService;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Optional;
 
 
 import javax.inject.Inject;
@@ -57,6 +63,12 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
     @Inject
     private FedoraRepository repository;
 
+    @Inject
+    private RepositoryStatistics statistics;
+
+    @Inject
+    private ChildCounts childCounts;
+
     private static final Logger LOGGER = getLogger(RepositoryServiceImpl.class);
 
     private final Timer objectSizeCalculationTimer = RegistryService.getInstance().getMetrics().timer(
@@ -75,6 +87,10 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
             final Repository repo = getJcrRepository(repository);
 
             try (final Timer.Context context = objectSizeCalculationTimer.time()) {
+                final Optional<Long> size = statistics == null ? Optional.empty() : statistics.getSize();
+                if (size.isPresent()) {
+                    return size.get();
+                }
                 // Differentiating between the local getRepositorySize and
                 // ServiceHelpers
                 return ServiceHelpers.getRepositorySize(repo);
@@ -92,6 +108,10 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
      */
     @Override
     public Long getRepositoryObjectCount() {
+        final Optional<Long> count = statistics == null ? Optional.empty() : statistics.getObjectCount();
+        if (count.isPresent()) {
+            return count.get();
+        }
         final Repository repo = getJcrRepository(repository);
         try {
             return getRepositoryCount(repo);
@@ -144,10 +164,38 @@ public class RepositoryServiceImpl extends AbstractService implements Repository
 
             repoMgr.restoreRepository(backupDirectory).forEach(x -> problems.add(x.getThrowable()));
 
+            // the restored content has its own namespaces and node types
+            NodeTypeNameCache.listen(getJcrRepository(repository));
+            SaveCounter.listen(getJcrRepository(repository));
+            // and its own tombstones
+            TombstoneIndex.load(getJcrRepository(repository));
+            // and may have been indexed by an older version, or not at all
+            MembershipIndex.checkAll(getJcrRepository(repository));
+
+            if (statistics != null) {
+                // the restore drops the listeners of the repository, and the restored content has its own totals
+                statistics.restored();
+            }
+            if (childCounts != null) {
+                childCounts.restored();
+            }
+
             return problems;
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
         }
     }
 
+    /*
+     * (non-Javadoc)
+     * @see
+     * org.fcrepo.kernel.api.services.RepositoryService#reconcileRepositoryStatistics()
+     */
+    @Override
+    public void reconcileRepositoryStatistics() {
+        if (statistics != null) {
+            statistics.reconcile();
+        }
+    }
+
 }
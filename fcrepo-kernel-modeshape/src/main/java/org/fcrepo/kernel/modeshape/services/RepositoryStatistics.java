@@ -0,0 +1,508 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.Long.parseLong;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.jcr.observation.Event.NODE_ADDED;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static javax.jcr.observation.Event.PROPERTY_REMOVED;
+import static javax.jcr.query.Query.JCR_SQL2;
+import static org.fcrepo.kernel.api.FedoraTypes.CONTENT_SIZE;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_BINARY;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_OBJECT_COUNT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_REPOSITORY_SIZE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_STATISTICS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.REPOSITORY_STATISTICS;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.getJcrRepository;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.modeshape.jcr.api.JcrConstants.JCR_PATH;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.jcr.InvalidItemStateException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Value;
+import javax.jcr.nodetype.NodeType;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.query.Row;
+import javax.jcr.query.RowIterator;
+
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.modeshape.jcr.api.observation.Event;
+import org.modeshape.jcr.api.observation.PropertyEvent;
+import org.slf4j.Logger;
+import org.springframework.stereotype.Component;
+
+import com.google.common.cache.Cache;
+
+/**
+ * Running totals of the number of containers in the repository and the size of its binaries, maintained from the
+ * JCR event stream so that they can be read without querying the whole index.
+ *
+ * The totals are persisted to a hidden node under the root periodically (every {@value #INTERVAL_PROPERTY} seconds,
+ * 60 by default) and when the repository shuts down, and are counted from the index only when no persisted totals
+ * are found. When {@value #SUBTREES_PROPERTY} is set, totals are also kept for each
+ * top-level subtree. Writes that are lost in an unclean shutdown, or made while a reconciliation is running, can make
+ * the totals drift; {@link #reconcile()} counts them again from the index.
+ *
+ * JCR events for a removed subtree do not carry the sizes of its binaries, so those sizes are recorded by
+ * {@link #removing(Node)} before the subtree is removed, and applied once its removal is observed.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+@Component
+public class RepositoryStatistics implements EventListener {
+
+    private static final Logger LOGGER = getLogger(RepositoryStatistics.class);
+
+    public static final String SUBTREES_PROPERTY = "fcrepo.statistics.subtrees";
+
+    public static final String INTERVAL_PROPERTY = "fcrepo.statistics.interval";
+
+    private static final String DEFAULT_INTERVAL = "60";
+
+    private static final int EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
+            + PROPERTY_REMOVED;
+
+    private static final Cache<Repository, Cache<String, Long>> REMOVALS = newBuilder().weakKeys().build();
+
+    @Inject
+    private FedoraRepository repository;
+
+    private boolean bySubtree;
+
+    private final Totals totals = new Totals();
+
+    private final Map<String, Totals> subtrees = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    private volatile boolean loaded;
+
+    private final Cache<String, Long> removals = newBuilder().expireAfterWrite(1, HOURS).build();
+
+    private ScheduledExecutorService scheduler;
+
+    // used only to register and deregister this listener
+    private volatile Session session;
+
+    /**
+     * A container count and binary size.
+     */
+    private static final class Totals {
+
+        private final AtomicLong objectCount = new AtomicLong();
+
+        private final AtomicLong size = new AtomicLong();
+
+        private void add(final long count, final long bytes) {
+            objectCount.addAndGet(count);
+            size.addAndGet(bytes);
+        }
+    }
+
+    /**
+     * Start listening for changes, and load the persisted totals in the background.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PostConstruct
+    public void start() throws RepositoryException {
+        bySubtree = Boolean.getBoolean(SUBTREES_PROPERTY);
+        REMOVALS.put(getJcrRepository(repository), removals);
+        listen();
+
+        scheduler = newSingleThreadScheduledExecutor(r -> {
+            final Thread thread = new Thread(r, "fcrepo-repository-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::load);
+        final long interval = parseLong(System.getProperty(INTERVAL_PROPERTY, DEFAULT_INTERVAL));
+        scheduler.scheduleWithFixedDelay(this::persist, interval, interval, SECONDS);
+    }
+
+    /**
+     * Listen again for changes to a repository that has been restored from a backup, which drops its listeners, and
+     * count the totals of the restored content.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    public synchronized void restored() throws RepositoryException {
+        session.logout();
+        listen();
+        reconcile();
+    }
+
+    /**
+     * Stop listening for changes and persist the totals.
+     *
+     * @throws RepositoryException if repository exception occurred
+     */
+    @PreDestroy
+    public void stop() throws RepositoryException {
+        try {
+            session.getWorkspace().getObservationManager().removeEventListener(this);
+            scheduler.shutdownNow();
+            persist();
+        } finally {
+            session.logout();
+            REMOVALS.invalidate(getJcrRepository(repository));
+        }
+    }
+
+    /**
+     * @return the number of containers in the repository, once the totals have been loaded
+     */
+    public Optional<Long> getObjectCount() {
+        return loaded ? Optional.of(totals.objectCount.get()) : Optional.empty();
+    }
+
+    /**
+     * @return the size in bytes of the binaries in the repository, once the totals have been loaded
+     */
+    public Optional<Long> getSize() {
+        return loaded ? Optional.of(totals.size.get()) : Optional.empty();
+    }
+
+    /**
+     * @param subtree the name of a child of the root
+     * @return the number of containers in the subtree, if totals are kept for subtrees and have been loaded
+     */
+    public Optional<Long> getObjectCount(final String subtree) {
+        return loaded && bySubtree ? Optional.of(subtrees.getOrDefault(subtree, new Totals()).objectCount.get()) :
+                Optional.empty();
+    }
+
+    /**
+     * @param subtree the name of a child of the root
+     * @return the size in bytes of the binaries in the subtree, if totals are kept for subtrees and have been loaded
+     */
+    public Optional<Long> getSize(final String subtree) {
+        return loaded && bySubtree ? Optional.of(subtrees.getOrDefault(subtree, new Totals()).size.get()) :
+                Optional.empty();
+    }
+
+    /**
+     * @param node a JCR node
+     * @return whether the node holds the persisted totals
+     */
+    public static boolean isStatistics(final Node node) {
+        try {
+            return node.getName().equals(REPOSITORY_STATISTICS);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Count the totals again from the index, and persist them.
+     */
+    public synchronized void reconcile() {
+        LOGGER.info("Counting repository statistics from the index");
+        final Totals counted = new Totals();
+        final Map<String, Totals> countedSubtrees = new HashMap<>();
+        final Session lookupSession = getJcrSession(repository.login());
+        try {
+            scan(lookupSession, "", (path, count, bytes) -> {
+                counted.add(count, bytes);
+                if (bySubtree && !topLevel(path).isEmpty()) {
+                    subtree(countedSubtrees, topLevel(path)).add(count, bytes);
+                }
+            });
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        } finally {
+            lookupSession.logout();
+        }
+        totals.objectCount.set(counted.objectCount.get());
+        totals.size.set(counted.size.get());
+        subtrees.clear();
+        subtrees.putAll(countedSubtrees);
+        loaded = true;
+        dirty.set(true);
+        persist();
+    }
+
+    /**
+     * Record the sizes of the binaries in a subtree that is about to be removed, so that they can be taken off the
+     * totals when its removal is observed.
+     *
+     * @param node the JCR node at the root of the subtree
+     */
+    public static void removing(final Node node) {
+        try {
+            final Session session = node.getSession();
+            final Repository repository = session == null ? null : session.getRepository();
+            final Cache<String, Long> removals = repository == null ? null : REMOVALS.getIfPresent(repository);
+            if (removals == null) {
+                return;
+            }
+            if (node.isNodeType(FEDORA_BINARY)) {
+                if (node.hasProperty(CONTENT_SIZE)) {
+                    removals.put(node.getPath(), node.getProperty(CONTENT_SIZE).getLong());
+                }
+                return;
+            }
+            if (!node.hasNodes()) {
+                return;
+            }
+            for (final RowIterator rows = query(session, "SELECT [" + CONTENT_SIZE + "] FROM [" + FEDORA_BINARY + "]"
+                    + descendantOf(node.getPath())); rows.hasNext();) {
+                final Row row = rows.nextRow();
+                try {
+                    final Value value = row.getValue(CONTENT_SIZE);
+                    if (value != null) {
+                        removals.put(row.getPath(), value.getLong());
+                    }
+                } catch (final InvalidItemStateException e) {
+                    // removed earlier in this session, and recorded then
+                    LOGGER.trace("Binary already removed: {}", e.getMessage());
+                }
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Apply the changes to containers and binary sizes.
+     *
+     * @param events the JCR events
+     */
+    @Override
+    public void onEvent(final EventIterator events) {
+        while (events.hasNext()) {
+            final Event event = (Event) events.nextEvent();
+            try {
+                final String path = event.getPath();
+                switch (event.getType()) {
+                    case NODE_ADDED:
+                        if (isType(event, FEDORA_CONTAINER)) {
+                            add(path, 1, 0);
+                        }
+                        break;
+                    case NODE_REMOVED:
+                        if (isType(event, FEDORA_CONTAINER)) {
+                            add(path, -1, 0);
+                        }
+                        final Long size = isType(event, FEDORA_BINARY) ? removals.getIfPresent(path) : null;
+                        if (size != null) {
+                            removals.invalidate(path);
+                            add(path, 0, -size);
+                        }
+                        break;
+                    case NODE_MOVED:
+                        if (bySubtree) {
+                            moved(event.getInfo().get("srcAbsPath").toString(),
+                                    event.getInfo().get("destAbsPath").toString());
+                        }
+                        break;
+                    default:
+                        if (path.endsWith("/" + CONTENT_SIZE) && isType(event, FEDORA_BINARY)) {
+                            final PropertyEvent property = (PropertyEvent) event;
+                            final Object previous = property.getPreviousValue();
+                            add(path, 0, event.getType() == PROPERTY_REMOVED ?
+                                    -bytes(previous == null ? property.getCurrentValue() : previous) :
+                                    bytes(property.getCurrentValue()) - bytes(previous));
+                        }
+                }
+            } catch (final RepositoryException | RuntimeException e) {
+                LOGGER.warn("Could not apply event to repository statistics: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * A move keeps the totals of the repository, but carries the descendants of the moved node (the node itself is
+     * reported as added and removed) from one top-level subtree to another.
+     */
+    private void moved(final String source, final String destination) throws RepositoryException {
+        if (topLevel(source).equals(topLevel(destination))) {
+            return;
+        }
+        final Session lookupSession = getJcrSession(repository.login());
+        try {
+            scan(lookupSession, descendantOf(destination), (path, count, bytes) -> {
+                subtree(subtrees, topLevel(source)).add(-count, -bytes);
+                subtree(subtrees, topLevel(destination)).add(count, bytes);
+            });
+            dirty.set(true);
+        } finally {
+            lookupSession.logout();
+        }
+    }
+
+    private void listen() throws RepositoryException {
+        session = getJcrSession(repository.login());
+        session.getWorkspace().getObservationManager()
+                .addEventListener(this, EVENT_TYPES, "/", true, null, null, false);
+    }
+
+    private void add(final String path, final long count, final long bytes) {
+        totals.add(count, bytes);
+        if (bySubtree && !topLevel(path).isEmpty()) {
+            subtree(subtrees, topLevel(path)).add(count, bytes);
+        }
+        dirty.set(true);
+    }
+
+    private synchronized void load() {
+        final Session lookupSession = getJcrSession(repository.login());
+        try {
+            if (!lookupSession.nodeExists("/" + REPOSITORY_STATISTICS)) {
+                reconcile();
+                return;
+            }
+            final Node node = lookupSession.getNode("/" + REPOSITORY_STATISTICS);
+            if (bySubtree && !node.getNodes().hasNext()) {
+                reconcile();
+                return;
+            }
+            // events observed since startup have already been applied to the totals
+            totals.add(node.getProperty(FEDORA_OBJECT_COUNT).getLong(), node.getProperty(FEDORA_REPOSITORY_SIZE)
+                    .getLong());
+            if (bySubtree) {
+                for (final NodeIterator children = node.getNodes(); children.hasNext();) {
+                    final Node child = children.nextNode();
+                    subtree(subtrees, child.getName()).add(child.getProperty(FEDORA_OBJECT_COUNT).getLong(),
+                            child.getProperty(FEDORA_REPOSITORY_SIZE).getLong());
+                }
+            }
+            loaded = true;
+        } catch (final RepositoryException | RuntimeException e) {
+            LOGGER.error("Could not load repository statistics", e);
+        } finally {
+            lookupSession.logout();
+        }
+    }
+
+    private synchronized void persist() {
+        if (!loaded || !dirty.getAndSet(false)) {
+            return;
+        }
+        final Session lookupSession = getJcrSession(repository.login());
+        try {
+            final Node root = lookupSession.getRootNode();
+            final Node node = root.hasNode(REPOSITORY_STATISTICS) ? root.getNode(REPOSITORY_STATISTICS) :
+                    root.addNode(REPOSITORY_STATISTICS, FEDORA_STATISTICS);
+            write(node, totals);
+            for (final NodeIterator children = node.getNodes(); children.hasNext();) {
+                final Node child = children.nextNode();
+                if (!subtrees.containsKey(child.getName())) {
+                    child.remove();
+                }
+            }
+            for (final Map.Entry<String, Totals> subtree : subtrees.entrySet()) {
+                write(node.hasNode(subtree.getKey()) ? node.getNode(subtree.getKey()) :
+                        node.addNode(subtree.getKey(), FEDORA_STATISTICS), subtree.getValue());
+            }
+            lookupSession.save();
+        } catch (final RepositoryException | RuntimeException e) {
+            dirty.set(true);
+            LOGGER.warn("Could not persist repository statistics: {}", e.getMessage());
+        } finally {
+            lookupSession.logout();
+        }
+    }
+
+    private static void write(final Node node, final Totals totals) throws RepositoryException {
+        node.setProperty(FEDORA_OBJECT_COUNT, totals.objectCount.get());
+        node.setProperty(FEDORA_REPOSITORY_SIZE, totals.size.get());
+    }
+
+    /**
+     * Receives a container (with a count of one) or a binary (with its size) found in the index.
+     */
+    @FunctionalInterface
+    private interface Tally {
+        void accept(String path, long count, long bytes) throws RepositoryException;
+    }
+
+    private static void scan(final Session session, final String constraint, final Tally tally)
+            throws RepositoryException {
+        for (final RowIterator rows = query(session, "SELECT [" + JCR_PATH + "] FROM [" + FEDORA_CONTAINER + "]"
+                + constraint); rows.hasNext();) {
+            tally.accept(rows.nextRow().getPath(), 1, 0);
+        }
+        for (final RowIterator rows = query(session, "SELECT [" + CONTENT_SIZE + "] FROM [" + FEDORA_BINARY + "]"
+                + constraint); rows.hasNext();) {
+            final Row row = rows.nextRow();
+            final Value value = row.getValue(CONTENT_SIZE);
+            tally.accept(row.getPath(), 0, value == null ? 0 : value.getLong());
+        }
+    }
+
+    private static RowIterator query(final Session session, final String query) throws RepositoryException {
+        return session.getWorkspace().getQueryManager().createQuery(query, JCR_SQL2).execute().getRows();
+    }
+
+    private static String descendantOf(final String path) {
+        return " WHERE ISDESCENDANTNODE('" + path.replace("'", "''") + "')";
+    }
+
+    private static boolean isType(final Event event, final String type) throws RepositoryException {
+        if (event.getPrimaryNodeType().isNodeType(type)) {
+            return true;
+        }
+        for (final NodeType mixin : event.getMixinNodeTypes()) {
+            if (mixin.isNodeType(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long bytes(final Object value) {
+        return value == null ? 0 : parseLong(value.toString());
+    }
+
+    private static String topLevel(final String path) {
+        final int end = path.indexOf('/', 1);
+        return end < 0 ? path.substring(1) : path.substring(1, end);
+    }
+
+    private static Totals subtree(final Map<String, Totals> subtrees, final String name) {
+        return subtrees.computeIfAbsent(name, k -> new Totals());
+    }
+}
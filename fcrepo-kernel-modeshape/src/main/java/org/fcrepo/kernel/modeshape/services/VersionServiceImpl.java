@@ -17,7 +17,10 @@
  */
 package org.fcrepo.kernel.modeshape.services;
 
+import static java.lang.Integer.parseInt;
 import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.stream.Collectors.groupingBy;
 import static org.apache.jena.graph.NodeFactory.createURI;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_RESOURCE;
 import static org.fcrepo.kernel.api.FedoraTypes.MEMENTO;
@@ -31,6 +34,7 @@ import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.LDPCV_BINARY_TIME_M
 import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.LDPCV_TIME_MAP;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.fcrepo.kernel.modeshape.rdf.impl.RequiredPropertiesUtil.assertRequiredContainerTriples;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.modeshape.jcr.api.JcrConstants.NT_FOLDER;
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -39,19 +43,25 @@ import java.net.URI;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.GregorianCalendar;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
 import javax.jcr.ItemExistsException;
 import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Property;
+import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
+import javax.jcr.nodetype.NodeType;
 
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
@@ -68,9 +78,10 @@ import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.rdf.DefaultRdfStream;
 import org.fcrepo.kernel.api.services.BinaryService;
-import org.fcrepo.kernel.api.services.NodeService;
 import org.fcrepo.kernel.api.services.VersionService;
 import org.fcrepo.kernel.modeshape.ContainerImpl;
+import org.fcrepo.kernel.modeshape.utils.MementoDeltas;
+import org.fcrepo.kernel.modeshape.utils.MementoIndex;
 import org.fcrepo.kernel.modeshape.utils.iterators.RelaxedRdfAdder;
 import org.slf4j.Logger;
 import org.springframework.stereotype.Component;;
@@ -87,8 +98,9 @@ public class VersionServiceImpl extends AbstractService implements VersionServic
 
     private static final Logger LOGGER = getLogger(VersionService.class);
 
-    private static final DateTimeFormatter MEMENTO_DATETIME_ID_FORMATTER =
-            DateTimeFormatter.ofPattern("yyyyMMddHHmmss").withZone(ZoneId.of("GMT"));
+    public static final String MEMENTO_STORAGE_PROPERTY = "fcrepo.memento.storage";
+
+    public static final String SNAPSHOT_INTERVAL_PROPERTY = "fcrepo.memento.snapshotInterval";
 
     private static final Set<TripleCategory> VERSION_TRIPLES = new HashSet<>(asList(
             PROPERTIES, EMBED_RESOURCES, SERVER_MANAGED, LDP_MEMBERSHIP, LDP_CONTAINMENT));
@@ -99,8 +111,6 @@ public class VersionServiceImpl extends AbstractService implements VersionServic
     @Inject
     protected BinaryService binaryService;
 
-    @Inject
-    protected NodeService nodeService;
 
     @Override
     public FedoraResource createVersion(final FedoraSession session, final FedoraResource resource,
@@ -125,30 +135,54 @@ public class VersionServiceImpl extends AbstractService implements VersionServic
 
         final String resourceUri = getUri(resource, idTranslator);
 
-        final RdfStream mementoRdfStream;
+        final Model inputModel;
         if (rdfInputStream == null) {
             // With no rdf body provided, create version from current resource state.
-            mementoRdfStream = resource.getTriples(idTranslator, VERSION_TRIPLES);
+            inputModel = null;
         } else {
-            final Model inputModel = ModelFactory.createDefaultModel();
+            inputModel = ModelFactory.createDefaultModel();
             inputModel.read(rdfInputStream, mementoUri, rdfFormat.getName());
 
             // Validate server managed triples are provided
             assertRequiredContainerTriples(inputModel);
-
-            mementoRdfStream = DefaultRdfStream.fromModel(createURI(mementoUri), inputModel);
         }
 
-        final RdfStream mappedStream = remapRdfSubjects(mementoUri, resourceUri, mementoRdfStream);
-
-        final Session jcrSession = getJcrSession(session);
-        new RelaxedRdfAdder(idTranslator, jcrSession, mappedStream, session.getNamespaces()).consume();
+        if (isDeltaStorage() && idTranslator != null) {
+            final Function<TripleCategory, Stream<Triple>> triples;
+            if (inputModel == null) {
+                triples = context -> remapRdfSubjects(mementoUri, resourceUri,
+                        resource.getTriples(idTranslator, context));
+            } else {
+                final Map<TripleCategory, List<Triple>> classified = remapRdfSubjects(mementoUri, resourceUri,
+                        DefaultRdfStream.fromModel(createURI(mementoUri), inputModel))
+                        .collect(groupingBy(MementoDeltas::classify));
+                triples = context -> classified.getOrDefault(context, emptyList()).stream();
+            }
+            MementoDeltas.store(getJcrNode(mementoResource), triples, mementoUri,
+                    idTranslator.toDomain("/").getURI(),
+                    parseInt(System.getProperty(SNAPSHOT_INTERVAL_PROPERTY, "10")));
+        } else {
+            final RdfStream mementoRdfStream = inputModel == null ?
+                    resource.getTriples(idTranslator, VERSION_TRIPLES) :
+                    DefaultRdfStream.fromModel(createURI(mementoUri), inputModel);
+            final RdfStream mappedStream = remapRdfSubjects(mementoUri, resourceUri, mementoRdfStream);
+            final Session jcrSession = getJcrSession(session);
+            new RelaxedRdfAdder(idTranslator, jcrSession, mappedStream, session.getNamespaces()).consume();
+        }
 
         decorateWithMementoProperties(session, mementoPath, dateTime);
 
         return mementoResource;
     }
 
+    /**
+     * Whether RDF Mementos are stored as snapshots and deltas ({@value #MEMENTO_STORAGE_PROPERTY}=delta) rather
+     * than as full copies, read for each new Memento so that the choice can be changed at runtime
+     */
+    private static boolean isDeltaStorage() {
+        return "delta".equals(System.getProperty(MEMENTO_STORAGE_PROPERTY, "full"));
+    }
+
     private Container createContainer(final FedoraSession session, final String path) {
         try {
             final Node node = findOrCreateNode(session, path, NT_FOLDER);
@@ -191,15 +225,53 @@ public class VersionServiceImpl extends AbstractService implements VersionServic
         assertMementoDoesNotExist(session, mementoPath);
 
         LOGGER.debug("Creating memento {} for resource {} using existing state", mementoPath, resource.getPath());
-        nodeService.copyObject(session, resource.getPath(), mementoPath);
-
         final FedoraBinary memento = binaryService.findOrCreate(session, mementoPath);
+        try {
+            copyState(getJcrNode(resource.getDescription()), getJcrNode(memento.getDescription()));
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
 
         decorateWithMementoProperties(session, mementoPath, dateTime);
 
         return memento;
     }
 
+    /**
+     * Copy the mixins, properties and children of a node onto another, leaving out its own mementos. Binary values
+     * are content-addressed, so the copy refers to the same content rather than copying it, and takes the same time
+     * whatever the size of the content.
+     *
+     * @param source the node to copy from
+     * @param target the node to copy to
+     * @throws RepositoryException if repository exception occurred
+     */
+    private static void copyState(final Node source, final Node target) throws RepositoryException {
+        for (final NodeType mixin : source.getMixinNodeTypes()) {
+            if (target.canAddMixin(mixin.getName())) {
+                target.addMixin(mixin.getName());
+            }
+        }
+        for (final PropertyIterator properties = source.getProperties(); properties.hasNext();) {
+            final Property property = properties.nextProperty();
+            if (property.getDefinition().isProtected()) {
+                continue;
+            }
+            if (property.isMultiple()) {
+                target.setProperty(property.getName(), property.getValues());
+            } else {
+                target.setProperty(property.getName(), property.getValue());
+            }
+        }
+        for (final NodeIterator children = source.getNodes(); children.hasNext();) {
+            final Node child = children.nextNode();
+            if (!child.getName().equals(LDPCV_BINARY_TIME_MAP)) {
+                copyState(child, target.hasNode(child.getName()) ? target.getNode(child.getName()) :
+                        target.addNode(child.getName(), child.getPrimaryNodeType().getName()));
+            }
+        }
+    }
+
     private String makeMementoPath(final FedoraResource resource, final Instant datetime) {
         final String ldpcvName = resource instanceof FedoraBinary ? LDPCV_BINARY_TIME_MAP : LDPCV_TIME_MAP;
         return resource.getPath() + "/" + ldpcvName + "/" + MEMENTO_DATETIME_ID_FORMATTER.format(datetime);
@@ -223,6 +295,7 @@ public class VersionServiceImpl extends AbstractService implements VersionServic
             final Calendar mementoDatetime = GregorianCalendar.from(
                     ZonedDateTime.ofInstant(dateTime, ZoneId.of("UTC")));
             mementoNode.setProperty(MEMENTO_DATETIME, mementoDatetime);
+            MementoIndex.add(mementoNode, dateTime);
         } catch (final RepositoryException e) {
             throw new RepositoryRuntimeException(e);
         }
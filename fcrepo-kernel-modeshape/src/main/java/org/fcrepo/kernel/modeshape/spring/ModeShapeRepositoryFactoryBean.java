@@ -29,6 +29,10 @@ import javax.inject.Inject;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.modeshape.FedoraRepositoryImpl;
+import org.fcrepo.kernel.modeshape.utils.MembershipIndex;
+import org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache;
+import org.fcrepo.kernel.modeshape.utils.SaveCounter;
+import org.fcrepo.kernel.modeshape.utils.TombstoneIndex;
 import org.modeshape.jcr.JcrRepository;
 import org.modeshape.jcr.ModeShapeEngine;
 import org.modeshape.jcr.NoSuchRepositoryException;
@@ -82,6 +86,10 @@ public class ModeShapeRepositoryFactoryBean implements
                 LOGGER.error("ModeShape Start Problem: {}", p.getMessageString());
                 // TODO determine problems that should be runtime errors
             }
+            NodeTypeNameCache.listen(repository);
+            SaveCounter.listen(repository);
+            TombstoneIndex.load(repository);
+            MembershipIndex.checkAll(repository);
         } catch (final Exception e) {
             throw new RepositoryRuntimeException(e);
         }
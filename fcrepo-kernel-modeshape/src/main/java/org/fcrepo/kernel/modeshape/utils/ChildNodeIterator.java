@@ -0,0 +1,303 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.Integer.getInteger;
+import static java.lang.System.nanoTime;
+import static java.util.Collections.emptyIterator;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+import javax.jcr.Node;
+import javax.jcr.PathNotFoundException;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+
+import com.google.common.cache.Cache;
+
+/**
+ * A lazy, depth-first cursor over the child nodes of a node that looks through intermediate nodes (e.g.
+ * pairtree nodes) as though their children were children of the starting node. Only as many nodes are
+ * read as are consumed, and the cursor may be started just after a given child.
+ *
+ * JCR offers no way to start reading the children of a node after a given child, so while the repository's changes
+ * are observed (see {@link #listen(Repository)}), the names of the children of each node a cursor starts within are
+ * listed once and kept, with the position of each, until its children change. A cursor started after a child then
+ * reads on from its position, rather than reading every child before it. A listing may miss the children saved just
+ * before it is read, until their changes are observed. Sessions with unsaved changes do not use the listings.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public class ChildNodeIterator implements Iterator<Node> {
+
+    public static final String LISTINGS_SIZE_PROPERTY = "fcrepo.children.listings.size";
+
+    private static final int DEFAULT_LISTINGS_SIZE = 1000000;
+
+    private static final Cache<Repository, Listings> LISTINGS = newBuilder().weakKeys().build();
+
+    private final Deque<Iterator<Node>> levels = new ArrayDeque<>();
+
+    private final Predicate<Node> skip;
+
+    private final Predicate<Node> descend;
+
+    private Node next;
+
+    /**
+     * Iterate over the children of a node.
+     *
+     * @param parent the node whose children to iterate over
+     * @param skip nodes that are not children, and whose own children are not visited
+     * @param descend nodes that are not children, but whose own children are visited in their place
+     * @param after the path of the child to start after, or null to start from the first child
+     */
+    public ChildNodeIterator(final Node parent, final Predicate<Node> skip, final Predicate<Node> descend,
+            final String after) {
+        this.skip = skip;
+        this.descend = descend;
+        try {
+            if (after == null) {
+                levels.push(children(parent));
+            } else {
+                seek(parent, after);
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Start keeping listings of the children of the nodes in a repository, whose changes are then to be reported
+     * through {@link #changed(Repository, Collection, Collection)}. Any listings already kept are dropped.
+     *
+     * @param repository the JCR repository
+     */
+    public static void listen(final Repository repository) {
+        LISTINGS.put(repository, new Listings(getInteger(LISTINGS_SIZE_PROPERTY, DEFAULT_LISTINGS_SIZE)));
+    }
+
+    /**
+     * Stop keeping listings of the children of the nodes in a repository.
+     *
+     * @param repository the JCR repository
+     */
+    public static void forget(final Repository repository) {
+        LISTINGS.invalidate(repository);
+    }
+
+    /**
+     * Drop the listings of nodes whose children have changed.
+     *
+     * @param repository the JCR repository
+     * @param parents the paths of the nodes whose children were added, removed or moved
+     * @param moved the paths the moved nodes were moved from
+     */
+    public static void changed(final Repository repository, final Collection<String> parents,
+            final Collection<String> moved) {
+        final Listings listings = LISTINGS.getIfPresent(repository);
+        if (listings != null) {
+            listings.changed(parents, moved);
+        }
+    }
+
+    /**
+     * Position a level for each segment of the given child's path just past that segment.
+     */
+    private void seek(final Node parent, final String after) throws RepositoryException {
+        final String parentPath = parent.getPath();
+        final String prefix = parentPath.endsWith("/") ? parentPath : parentPath + "/";
+        final Session session = parent.getSession();
+        if (!after.startsWith(prefix) || !session.nodeExists(after)) {
+            throw new PathNotFoundRuntimeException(new PathNotFoundException(
+                    "No child " + after + " of " + parentPath));
+        }
+        final Repository repository = session.getRepository();
+        final Listings listings = repository == null || session.hasPendingChanges() ? null :
+                LISTINGS.getIfPresent(repository);
+        Node level = parent;
+        for (final String segment : after.substring(prefix.length()).split("/")) {
+            final Node found;
+            if (listings == null) {
+                final Iterator<Node> children = children(level);
+                levels.push(children);
+                Node candidate = null;
+                while (candidate == null && children.hasNext()) {
+                    final Node child = children.next();
+                    if (segmentOf(child).equals(segment)) {
+                        candidate = child;
+                    }
+                }
+                found = candidate;
+            } else {
+                final Listing listing = listings.of(level);
+                final Integer position = listing.positions.get(segment);
+                levels.push(position == null ? emptyIterator() : listing.after(level, position));
+                found = position == null || !level.hasNode(segment) ? null : level.getNode(segment);
+            }
+            if (found == null) {
+                return;
+            }
+            level = found;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            next = advance();
+        }
+        return next != null;
+    }
+
+    @Override
+    public Node next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final Node result = next;
+        next = null;
+        return result;
+    }
+
+    private Node advance() {
+        try {
+            while (!levels.isEmpty()) {
+                final Iterator<Node> level = levels.peek();
+                if (!level.hasNext()) {
+                    levels.pop();
+                    continue;
+                }
+                final Node candidate = level.next();
+                if (skip.test(candidate)) {
+                    continue;
+                }
+                if (descend.test(candidate)) {
+                    levels.push(children(candidate));
+                    continue;
+                }
+                return candidate;
+            }
+            return null;
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterator<Node> children(final Node node) throws RepositoryException {
+        return node.getNodes();
+    }
+
+    /**
+     * The last segment of the path of a node, with its index among same-name siblings if it has one.
+     */
+    private static String segmentOf(final Node node) throws RepositoryException {
+        return node.getIndex() > 1 ? node.getName() + "[" + node.getIndex() + "]" : node.getName();
+    }
+
+    /**
+     * The listings of the children of the nodes in a repository, by path.
+     */
+    private static final class Listings {
+
+        private final Cache<String, Listing> listings;
+
+        // when the children of each node last changed, so that a listing read before then is not kept
+        private final Cache<String, Long> changes = newBuilder().expireAfterWrite(10, MINUTES).build();
+
+        private Listings(final int size) {
+            listings = newBuilder().maximumWeight(size).weigher((final String path, final Listing listing) ->
+                    listing.segments.size() + 1).build();
+        }
+
+        private Listing of(final Node node) throws RepositoryException {
+            final String path = node.getPath();
+            final Listing kept = listings.getIfPresent(path);
+            if (kept != null && kept.identifier.equals(node.getIdentifier())) {
+                return kept;
+            }
+            final long started = nanoTime();
+            final Listing listing = new Listing(node);
+            final Long changed = changes.getIfPresent(path);
+            if (changed == null || changed < started) {
+                listings.put(path, listing);
+            }
+            return listing;
+        }
+
+        private void changed(final Collection<String> parents, final Collection<String> moved) {
+            final long now = nanoTime();
+            for (final String parent : parents) {
+                changes.put(parent, now);
+                listings.invalidate(parent);
+            }
+            // the nodes below a moved node keep their identifiers, but not their paths
+            if (!moved.isEmpty()) {
+                listings.asMap().keySet().removeIf(path -> moved.stream().anyMatch(source ->
+                        path.startsWith(source + "/")));
+            }
+        }
+    }
+
+    /**
+     * The children of a node, in order.
+     */
+    private static final class Listing {
+
+        private final String identifier;
+
+        private final List<String> segments = new ArrayList<>();
+
+        private final Map<String, Integer> positions = new HashMap<>();
+
+        private Listing(final Node node) throws RepositoryException {
+            identifier = node.getIdentifier();
+            for (final Iterator<Node> children = children(node); children.hasNext();) {
+                final String segment = segmentOf(children.next());
+                positions.putIfAbsent(segment, segments.size());
+                segments.add(segment);
+            }
+        }
+
+        /**
+         * Read the children of a node after the given position, skipping those removed since it was listed.
+         */
+        private Iterator<Node> after(final Node node, final int position) {
+            return segments.subList(position + 1, segments.size()).stream()
+                    .filter(UncheckedPredicate.uncheck(node::hasNode))
+                    .map(UncheckedFunction.uncheck(node::getNode)).iterator();
+        }
+    }
+}
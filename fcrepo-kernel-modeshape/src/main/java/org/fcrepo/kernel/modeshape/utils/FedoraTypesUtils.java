@@ -18,6 +18,7 @@
 package org.fcrepo.kernel.modeshape.utils;
 
 import java.net.URI;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Optional;
@@ -30,6 +31,7 @@ import org.fcrepo.kernel.api.FedoraTypes;
 import org.fcrepo.kernel.api.exception.AccessDeniedException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.modeshape.ChangeSetAccount;
 import org.fcrepo.kernel.modeshape.FedoraResourceImpl;
 import org.fcrepo.kernel.modeshape.services.functions.AnyTypesPredicate;
 import org.modeshape.jcr.JcrRepository;
@@ -44,6 +46,7 @@ import javax.jcr.Session;
 import javax.jcr.nodetype.NodeType;
 import javax.jcr.nodetype.PropertyDefinition;
 
+import static java.time.Instant.ofEpochMilli;
 import static java.util.Arrays.stream;
 import static java.util.Calendar.getInstance;
 import static java.util.Optional.empty;
@@ -51,8 +54,11 @@ import static java.util.TimeZone.getTimeZone;
 import static javax.jcr.PropertyType.REFERENCE;
 import static javax.jcr.PropertyType.WEAKREFERENCE;
 import static com.google.common.collect.ImmutableSet.of;
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.fcrepo.kernel.api.RdfLexicon.MEMENTO_TYPE;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_CHILD_COUNT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_ETAG;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_MIXIN_TYPES;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_PRIMARY_TYPE;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FROZEN_NODE;
@@ -61,6 +67,13 @@ import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_CREATEDBY;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_FROZEN_NODE;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIED;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.JCR_LASTMODIFIEDBY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.LATEST_MEMENTO_SNAPSHOT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_ADDED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_DATETIMES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_DELTA_COUNT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_REMOVED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_SNAPSHOT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_TRIPLES;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.fcrepo.kernel.modeshape.services.functions.JcrPropertyFunctions.isBinaryContentProperty;
 import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
@@ -97,7 +110,16 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
             JCR_MIXIN_TYPES,
             FROZEN_MIXIN_TYPES,
             FROZEN_PRIMARY_TYPE,
-            MEMENTO_DATETIME);
+            FEDORA_ETAG,
+            MEMENTO_DATETIME,
+            MEMENTO_DATETIMES,
+            MEMENTO_TRIPLES,
+            MEMENTO_SNAPSHOT,
+            MEMENTO_ADDED,
+            MEMENTO_REMOVED,
+            LATEST_MEMENTO_SNAPSHOT,
+            MEMENTO_DELTA_COUNT,
+            FEDORA_CHILD_COUNT);
 
     private static Set<String> validJcrProperties = of(
             JCR_CREATED,
@@ -421,13 +443,15 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
 
     /**
      * Update the fedora:lastModified date and fedora:lastModifiedBy of the parent's ldp:membershipResource if that
-     * node is a direct or indirect container, provided the LDP constraints are valid.
+     * node is a direct or indirect container, provided the LDP constraints are valid. The parent's membership index
+     * is brought up to date with the node.
      *
      * @param node The JCR node
      * @param date the date the modification was supposed to have occurred or null to indicate now
      * @param user the user who performed the action or null to indicate the user associated with the current session
      */
     public static void touchLdpMembershipResource(final Node node, final Calendar date, final String user) {
+        MembershipIndex.update(node);
         getContainingNode(node).filter(uncheck(parent -> parent.hasProperty(LDP_MEMBER_RESOURCE))).ifPresent(parent -> {
             try {
                 final Optional<String> hasInsertedContentProperty = ldpInsertedContentProperty(node)
@@ -480,6 +504,8 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
     public static void touch(final Node node, final Calendar created, final String creatingUser,
                              final Calendar modified, final String modifyingUser) {
         try {
+            ChangeSetAccount.touched(node);
+
             if (created != null) {
                 node.setProperty(FEDORA_CREATED, created);
             }
@@ -488,11 +514,8 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
                 node.setProperty(FEDORA_CREATEDBY, creatingUser);
             }
 
-            if (modified != null) {
-                node.setProperty(FEDORA_LASTMODIFIED, modified);
-            } else {
-                node.setProperty(FEDORA_LASTMODIFIED, getInstance(getTimeZone("UTC")));
-            }
+            final Calendar lastModified = modified != null ? modified : getInstance(getTimeZone("UTC"));
+            node.setProperty(FEDORA_LASTMODIFIED, lastModified);
 
             if (modifyingUser != null) {
                 node.setProperty(FEDORA_LASTMODIFIEDBY, modifyingUser);
@@ -502,6 +525,9 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
                     node.getProperty(FEDORA_LASTMODIFIEDBY).remove();
                 }
             }
+
+            // store the ETag alongside the date it is derived from, so that reading it is a single property read
+            node.setProperty(FEDORA_ETAG, getEtag(getResourcePath(node), getLastModified(node, lastModified)));
         } catch (final javax.jcr.AccessDeniedException ex) {
             throw new AccessDeniedException(ex);
         } catch (final RepositoryException ex) {
@@ -509,6 +535,46 @@ public abstract class FedoraTypesUtils implements FedoraTypes {
         }
     }
 
+    /**
+     * Compute the ETag of a resource from its path and its last modified date.
+     *
+     * @param path the path of the resource
+     * @param lastModified the last modified date of the resource
+     * @return the ETag value
+     */
+    public static String getEtag(final String path, final Instant lastModified) {
+        return sha1Hex(path + lastModified.toEpochMilli());
+    }
+
+    /**
+     * Get the path of the resource a node belongs to: binary content nodes share the path of their description.
+     *
+     * @param node the JCR node
+     * @return the resource path
+     * @throws RepositoryException if repository exception occurred
+     */
+    public static String getResourcePath(final Node node) throws RepositoryException {
+        final String path = node.getPath();
+        return path.endsWith("/" + JCR_CONTENT) ? path.substring(0, path.length() - JCR_CONTENT.length() - 1) : path;
+    }
+
+    /*
+     * The last modified date as presented by FedoraResourceImpl#getLastModifiedDate for a node whose
+     * fedora:lastModified property has just been set: never earlier than the created date.
+     */
+    private static Instant getLastModified(final Node node, final Calendar lastModified) throws RepositoryException {
+        final long modified = lastModified.getTimeInMillis();
+        final long created;
+        if (node.hasProperty(FEDORA_CREATED)) {
+            created = node.getProperty(FEDORA_CREATED).getDate().getTimeInMillis();
+        } else if (node.hasProperty(JCR_CREATED)) {
+            created = node.getProperty(JCR_CREATED).getDate().getTimeInMillis();
+        } else {
+            created = 0L;
+        }
+        return ofEpochMilli(Math.max(modified, created));
+    }
+
     /**
      * Get the JCR Node that corresponds to the containing node in the repository.
      * This may be the direct parent node, but it may also be a more distant ancestor.
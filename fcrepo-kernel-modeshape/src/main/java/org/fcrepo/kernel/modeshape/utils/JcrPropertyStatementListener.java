@@ -17,13 +17,16 @@
  */
 package org.fcrepo.kernel.modeshape.utils;
 
+import static java.util.Collections.unmodifiableSet;
 import static java.util.stream.Collectors.joining;
+import static org.fcrepo.kernel.modeshape.rdf.JcrRdfTools.getHashUris;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
 import org.fcrepo.kernel.api.exception.AccessDeniedException;
+import org.fcrepo.kernel.api.exception.ChangeSetTooLargeException;
 import org.fcrepo.kernel.api.exception.ConstraintViolationException;
 import org.fcrepo.kernel.api.exception.IncorrectTripleSubjectException;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
@@ -44,8 +47,10 @@ import org.apache.jena.rdf.model.Property;
 import org.apache.jena.vocabulary.RDF;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -76,6 +81,8 @@ public class JcrPropertyStatementListener extends StatementListener {
 
     private final Node topic;
 
+    private final Set<Resource> modifiedFragments;
+
     /**
      * Construct a statement listener within the given session
      *
@@ -104,6 +111,7 @@ public class JcrPropertyStatementListener extends StatementListener {
         this.exceptions = new ArrayList<>();
         this.topic = topic;
         this.statements = new ConcurrentHashMap<>();
+        this.modifiedFragments = new HashSet<>();
     }
 
 
@@ -123,6 +131,7 @@ public class JcrPropertyStatementListener extends StatementListener {
             LOGGER.debug(">> adding statement {}", input);
 
             final Statement s = jcrRdfTools.skolemize(idTranslator, input, topic.toString());
+            getHashUris(s).forEach(modifiedFragments::add);
 
             final FedoraResource resource = idTranslator.convert(s.getSubject());
 
@@ -140,7 +149,7 @@ public class JcrPropertyStatementListener extends StatementListener {
 
             jcrRdfTools.addProperty(resource, property, objectNode, input.getModel().getNsPrefixMap());
             statements.put(input, Operation.ADD);
-        } catch (final ConstraintViolationException e) {
+        } catch (final ConstraintViolationException | ChangeSetTooLargeException e) {
             throw e;
         } catch (final javax.jcr.AccessDeniedException e) {
             throw new AccessDeniedException(e);
@@ -165,6 +174,7 @@ public class JcrPropertyStatementListener extends StatementListener {
             final Resource subject = s.getSubject();
             validateSubject(subject);
             LOGGER.trace(">> removing statement {}", s);
+            getHashUris(s).forEach(modifiedFragments::add);
 
             final FedoraResource resource = idTranslator.convert(subject);
 
@@ -183,7 +193,7 @@ public class JcrPropertyStatementListener extends StatementListener {
 
             jcrRdfTools.removeProperty(resource, property, objectNode, s.getModel().getNsPrefixMap());
             statements.put(s, Operation.REMOVE);
-        } catch (final ConstraintViolationException e) {
+        } catch (final ConstraintViolationException | ChangeSetTooLargeException e) {
             throw e;
         } catch (final RepositoryException | RepositoryRuntimeException e) {
             exceptions.add(e);
@@ -219,6 +229,15 @@ public class JcrPropertyStatementListener extends StatementListener {
         }
     }
 
+    /**
+     * Get the hash URI resources referred to by the statements this listener has seen added or removed.
+     *
+     * @return the hash URI resources
+     */
+    public Set<Resource> getModifiedFragments() {
+        return unmodifiableSet(modifiedFragments);
+    }
+
     /**
      * Assert that no exceptions were thrown while this listener was processing change
      */
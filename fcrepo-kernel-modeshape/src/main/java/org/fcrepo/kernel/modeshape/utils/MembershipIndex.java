@@ -0,0 +1,417 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static java.util.Optional.empty;
+import static javax.jcr.query.Query.JCR_SQL2;
+import static java.util.stream.Collectors.toSet;
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_RESOURCE;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TIME_MAP;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_DIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_MEMBER_RESOURCE;
+import static org.fcrepo.kernel.api.FedoraTypes.MEMENTO;
+import static org.fcrepo.kernel.api.RdfLexicon.MEMBER_SUBJECT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_MEMBERSHIP_ENTRY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.identifiers.NodeResourceConverter.nodeConverter;
+import static org.fcrepo.kernel.modeshape.services.DeletionServiceImpl.isDeleted;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getContainingNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.resourceToProperty;
+import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
+import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import javax.jcr.ItemNotFoundException;
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.query.RowIterator;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.slf4j.Logger;
+
+/**
+ * A materialized index of the children of a Direct or Indirect container that contribute membership triples to
+ * its ldp:membershipResource. The index is a hidden child of the container holding one entry per member source,
+ * named by the member source's identifier, so that the membership of a resource can be read in time proportional
+ * to the number of members rather than to the number of children of the container.
+ *
+ * The index is created, or rebuilt, by the request that changes the membership configuration or type of the
+ * container, and is then maintained incrementally as children are created, updated, moved and deleted. Changes to
+ * children never create an index: concurrent sessions could each add one, and the repository does not prevent the
+ * resulting same-name siblings when both are saved. Containers without exactly one index (e.g. those created before
+ * the index existed) are read by walking their children until they are next reconfigured or checked. Every index is
+ * checked when the repository starts and when it has been restored from a backup.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public final class MembershipIndex {
+
+    private static final Logger LOGGER = getLogger(MembershipIndex.class);
+
+    private MembershipIndex() {
+    }
+
+    /**
+     * Is the given node the membership index of its parent?
+     *
+     * @param node the JCR node
+     * @return true if the node is a membership index
+     */
+    public static boolean isIndex(final Node node) {
+        try {
+            return node.getName().equals(MEMBERSHIP_INDEX);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Record whether the given node contributes membership triples in the index of its container, if its
+     * container is a Direct or Indirect container.
+     *
+     * @param node the JCR node of a child of a container
+     */
+    public static void update(final Node node) {
+        try {
+            final Node source = memberSource(node);
+            final Optional<Node> container = getContainingNode(source).filter(MembershipIndex::isIndexed);
+            if (!container.isPresent()) {
+                return;
+            }
+            if (!container.get().hasNode(MEMBERSHIP_INDEX)) {
+                return;
+            }
+            final Node index = container.get().getNode(MEMBERSHIP_INDEX);
+            final String identifier = source.getIdentifier();
+            final boolean isMember = isMemberSource(source, container.get());
+            if (isMember && !index.hasNode(identifier)) {
+                index.addNode(identifier, FEDORA_MEMBERSHIP_ENTRY);
+            } else if (!isMember && index.hasNode(identifier)) {
+                index.getNode(identifier).remove();
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Remove the given node from the index of its current container, e.g. before it is deleted.
+     *
+     * @param node the JCR node of a child of a container
+     */
+    public static void remove(final Node node) {
+        try {
+            final Node source = memberSource(node);
+            final String identifier = source.getIdentifier();
+            final Optional<Node> container = getContainingNode(source);
+            if (container.isPresent()) {
+                remove(container.get(), identifier);
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Remove the entry with the given identifier from the index of a container, e.g. after a child has been moved
+     * out of it.
+     *
+     * @param container the JCR node of the container
+     * @param identifier the identifier of the member source
+     */
+    public static void remove(final Node container, final String identifier) {
+        try {
+            if (container.hasNode(MEMBERSHIP_INDEX + "/" + identifier)) {
+                container.getNode(MEMBERSHIP_INDEX + "/" + identifier).remove();
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the member sources of a container from its index. For binaries, the member source is the binary's
+     * content node.
+     *
+     * @param container the JCR node of the container
+     * @return the member sources, or empty if the container does not have exactly one index
+     */
+    public static Optional<Stream<Node>> getMemberSources(final Node container) {
+        try {
+            if (!container.hasNode(MEMBERSHIP_INDEX) || countIndexes(container) != 1) {
+                return empty();
+            }
+            final Session session = container.getSession();
+            return Optional.of(entries(container)
+                    .flatMap(UncheckedFunction.uncheck((final Node entry) -> {
+                        try {
+                            return Stream.of(session.getNodeByIdentifier(entry.getName()));
+                        } catch (final ItemNotFoundException e) {
+                            LOGGER.warn("Membership index of {} refers to missing node {}", container.getPath(),
+                                    entry.getName());
+                            return Stream.empty();
+                        }
+                    })));
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Rebuild the index of a container from its children, discarding any existing index. The index of a container
+     * that is not a Direct or Indirect container with an ldp:membershipResource is simply removed.
+     *
+     * @param container the JCR node of the container
+     */
+    public static void rebuild(final Node container) {
+        try {
+            for (final NodeIterator indexes = container.getNodes(MEMBERSHIP_INDEX); indexes.hasNext();) {
+                indexes.nextNode().remove();
+            }
+            if (!isIndexed(container)) {
+                return;
+            }
+            LOGGER.debug("Rebuilding membership index of {}", container.getPath());
+            final Node index = container.addNode(MEMBERSHIP_INDEX, FEDORA_MEMBERSHIP_INDEX);
+            for (final Iterator<String> identifiers = memberSourceIdentifiers(container).iterator();
+                    identifiers.hasNext();) {
+                index.addNode(identifiers.next(), FEDORA_MEMBERSHIP_ENTRY);
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Rebuild the index of every container in a subtree, e.g. after it has been copied and its member sources
+     * have been given new identifiers.
+     *
+     * @param root the JCR node at the root of the subtree
+     */
+    public static void rebuildAll(final Node root) {
+        try {
+            if (root.hasNode(MEMBERSHIP_INDEX)) {
+                rebuild(root);
+            }
+            for (final NodeIterator children = root.getNodes(); children.hasNext();) {
+                final Node child = children.nextNode();
+                if (!isIndex(child) && !child.getName().equals(JCR_CONTENT)) {
+                    rebuildAll(child);
+                }
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Check the index of a container against its children, rebuilding it if it is out of date.
+     *
+     * @param container the JCR node of the container
+     * @return true if the index was consistent with the children of the container
+     */
+    public static boolean check(final Node container) {
+        try {
+            final boolean indexed = isIndexed(container);
+            final boolean consistent;
+            if (!container.hasNode(MEMBERSHIP_INDEX)) {
+                consistent = !indexed;
+            } else if (!indexed || countIndexes(container) != 1) {
+                consistent = false;
+            } else {
+                final Set<String> entries = entries(container).map(UncheckedFunction.uncheck(Node::getName))
+                        .collect(toSet());
+                consistent = entries.equals(memberSourceIdentifiers(container).collect(toSet()));
+            }
+            if (!consistent) {
+                LOGGER.warn("Membership index of {} is inconsistent; rebuilding it", container.getPath());
+                rebuild(container);
+            }
+            return consistent;
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Check the index of every Direct and Indirect container in a repository, and of every node that holds an index,
+     * rebuilding those that are out of date, when the repository starts or has been restored from a backup.
+     *
+     * @param repository the repository
+     * @return the number of indexes that were rebuilt
+     */
+    public static int checkAll(final Repository repository) {
+        try {
+            final Session session = repository.login();
+            try {
+                final Set<String> containers = new LinkedHashSet<>();
+                addAll(session, containers, "SELECT [jcr:path] FROM [" + LDP_DIRECT_CONTAINER + "]");
+                addAll(session, containers, "SELECT [jcr:path] FROM [" + LDP_INDIRECT_CONTAINER + "]");
+                final Set<String> indexes = new LinkedHashSet<>();
+                addAll(session, indexes, "SELECT [jcr:path] FROM [" + FEDORA_MEMBERSHIP_INDEX + "]");
+                indexes.forEach(index -> containers.add(index.substring(0, index.lastIndexOf('/'))));
+                int rebuilt = 0;
+                for (final String path : containers) {
+                    if (isDeleted(path) || !session.nodeExists(path) || session.getNode(path).isNodeType(MEMENTO)) {
+                        continue;
+                    }
+                    if (!check(session.getNode(path))) {
+                        session.save();
+                        rebuilt++;
+                    }
+                }
+                LOGGER.info("Checked {} membership indexes, rebuilt {}", containers.size(), rebuilt);
+                return rebuilt;
+            } finally {
+                session.logout();
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get a description of the membership configuration of a container, which determines the contents of its
+     * index.
+     *
+     * @param container the JCR node of the container
+     * @return the membership configuration
+     */
+    public static String getConfiguration(final Node container) {
+        try {
+            if (!isIndexed(container)) {
+                return "";
+            }
+            return container.getProperty(LDP_MEMBER_RESOURCE).getString() + " " +
+                    (container.hasProperty(LDP_INSERTED_CONTENT_RELATION) ?
+                            container.getProperty(LDP_INSERTED_CONTENT_RELATION).getString() : "");
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Rebuild the index of a container if its membership configuration has changed, or if it should have an index
+     * but has none.
+     *
+     * @param container the JCR node of the container
+     * @param previous the membership configuration before the change
+     * @see #getConfiguration(Node)
+     */
+    public static void reconfigure(final Node container, final String previous) {
+        try {
+            if (!previous.equals(getConfiguration(container)) ||
+                    isIndexed(container) != container.hasNode(MEMBERSHIP_INDEX)) {
+                rebuild(container);
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Count the indexes of a container: more than one means concurrent sessions each created one.
+     */
+    private static long countIndexes(final Node container) throws RepositoryException {
+        long count = 0;
+        for (final NodeIterator indexes = container.getNodes(MEMBERSHIP_INDEX); indexes.hasNext(); indexes.nextNode()) {
+            count++;
+        }
+        return count;
+    }
+
+    private static void addAll(final Session session, final Set<String> paths, final String query)
+            throws RepositoryException {
+        for (final RowIterator rows = session.getWorkspace().getQueryManager().createQuery(query, JCR_SQL2)
+                .execute().getRows(); rows.hasNext();) {
+            paths.add(rows.nextRow().getPath());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Stream<Node> entries(final Node container) throws RepositoryException {
+        return iteratorToStream(container.getNode(MEMBERSHIP_INDEX).getNodes());
+    }
+
+    private static Stream<String> memberSourceIdentifiers(final Node container) {
+        return nodeConverter.convert(container).getChildren()
+                .map(child -> memberSource(getJcrNode(child)))
+                .filter(UncheckedPredicate.uncheck(child -> isMemberSource(child, container)))
+                .map(UncheckedFunction.uncheck(Node::getIdentifier));
+    }
+
+    private static boolean isIndexed(final Node container) {
+        try {
+            return container.hasProperty(LDP_MEMBER_RESOURCE) && (container.isNodeType(LDP_DIRECT_CONTAINER) ||
+                    container.isNodeType(LDP_INDIRECT_CONTAINER));
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * The node whose URI and properties contribute membership triples: the content node of a binary, or the node
+     * itself.
+     */
+    private static Node memberSource(final Node node) {
+        try {
+            if (node.isNodeType(FEDORA_NON_RDF_SOURCE_DESCRIPTION) && node.hasNode(JCR_CONTENT)) {
+                return node.getNode(JCR_CONTENT);
+            }
+            return node;
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    private static boolean isMemberSource(final Node source, final Node container) throws RepositoryException {
+        if (!source.isNodeType(FEDORA_RESOURCE) || source.isNodeType(FEDORA_TIME_MAP)) {
+            return false;
+        }
+        if (!container.isNodeType(LDP_INDIRECT_CONTAINER)) {
+            return true;
+        }
+        if (!container.hasProperty(LDP_INSERTED_CONTENT_RELATION)) {
+            return false;
+        }
+        final String relation = container.getProperty(LDP_INSERTED_CONTENT_RELATION).getString();
+        if (relation.equals(MEMBER_SUBJECT.getURI())) {
+            return true;
+        }
+        final Optional<String> property = resourceToProperty(source.getSession()).apply(createResource(relation));
+        return property.isPresent() &&
+                (source.hasProperty(property.get()) || source.hasProperty(getReferencePropertyName(property.get())));
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.Long.parseLong;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toCollection;
+import static java.util.stream.Collectors.toSet;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
+import static org.apache.jena.vocabulary.RDF.type;
+import static org.fcrepo.kernel.api.RdfLexicon.CONTAINS;
+import static org.fcrepo.kernel.api.RdfLexicon.isManagedNamespace;
+import static org.fcrepo.kernel.api.RdfLexicon.isManagedPredicate;
+import static org.fcrepo.kernel.api.RequiredRdfContext.EMBED_RESOURCES;
+import static org.fcrepo.kernel.api.RequiredRdfContext.LDP_CONTAINMENT;
+import static org.fcrepo.kernel.api.RequiredRdfContext.LDP_MEMBERSHIP;
+import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
+import static org.fcrepo.kernel.api.RequiredRdfContext.SERVER_MANAGED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.LATEST_MEMENTO_SNAPSHOT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_ADDED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_DELTA_COUNT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_REMOVED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_SNAPSHOT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_TRIPLES;
+import static org.fcrepo.kernel.modeshape.utils.StreamUtils.iteratorToStream;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.out.NodeFmtLib;
+import org.fcrepo.kernel.api.TripleCategory;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * Storage of the triples of RDF Mementos as periodic snapshots and deltas, rather than as a full copy of the
+ * resource's properties in each Memento.
+ *
+ * A snapshot Memento holds all of its triples, as sorted N-Triples lines in a hidden multi-valued property, each
+ * prefixed with a tag naming the triple category it belongs to, so that only the requested categories are read. The
+ * following Mementos of the TimeMap, until the next snapshot, hold only the name of the snapshot and the lines added
+ * and removed relative to it. The Memento's own URI and the URIs of repository resources are stored relative to the
+ * repository, so that they survive changes of base URI. When a snapshot is deleted, its first dependent Memento
+ * becomes the new snapshot and the others are re-based on it.
+ *
+ * Reconstructed Mementos are cached, by the identifier of their node, in a cache of
+ * {@value #CACHE_SIZE_PROPERTY} Mementos (100 by default).
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public final class MementoDeltas {
+
+    private static final Logger LOGGER = getLogger(MementoDeltas.class);
+
+    public static final String CACHE_SIZE_PROPERTY = "fcrepo.memento.cacheSize";
+
+    /**
+     * The triple categories held by stored Mementos, in place of the properties of their nodes
+     */
+    public static final Set<TripleCategory> STORED_CONTEXTS = ImmutableSet.of(
+            PROPERTIES, EMBED_RESOURCES, SERVER_MANAGED, LDP_MEMBERSHIP, LDP_CONTAINMENT);
+
+    /**
+     * The tags of the stored triple categories, prefixed to each stored line
+     */
+    private static final Map<TripleCategory, String> TAGS = ImmutableMap.of(
+            PROPERTIES, "p", EMBED_RESOURCES, "e", SERVER_MANAGED, "s", LDP_MEMBERSHIP, "m", LDP_CONTAINMENT, "c");
+
+    private static final String STORED_BASE = "info:fcrepo/repository/";
+
+    private static final String STORED_SELF = "info:fcrepo/memento";
+
+    private static final Cache<String, SortedSet<String>> CACHE =
+            newBuilder().maximumSize(parseLong(System.getProperty(CACHE_SIZE_PROPERTY, "100"))).build();
+
+    private MementoDeltas() {
+    }
+
+    /**
+     * Is the given node a Memento whose triples are stored as a snapshot or delta?
+     *
+     * @param node the JCR node
+     * @return true if the node holds stored triples
+     */
+    public static boolean isStored(final Node node) {
+        try {
+            return node.hasProperty(MEMENTO_TRIPLES) || node.hasProperty(MEMENTO_SNAPSHOT);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Store the triples of a new Memento, as a snapshot if there have been the given number of Mementos since the
+     * last snapshot of its TimeMap, and otherwise as a delta from the last snapshot.
+     *
+     * @param memento the JCR node of the Memento
+     * @param triples the triples of the Memento in each of the {@link #STORED_CONTEXTS}
+     * @param mementoUri the URI of the Memento
+     * @param baseUri the URI of the repository root
+     * @param snapshotInterval the number of Mementos from one snapshot to the next
+     */
+    public static void store(final Node memento, final Function<TripleCategory, Stream<Triple>> triples,
+            final String mementoUri, final String baseUri, final int snapshotInterval) {
+        try {
+            final SortedSet<String> lines = STORED_CONTEXTS.stream()
+                    .flatMap(context -> triples.apply(context).map(t -> TAGS.get(context) + " " +
+                            toLine(t, mementoUri, baseUri)))
+                    .collect(toCollection(TreeSet::new));
+            final Node timeMap = memento.getParent();
+            final Optional<Node> snapshot = getLatestSnapshot(timeMap);
+            final long deltas = timeMap.hasProperty(MEMENTO_DELTA_COUNT) ?
+                    timeMap.getProperty(MEMENTO_DELTA_COUNT).getLong() : 0;
+            if (snapshot.isPresent() && deltas + 1 < snapshotInterval) {
+                writeDelta(memento, snapshot.get(), lines);
+                timeMap.setProperty(MEMENTO_DELTA_COUNT, deltas + 1);
+            } else {
+                memento.setProperty(MEMENTO_TRIPLES, lines.toArray(new String[lines.size()]));
+                timeMap.setProperty(LATEST_MEMENTO_SNAPSHOT, memento.getName());
+                timeMap.setProperty(MEMENTO_DELTA_COUNT, 0L);
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Reconstruct the triples of a stored Memento in the given categories.
+     *
+     * @param memento the JCR node of the Memento
+     * @param mementoUri the URI of the Memento
+     * @param baseUri the URI of the repository root
+     * @param contexts the triple categories requested
+     * @return the triples
+     */
+    public static Stream<Triple> getTriples(final Node memento, final String mementoUri, final String baseUri,
+            final Set<? extends TripleCategory> contexts) {
+        final Set<String> tags = contexts.stream().filter(TAGS::containsKey).map(TAGS::get).collect(toSet());
+        if (tags.isEmpty()) {
+            return Stream.empty();
+        }
+        final String text;
+        try {
+            // a triple stored under more than one of the requested categories is read once into the graph
+            text = getLines(memento).stream().filter(line -> tags.contains(line.substring(0, line.indexOf(' '))))
+                    .map(line -> line.substring(line.indexOf(' ') + 1)).collect(joining("\n"));
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+        final org.apache.jena.graph.Node self = createURI(mementoUri);
+        return iteratorToStream(createDefaultModel().read(new StringReader(text), null, "N-TRIPLES").getGraph()
+                .find(null, null, null))
+                .map(t -> new Triple(fromStored(t.getSubject(), self, baseUri), t.getPredicate(),
+                        fromStored(t.getObject(), self, baseUri)));
+    }
+
+    /**
+     * Classify a triple of a Memento provided by a client, which carries no categories of its own.
+     *
+     * @param triple the triple
+     * @return the stored category of the triple
+     */
+    public static TripleCategory classify(final Triple triple) {
+        if (triple.getPredicate().equals(CONTAINS.asNode())) {
+            return LDP_CONTAINMENT;
+        } else if (isManagedPredicate.test(createProperty(triple.getPredicate().getURI())) ||
+                (triple.getPredicate().equals(type.asNode()) && triple.getObject().isURI() &&
+                        isManagedNamespace.test(triple.getObject().getNameSpace()))) {
+            return SERVER_MANAGED;
+        }
+        return PROPERTIES;
+    }
+
+    /**
+     * Prepare for the deletion of a Memento: if it is a snapshot, make its first dependent Memento the new snapshot
+     * and re-base the others on it. Nodes that are not snapshots are ignored.
+     *
+     * @param memento the JCR node of the Memento
+     */
+    public static void remove(final Node memento) {
+        try {
+            if (!memento.hasProperty(MEMENTO_TRIPLES)) {
+                return;
+            }
+            final Node timeMap = memento.getParent();
+            final String name = memento.getName();
+            final List<Node> dependents = new ArrayList<>();
+            final List<SortedSet<String>> contents = new ArrayList<>();
+            for (final NodeIterator siblings = timeMap.getNodes(); siblings.hasNext();) {
+                final Node sibling = siblings.nextNode();
+                if (sibling.hasProperty(MEMENTO_SNAPSHOT) &&
+                        sibling.getProperty(MEMENTO_SNAPSHOT).getString().equals(name)) {
+                    dependents.add(sibling);
+                    contents.add(getLines(sibling));
+                }
+            }
+            CACHE.invalidate(memento.getIdentifier());
+            final boolean latest = timeMap.hasProperty(LATEST_MEMENTO_SNAPSHOT) &&
+                    timeMap.getProperty(LATEST_MEMENTO_SNAPSHOT).getString().equals(name);
+            if (dependents.isEmpty()) {
+                if (latest) {
+                    timeMap.getProperty(LATEST_MEMENTO_SNAPSHOT).remove();
+                }
+                return;
+            }
+            LOGGER.debug("Making {} the snapshot of {} Mementos in place of {}", dependents.get(0).getPath(),
+                    dependents.size() - 1, memento.getPath());
+            final Node snapshot = dependents.get(0);
+            snapshot.getProperty(MEMENTO_SNAPSHOT).remove();
+            snapshot.getProperty(MEMENTO_ADDED).remove();
+            snapshot.getProperty(MEMENTO_REMOVED).remove();
+            snapshot.setProperty(MEMENTO_TRIPLES, contents.get(0).toArray(new String[contents.get(0).size()]));
+            for (int i = 1; i < dependents.size(); i++) {
+                writeDelta(dependents.get(i), snapshot, contents.get(i));
+            }
+            if (latest) {
+                timeMap.setProperty(LATEST_MEMENTO_SNAPSHOT, snapshot.getName());
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the stored lines of a Memento, applying its delta to its snapshot if necessary.
+     */
+    private static SortedSet<String> getLines(final Node memento) throws RepositoryException {
+        final String key = memento.getIdentifier();
+        final SortedSet<String> cached = CACHE.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        final SortedSet<String> lines;
+        if (memento.hasProperty(MEMENTO_TRIPLES)) {
+            lines = values(memento, MEMENTO_TRIPLES);
+        } else {
+            final Node snapshot = memento.getParent().getNode(memento.getProperty(MEMENTO_SNAPSHOT).getString());
+            lines = new TreeSet<>(getLines(snapshot));
+            lines.removeAll(values(memento, MEMENTO_REMOVED));
+            lines.addAll(values(memento, MEMENTO_ADDED));
+        }
+        CACHE.put(key, lines);
+        return lines;
+    }
+
+    private static Optional<Node> getLatestSnapshot(final Node timeMap) throws RepositoryException {
+        if (!timeMap.hasProperty(LATEST_MEMENTO_SNAPSHOT)) {
+            return Optional.empty();
+        }
+        final String name = timeMap.getProperty(LATEST_MEMENTO_SNAPSHOT).getString();
+        if (!timeMap.hasNode(name) || !timeMap.getNode(name).hasProperty(MEMENTO_TRIPLES)) {
+            return Optional.empty();
+        }
+        return Optional.of(timeMap.getNode(name));
+    }
+
+    private static void writeDelta(final Node memento, final Node snapshot, final Set<String> lines)
+            throws RepositoryException {
+        final Set<String> base = getLines(snapshot);
+        final Set<String> added = new HashSet<>(lines);
+        added.removeAll(base);
+        final Set<String> removed = new HashSet<>(base);
+        removed.removeAll(lines);
+        memento.setProperty(MEMENTO_SNAPSHOT, snapshot.getName());
+        memento.setProperty(MEMENTO_ADDED, added.toArray(new String[added.size()]));
+        memento.setProperty(MEMENTO_REMOVED, removed.toArray(new String[removed.size()]));
+        CACHE.invalidate(memento.getIdentifier());
+    }
+
+    private static SortedSet<String> values(final Node node, final String property) throws RepositoryException {
+        final SortedSet<String> lines = new TreeSet<>();
+        for (final Value value : node.getProperty(property).getValues()) {
+            lines.add(value.getString());
+        }
+        return lines;
+    }
+
+    private static String toLine(final Triple triple, final String mementoUri, final String baseUri) {
+        return NodeFmtLib.strNodes(toStored(triple.getSubject(), mementoUri, baseUri), triple.getPredicate(),
+                toStored(triple.getObject(), mementoUri, baseUri)) + " .";
+    }
+
+    private static org.apache.jena.graph.Node toStored(final org.apache.jena.graph.Node node,
+            final String mementoUri, final String baseUri) {
+        if (!node.isURI()) {
+            return node;
+        } else if (node.getURI().equals(mementoUri)) {
+            return createURI(STORED_SELF);
+        } else if (node.getURI().startsWith(baseUri)) {
+            return createURI(STORED_BASE + node.getURI().substring(baseUri.length()));
+        }
+        return node;
+    }
+
+    private static org.apache.jena.graph.Node fromStored(final org.apache.jena.graph.Node node,
+            final org.apache.jena.graph.Node self, final String baseUri) {
+        if (!node.isURI()) {
+            return node;
+        } else if (node.getURI().equals(STORED_SELF)) {
+            return self;
+        } else if (node.getURI().startsWith(STORED_BASE)) {
+            return createURI(baseUri + node.getURI().substring(STORED_BASE.length()));
+        }
+        return node;
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Collections.binarySearch;
+import static java.util.Optional.empty;
+import static org.fcrepo.kernel.api.FedoraTypes.MEMENTO_DATETIME;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_DATETIMES;
+import static org.fcrepo.kernel.modeshape.FedoraTimeMapImpl.hasMixin;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isMemento;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.Optional;
+import java.util.RandomAccess;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+import javax.jcr.ValueFactory;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.slf4j.Logger;
+
+/**
+ * A sorted index of the datetimes of the Mementos in a TimeMap, so that the Memento nearest to a requested datetime,
+ * or the Mementos within a range of datetimes, can be found without reading every Memento node. The index is a
+ * hidden multi-valued property of the TimeMap holding the datetimes in ascending order.
+ *
+ * Reading the index copies the array of values of the property, but a lookup converts only the values visited by
+ * its binary search, and a range only the values it returns. Adding or removing a Memento splices one value into
+ * that array and writes the whole property back, so it takes time proportional to the number of Mementos in the
+ * TimeMap.
+ *
+ * The index is maintained as Mementos are created and deleted. TimeMaps without an index (e.g. those created before
+ * the index existed) are read from their children, and indexed on the next Memento created in them.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public final class MementoIndex {
+
+    private static final Logger LOGGER = getLogger(MementoIndex.class);
+
+    private MementoIndex() {
+    }
+
+    /**
+     * Record the datetime of a new Memento in the index of its TimeMap.
+     *
+     * @param memento the JCR node of the Memento
+     * @param datetime the datetime of the Memento
+     */
+    public static void add(final Node memento, final Instant datetime) {
+        try {
+            final Node timeMap = memento.getParent();
+            final boolean indexed = timeMap.hasProperty(MEMENTO_DATETIMES);
+            final Value[] values = indexed ?
+                    timeMap.getProperty(MEMENTO_DATETIMES).getValues() : toValues(timeMap, readChildren(timeMap));
+            // the index holds datetimes as stored by JCR, to the millisecond
+            final Instant stored = datetime.truncatedTo(MILLIS);
+            final int position = binarySearch(new Datetimes(values), stored);
+            if (position >= 0) {
+                if (!indexed) {
+                    timeMap.setProperty(MEMENTO_DATETIMES, values);
+                }
+                return;
+            }
+            final int insertion = -position - 1;
+            final Value[] updated = new Value[values.length + 1];
+            System.arraycopy(values, 0, updated, 0, insertion);
+            updated[insertion] = toValue(timeMap.getSession().getValueFactory(), stored);
+            System.arraycopy(values, insertion, updated, insertion + 1, values.length - insertion);
+            timeMap.setProperty(MEMENTO_DATETIMES, updated);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Remove a Memento from the index of its TimeMap, e.g. before it is deleted. Nodes that are not Mementos are
+     * ignored.
+     *
+     * @param memento the JCR node of the Memento
+     */
+    public static void remove(final Node memento) {
+        try {
+            if (memento.getDepth() == 0 || !isMemento.test(memento) || !memento.hasProperty(MEMENTO_DATETIME)) {
+                return;
+            }
+            final Node timeMap = memento.getParent();
+            if (!hasMixin(timeMap) || !timeMap.hasProperty(MEMENTO_DATETIMES)) {
+                return;
+            }
+            final Value[] values = timeMap.getProperty(MEMENTO_DATETIMES).getValues();
+            final int position = binarySearch(new Datetimes(values),
+                    memento.getProperty(MEMENTO_DATETIME).getDate().toInstant());
+            if (position >= 0) {
+                final Value[] updated = new Value[values.length - 1];
+                System.arraycopy(values, 0, updated, 0, position);
+                System.arraycopy(values, position + 1, updated, position, updated.length - position);
+                timeMap.setProperty(MEMENTO_DATETIMES, updated);
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the datetimes of the Mementos in a TimeMap, in ascending order. Each datetime in the index is converted
+     * when it is first read from the list.
+     *
+     * @param timeMap the JCR node of the TimeMap
+     * @return the datetimes
+     */
+    public static List<Instant> getDatetimes(final Node timeMap) {
+        try {
+            if (!timeMap.hasProperty(MEMENTO_DATETIMES)) {
+                return readChildren(timeMap);
+            }
+            return new Datetimes(timeMap.getProperty(MEMENTO_DATETIMES).getValues());
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the datetimes within a range from a sorted list of datetimes.
+     *
+     * @param datetimes the datetimes, in ascending order
+     * @param from the earliest datetime to include, or null for no lower bound
+     * @param until the latest datetime to include, or null for no upper bound
+     * @return the datetimes within the range
+     */
+    public static List<Instant> range(final List<Instant> datetimes, final Instant from, final Instant until) {
+        final int start = from == null ? 0 : insertionPoint(datetimes, from, false);
+        final int end = until == null ? datetimes.size() : insertionPoint(datetimes, until, true);
+        return start < end ? datetimes.subList(start, end) : datetimes.subList(0, 0);
+    }
+
+    /**
+     * Find the datetime nearest to a requested datetime in a sorted list of datetimes. Where two are equally near,
+     * the earlier is chosen.
+     *
+     * @param datetimes the datetimes, in ascending order
+     * @param datetime the requested datetime
+     * @return the nearest datetime, or empty if there are none
+     */
+    public static Optional<Instant> closest(final List<Instant> datetimes, final Instant datetime) {
+        if (datetimes.isEmpty()) {
+            return empty();
+        }
+        final int position = insertionPoint(datetimes, datetime, false);
+        if (position == 0) {
+            return Optional.of(datetimes.get(0));
+        } else if (position == datetimes.size()) {
+            return Optional.of(datetimes.get(position - 1));
+        }
+        final Instant before = datetimes.get(position - 1);
+        final Instant after = datetimes.get(position);
+        if (after.toEpochMilli() - datetime.toEpochMilli() < datetime.toEpochMilli() - before.toEpochMilli()) {
+            return Optional.of(after);
+        }
+        return Optional.of(before);
+    }
+
+    /**
+     * The index of the first datetime not before (or, if inclusive, after) the given datetime.
+     */
+    private static int insertionPoint(final List<Instant> datetimes, final Instant datetime,
+            final boolean inclusive) {
+        final int position = binarySearch(datetimes, datetime);
+        if (position < 0) {
+            return -position - 1;
+        }
+        return inclusive ? position + 1 : position;
+    }
+
+    private static List<Instant> readChildren(final Node timeMap) throws RepositoryException {
+        LOGGER.debug("Reading the Memento datetimes of unindexed TimeMap {}", timeMap.getPath());
+        final List<Instant> datetimes = new ArrayList<>();
+        for (final NodeIterator children = timeMap.getNodes(); children.hasNext();) {
+            final Node child = children.nextNode();
+            if (isMemento.test(child) && child.hasProperty(MEMENTO_DATETIME)) {
+                datetimes.add(child.getProperty(MEMENTO_DATETIME).getDate().toInstant());
+            }
+        }
+        datetimes.sort(null);
+        return datetimes;
+    }
+
+    private static Value[] toValues(final Node timeMap, final List<Instant> datetimes) throws RepositoryException {
+        final ValueFactory factory = timeMap.getSession().getValueFactory();
+        final Value[] values = new Value[datetimes.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toValue(factory, datetimes.get(i));
+        }
+        return values;
+    }
+
+    private static Value toValue(final ValueFactory factory, final Instant datetime) {
+        return factory.createValue(GregorianCalendar.from(ZonedDateTime.ofInstant(datetime, ZoneId.of("UTC"))));
+    }
+
+    /**
+     * The datetimes held by the values of the index, converted as they are read. The list is random access so
+     * that binary search reads only the values it visits.
+     */
+    private static class Datetimes extends AbstractList<Instant> implements RandomAccess {
+
+        private final Value[] values;
+
+        private final Instant[] datetimes;
+
+        private Datetimes(final Value[] values) {
+            this.values = values;
+            this.datetimes = new Instant[values.length];
+        }
+
+        @Override
+        public Instant get(final int index) {
+            if (datetimes[index] == null) {
+                try {
+                    datetimes[index] = values[index].getDate().toInstant();
+                } catch (final RepositoryException e) {
+                    throw new RepositoryRuntimeException(e);
+                }
+            }
+            return datetimes[index];
+        }
+
+        @Override
+        public int size() {
+            return values.length;
+        }
+    }
+}
@@ -30,7 +30,9 @@ import static org.fcrepo.kernel.modeshape.utils.UncheckedPredicate.uncheck;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.commons.lang3.StringUtils;
@@ -48,6 +50,7 @@ import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.exception.IdentifierConversionException;
 import org.fcrepo.kernel.api.exception.NoSuchPropertyDefinitionException;
 import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
+import org.fcrepo.kernel.modeshape.ChangeSetAccount;
 import org.slf4j.Logger;
 
 /**
@@ -122,6 +125,8 @@ public class NodePropertiesTools {
             }
         }
 
+        ChangeSetAccount.propertyChanged(node);
+
         if (!property.isMultiple() && !isInternalReferenceProperty.test(property)) {
             final String referencePropertyName = getReferencePropertyName(propertyName);
             if (node.hasProperty(referencePropertyName)) {
@@ -130,6 +135,48 @@ public class NodePropertiesTools {
         }
     }
 
+    /**
+     * Given a JCR node, property and values, append the values to the node's property, writing the
+     * property once for the whole batch. The values are treated as {@link #appendOrReplaceNodeProperty(Node,
+     * String, Value)} would treat them one at a time: duplicates are not appended, and a single-valued
+     * property is left holding the last value.
+     *
+     * @param node The JCR node
+     * @param propertyName a property name
+     * @param newValues the new values, in order
+     * @throws RepositoryException if repository exception occurred
+     */
+    public void appendOrReplaceNodeProperty(final Node node, final String propertyName, final List<Value> newValues)
+        throws RepositoryException {
+
+        if (newValues.isEmpty()) {
+            return;
+        }
+
+        if (!node.hasProperty(propertyName)) {
+            appendOrReplaceNodeProperty(node, propertyName, newValues.get(0));
+            if (newValues.size() == 1) {
+                return;
+            }
+        }
+
+        final Property property = node.getProperty(propertyName);
+
+        if (property.isMultiple()) {
+            LOGGER.debug("Appending {} values to {} property {}", newValues.size(),
+                         PropertyType.nameFromValue(property.getType()), propertyName);
+
+            final Set<Value> values = new LinkedHashSet<>(asList(property.getValues()));
+            final int existing = values.size();
+            if (values.addAll(newValues)) {
+                property.setValue(values.toArray(new Value[values.size()]));
+                ChangeSetAccount.propertyChanged(node, values.size() - existing);
+            }
+        } else {
+            appendOrReplaceNodeProperty(node, propertyName, newValues.get(newValues.size() - 1));
+        }
+    }
+
     /**
      * Add a reference placeholder from one node to another in-domain resource
      * @param idTranslator the id translator
@@ -227,6 +274,7 @@ public class NodePropertiesTools {
 
                 // we only need to update the property if we did anything.
                 if (remove.get()) {
+                    ChangeSetAccount.propertyChanged(node);
                     if (newValues.length == 0) {
                         LOGGER.debug("Removing property '{}'", propertyName);
                         property.remove();
@@ -246,6 +294,7 @@ public class NodePropertiesTools {
                 LOGGER.debug("Removing string '{}'", strValueToRemove);
                 if (StringUtils.equals(strPropValWithoutStringType, strValueToRemoveWithoutStringType)) {
                     LOGGER.debug("single value: Removing value from property '{}'", propertyName);
+                    ChangeSetAccount.propertyChanged(node);
                     property.remove();
                 } else {
                     LOGGER.debug("Value not removed from property name '{}' (property value: '{}';compare value: '{}')",
@@ -0,0 +1,268 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.util.Optional.empty;
+import static javax.jcr.observation.Event.NODE_ADDED;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static javax.jcr.observation.Event.PROPERTY_REMOVED;
+import static org.fcrepo.kernel.modeshape.rdf.JcrRdfTools.getJcrNamespaceForRDFNamespace;
+import static org.fcrepo.kernel.modeshape.rdf.JcrRdfTools.getRDFNamespaceForJcrNamespace;
+import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaceRegistry;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.net.URI;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.apache.jena.rdf.model.Resource;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.modeshape.jcr.api.NamespaceRegistry;
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+
+/**
+ * A bounded cache of the mapping between JCR node type names (e.g. "fedora:Container") and the RDF type
+ * URIs they are exposed as, and of the prefixes of the registered namespaces. Namespace prefixes are registered
+ * for the whole repository, so the cache is shared by every session of a repository. Once a repository is
+ * {@link #listen(Repository) listened to}, every change to its namespace or node type registry, whether made here
+ * or by another member of a cluster, discards the cache when it is observed; a change made here should also
+ * {@link #invalidate(Session) invalidate} it at once. Nothing is cached for a repository that is not listened to.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public final class NodeTypeNameCache {
+
+    private static final Logger LOGGER = getLogger(NodeTypeNameCache.class);
+
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    private static final String NAMESPACES = "/jcr:system/mode:namespaces";
+
+    private static final String NODE_TYPES = "/jcr:system/jcr:nodeTypes";
+
+    private static final int EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
+            + PROPERTY_REMOVED;
+
+    private static final Cache<Repository, Names> REPOSITORIES = newBuilder().weakKeys().build();
+
+    private NodeTypeNameCache() {
+    }
+
+    /**
+     * The JCR namespace of a node type's prefix and its corresponding RDF type URI.
+     */
+    private static final class TypeName {
+
+        private final String namespace;
+
+        private final URI uri;
+
+        private TypeName(final String namespace, final URI uri) {
+            this.namespace = namespace;
+            this.uri = uri;
+        }
+    }
+
+    private static final class Names implements EventListener {
+
+        private final Cache<String, TypeName> byName = newBuilder().maximumSize(MAXIMUM_SIZE).build();
+
+        /**
+         * The prefix of each registered JCR namespace that has been looked up
+         */
+        private final Map<String, String> prefixes = new ConcurrentHashMap<>();
+
+        /**
+         * Counts the changes to the registries, so that a mapping read before a change is not kept
+         */
+        private final AtomicLong changes = new AtomicLong();
+
+        /**
+         * The session that observes the registries
+         */
+        private Session session;
+
+        private void clear() {
+            changes.incrementAndGet();
+            byName.invalidateAll();
+            prefixes.clear();
+        }
+
+        @Override
+        public void onEvent(final EventIterator events) {
+            while (events.hasNext()) {
+                try {
+                    final String path = events.nextEvent().getPath();
+                    if (path.startsWith(NAMESPACES) || path.startsWith(NODE_TYPES)) {
+                        clear();
+                        return;
+                    }
+                } catch (final RepositoryException e) {
+                    LOGGER.warn("Could not read event, discarding the node type names: {}", e.getMessage());
+                    clear();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Start caching the mappings of a repository, and observe the changes to its namespace and node type registries.
+     * Any mappings already cached are dropped.
+     *
+     * @param repository the repository
+     */
+    public static void listen(final Repository repository) {
+        final Names previous = REPOSITORIES.getIfPresent(repository);
+        REPOSITORIES.invalidate(repository);
+        if (previous != null) {
+            previous.session.logout();
+        }
+        try {
+            final Names names = new Names();
+            names.session = repository.login();
+            names.session.getWorkspace().getObservationManager()
+                    .addEventListener(names, EVENT_TYPES, "/jcr:system", true, null, null, false);
+            REPOSITORIES.put(repository, names);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Get the RDF type URI for a JCR node type name.
+     *
+     * @param session the JCR session
+     * @param name the node type name
+     * @return the RDF type URI
+     */
+    public static URI getTypeURI(final Session session, final String name) {
+        return getTypeName(session, name).uri;
+    }
+
+    /**
+     * Get the JCR namespace URI of a JCR node type name's prefix.
+     *
+     * @param session the JCR session
+     * @param name the node type name
+     * @return the JCR namespace URI
+     */
+    public static String getNamespace(final Session session, final String name) {
+        return getTypeName(session, name).namespace;
+    }
+
+    /**
+     * Get the JCR node type name for an RDF type, if its namespace has been registered. Nothing is
+     * registered by this lookup.
+     *
+     * @param session the JCR session
+     * @param type the RDF type
+     * @return the JCR node type name, or empty if the type's namespace is not registered
+     */
+    public static Optional<String> getNodeTypeName(final Session session, final Resource type) {
+        return getPrefix(session, getJcrNamespaceForRDFNamespace(type.getNameSpace()))
+                .map(prefix -> prefix + ":" + type.getLocalName());
+    }
+
+    /**
+     * Get the prefix of a JCR namespace, if it has been registered. Nothing is registered by this lookup.
+     *
+     * @param session the JCR session
+     * @param namespace the JCR namespace URI
+     * @return the prefix, or empty if the namespace is not registered
+     */
+    public static Optional<String> getPrefix(final Session session, final String namespace) {
+        final Names names = names(session);
+        final String cached = names == null ? null : names.prefixes.get(namespace);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        try {
+            final long changes = names == null ? 0 : names.changes.get();
+            final NamespaceRegistry registry = (NamespaceRegistry) getNamespaceRegistry(session);
+            if (!registry.isRegisteredUri(namespace)) {
+                return empty();
+            }
+            final String prefix = registry.getPrefix(namespace);
+            if (names != null && names.changes.get() == changes) {
+                names.prefixes.put(namespace, prefix);
+            }
+            return Optional.of(prefix);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Discard the cached mappings for the repository of the given session.
+     *
+     * @param session the JCR session
+     */
+    public static void invalidate(final Session session) {
+        final Names names = names(session);
+        if (names != null) {
+            names.clear();
+        }
+    }
+
+    private static TypeName getTypeName(final Session session, final String name) {
+        final Names names = names(session);
+        final TypeName cached = names == null ? null : names.byName.getIfPresent(name);
+        if (cached != null) {
+            return cached;
+        }
+        final long changes = names == null ? 0 : names.changes.get();
+        final TypeName loaded = load(session, name);
+        if (names != null && names.changes.get() == changes) {
+            names.byName.put(name, loaded);
+        }
+        return loaded;
+    }
+
+    private static TypeName load(final Session session, final String name) {
+        final int colon = name.indexOf(':');
+        final String prefix = colon < 0 ? "" : name.substring(0, colon);
+        try {
+            final String namespace = getNamespaceRegistry(session).getURI(prefix);
+            return new TypeName(namespace,
+                    URI.create(getRDFNamespaceForJcrNamespace(namespace) + name.substring(colon + 1)));
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    private static Names names(final Session session) {
+        final Repository repository = session.getRepository();
+        return repository == null ? null : REPOSITORIES.getIfPresent(repository);
+    }
+}
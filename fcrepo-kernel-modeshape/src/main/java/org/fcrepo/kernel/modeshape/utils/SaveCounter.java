@@ -0,0 +1,96 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static javax.jcr.observation.Event.NODE_ADDED;
+import static javax.jcr.observation.Event.NODE_MOVED;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static javax.jcr.observation.Event.PROPERTY_ADDED;
+import static javax.jcr.observation.Event.PROPERTY_CHANGED;
+import static javax.jcr.observation.Event.PROPERTY_REMOVED;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+
+import com.google.common.cache.Cache;
+
+/**
+ * Counts the saves made to the repositories in this process, so that anything read before a save can tell that it
+ * may be out of date. A session committed here is counted at once (see {@link #saved()}); every other save,
+ * whether made directly through JCR or by another member of a cluster, is counted once its changes are observed
+ * in a repository that is {@link #listen(Repository) listened to}.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public final class SaveCounter {
+
+    private static final int EVENT_TYPES = NODE_ADDED + NODE_REMOVED + NODE_MOVED + PROPERTY_ADDED + PROPERTY_CHANGED
+            + PROPERTY_REMOVED;
+
+    private static final AtomicLong SAVES = new AtomicLong();
+
+    private static final Cache<Repository, Session> SESSIONS = newBuilder().weakKeys().build();
+
+    private static final EventListener LISTENER = (final EventIterator events) -> saved();
+
+    private SaveCounter() {
+    }
+
+    /**
+     * Start counting the saves to a repository that are observed in its events.
+     *
+     * @param repository the repository
+     */
+    public static void listen(final Repository repository) {
+        final Session previous = SESSIONS.getIfPresent(repository);
+        if (previous != null) {
+            previous.logout();
+        }
+        try {
+            final Session session = repository.login();
+            session.getWorkspace().getObservationManager()
+                    .addEventListener(LISTENER, EVENT_TYPES, "/", true, null, null, false);
+            SESSIONS.put(repository, session);
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Count a save.
+     */
+    public static void saved() {
+        SAVES.incrementAndGet();
+    }
+
+    /**
+     * @return the number of saves counted so far
+     */
+    public static long get() {
+        return SAVES.get();
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static com.google.common.cache.CacheBuilder.newBuilder;
+import static java.lang.System.currentTimeMillis;
+import static javax.jcr.observation.Event.NODE_REMOVED;
+import static javax.jcr.query.Query.JCR_SQL2;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.isClustered;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.query.RowIterator;
+
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.modeshape.TombstoneImpl;
+import org.slf4j.Logger;
+
+import com.google.common.cache.Cache;
+
+/**
+ * An in-memory index of the paths of the tombstones in a repository, so that a request for a missing path can be
+ * told whether it lies under a tombstone without looking for each of its ancestors in the repository. The index is
+ * loaded when the repository starts, and again when it is restored from a backup. Tombstones are indexed as they are
+ * created, and forgotten only once their removal has been saved, as observed in the events of the repository.
+ *
+ * The index may hold paths that are no longer tombstones (e.g. the tombstone of a rolled-back transaction, or one
+ * whose removal has not been observed yet), so a positive answer must be confirmed against the repository; a
+ * negative answer is definitive. Tombstones created by other members of a cluster are not seen, so a clustered
+ * repository keeps no index, and every path in it is reported as possibly tombstoned, as it is in any repository
+ * whose index has not been loaded yet.
+ *
+ * @author agent
+ * @since Oct 19, 2026
+ */
+public final class TombstoneIndex {
+
+    private static final Logger LOGGER = getLogger(TombstoneIndex.class);
+
+    private static final Cache<Repository, Paths> REPOSITORIES = newBuilder().weakKeys().build();
+
+    private TombstoneIndex() {
+    }
+
+    /**
+     * The tombstone paths of a repository, behind a small counting bloom filter that answers most lookups for paths
+     * that are not tombstones without touching the set. The counters of a path are taken back when it is forgotten,
+     * so the filter stays as selective as the set of paths it stands for.
+     */
+    private static final class Paths {
+
+        private static final int COUNTERS = 1 << 18;
+
+        private final AtomicIntegerArray filter = new AtomicIntegerArray(COUNTERS);
+
+        /**
+         * The time each path was indexed
+         */
+        private final Map<String, Long> paths = new ConcurrentHashMap<>();
+
+        /**
+         * The session that observes the removal of tombstones
+         */
+        private Session session;
+
+        private void add(final String path) {
+            paths.compute(path, (p, indexed) -> {
+                if (indexed == null) {
+                    count(p, 1);
+                }
+                return currentTimeMillis();
+            });
+        }
+
+        /**
+         * Forget a path, unless it has been indexed again since the given time.
+         */
+        private void remove(final String path, final long indexed) {
+            paths.computeIfPresent(path, (p, current) -> {
+                if (current != indexed) {
+                    return current;
+                }
+                count(p, -1);
+                return null;
+            });
+        }
+
+        private boolean contains(final String path) {
+            for (final int counter : counters(path)) {
+                if (filter.get(counter) == 0) {
+                    return false;
+                }
+            }
+            return paths.containsKey(path);
+        }
+
+        private void count(final String path, final int delta) {
+            for (final int counter : counters(path)) {
+                filter.addAndGet(counter, delta);
+            }
+        }
+
+        private static int[] counters(final String path) {
+            final int h = path.hashCode();
+            final int g = Integer.rotateLeft(h * 0x9E3779B9, 16) ^ path.length();
+            return new int[] { h & (COUNTERS - 1), g & (COUNTERS - 1) };
+        }
+    }
+
+    /**
+     * Forgets the tombstones whose removal has been saved. A path indexed again since the removal was saved, or that
+     * holds a tombstone again (e.g. one replacing a resource that was being deleted), is kept.
+     */
+    private static final class Remover implements EventListener {
+
+        private final Paths paths;
+
+        private Remover(final Paths paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        public void onEvent(final EventIterator events) {
+            while (events.hasNext()) {
+                final Event event = events.nextEvent();
+                try {
+                    final String path = event.getPath();
+                    final Long indexed = paths.paths.get(path);
+                    if (indexed != null && indexed < event.getDate() && !isTombstone(path)) {
+                        paths.remove(path, indexed);
+                    }
+                } catch (final RepositoryException | RuntimeException e) {
+                    LOGGER.warn("Could not apply event to the tombstone index: {}", e.getMessage());
+                }
+            }
+        }
+
+        private boolean isTombstone(final String path) throws RepositoryException {
+            paths.session.refresh(false);
+            return paths.session.nodeExists(path) && TombstoneImpl.hasMixin(paths.session.getNode(path));
+        }
+    }
+
+    /**
+     * Load the index of a repository from the tombstones it holds, when it starts or has been restored from a
+     * backup, and observe the removal of tombstones. Until it has been loaded, and in a clustered repository,
+     * every path is possibly tombstoned.
+     *
+     * @param repository the repository
+     */
+    public static void load(final Repository repository) {
+        final Paths previous = REPOSITORIES.getIfPresent(repository);
+        REPOSITORIES.invalidate(repository);
+        if (previous != null) {
+            previous.session.logout();
+        }
+        if (isClustered(repository)) {
+            LOGGER.info("Tombstone paths are not indexed in a clustered repository");
+            return;
+        }
+        try {
+            final Paths paths = new Paths();
+            paths.session = repository.login();
+            paths.session.getWorkspace().getObservationManager()
+                    .addEventListener(new Remover(paths), NODE_REMOVED, "/", true, null, null, false);
+            addAll(paths.session, paths, "SELECT [jcr:path] FROM [" + FEDORA_TOMBSTONE + "]");
+            REPOSITORIES.put(repository, paths);
+            LOGGER.info("Loaded {} tombstone paths", paths.paths.size());
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Record a newly created tombstone.
+     *
+     * @param tombstone the JCR node of the tombstone
+     */
+    public static void add(final Node tombstone) {
+        try {
+            final Paths paths = paths(tombstone.getSession());
+            if (paths != null) {
+                paths.add(tombstone.getPath());
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Record the tombstones in a subtree that has just been moved or copied to a new path.
+     *
+     * @param root the JCR node at the root of the subtree
+     */
+    public static void addDescendants(final Node root) {
+        try {
+            final Paths paths = paths(root.getSession());
+            if (paths != null) {
+                addAll(root.getSession(), paths, "SELECT [jcr:path] FROM [" + FEDORA_TOMBSTONE +
+                        "] WHERE ISDESCENDANTNODE('" + root.getPath().replace("'", "''") + "')");
+            }
+        } catch (final RepositoryException e) {
+            throw new RepositoryRuntimeException(e);
+        }
+    }
+
+    /**
+     * Might the given path, or one of its ancestors, be a tombstone? Only a positive answer needs to be confirmed
+     * against the repository.
+     *
+     * @param session the JCR session
+     * @param path the JCR path
+     * @return false if neither the path nor any of its ancestors is a tombstone
+     */
+    public static boolean mayBeTombstoned(final Session session, final String path) {
+        final Paths paths = paths(session);
+        if (paths == null) {
+            return true;
+        }
+        String prefix = path.startsWith("/") ? path : "/" + path;
+        while (!prefix.isEmpty()) {
+            if (paths.contains(prefix)) {
+                return true;
+            }
+            prefix = prefix.substring(0, prefix.lastIndexOf('/'));
+        }
+        return false;
+    }
+
+    private static void addAll(final Session session, final Paths paths, final String query)
+            throws RepositoryException {
+        for (final RowIterator rows = session.getWorkspace().getQueryManager().createQuery(query, JCR_SQL2)
+                .execute().getRows(); rows.hasNext();) {
+            paths.add(rows.nextRow().getPath());
+        }
+    }
+
+    private static Paths paths(final Session session) {
+        final Repository repository = session == null ? null : session.getRepository();
+        return repository == null ? null : REPOSITORIES.getIfPresent(repository);
+    }
+}
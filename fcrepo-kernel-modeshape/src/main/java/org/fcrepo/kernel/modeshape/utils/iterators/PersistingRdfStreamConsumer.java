@@ -21,6 +21,8 @@ import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static org.apache.jena.vocabulary.RDF.type;
 import static java.lang.String.join;
+import static java.util.Collections.unmodifiableSet;
+import static org.fcrepo.kernel.modeshape.rdf.JcrRdfTools.getHashUris;
 import static org.fcrepo.kernel.modeshape.rdf.ManagedRdf.isManagedMixin;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.isFedoraBinary;
@@ -28,6 +30,7 @@ import static org.fcrepo.kernel.api.FedoraTypes.FCR_METADATA;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.exception.ChangeSetTooLargeException;
 import org.fcrepo.kernel.api.exception.ConstraintViolationException;
 import org.fcrepo.kernel.api.exception.IncorrectTripleSubjectException;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
@@ -49,11 +52,17 @@ import com.google.common.util.concurrent.SettableFuture;
 import org.apache.jena.graph.Node;
 import org.apache.jena.graph.Triple;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Property;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.function.Predicate;
 
 /**
@@ -77,6 +86,15 @@ public abstract class PersistingRdfStreamConsumer implements RdfStreamConsumer {
 
     private final List<String> exceptions;
 
+    // subject translations made while consuming this stream
+    private final Map<Resource, FedoraResource> subjects;
+
+    // property triples, grouped by subject and predicate, waiting to be written
+    private final Map<FedoraResource, Map<Property, List<Statement>>> pendingProperties;
+
+    // hash URI resources mentioned by the triples operated on
+    private final Set<Resource> modifiedFragments;
+
     /**
      * Ordinary constructor.
      *
@@ -124,6 +142,9 @@ public abstract class PersistingRdfStreamConsumer implements RdfStreamConsumer {
         this.stream = new DefaultRdfStream(stream.topic(), stream.filter(isFedoraSubjectTriple));
 
         this.exceptions = new ArrayList<>();
+        this.subjects = new HashMap<>();
+        this.pendingProperties = new LinkedHashMap<>();
+        this.modifiedFragments = new HashSet<>();
     }
 
     @Override
@@ -141,6 +162,17 @@ public abstract class PersistingRdfStreamConsumer implements RdfStreamConsumer {
             }
         });
 
+        pendingProperties.forEach((subjectNode, properties) -> properties.forEach((predicate, statements) -> {
+            try {
+                operateOnProperties(statements, subjectNode);
+            } catch (final ConstraintViolationException | ChangeSetTooLargeException e) {
+                throw e;
+            } catch (final RepositoryException | RepositoryRuntimeException e) {
+                exceptions.add(e.getMessage());
+            }
+        }));
+        pendingProperties.clear();
+
         if (!exceptions.isEmpty()) {
             throw new MalformedRdfException(join("\n", exceptions));
         }
@@ -150,9 +182,10 @@ public abstract class PersistingRdfStreamConsumer implements RdfStreamConsumer {
         try {
 
             final Statement t = jcrRdfTools.skolemize(idTranslator, input, stream().topic().toString());
+            recordFragments(t);
 
             final Resource subject = t.getSubject();
-            final FedoraResource subjectNode = translator().convert(subject);
+            final FedoraResource subjectNode = convertSubject(subject);
 
             // if this is a user-managed RDF type assertion, update the node's
             // mixins. If it isn't, treat it as a "data" property.
@@ -171,15 +204,82 @@ public abstract class PersistingRdfStreamConsumer implements RdfStreamConsumer {
             } else {
                 LOGGER.debug("Operating on node: {} from triple: {}.", subjectNode,
                         t);
-                operateOnProperty(t, subjectNode);
+                queueProperty(t, subjectNode);
             }
-        } catch (final ConstraintViolationException e) {
+        } catch (final ConstraintViolationException | ChangeSetTooLargeException e) {
             throw e;
         } catch (final RepositoryException | RepositoryRuntimeException e) {
             throw new MalformedRdfException(e.getMessage(), e);
         }
     }
 
+    /**
+     * Record the hash URI resources a (skolemized) statement refers to, so that they can be checked for emptiness
+     * once the stream has been consumed.
+     *
+     * @param t the statement
+     */
+    protected void recordFragments(final Statement t) {
+        getHashUris(t).forEach(modifiedFragments::add);
+    }
+
+    /**
+     * Get the hash URI resources referred to by the triples this consumer has operated on, whether or not the
+     * operation succeeded.
+     *
+     * @return the hash URI resources
+     */
+    public Set<Resource> getModifiedFragments() {
+        return unmodifiableSet(modifiedFragments);
+    }
+
+    /**
+     * Translate a (skolemized) subject, reusing earlier translations made while consuming this stream.
+     *
+     * @param subject the subject
+     * @return the resource for the subject
+     */
+    protected FedoraResource convertSubject(final Resource subject) {
+        return subjects.computeIfAbsent(subject, translator()::convert);
+    }
+
+    /**
+     * Hold a property triple back so that all the values of a predicate for a subject are written together
+     * once the stream has been exhausted.
+     *
+     * @param t the statement
+     * @param subjectNode the resource for the statement's subject
+     */
+    protected void queueProperty(final Statement t, final FedoraResource subjectNode) {
+        pendingProperties.computeIfAbsent(subjectNode, k -> new LinkedHashMap<>())
+                .computeIfAbsent(t.getPredicate(), k -> new ArrayList<>()).add(t);
+    }
+
+    /**
+     * Operate on all the statements sharing a subject and predicate. By default each statement is
+     * handed to {@link #operateOnProperty(Statement, FedoraResource)} in turn.
+     *
+     * @param statements statements with the same subject and predicate, in stream order
+     * @param subjectNode the resource for the statements' subject
+     * @throws RepositoryException if repository exception occurred
+     */
+    protected void operateOnProperties(final List<Statement> statements, final FedoraResource subjectNode)
+            throws RepositoryException {
+        final List<String> errors = new ArrayList<>();
+        for (final Statement t : statements) {
+            try {
+                operateOnProperty(t, subjectNode);
+            } catch (final ConstraintViolationException | ChangeSetTooLargeException e) {
+                throw e;
+            } catch (final RepositoryException | RepositoryRuntimeException e) {
+                errors.add(e.getMessage());
+            }
+        }
+        if (!errors.isEmpty()) {
+            throw new MalformedRdfException(join("\n", errors));
+        }
+    }
+
     protected abstract void operateOnProperty(final Statement t,
         final FedoraResource subjectNode) throws RepositoryException;
 
@@ -17,10 +17,12 @@
  */
 package org.fcrepo.kernel.modeshape.utils.iterators;
 
+import static java.util.stream.Collectors.toList;
 import static org.slf4j.LoggerFactory.getLogger;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
@@ -31,6 +33,7 @@ import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.modeshape.utils.NamespaceTools;
 import org.slf4j.Logger;
 
+import org.apache.jena.rdf.model.RDFNode;
 import org.apache.jena.rdf.model.Resource;
 import org.apache.jena.rdf.model.Statement;
 
@@ -47,6 +50,8 @@ public class RdfAdder extends PersistingRdfStreamConsumer {
     private static final Logger LOGGER = getLogger(RdfAdder.class);
     private Map<String, String> userNamespaces;
 
+    private Map<String, String> namespaces;
+
     /**
      * Ordinary constructor.
      *
@@ -62,6 +67,14 @@ public class RdfAdder extends PersistingRdfStreamConsumer {
     }
 
     protected Map<String, String> getNamespaces(final Session session) {
+        // the registry is read once per stream; prefixes registered while consuming it are found in the registry
+        if (this.namespaces == null) {
+            this.namespaces = mergeNamespaces(session);
+        }
+        return this.namespaces;
+    }
+
+    private Map<String, String> mergeNamespaces(final Session session) {
         final Map<String, String> namespaces = NamespaceTools.getNamespaces(session);
         if (userNamespaces != null) {
             for (final Iterator<String> it = userNamespaces.keySet().iterator(); it.hasNext(); ) {
@@ -93,4 +106,18 @@ public class RdfAdder extends PersistingRdfStreamConsumer {
         jcrRdfTools().addProperty(resource, t.getPredicate(), t.getObject(),
                 getNamespaces(getJcrNode(resource).getSession()));
     }
+
+    @Override
+    protected void operateOnProperties(final List<Statement> statements, final FedoraResource resource)
+            throws RepositoryException {
+        LOGGER.debug("Adding {} values of {} to resource: {}.", statements.size(),
+                statements.get(0).getPredicate(), resource.getPath());
+
+        jcrRdfTools().addProperties(resource, statements.get(0).getPredicate(), objects(statements),
+                getNamespaces(getJcrNode(resource).getSession()), false);
+    }
+
+    protected static List<RDFNode> objects(final List<Statement> statements) {
+        return statements.stream().map(Statement::getObject).collect(toList());
+    }
 }
@@ -18,15 +18,17 @@
 package org.fcrepo.kernel.modeshape.utils.iterators;
 
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
-import static org.fcrepo.kernel.modeshape.utils.NamespaceTools.getNamespaces;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.Map;
+
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
 import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
 import org.fcrepo.kernel.api.models.FedoraResource;
 import org.fcrepo.kernel.api.RdfStream;
+import org.fcrepo.kernel.modeshape.utils.NamespaceTools;
 import org.slf4j.Logger;
 
 import org.apache.jena.rdf.model.Resource;
@@ -44,6 +46,8 @@ public class RdfRemover extends PersistingRdfStreamConsumer {
 
     private static final Logger LOGGER = getLogger(RdfRemover.class);
 
+    private Map<String, String> namespaces;
+
     /**
      * Ordinary constructor.
      *
@@ -72,4 +76,10 @@ public class RdfRemover extends PersistingRdfStreamConsumer {
                 getNamespaces(getJcrNode(resource).getSession()));
     }
 
+    private Map<String, String> getNamespaces(final Session session) {
+        if (namespaces == null) {
+            namespaces = NamespaceTools.getNamespaces(session);
+        }
+        return namespaces;
+    }
 }
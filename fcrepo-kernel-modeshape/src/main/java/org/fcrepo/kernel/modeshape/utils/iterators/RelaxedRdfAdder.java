@@ -21,6 +21,7 @@ import static org.apache.jena.vocabulary.RDF.type;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.slf4j.LoggerFactory.getLogger;
 
+import java.util.List;
 import java.util.Map;
 
 import javax.jcr.RepositoryException;
@@ -62,9 +63,10 @@ public class RelaxedRdfAdder extends RdfAdder {
     protected void operateOnTriple(final Statement input) throws MalformedRdfException {
         try {
             final Statement t = jcrRdfTools().skolemize(translator(), input, stream().topic().toString());
+            recordFragments(t);
 
             final Resource subject = t.getSubject();
-            final FedoraResource subjectNode = translator().convert(subject);
+            final FedoraResource subjectNode = convertSubject(subject);
 
             // if this is a user-managed RDF type assertion, update the node's
             // mixins. If it isn't, treat it as a "data" property.
@@ -76,7 +78,7 @@ public class RelaxedRdfAdder extends RdfAdder {
                 operateOnMixin(mixinResource, subjectNode);
             } else {
                 LOGGER.debug("Operating on node: {} from triple: {}.", subjectNode.getPath(), t);
-                operateOnProperty(t, subjectNode);
+                queueProperty(t, subjectNode);
             }
         } catch (final RepositoryException | RepositoryRuntimeException e) {
             throw new MalformedRdfException(e.getMessage(), e);
@@ -91,4 +93,14 @@ public class RelaxedRdfAdder extends RdfAdder {
         jcrRdfTools().addProperty(resource, t.getPredicate(), t.getObject(),
                 getNamespaces(getJcrNode(resource).getSession()), true);
     }
+
+    @Override
+    protected void operateOnProperties(final List<Statement> statements, final FedoraResource resource)
+            throws RepositoryException {
+        LOGGER.debug("Adding {} values of {} to resource: {}.", statements.size(),
+                statements.get(0).getPredicate(), resource.getPath());
+
+        jcrRdfTools().addProperties(resource, statements.get(0).getPredicate(), objects(statements),
+                getNamespaces(getJcrNode(resource).getSession()), true);
+    }
 }
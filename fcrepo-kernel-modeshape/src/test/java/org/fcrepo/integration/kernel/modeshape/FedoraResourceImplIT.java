@@ -17,8 +17,13 @@
  */
 package org.fcrepo.integration.kernel.modeshape;
 
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
 import static java.net.URI.create;
+import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.stream.Collectors.toList;
 import static javax.jcr.PropertyType.BINARY;
 
 import java.io.ByteArrayInputStream;
@@ -27,11 +32,17 @@ import java.io.UncheckedIOException;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.TimeZone;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
@@ -55,6 +66,7 @@ import org.fcrepo.kernel.api.exception.ConstraintViolationException;
 import org.fcrepo.kernel.api.exception.InvalidChecksumException;
 import org.fcrepo.kernel.api.exception.InvalidPrefixException;
 import org.fcrepo.kernel.api.exception.MalformedRdfException;
+import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraResource;
@@ -90,8 +102,10 @@ import com.google.common.collect.Iterators;
 
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CONTAINER;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_CREATEDBY;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_LASTMODIFIED;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_LASTMODIFIEDBY;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_NON_RDF_SOURCE_DESCRIPTION;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_PAIRTREE;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_REPOSITORY_ROOT;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_RESOURCE;
 import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TIME_MAP;
@@ -103,6 +117,7 @@ import static org.fcrepo.kernel.api.RequiredRdfContext.INBOUND_REFERENCES;
 import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
 import static org.fcrepo.kernel.api.RequiredRdfContext.SERVER_MANAGED;
 import static org.fcrepo.kernel.api.RequiredRdfContext.VERSIONS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_ETAG;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FIELD_DELIMITER;
 import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.ROOT;
 import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.LDPCV_TIME_MAP;
@@ -118,6 +133,7 @@ import static org.fcrepo.kernel.modeshape.RdfJcrLexicon.MODE_NAMESPACE;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.fcrepo.kernel.modeshape.utils.UncheckedPredicate.uncheck;
 
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 import static org.apache.jena.datatypes.xsd.XSDDatatype.XSDstring;
 import static org.apache.jena.graph.Node.ANY;
 import static org.apache.jena.graph.NodeFactory.createLiteral;
@@ -133,6 +149,7 @@ import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.modeshape.jcr.api.JcrConstants.NT_FOLDER;
 
 /**
  * <p>FedoraResourceImplIT class.</p>
@@ -534,6 +551,34 @@ public class FedoraResourceImplIT extends AbstractIT {
             .anyMatch(x -> x.startsWith(JCR_NAMESPACE) || x.startsWith(MIX_NAMESPACE) ||
                     x.startsWith(MODE_NAMESPACE) || x.startsWith(JCR_NT_NAMESPACE)));
     }
+
+    @Test
+    public void testMetadataSeesWritesSavedThroughTheNode() throws RepositoryException {
+        final String pid = getRandomPid();
+        containerService.findOrCreate(session, "/" + pid);
+        session.commit();
+
+        final FedoraResource object = containerService.find(session, "/" + pid);
+        assertFalse(object.hasType("fedora:Pairtree"));
+        final Instant modified = object.getLastModifiedDate();
+
+        // written and saved directly through another session, out of sight of the resource
+        final FedoraSession other = repo.login();
+        try {
+            final javax.jcr.Node node = getJcrSession(other).getNode("/" + pid);
+            node.addMixin("fedora:Pairtree");
+            final Calendar later = Calendar.getInstance();
+            later.setTimeInMillis(modified.toEpochMilli() + 60000);
+            node.setProperty(FEDORA_LASTMODIFIED, later);
+            getJcrSession(other).save();
+        } finally {
+            other.expire();
+        }
+
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> object.hasType("fedora:Pairtree"));
+        assertEquals(modified.plusMillis(60000), object.getLastModifiedDate());
+    }
+
     @Test
     @Ignore("Until implemented with Memento")
     public void testGetObjectVersionGraph() throws RepositoryException {
@@ -737,6 +782,35 @@ public class FedoraResourceImplIT extends AbstractIT {
         assertNotEquals("", actual);
     }
 
+    @Test
+    public void testEtagStoredOnTouch() throws RepositoryException {
+        final FedoraResource object = containerService.findOrCreate(session, "/" + getRandomPid());
+        final javax.jcr.Node node = getJcrNode(object);
+        assertTrue(node.hasProperty(FEDORA_ETAG));
+
+        final Calendar modified = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        modified.add(Calendar.YEAR, 1);
+        ((FedoraResourceImpl) object).touch(false, null, null, modified, null);
+        session.commit();
+
+        final FedoraResource reread = nodeService.find(session, object.getPath());
+        final String expected = sha1Hex(object.getPath() + modified.getTimeInMillis());
+        assertEquals(expected, node.getProperty(FEDORA_ETAG).getString());
+        assertEquals(expected, reread.getEtagValue());
+        assertFalse(reread.getTriples(subjects, PROPERTIES).anyMatch(t -> t.getPredicate().getURI().endsWith("etag")));
+    }
+
+    @Test
+    public void testEtagComputedWithoutStoredValue() throws RepositoryException {
+        final FedoraResource object = containerService.findOrCreate(session, "/" + getRandomPid());
+        getJcrNode(object).getProperty(FEDORA_ETAG).remove();
+        session.commit();
+
+        final FedoraResource reread = nodeService.find(session, object.getPath());
+        assertEquals(sha1Hex(object.getPath() + reread.getLastModifiedDate().toEpochMilli()),
+                reread.getEtagValue());
+    }
+
     @Test
     public void testGetReferences() throws RepositoryException {
         final String pid = getRandomPid();
@@ -795,6 +869,41 @@ public class FedoraResourceImplIT extends AbstractIT {
         }
     }
 
+    @Test
+    public void testReplacePropertiesManyValues() throws RepositoryException {
+        final String pid = getRandomPid();
+        final Container object = containerService.findOrCreate(session, pid);
+        final Resource subject = subjects.reverse().convert(object);
+        final Property predicate = createProperty("info:many");
+        final Resource child = subjects.reverse().convert(containerService.findOrCreate(session, pid + "/child"));
+
+        final Model model = object.getTriples(subjects, PROPERTIES).collect(toModel());
+        for (int i = 0; i < 1000; i++) {
+            model.add(subject, predicate, "value " + i);
+        }
+        model.add(subject, predicate, child);
+        object.replaceProperties(subjects, model, object.getTriples(subjects, PROPERTIES));
+
+        final String propertyName = getJcrSession(session).getNamespacePrefix("info:") + ":many";
+        assertEquals(1000, getJcrNode(object).getProperty(propertyName).getValues().length);
+        assertEquals(1, getJcrNode(object).getProperty(propertyName + "_ref").getValues().length);
+        assertEquals(1001, object.getTriples(subjects, PROPERTIES)
+                .filter(t -> t.predicateMatches(predicate.asNode())).count());
+
+        final Model updated = object.getTriples(subjects, PROPERTIES).collect(toModel());
+        updated.removeAll(subject, predicate, null);
+        for (int i = 0; i < 1000; i += 2) {
+            updated.add(subject, predicate, "value " + i);
+        }
+        object.replaceProperties(subjects, updated, object.getTriples(subjects, PROPERTIES));
+
+        final Model result = object.getTriples(subjects, PROPERTIES).collect(toModel());
+        assertEquals(500, result.listObjectsOfProperty(subject, predicate).toList().size());
+        assertTrue(result.contains(subject, predicate, "value 998"));
+        assertFalse(result.contains(subject, predicate, "value 999"));
+        assertFalse(result.contains(subject, predicate, child));
+    }
+
     @Test
     public void testReplacePropertiesHashURIs() throws RepositoryException {
         final String pid = getRandomPid();
@@ -836,6 +945,61 @@ public class FedoraResourceImplIT extends AbstractIT {
         assertEquals(0, getJcrNode(object).getNode("#").getNodes().getSize());
     }
 
+    @Test
+    public void testUpdatePropertiesDataOnly() throws RepositoryException {
+        final String pid = getRandomPid();
+        final Container object = containerService.findOrCreate(session, pid);
+        final String hashUri = createGraphSubjectNode(object).getURI() + "#creator";
+
+        // INSERT DATA / DELETE DATA must not need the existing triples
+        try (final RdfStream unread = new DefaultRdfStream(createGraphSubjectNode(object),
+                object.getTriples(subjects, PROPERTIES).peek(t -> fail("Existing triples should not be read")))) {
+            object.updateProperties(subjects,
+                    "PREFIX dc: <http://purl.org/dc/elements/1.1/>\n" +
+                    "PREFIX foaf: <http://xmlns.com/foaf/0.1/>\n" +
+                    "INSERT DATA { <> dc:title \"some title\" ; dc:creator <" + hashUri + "> .\n" +
+                    "<" + hashUri + "> foaf:name \"xyz\" }", unread);
+        }
+
+        final Model model = object.getTriples(subjects, PROPERTIES).collect(toModel());
+        assertTrue(model.contains(subjects.reverse().convert(object), title, "some title"));
+        assertTrue(model.contains(createResource(hashUri), createProperty("http://xmlns.com/foaf/0.1/name"), "xyz"));
+        assertEquals(1, getJcrNode(object).getNode("#").getNodes().getSize());
+
+        object.updateProperties(subjects,
+                "PREFIX dc: <http://purl.org/dc/elements/1.1/>\n" +
+                "PREFIX foaf: <http://xmlns.com/foaf/0.1/>\n" +
+                "DELETE DATA { <> dc:creator <" + hashUri + "> .\n" +
+                "<" + hashUri + "> foaf:name \"xyz\" }", object.getTriples(subjects, PROPERTIES));
+
+        final Model updated = object.getTriples(subjects, PROPERTIES).collect(toModel());
+        assertTrue(updated.contains(subjects.reverse().convert(object), title, "some title"));
+        assertFalse(updated.contains(createResource(hashUri), null, (RDFNode) null));
+        assertEquals(0, getJcrNode(object).getNode("#").getNodes().getSize());
+    }
+
+    @Test
+    public void testUpdatePropertiesRemovesOnlyEmptiedFragments() throws RepositoryException {
+        final String pid = getRandomPid();
+        final Container object = containerService.findOrCreate(session, pid);
+        final String uri = createGraphSubjectNode(object).getURI();
+
+        object.updateProperties(subjects,
+                "PREFIX dc: <http://purl.org/dc/elements/1.1/>\n" +
+                "INSERT DATA { <" + uri + "#a> dc:title \"a\" . <" + uri + "#b> dc:title \"b\" .\n" +
+                "<> dc:relation <" + uri + "#c> }", object.getTriples(subjects, PROPERTIES));
+        assertEquals(3, getJcrNode(object).getNode("#").getNodes().getSize());
+
+        object.updateProperties(subjects,
+                "PREFIX dc: <http://purl.org/dc/elements/1.1/>\n" +
+                "DELETE WHERE { <" + uri + "#a> ?p ?o . <> dc:relation ?c }",
+                object.getTriples(subjects, PROPERTIES));
+
+        final javax.jcr.Node hashNode = getJcrNode(object).getNode("#");
+        assertEquals(1, hashNode.getNodes().getSize());
+        assertTrue(hashNode.hasNode("b"));
+    }
+
     @Test (expected = ConstraintViolationException.class)
     public void testReplacePropertyBadMimeType() {
         final String pid = getRandomPid();
@@ -1013,6 +1177,154 @@ public class FedoraResourceImplIT extends AbstractIT {
         assertFalse(container.getChildren().findFirst().isPresent());
     }
 
+    @Test
+    public void testGetChildPaths() {
+        final String pid = getRandomPid();
+        final Container container = containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        containerService.findOrCreate(session, "/" + pid + "/b/c/d");
+        binaryService.findOrCreate(session, "/" + pid + "/e");
+        containerService.findOrCreate(session, "/" + pid + "/f").delete();
+        containerService.findOrCreate(session, "/" + pid + "/b/g");
+
+        final String base = "/" + pid;
+        assertEquals(asList(base + "/a", base + "/b/c/d", base + "/b/g", base + "/e"),
+                container.getChildPaths(null).collect(toList()));
+        assertEquals(asList(base + "/b/g", base + "/e"),
+                container.getChildPaths(base + "/b/c/d").collect(toList()));
+        assertEquals(asList(base + "/e"), container.getChildPaths(base + "/b/g").collect(toList()));
+        assertEquals(0, container.getChildPaths(base + "/e").count());
+    }
+
+    @Test
+    public void testGetChildCount() throws InvalidChecksumException {
+        final String pid = getRandomPid();
+        final Container container = containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        containerService.findOrCreate(session, "/" + pid + "/b/c/d");
+        binaryService.findOrCreate(session, "/" + pid + "/e").setContent(
+                new ByteArrayInputStream("content".getBytes()), "text/plain", null, null, null);
+        assertFalse("An unsaved container should not have a count", container.getChildCount().isPresent());
+        session.commit();
+        awaitChildCount("/" + pid, 3);
+
+        containerService.findOrCreate(session, "/" + pid + "/b/g");
+        session.commit();
+        awaitChildCount("/" + pid, 4);
+
+        containerService.find(session, "/" + pid + "/a").delete();
+        binaryService.find(session, "/" + pid + "/e").delete();
+        session.commit();
+        awaitChildCount("/" + pid, 2);
+        assertEquals(2, container.getChildPaths(null).count());
+    }
+
+    @Test
+    public void testGetChildCountKeepsLastModified() throws RepositoryException {
+        final String pid = getRandomPid();
+        final Session jcrSession = getJcrSession(session);
+        final javax.jcr.Node container = jcrSession.getRootNode().addNode(pid, NT_FOLDER);
+        container.addMixin(FEDORA_CONTAINER);
+        container.addNode("pairtree", NT_FOLDER).addMixin(FEDORA_PAIRTREE);
+        jcrSession.save();
+        awaitChildCount("/" + pid, 0);
+        final Instant modified = containerService.find(session, "/" + pid).getLastModifiedDate();
+
+        // a child below a pairtree node changes the count, but not the container itself
+        jcrSession.getNode("/" + pid + "/pairtree").addNode("a", NT_FOLDER);
+        jcrSession.save();
+        awaitChildCount("/" + pid, 1);
+        assertEquals(modified, containerService.find(session, "/" + pid).getLastModifiedDate());
+    }
+
+    @Test
+    public void testGetChildCountOfDirectSaves() throws RepositoryException {
+        final String pid = getRandomPid();
+        containerService.findOrCreate(session, "/" + pid);
+        session.commit();
+        awaitChildCount("/" + pid, 0);
+
+        final Session jcrSession = getJcrSession(session);
+        jcrSession.getNode("/" + pid).addNode("a", NT_FOLDER);
+        jcrSession.save();
+        awaitChildCount("/" + pid, 1);
+
+        jcrSession.getNode("/" + pid + "/a").remove();
+        jcrSession.save();
+        awaitChildCount("/" + pid, 0);
+    }
+
+    @Test
+    public void testGetChildCountAfterMoveAndCopy() {
+        final String pid = getRandomPid();
+        containerService.findOrCreate(session, "/" + pid + "/source");
+        containerService.findOrCreate(session, "/" + pid + "/source/a");
+        containerService.findOrCreate(session, "/" + pid + "/source/a/b");
+        containerService.findOrCreate(session, "/" + pid + "/source/a/c");
+        containerService.findOrCreate(session, "/" + pid + "/destination");
+        session.commit();
+        awaitChildCount("/" + pid + "/source", 1);
+        awaitChildCount("/" + pid + "/source/a", 2);
+
+        nodeService.moveObject(session, "/" + pid + "/source/a", "/" + pid + "/destination/a");
+        session.commit();
+        awaitChildCount("/" + pid + "/source", 0);
+        awaitChildCount("/" + pid + "/destination", 1);
+
+        nodeService.copyObject(session, "/" + pid + "/destination/a", "/" + pid + "/destination/copy");
+        session.commit();
+        awaitChildCount("/" + pid + "/destination", 2);
+        awaitChildCount("/" + pid + "/destination/copy", 2);
+        assertEquals(Optional.of(2L), containerService.find(session, "/" + pid + "/destination/a").getChildCount());
+    }
+
+    @Test
+    public void testGetChildCountWithConcurrentSessions() throws InterruptedException {
+        final String pid = getRandomPid();
+        containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+
+        final int sessions = 8;
+        final ExecutorService executor = newFixedThreadPool(sessions);
+        final CountDownLatch ready = new CountDownLatch(sessions);
+        final List<Future<?>> results = new ArrayList<>();
+        try {
+            for (int i = 0; i < sessions; i++) {
+                final String child = "/" + pid + "/child" + i;
+                results.add(executor.submit(() -> {
+                    final FedoraSession other = repo.login();
+                    try {
+                        containerService.findOrCreate(other, child);
+                        ready.countDown();
+                        ready.await();
+                        other.commit();
+                        return null;
+                    } finally {
+                        other.expire();
+                    }
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        } catch (final ExecutionException e) {
+            throw new AssertionError(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        awaitChildCount("/" + pid, sessions + 1);
+        assertEquals(sessions + 1, containerService.find(session, "/" + pid).getChildPaths(null).count());
+    }
+
+    @Test(expected = PathNotFoundRuntimeException.class)
+    public void testGetChildPathsAfterNonChild() {
+        final String pid = getRandomPid();
+        final Container container = containerService.findOrCreate(session, "/" + pid);
+        container.getChildPaths("/" + pid + "/missing");
+    }
+
     @Test
     public void testGetChildrenHidesHashUris() {
         final String pid = getRandomPid();
@@ -1170,4 +1482,9 @@ public class FedoraResourceImplIT extends AbstractIT {
     private static Instant roundDate(final Instant date) {
         return date.minusMillis(date.toEpochMilli() % 1000);
     }
+
+    private void awaitChildCount(final String path, final long count) {
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() ->
+                containerService.find(session, path).getChildCount().equals(Optional.of(count)));
+    }
 }
@@ -17,11 +17,23 @@
  */
 package org.fcrepo.integration.kernel.modeshape;
 
+import static java.util.Collections.emptySet;
+import static java.util.UUID.randomUUID;
+import static org.apache.jena.rdf.model.ModelFactory.createDefaultModel;
+import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.BINARY_BYTES_PROPERTY;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.NODES_PROPERTY;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.PROPERTIES_PROPERTY;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 
 import javax.inject.Inject;
@@ -29,8 +41,21 @@ import javax.jcr.RepositoryException;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.http.auth.BasicUserPrincipal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.Resource;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.ChangeSetTooLargeException;
+import org.fcrepo.kernel.api.exception.InsufficientStorageException;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.identifiers.IdentifierConverter;
+import org.fcrepo.kernel.api.models.Container;
+import org.fcrepo.kernel.api.models.FedoraBinary;
+import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.services.BinaryService;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.modeshape.rdf.impl.DefaultIdentifierTranslator;
 import org.fcrepo.kernel.modeshape.utils.FedoraSessionUserUtil;
 
 import org.junit.After;
@@ -56,6 +81,12 @@ public class FedoraSessionImplIT extends AbstractIT {
     @Inject
     FedoraRepository repo;
 
+    @Inject
+    ContainerService containerService;
+
+    @Inject
+    BinaryService binaryService;
+
     private HttpServletRequest request;
 
 
@@ -70,6 +101,9 @@ public class FedoraSessionImplIT extends AbstractIT {
     @After
     public void tearDown() throws RepositoryException {
         System.setProperty(FedoraSessionUserUtil.USER_AGENT_BASE_URI_PROPERTY, "");
+        System.clearProperty(NODES_PROPERTY);
+        System.clearProperty(PROPERTIES_PROPERTY);
+        System.clearProperty(BINARY_BYTES_PROPERTY);
     }
 
     @Test
@@ -127,4 +161,196 @@ public class FedoraSessionImplIT extends AbstractIT {
 
         assertEquals("User agent URI invalid.", URI.create(opaqueUserUri), session.getUserURI());
     }
+
+    @Test
+    public void testReadOnlySession() throws RepositoryException {
+        when(request.getRemoteUser()).thenReturn(FEDORA_USER);
+        when(request.getUserPrincipal()).thenReturn(new BasicUserPrincipal(FEDORA_USER));
+        when(request.isUserInRole(eq("admin"))).thenReturn(true);
+
+        final FedoraSession session = repo.loginReadOnly(new ServletCredentials(request));
+        assertTrue(session.isReadOnly());
+        assertFalse(repo.login(new ServletCredentials(request)).isReadOnly());
+
+        // committing without changes is harmless
+        session.commit();
+
+        final String path = "/" + randomUUID();
+        getJcrSession(session).getRootNode().addNode(path.substring(1));
+        try {
+            session.commit();
+            fail("A read-only session should not commit changes");
+        } catch (final RepositoryRuntimeException e) {
+            // expected
+        } finally {
+            session.expire();
+        }
+
+        final FedoraSession readSession = repo.login();
+        try {
+            assertFalse(getJcrSession(readSession).nodeExists(path));
+        } finally {
+            readSession.expire();
+        }
+    }
+
+    @Test
+    public void testChangeSetLimit() throws RepositoryException {
+        System.setProperty(NODES_PROPERTY, "5");
+        final FedoraSession session = repo.login();
+        final String path = "/" + randomUUID();
+        try {
+            containerService.findOrCreate(session, path);
+            assertTrue(session.getChangeSetSize().getNodes() > 0);
+            try {
+                for (int i = 0; i < 5; i++) {
+                    containerService.findOrCreate(session, path + "/" + i);
+                }
+                fail("The change set should have passed its limit");
+            } catch (final ChangeSetTooLargeException e) {
+                // expected
+            }
+            try {
+                session.commit();
+                fail("A change set past its limit should not be committed");
+            } catch (final ChangeSetTooLargeException e) {
+                // expected
+            }
+        } finally {
+            session.expire();
+        }
+        assertEquals(0, session.getChangeSetSize().getNodes());
+
+        final FedoraSession readSession = repo.login();
+        try {
+            assertFalse(getJcrSession(readSession).nodeExists(path));
+        } finally {
+            readSession.expire();
+        }
+    }
+
+    @Test
+    public void testChangeSetLimitOnMultiValuedReplace() throws RepositoryException {
+        final String path = "/" + randomUUID();
+        final FedoraSession createSession = repo.login();
+        try {
+            containerService.findOrCreate(createSession, path);
+            createSession.commit();
+        } finally {
+            createSession.expire();
+        }
+
+        System.setProperty(PROPERTIES_PROPERTY, "20");
+        final FedoraSession session = repo.login();
+        try {
+            final IdentifierConverter<Resource, FedoraResource> subjects =
+                    new DefaultIdentifierTranslator(getJcrSession(session));
+            final Container container = containerService.find(session, path);
+            final Model model = createDefaultModel();
+            final Resource subject = subjects.reverse().convert(container);
+            for (int i = 0; i < 30; i++) {
+                model.add(subject, model.createProperty("info:test#label"), "value " + i);
+            }
+            try {
+                container.replaceProperties(subjects, model, container.getTriples(subjects, emptySet()));
+                fail("Appending values to one property should pass the limit on property changes");
+            } catch (final ChangeSetTooLargeException e) {
+                // expected
+            }
+        } finally {
+            session.expire();
+        }
+    }
+
+    @Test
+    public void testChangeSetLimitOnMultiValuedUpdate() throws RepositoryException {
+        final String path = "/" + randomUUID();
+        final FedoraSession createSession = repo.login();
+        try {
+            containerService.findOrCreate(createSession, path);
+            createSession.commit();
+        } finally {
+            createSession.expire();
+        }
+
+        System.setProperty(PROPERTIES_PROPERTY, "20");
+        final FedoraSession session = repo.login();
+        try {
+            final IdentifierConverter<Resource, FedoraResource> subjects =
+                    new DefaultIdentifierTranslator(getJcrSession(session));
+            final Container container = containerService.find(session, path);
+            final StringBuilder values = new StringBuilder();
+            for (int i = 0; i < 30; i++) {
+                values.append(" <> <info:test#label> \"value ").append(i).append("\" .");
+            }
+            try {
+                container.updateProperties(subjects, "INSERT DATA {" + values + " }",
+                        container.getTriples(subjects, PROPERTIES));
+                fail("Appending values to one property should pass the limit on property changes");
+            } catch (final ChangeSetTooLargeException e) {
+                // expected
+            }
+        } finally {
+            session.expire();
+        }
+    }
+
+    @Test
+    public void testChangeSetLimitOnSubtreeDelete() throws RepositoryException {
+        final String path = "/" + randomUUID();
+        final FedoraSession createSession = repo.login();
+        try {
+            containerService.findOrCreate(createSession, path);
+            for (int i = 0; i < 10; i++) {
+                containerService.findOrCreate(createSession, path + "/" + i);
+            }
+            createSession.commit();
+        } finally {
+            createSession.expire();
+        }
+
+        System.setProperty(NODES_PROPERTY, "5");
+        final FedoraSession session = repo.login();
+        try {
+            try {
+                containerService.find(session, path).delete();
+                fail("Removing a subtree should count each of its nodes against the limit");
+            } catch (final ChangeSetTooLargeException e) {
+                // expected
+            }
+        } finally {
+            session.expire();
+        }
+        assertTrue(getJcrSession(repo.login()).nodeExists(path + "/9"));
+    }
+
+    @Test
+    public void testChangeSetLimitOnBinaryContent() throws RepositoryException, InvalidChecksumException {
+        System.setProperty(BINARY_BYTES_PROPERTY, "1000");
+        final FedoraSession session = repo.login();
+        final String path = "/" + randomUUID();
+        try {
+            final FedoraBinary binary = binaryService.findOrCreate(session, path);
+            try {
+                binary.setContent(new ByteArrayInputStream(new byte[100000]), "text/plain", null, null, null);
+                fail("Writing binary content should pass the limit on bytes of binary content");
+            } catch (final InsufficientStorageException e) {
+                // expected
+            }
+            assertEquals(0, session.getChangeSetSize().getBinaryBytes());
+        } finally {
+            session.expire();
+        }
+    }
+
+    @Test
+    public void testChangeSetUnmeasuredWithoutLimits() throws RepositoryException {
+        final FedoraSession session = repo.login();
+        try {
+            containerService.findOrCreate(session, "/" + randomUUID());
+            assertEquals(0, session.getChangeSetSize().getNodes());
+        } finally {
+            session.expire();
+        }
+    }
 }
@@ -35,12 +35,15 @@ import static org.fcrepo.kernel.api.utils.ContentDigest.DIGEST_ALGORITHM.SHA1;
 import static org.fcrepo.kernel.api.utils.ContentDigest.asURI;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
 import static org.modeshape.jcr.api.JcrConstants.NT_FOLDER;
 import static org.modeshape.jcr.api.JcrConstants.NT_RESOURCE;
 
 import java.io.ByteArrayInputStream;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
@@ -57,9 +60,11 @@ import org.fcrepo.kernel.api.models.Container;
 import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.observer.EventType;
 import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.observer.MovedDescendants;
 import org.fcrepo.kernel.api.services.ContainerService;
 import org.fcrepo.kernel.api.services.NodeService;
 import org.fcrepo.kernel.modeshape.FedoraBinaryImpl;
+import org.fcrepo.kernel.modeshape.observer.SimpleObserver;
 import org.fcrepo.kernel.modeshape.rdf.impl.DefaultIdentifierTranslator;
 import org.fcrepo.kernel.modeshape.services.NodeServiceImpl;
 
@@ -87,6 +92,8 @@ public class SimpleObserverIT extends AbstractIT {
 
     private Integer eventBusMessageCount;
 
+    private volatile String removeAfterFirst;
+
     @Inject
     private FedoraRepository repository;
 
@@ -96,6 +103,9 @@ public class SimpleObserverIT extends AbstractIT {
     @Inject
     private ContainerService containerService;
 
+    @Inject
+    private SimpleObserver observer;
+
     @Test
     public void testEventBusPublishing() throws RepositoryException {
 
@@ -210,6 +220,102 @@ public class SimpleObserverIT extends AbstractIT {
         assertEquals("Move operation didn't generate additional events", (Integer) 12, eventBusMessageCount);
     }
 
+    @Test
+    public void testMoveEventInBatches() throws RepositoryException {
+        observer.setMoveBatchSize(1);
+        final FedoraSession session = repository.login();
+        try {
+            final Session se = getJcrSession(session);
+            final Node n = se.getRootNode().addNode("/object14");
+            n.addMixin(FEDORA_CONTAINER);
+            final Node child = n.addNode("/child1");
+            child.addMixin(FEDORA_CONTAINER);
+            child.addNode("/child2").addMixin(FEDORA_CONTAINER);
+            n.addNode("/child3").addMixin(FEDORA_CONTAINER);
+            session.commit();
+            new NodeServiceImpl().moveObject(session, "/object14", "/object15");
+            session.commit();
+        } finally {
+            session.expire();
+            observer.setMoveBatchSize(1000);
+        }
+
+        awaitEvent("/object15", RESOURCE_RELOCATION);
+        awaitEvent("/object15/child1", RESOURCE_RELOCATION);
+        awaitEvent("/object15/child1/child2", RESOURCE_RELOCATION);
+        awaitEvent("/object15/child3", RESOURCE_RELOCATION);
+        awaitEvent("/object14", RESOURCE_DELETION);
+        awaitEvent("/object14/child1", RESOURCE_DELETION);
+        awaitEvent("/object14/child1/child2", RESOURCE_DELETION);
+        awaitEvent("/object14/child3", RESOURCE_DELETION);
+    }
+
+    @Test
+    public void testMoveEventNotExpanded() throws RepositoryException {
+        final List<FedoraEvent> received = new CopyOnWriteArrayList<>();
+        // a consumer that does not subscribe to the descendants of moved resources
+        final Object consumer = new Object() {
+
+            @Subscribe
+            public void receive(final FedoraEvent e) {
+                received.add(e);
+            }
+        };
+        eventBus.register(consumer);
+        final FedoraSession session = repository.login();
+        try {
+            final Session se = getJcrSession(session);
+            final Node n = se.getRootNode().addNode("/object16");
+            n.addMixin(FEDORA_CONTAINER);
+            n.addNode("/child1").addMixin(FEDORA_CONTAINER);
+            session.commit();
+            awaitEvent("/object16/child1", RESOURCE_CREATION);
+            new NodeServiceImpl().moveObject(session, "/object16", "/object17");
+            session.commit();
+
+            // the events are posted in order, so the descendants reach the subscribers that want them last
+            awaitEvent("/object17/child1", RESOURCE_RELOCATION);
+            assertTrue(received.stream().anyMatch(evt -> evt.getPath().equals("/object16") &&
+                    evt.getTypes().contains(RESOURCE_DELETION)));
+            assertFalse(received.stream().anyMatch(evt -> evt.getPath().startsWith("/object17/")));
+            assertEquals("/object16", received.stream().filter(evt -> evt.getPath().equals("/object17"))
+                    .findFirst().get().getInfo().get("srcAbsPath"));
+        } finally {
+            session.expire();
+            eventBus.unregister(consumer);
+        }
+    }
+
+    @Test
+    public void testMoveEventSkipsRemovedDescendants() throws RepositoryException {
+        observer.setMoveBatchSize(1);
+        final FedoraSession session = repository.login();
+        try {
+            final Session se = getJcrSession(session);
+            final Node n = se.getRootNode().addNode("/object18");
+            n.addMixin(FEDORA_CONTAINER);
+            final Node child = n.addNode("/child1");
+            child.addMixin(FEDORA_CONTAINER);
+            child.addNode("/child2").addMixin(FEDORA_CONTAINER);
+            n.addNode("/child3").addMixin(FEDORA_CONTAINER);
+            session.commit();
+            // remove the first descendant, and with it the last child visited, once its events have been read
+            removeAfterFirst = "/object19/child1";
+            new NodeServiceImpl().moveObject(session, "/object18", "/object19");
+            session.commit();
+
+            awaitEvent("/object19/child3", RESOURCE_RELOCATION);
+            awaitEvent("/object18/child3", RESOURCE_DELETION);
+            assertEquals(1, events.stream().filter(evt -> evt.getPath().equals("/object19/child1") &&
+                    evt.getTypes().contains(RESOURCE_RELOCATION)).count());
+            assertFalse(events.stream().anyMatch(evt -> evt.getPath().equals("/object19/child1/child2") &&
+                    evt.getTypes().contains(RESOURCE_RELOCATION)));
+        } finally {
+            session.expire();
+            observer.setMoveBatchSize(1000);
+        }
+    }
+
     @Test
     public void testHashUriEvent() throws RepositoryException {
         final FedoraSession session = repository.login();
@@ -385,9 +491,28 @@ public class SimpleObserverIT extends AbstractIT {
         events.add(e);
     }
 
+    @Subscribe
+    public void countDescendantMessages(final MovedDescendants descendants) throws RepositoryException {
+        final Iterator<FedoraEvent> descendantEvents = descendants.getEvents().iterator();
+        while (descendantEvents.hasNext()) {
+            countMessages(descendantEvents.next());
+            if (removeAfterFirst != null) {
+                final FedoraSession session = repository.login();
+                try {
+                    getJcrSession(session).getNode(removeAfterFirst).remove();
+                    session.commit();
+                } finally {
+                    session.expire();
+                    removeAfterFirst = null;
+                }
+            }
+        }
+    }
+
     @Before
     public void acquireConnections() {
         eventBusMessageCount = 0;
+        removeAfterFirst = null;
         events = new CopyOnWriteArrayList<>();
         eventBus.register(this);
     }
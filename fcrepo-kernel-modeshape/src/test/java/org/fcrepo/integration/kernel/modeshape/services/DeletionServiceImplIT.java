@@ -0,0 +1,179 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.kernel.modeshape.services;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
+import static org.fcrepo.kernel.api.FedoraTypes.FEDORA_TOMBSTONE;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.NODES_PROPERTY;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.DELETIONS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETING;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.ByteArrayInputStream;
+
+import javax.inject.Inject;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.integration.kernel.modeshape.AbstractIT;
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.exception.TombstoneException;
+import org.fcrepo.kernel.api.services.BinaryService;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.DeletionService;
+import org.fcrepo.kernel.modeshape.TombstoneImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author agent
+ */
+@ContextConfiguration({"/spring-test/repo.xml"})
+public class DeletionServiceImplIT extends AbstractIT {
+
+    @Inject
+    private FedoraRepository repository;
+
+    @Inject
+    private DeletionService deletionService;
+
+    @Inject
+    private ContainerService containerService;
+
+    @Inject
+    private BinaryService binaryService;
+
+    private FedoraSession session;
+
+    private String pid;
+
+    @Before
+    public void setUp() {
+        setField(deletionService, "batchSize", 2);
+        session = repository.login();
+        pid = getRandomPid();
+    }
+
+    @After
+    public void tearDown() {
+        session.expire();
+        setField(deletionService, "batchSize", 1000);
+    }
+
+    @Test
+    public void testDeleteInBackground() throws RepositoryException, InvalidChecksumException {
+        containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        containerService.findOrCreate(session, "/" + pid + "/a/b");
+        containerService.findOrCreate(session, "/" + pid + "/a/b/c");
+        containerService.findOrCreate(session, "/" + pid + "/d");
+        binaryService.findOrCreate(session, "/" + pid + "/a/e").setContent(
+                new ByteArrayInputStream("asdf".getBytes()), "application/octet-stream", null, null, null);
+        session.commit();
+
+        deletionService.deleteInBackground(session, "/" + pid);
+        assertEquals(0, deletionService.getProgress(session, "/" + pid).get().getDeleted());
+        assertTrue(TombstoneImpl.hasMixin(getJcrSession(session).getNode("/" + pid)));
+        assertFalse(getJcrSession(session).nodeExists("/" + pid + "/a"));
+        session.commit();
+
+        try {
+            containerService.findOrCreate(session, "/" + pid + "/a/b/f");
+            fail("Expected a tombstone");
+        } catch (final TombstoneException e) {
+            // expected
+        }
+
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> {
+            final FedoraSession lookup = repository.login();
+            try {
+                final Session jcrSession = getJcrSession(lookup);
+                return jcrSession.getNode("/" + pid).isNodeType(FEDORA_TOMBSTONE) &&
+                        !jcrSession.getNode("/" + pid).isNodeType(FEDORA_DELETING) &&
+                        !jcrSession.getNode("/" + DELETIONS).hasNodes();
+            } finally {
+                lookup.expire();
+            }
+        });
+
+        final FedoraSession lookup = repository.login();
+        try {
+            assertFalse(deletionService.getProgress(lookup, "/" + pid).isPresent());
+            assertTrue(TombstoneImpl.hasMixin(getJcrSession(lookup).getNode("/" + pid)));
+        } finally {
+            lookup.expire();
+        }
+    }
+
+    @Test
+    public void testDeleteInSmallerBatchesWithinTheSessionLimit() throws RepositoryException {
+        containerService.findOrCreate(session, "/" + pid);
+        for (int i = 0; i < 6; i++) {
+            containerService.findOrCreate(session, "/" + pid + "/" + i);
+        }
+        session.commit();
+
+        setField(deletionService, "batchSize", 8);
+        System.setProperty(NODES_PROPERTY, "3");
+        try {
+            deletionService.deleteInBackground(session, "/" + pid);
+            session.commit();
+
+            await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> {
+                final FedoraSession lookup = repository.login();
+                try {
+                    final Session jcrSession = getJcrSession(lookup);
+                    return !jcrSession.getNode("/" + pid).isNodeType(FEDORA_DELETING) &&
+                            !jcrSession.getNode("/" + DELETIONS).hasNodes();
+                } finally {
+                    lookup.expire();
+                }
+            });
+        } finally {
+            System.clearProperty(NODES_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testNotDeletedUntilCommitted() throws RepositoryException {
+        containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+
+        deletionService.deleteInBackground(session, "/" + pid);
+        session.expire();
+
+        final FedoraSession lookup = repository.login();
+        try {
+            assertTrue(getJcrSession(lookup).nodeExists("/" + pid + "/a"));
+            assertFalse(deletionService.getProgress(lookup, "/" + pid).isPresent());
+        } finally {
+            lookup.expire();
+        }
+    }
+}
@@ -18,7 +18,8 @@
 package org.fcrepo.integration.kernel.modeshape.services;
 
 import static com.google.common.io.Files.createTempDir;
-import static org.junit.Assert.assertEquals;
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
 import static org.junit.Assert.assertTrue;
 
 import java.io.ByteArrayInputStream;
@@ -75,8 +76,9 @@ public class RepositoryServiceImplIT extends AbstractIT {
         }
         try {
             session = repository.login();
-            final long afterSize = repositoryService.getRepositorySize();
-            assertEquals(4L, afterSize - originalSize);
+            // the size is maintained from events, which are observed asynchronously
+            await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() ->
+                    repositoryService.getRepositorySize() - originalSize == 4L);
         } finally {
             session.expire();
         }
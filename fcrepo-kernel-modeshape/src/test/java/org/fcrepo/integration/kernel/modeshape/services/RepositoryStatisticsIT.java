@@ -0,0 +1,160 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.kernel.modeshape.services;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
+import static java.util.Optional.of;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.getJcrRepository;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.services.ServiceHelpers.getRepositoryCount;
+import static org.fcrepo.kernel.modeshape.services.ServiceHelpers.getRepositorySize;
+import static org.junit.Assert.assertTrue;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+import java.io.ByteArrayInputStream;
+
+import javax.inject.Inject;
+import javax.jcr.RepositoryException;
+
+import org.fcrepo.integration.kernel.modeshape.AbstractIT;
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.services.BinaryService;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.NodeService;
+import org.fcrepo.kernel.modeshape.services.RepositoryStatistics;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author agent
+ */
+@ContextConfiguration({"/spring-test/repo.xml"})
+public class RepositoryStatisticsIT extends AbstractIT {
+
+    @Inject
+    private FedoraRepository repository;
+
+    @Inject
+    private RepositoryStatistics statistics;
+
+    @Inject
+    private ContainerService containerService;
+
+    @Inject
+    private BinaryService binaryService;
+
+    @Inject
+    private NodeService nodeService;
+
+    private FedoraSession session;
+
+    private String pid;
+
+    @Before
+    public void setUp() {
+        setField(statistics, "bySubtree", true);
+        statistics.reconcile();
+        session = repository.login();
+        pid = getRandomPid();
+    }
+
+    @After
+    public void tearDown() {
+        session.expire();
+        setField(statistics, "bySubtree", false);
+    }
+
+    @Test
+    public void testCreateUpdateAndDelete() throws InvalidChecksumException {
+        containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+        awaitTotals(pid, 2, 0);
+
+        setContent("/" + pid + "/a/b", "asdf");
+        session.commit();
+        awaitTotals(pid, 2, 4);
+
+        setContent("/" + pid + "/a/b", "asdfgh");
+        session.commit();
+        awaitTotals(pid, 2, 6);
+
+        setContent("/" + pid + "/a/c", "xy");
+        session.commit();
+        awaitTotals(pid, 2, 8);
+
+        binaryService.find(session, "/" + pid + "/a/b").delete();
+        session.commit();
+        awaitTotals(pid, 2, 2);
+
+        containerService.find(session, "/" + pid + "/a").delete();
+        session.commit();
+        awaitTotals(pid, 1, 0);
+    }
+
+    @Test
+    public void testCopyAndMove() throws InvalidChecksumException {
+        final String other = getRandomPid();
+        containerService.findOrCreate(session, "/" + pid);
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        containerService.findOrCreate(session, "/" + other);
+        setContent("/" + pid + "/a/b", "asdf");
+        session.commit();
+        awaitTotals(pid, 2, 4);
+
+        nodeService.copyObject(session, "/" + pid + "/a", "/" + other + "/c");
+        session.commit();
+        awaitTotals(other, 2, 4);
+
+        nodeService.moveObject(session, "/" + pid + "/a", "/" + other + "/a");
+        session.commit();
+        awaitTotals(pid, 1, 0);
+        awaitTotals(other, 3, 8);
+    }
+
+    @Test
+    public void testMatchesIndex() throws RepositoryException, InvalidChecksumException {
+        containerService.findOrCreate(session, "/" + pid);
+        setContent("/" + pid + "/b", "asdf");
+        session.commit();
+        awaitTotals(pid, 1, 4);
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() ->
+                statistics.getObjectCount().equals(of(getRepositoryCount(getJcrRepository(repository)))) &&
+                statistics.getSize().equals(of(getRepositorySize(getJcrRepository(repository)))));
+    }
+
+    @Test
+    public void testPersisted() throws RepositoryException {
+        assertTrue(getJcrSession(session).nodeExists("/fedora:statistics"));
+    }
+
+    private void setContent(final String path, final String content) throws InvalidChecksumException {
+        binaryService.findOrCreate(session, path).setContent(new ByteArrayInputStream(content.getBytes()),
+                "application/octet-stream", null, null, null);
+    }
+
+    private void awaitTotals(final String subtree, final long count, final long size) {
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() ->
+                statistics.getObjectCount(subtree).equals(of(count)) && statistics.getSize(subtree).equals(of(size)));
+    }
+}
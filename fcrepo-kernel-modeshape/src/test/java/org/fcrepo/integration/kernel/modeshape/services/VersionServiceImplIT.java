@@ -17,16 +17,28 @@
  */
 package org.fcrepo.integration.kernel.modeshape.services;
 
+import java.io.ByteArrayInputStream;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 import javax.inject.Inject;
+import javax.jcr.Node;
 import javax.jcr.RepositoryException;
+import javax.jcr.Session;
 
+import org.apache.jena.graph.Triple;
 import org.fcrepo.integration.kernel.modeshape.AbstractIT;
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.models.FedoraBinary;
 import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.models.FedoraTimeMap;
+import org.fcrepo.kernel.api.services.BinaryService;
 import org.fcrepo.kernel.api.services.ContainerService;
 import org.fcrepo.kernel.api.services.NodeService;
 import org.fcrepo.kernel.api.services.VersionService;
@@ -35,10 +47,29 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.modeshape.jcr.api.Binary;
 import org.springframework.test.context.ContextConfiguration;
 
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.DAYS;
+import static java.util.Arrays.asList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+import static com.google.common.collect.ImmutableSet.of;
+import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
+import static org.fcrepo.kernel.api.RequiredRdfContext.SERVER_MANAGED;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_SNAPSHOT;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_TRIPLES;
+import static org.fcrepo.kernel.modeshape.FedoraResourceImpl.LDPCV_BINARY_TIME_MAP;
 import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.services.VersionServiceImpl.MEMENTO_STORAGE_PROPERTY;
+import static org.fcrepo.kernel.modeshape.services.VersionServiceImpl.SNAPSHOT_INTERVAL_PROPERTY;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
+import static org.modeshape.jcr.api.JcrConstants.JCR_DATA;
 
 /**
  * @author escowles
@@ -46,7 +77,6 @@ import static org.junit.Assert.assertEquals;
  */
 
 @ContextConfiguration({"/spring-test/repo.xml"})
-@Ignore("Until implemented with Memento")
 public class VersionServiceImplIT extends AbstractIT {
 
     @Inject
@@ -58,6 +88,9 @@ public class VersionServiceImplIT extends AbstractIT {
     @Inject
     ContainerService containerService;
 
+    @Inject
+    BinaryService binaryService;
+
     @Inject
     VersionService versionService;
 
@@ -67,7 +100,7 @@ public class VersionServiceImplIT extends AbstractIT {
 
     private static final Instant mementoDate1 = Instant.now();
 
-    private static final Instant mementoDate2 = Instant.from(LocalDateTime.of(2000, 5, 10, 18, 30));
+    private static final Instant mementoDate2 = LocalDateTime.of(2000, 5, 10, 18, 30).toInstant(UTC);
 
     @Before
     public void setUp() throws RepositoryException {
@@ -81,6 +114,7 @@ public class VersionServiceImplIT extends AbstractIT {
     }
 
     @Test
+    @Ignore("Until implemented with Memento")
     public void testCreateVersion() throws RepositoryException {
         final String pid = getRandomPid();
         final FedoraResource resource = containerService.findOrCreate(session, "/" + pid);
@@ -95,6 +129,7 @@ public class VersionServiceImplIT extends AbstractIT {
     }
 
     @Test
+    @Ignore("Until implemented with Memento")
     public void testRemoveVersion() throws RepositoryException {
         final String pid = getRandomPid();
         final FedoraResource resource = containerService.findOrCreate(session, "/" + pid);
@@ -111,6 +146,130 @@ public class VersionServiceImplIT extends AbstractIT {
         assertEquals(2L, countVersions(session, resource));
     }
 
+    @Test
+    public void testCreateBinaryVersionSharesContent() throws RepositoryException, InvalidChecksumException {
+        final String pid = getRandomPid();
+        final FedoraBinary binary = binaryService.findOrCreate(session, "/" + pid);
+        binary.setContent(new ByteArrayInputStream(new byte[16 * 1024 * 1024]), "application/octet-stream", null,
+                "large.bin", null);
+        session.commit();
+        binary.findOrCreateTimeMap();
+        session.commit();
+
+        final Session jcrSession = getJcrSession(session);
+        final Binary content = (Binary) jcrSession.getNode("/" + pid + "/" + JCR_CONTENT).getProperty(JCR_DATA)
+                .getBinary();
+        final Instant now = Instant.now();
+        for (int i = 0; i < 10; i++) {
+            final FedoraResource memento = versionService.createBinaryVersion(session, binary,
+                    now.minusSeconds(i * 60), null, null, null, null);
+            session.commit();
+
+            final Node mementoNode = jcrSession.getNode(memento.getPath());
+            final Binary mementoContent = (Binary) mementoNode.getNode(JCR_CONTENT).getProperty(JCR_DATA).getBinary();
+            assertEquals(content.getHexHash(), mementoContent.getHexHash());
+            assertEquals(content.getSize(), mementoContent.getSize());
+            assertEquals("large.bin", ((FedoraBinary) memento).getFilename());
+            assertTrue(memento.isMemento());
+            // earlier mementos are not copied into later ones
+            assertFalse(mementoNode.hasNode(LDPCV_BINARY_TIME_MAP));
+        }
+        assertEquals(10L, binary.findOrCreateTimeMap().getChildren().count());
+    }
+
+    @Test
+    public void testFindMementoByDatetime() throws RepositoryException {
+        final String pid = getRandomPid();
+        final FedoraResource resource = containerService.findOrCreate(session, "/" + pid);
+        session.commit();
+        resource.findOrCreateTimeMap();
+        session.commit();
+
+        for (int i = 2; i >= 0; i--) {
+            versionService.createVersion(session, resource, subjects, mementoDate2.plusSeconds(i * 60));
+            session.commit();
+        }
+        final FedoraTimeMap timeMap = (FedoraTimeMap) resource.getTimeMap();
+        assertEquals(asList(mementoDate2, mementoDate2.plusSeconds(60), mementoDate2.plusSeconds(120)),
+                timeMap.getMementoDatetimes(null, null).collect(toList()));
+        assertEquals(asList(mementoDate2.plusSeconds(60)),
+                timeMap.getMementoDatetimes(mementoDate2.plusSeconds(30), mementoDate2.plusSeconds(60))
+                        .collect(toList()));
+
+        assertEquals(mementoDate2.plusSeconds(120),
+                timeMap.findMementoByDatetime(mementoDate2.plusSeconds(100)).getMementoDatetime());
+        assertEquals(mementoDate2, timeMap.findMementoByDatetime(mementoDate2.minus(1, DAYS)).getMementoDatetime());
+        assertEquals(mementoDate2.plusSeconds(120),
+                timeMap.findMementoByDatetime(mementoDate2.plus(1, DAYS)).getMementoDatetime());
+
+        timeMap.findMementoByDatetime(mementoDate2.plusSeconds(60)).delete();
+        session.commit();
+        assertEquals(2L, timeMap.getMementoDatetimes(null, null).count());
+        assertEquals(mementoDate2, timeMap.findMementoByDatetime(mementoDate2.plusSeconds(50)).getMementoDatetime());
+    }
+
+    @Test
+    public void testCreateVersionAsDeltas() throws RepositoryException {
+        System.setProperty(MEMENTO_STORAGE_PROPERTY, "delta");
+        System.setProperty(SNAPSHOT_INTERVAL_PROPERTY, "3");
+        try {
+            final String pid = getRandomPid();
+            final FedoraResource resource = containerService.findOrCreate(session, "/" + pid);
+            session.commit();
+            resource.findOrCreateTimeMap();
+            session.commit();
+
+            final String subject = subjects.reverse().convert(resource).getURI();
+            final List<FedoraResource> mementos = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                resource.updateProperties(subjects, "INSERT { <" + subject + "> <info:test#label> \"v" + i +
+                        "\" } WHERE {}", resource.getTriples(subjects, PROPERTIES));
+                session.commit();
+                mementos.add(versionService.createVersion(session, resource, subjects,
+                        mementoDate2.plusSeconds(i * 60)));
+                session.commit();
+            }
+
+            // a snapshot every third memento, deltas in between
+            assertTrue(getJcrNode(mementos.get(0)).hasProperty(MEMENTO_TRIPLES));
+            assertTrue(getJcrNode(mementos.get(1)).hasProperty(MEMENTO_SNAPSHOT));
+            assertTrue(getJcrNode(mementos.get(2)).hasProperty(MEMENTO_SNAPSHOT));
+            assertTrue(getJcrNode(mementos.get(3)).hasProperty(MEMENTO_TRIPLES));
+            assertTrue(getJcrNode(mementos.get(4)).hasProperty(MEMENTO_SNAPSHOT));
+            for (int i = 0; i < 5; i++) {
+                assertEquals(i + 1, getLabels(mementos.get(i)).size());
+                assertTrue(getLabels(mementos.get(i)).contains("v" + i));
+            }
+
+            // only the requested categories are read, each triple once
+            final FedoraResource memento = mementos.get(4);
+            assertTrue(memento.getTriples(subjects, SERVER_MANAGED).count() > 0);
+            assertFalse(memento.getTriples(subjects, SERVER_MANAGED)
+                    .anyMatch(t -> t.getPredicate().getURI().equals("info:test#label")));
+            final List<Triple> all = memento.getTriples(subjects, of(PROPERTIES, SERVER_MANAGED)).collect(toList());
+            assertEquals(new HashSet<>(all).size(), all.size());
+
+            // deleting a snapshot makes its first delta the new snapshot
+            mementos.get(0).delete();
+            session.commit();
+            assertTrue(getJcrNode(mementos.get(1)).hasProperty(MEMENTO_TRIPLES));
+            assertEquals(getJcrNode(mementos.get(1)).getName(),
+                    getJcrNode(mementos.get(2)).getProperty(MEMENTO_SNAPSHOT).getString());
+            assertEquals(2, getLabels(mementos.get(1)).size());
+            assertEquals(3, getLabels(mementos.get(2)).size());
+        } finally {
+            System.clearProperty(MEMENTO_STORAGE_PROPERTY);
+            System.clearProperty(SNAPSHOT_INTERVAL_PROPERTY);
+        }
+    }
+
+    private Set<String> getLabels(final FedoraResource memento) {
+        final org.apache.jena.graph.Node subject = subjects.reverse().convert(memento).asNode();
+        return memento.getTriples(subjects, PROPERTIES)
+                .filter(t -> t.getSubject().equals(subject) && t.getPredicate().getURI().equals("info:test#label"))
+                .map(t -> t.getObject().getLiteralLexicalForm()).collect(toSet());
+    }
+
     private static long countVersions(final FedoraSession session, final FedoraResource resource )
             throws RepositoryException {
         final FedoraResource timeMap = resource.findOrCreateTimeMap();
@@ -0,0 +1,294 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.kernel.modeshape.utils;
+
+import static org.apache.jena.graph.NodeFactory.createLiteral;
+import static org.apache.jena.graph.NodeFactory.createURI;
+import static org.fcrepo.kernel.api.RdfCollectors.toModel;
+import static org.fcrepo.kernel.api.RequiredRdfContext.LDP_MEMBERSHIP;
+import static org.fcrepo.kernel.api.RequiredRdfContext.PROPERTIES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMBERSHIP_INDEX;
+import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.getJcrRepository;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getJcrNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+
+import javax.inject.Inject;
+import javax.jcr.RepositoryException;
+
+import org.apache.jena.graph.Graph;
+import org.apache.jena.graph.Node;
+import org.fcrepo.integration.kernel.modeshape.AbstractIT;
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.InvalidChecksumException;
+import org.fcrepo.kernel.api.models.Container;
+import org.fcrepo.kernel.api.models.FedoraResource;
+import org.fcrepo.kernel.api.services.BinaryService;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.NodeService;
+import org.fcrepo.kernel.modeshape.rdf.impl.DefaultIdentifierTranslator;
+import org.fcrepo.kernel.modeshape.utils.MembershipIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author agent
+ */
+@ContextConfiguration({"/spring-test/repo.xml"})
+public class MembershipIndexIT extends AbstractIT {
+
+    private static final Node HAS_MEMBER = createURI("http://example.org/hasMember");
+
+    @Inject
+    FedoraRepository repo;
+
+    @Inject
+    ContainerService containerService;
+
+    @Inject
+    BinaryService binaryService;
+
+    @Inject
+    NodeService nodeService;
+
+    private FedoraSession session;
+
+    private DefaultIdentifierTranslator subjects;
+
+    private String pid;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        session = repo.login();
+        subjects = new DefaultIdentifierTranslator(getJcrSession(session));
+        pid = getRandomPid();
+    }
+
+    @After
+    public void tearDown() {
+        session.expire();
+    }
+
+    @Test
+    public void testDirectContainer() throws RepositoryException, InvalidChecksumException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:DirectContainer", target, "");
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/direct/child");
+        binaryService.findOrCreate(session, "/" + pid + "/direct/binary").setContent(
+                new ByteArrayInputStream("binary".getBytes()), "text/plain", null, null, null);
+        session.commit();
+
+        final Graph graph = membership(target);
+        assertEquals(2, graph.size());
+        assertTrue(graph.contains(uri(target), HAS_MEMBER, uri(child)));
+        assertTrue(graph.contains(uri(target), HAS_MEMBER, createURI(subjects.toDomain("/" + pid + "/direct/binary")
+                .getURI())));
+        assertEquals(2, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+        assertFalse(container.getChildren().anyMatch(c -> c.getPath().contains(MEMBERSHIP_INDEX)));
+
+        child.delete();
+        session.commit();
+        assertEquals(1, membership(target).size());
+        assertTrue(MembershipIndex.check(getJcrNode(container)));
+    }
+
+    @Test
+    public void testIndirectContainer() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:IndirectContainer", target,
+                "ldp:insertedContentRelation <http://example.org/proxyFor> ; ");
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/indirect/child");
+        containerService.findOrCreate(session, "/" + pid + "/indirect/other");
+        session.commit();
+        assertEquals(0, membership(target).size());
+        assertEquals(0, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+
+        child.updateProperties(subjects, "INSERT DATA { <> <http://example.org/proxyFor> \"a\" }",
+                child.getTriples(subjects, PROPERTIES));
+        session.commit();
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, createLiteral("a")));
+        assertEquals(1, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+
+        child.updateProperties(subjects, "DELETE DATA { <> <http://example.org/proxyFor> \"a\" }",
+                child.getTriples(subjects, PROPERTIES));
+        session.commit();
+        assertEquals(0, membership(target).size());
+        assertEquals(0, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+    }
+
+    @Test
+    public void testReconfigure() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:IndirectContainer", target,
+                "ldp:insertedContentRelation <http://example.org/proxyFor> ; ");
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/indirect/child");
+        session.commit();
+        assertEquals(0, membership(target).size());
+
+        container.updateProperties(subjects, "PREFIX ldp: <http://www.w3.org/ns/ldp#>\n" +
+                "DELETE { <> ldp:insertedContentRelation ?r } INSERT { <> ldp:insertedContentRelation " +
+                "ldp:MemberSubject } WHERE { <> ldp:insertedContentRelation ?r }",
+                container.getTriples(subjects, PROPERTIES));
+        session.commit();
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, uri(child)));
+    }
+
+    @Test
+    public void testMoveAndCopy() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:DirectContainer", target, "");
+        containerService.findOrCreate(session, "/" + pid + "/direct/child");
+        session.commit();
+
+        nodeService.copyObject(session, "/" + pid + "/direct", "/" + pid + "/copy");
+        session.commit();
+        final FedoraResource copy = containerService.find(session, "/" + pid + "/copy");
+        assertTrue(MembershipIndex.check(getJcrNode(copy)));
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER,
+                createURI(subjects.toDomain("/" + pid + "/copy/child").getURI())));
+
+        nodeService.moveObject(session, "/" + pid + "/direct/child", "/" + pid + "/moved");
+        session.commit();
+        assertEquals(0, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+        assertFalse(membership(target).contains(uri(target), HAS_MEMBER,
+                createURI(subjects.toDomain("/" + pid + "/moved").getURI())));
+    }
+
+    @Test
+    public void testCheckRebuildsIndex() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:DirectContainer", target, "");
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/direct/child");
+        session.commit();
+
+        getJcrNode(container).getNode(MEMBERSHIP_INDEX).remove();
+        // without an index, the membership is read from the children
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, uri(child)));
+
+        assertFalse(MembershipIndex.check(getJcrNode(container)));
+        assertTrue(MembershipIndex.check(getJcrNode(container)));
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, uri(child)));
+    }
+
+    @Test
+    public void testCheckAllRebuildsIndexes() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:DirectContainer", target, "");
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/direct/child");
+        session.commit();
+        getJcrNode(container).getNode(MEMBERSHIP_INDEX).remove();
+        session.commit();
+
+        // as when the repository starts or has been restored from a backup
+        assertTrue(MembershipIndex.checkAll(getJcrRepository(repo)) >= 1);
+        assertEquals(0, MembershipIndex.checkAll(getJcrRepository(repo)));
+
+        getJcrSession(session).refresh(false);
+        assertEquals(1, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+        assertTrue(getJcrNode(container).hasNode(MEMBERSHIP_INDEX + "/" + getJcrNode(child).getIdentifier()));
+    }
+
+    @Test
+    public void testInteractionModelCreatesIndex() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = containerService.findOrCreate(session, "/" + pid + "/direct");
+        container.updateProperties(subjects, "PREFIX ldp: <http://www.w3.org/ns/ldp#>\n" +
+                "INSERT { <> ldp:membershipResource <" + subjects.reverse().convert(target) + "> ; " +
+                "ldp:hasMemberRelation <http://example.org/hasMember> } WHERE {}",
+                container.getTriples(subjects, PROPERTIES));
+        assertFalse(getJcrNode(container).hasNode(MEMBERSHIP_INDEX));
+
+        container.addType("ldp:DirectContainer");
+        assertTrue(getJcrNode(container).hasNode(MEMBERSHIP_INDEX));
+        session.commit();
+    }
+
+    @Test
+    public void testChildrenDoNotCreateIndex() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:DirectContainer", target, "");
+        session.commit();
+        getJcrNode(container).getNode(MEMBERSHIP_INDEX).remove();
+        session.commit();
+
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/direct/child");
+        session.commit();
+        assertFalse(getJcrNode(container).hasNode(MEMBERSHIP_INDEX));
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, uri(child)));
+
+        container.updateProperties(subjects, "INSERT DATA { <> <http://purl.org/dc/elements/1.1/title> \"a\" }",
+                container.getTriples(subjects, PROPERTIES));
+        session.commit();
+        assertEquals(1, getJcrNode(container).getNode(MEMBERSHIP_INDEX).getNodes().getSize());
+    }
+
+    @Test
+    public void testConcurrentIndexesAreIgnored() throws RepositoryException {
+        final FedoraResource target = containerService.findOrCreate(session, "/" + pid + "/target");
+        final Container container = createContainer("ldp:DirectContainer", target, "");
+        final FedoraResource child = containerService.findOrCreate(session, "/" + pid + "/direct/child");
+        session.commit();
+
+        final FedoraSession other = repo.login();
+        try {
+            MembershipIndex.rebuild(getJcrNode(container));
+            MembershipIndex.rebuild(getJcrNode(containerService.find(other, "/" + pid + "/direct")));
+            getJcrNode(containerService.find(other, "/" + pid + "/direct")).getNode(MEMBERSHIP_INDEX + "/" +
+                    getJcrNode(child).getIdentifier()).remove();
+            session.commit();
+            other.commit();
+        } finally {
+            other.expire();
+        }
+        getJcrSession(session).refresh(false);
+        assertEquals(2, getJcrNode(container).getNodes(MEMBERSHIP_INDEX).getSize());
+        // with more than one index, the membership is read from the children
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, uri(child)));
+
+        assertFalse(MembershipIndex.check(getJcrNode(container)));
+        session.commit();
+        assertEquals(1, getJcrNode(container).getNodes(MEMBERSHIP_INDEX).getSize());
+        assertTrue(membership(target).contains(uri(target), HAS_MEMBER, uri(child)));
+    }
+
+    private Container createContainer(final String type, final FedoraResource target, final String extra) {
+        final String name = type.equals("ldp:DirectContainer") ? "direct" : "indirect";
+        final Container container = containerService.findOrCreate(session, "/" + pid + "/" + name);
+        container.updateProperties(subjects, "PREFIX ldp: <http://www.w3.org/ns/ldp#>\n" +
+                "INSERT { <> a " + type + " ; " + extra +
+                "ldp:membershipResource <" + subjects.reverse().convert(target) + "> ; " +
+                "ldp:hasMemberRelation <http://example.org/hasMember> } WHERE {}",
+                container.getTriples(subjects, PROPERTIES));
+        return container;
+    }
+
+    private Graph membership(final FedoraResource target) {
+        return target.getTriples(subjects, LDP_MEMBERSHIP).collect(toModel()).getGraph();
+    }
+
+    private Node uri(final FedoraResource resource) {
+        return subjects.reverse().convert(resource).asNode();
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.integration.kernel.modeshape.utils;
+
+import static com.jayway.awaitility.Awaitility.await;
+import static com.jayway.awaitility.Duration.ONE_HUNDRED_MILLISECONDS;
+import static org.fcrepo.kernel.modeshape.FedoraSessionImpl.getJcrSession;
+import static org.fcrepo.kernel.modeshape.utils.TombstoneIndex.mayBeTombstoned;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import javax.inject.Inject;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.integration.kernel.modeshape.AbstractIT;
+import org.fcrepo.kernel.api.FedoraRepository;
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.services.ContainerService;
+import org.fcrepo.kernel.api.services.NodeService;
+import org.fcrepo.kernel.modeshape.TombstoneImpl;
+import org.fcrepo.kernel.modeshape.utils.TombstoneIndex;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.context.ContextConfiguration;
+
+/**
+ * @author agent
+ */
+@ContextConfiguration({"/spring-test/repo.xml"})
+public class TombstoneIndexIT extends AbstractIT {
+
+    @Inject
+    FedoraRepository repo;
+
+    @Inject
+    ContainerService containerService;
+
+    @Inject
+    NodeService nodeService;
+
+    private FedoraSession session;
+
+    private Session jcrSession;
+
+    private String pid;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        session = repo.login();
+        jcrSession = getJcrSession(session);
+        pid = getRandomPid();
+    }
+
+    @After
+    public void tearDown() {
+        session.expire();
+    }
+
+    @Test
+    public void testDeleteAndRemoveTombstone() throws RepositoryException {
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        containerService.findOrCreate(session, "/" + pid + "/a/b");
+        session.commit();
+        assertFalse(mayBeTombstoned(jcrSession, "/" + pid + "/a/b/c"));
+
+        containerService.find(session, "/" + pid + "/a").delete();
+        session.commit();
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a"));
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a/b/c"));
+        assertFalse(mayBeTombstoned(jcrSession, "/" + pid + "/ab"));
+        assertFalse(mayBeTombstoned(jcrSession, "/" + pid));
+
+        new TombstoneImpl(jcrSession.getNode("/" + pid + "/a")).delete();
+        session.commit();
+        // forgotten once the removal is observed
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() ->
+                !mayBeTombstoned(jcrSession, "/" + pid + "/a/b/c"));
+    }
+
+    @Test
+    public void testDeleteAgainAfterRemoval() throws RepositoryException {
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+        containerService.find(session, "/" + pid + "/a").delete();
+        session.commit();
+        new TombstoneImpl(jcrSession.getNode("/" + pid + "/a")).delete();
+        session.commit();
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> !mayBeTombstoned(jcrSession, "/" + pid + "/a"));
+
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+        containerService.find(session, "/" + pid + "/a").delete();
+        session.commit();
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a/b"));
+    }
+
+    @Test
+    public void testRolledBackRemovalKeepsTombstone() throws RepositoryException {
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+        containerService.find(session, "/" + pid + "/a").delete();
+        session.commit();
+
+        new TombstoneImpl(jcrSession.getNode("/" + pid + "/a")).delete();
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a/b"));
+        session.expire();
+        session = repo.login();
+        jcrSession = getJcrSession(session);
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a/b"));
+        assertTrue(TombstoneImpl.hasMixin(jcrSession.getNode("/" + pid + "/a")));
+    }
+
+    @Test
+    public void testReload() throws RepositoryException {
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        session.commit();
+        containerService.find(session, "/" + pid + "/a").delete();
+        session.commit();
+
+        TombstoneIndex.load(jcrSession.getRepository());
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a/b"));
+        assertFalse(mayBeTombstoned(jcrSession, "/" + pid + "/b"));
+
+        // the reloaded index observes removals
+        new TombstoneImpl(jcrSession.getNode("/" + pid + "/a")).delete();
+        session.commit();
+        await().pollInterval(ONE_HUNDRED_MILLISECONDS).until(() -> !mayBeTombstoned(jcrSession, "/" + pid + "/a/b"));
+    }
+
+    @Test
+    public void testMove() {
+        containerService.findOrCreate(session, "/" + pid + "/a");
+        containerService.findOrCreate(session, "/" + pid + "/b");
+        containerService.findOrCreate(session, "/" + pid + "/b/c");
+        session.commit();
+        containerService.find(session, "/" + pid + "/b/c").delete();
+        session.commit();
+
+        nodeService.moveObject(session, "/" + pid + "/b", "/" + pid + "/a/b");
+        session.commit();
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/a/b/c/d"));
+        assertTrue(mayBeTombstoned(jcrSession, "/" + pid + "/b"));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape;
+
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.BINARY_BYTES_PROPERTY;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.NODES_PROPERTY;
+import static org.fcrepo.kernel.modeshape.ChangeSetAccount.PROPERTIES_PROPERTY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.jcr.Node;
+import javax.jcr.NodeIterator;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.exception.ChangeSetTooLargeException;
+import org.fcrepo.kernel.api.exception.InsufficientStorageException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ChangeSetAccountTest {
+
+    @Mock
+    private Session mockSession;
+
+    @Mock
+    private Session otherSession;
+
+    @Mock
+    private Node mockNode;
+
+    @Mock
+    private Node otherNode;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        when(mockNode.getSession()).thenReturn(mockSession);
+        when(mockNode.getPath()).thenReturn("/a");
+        when(otherNode.getSession()).thenReturn(mockSession);
+        when(otherNode.getPath()).thenReturn("/b");
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(NODES_PROPERTY);
+        System.clearProperty(NODES_PROPERTY + ".soft");
+        System.clearProperty(PROPERTIES_PROPERTY);
+        System.clearProperty(BINARY_BYTES_PROPERTY);
+    }
+
+    @Test
+    public void testAccount() {
+        System.setProperty(NODES_PROPERTY, "10");
+        final ChangeSetAccount account = ChangeSetAccount.forSession(mockSession);
+        assertSame(account, ChangeSetAccount.forSession(mockSession));
+
+        ChangeSetAccount.touched(mockNode);
+        ChangeSetAccount.touched(mockNode);
+        ChangeSetAccount.touched(otherNode);
+        ChangeSetAccount.propertyChanged(mockNode);
+        ChangeSetAccount.propertyChanged(otherNode);
+        ChangeSetAccount.binaryWritten(mockNode, 10);
+        assertEquals(2, account.getNodes());
+        assertEquals(2, account.getProperties());
+        assertEquals(10, account.getBinaryBytes());
+
+        account.clear();
+        assertEquals(0, account.getNodes());
+        assertEquals(0, account.getProperties());
+        assertEquals(0, account.getBinaryBytes());
+    }
+
+    @Test
+    public void testDiscarded() {
+        System.setProperty(NODES_PROPERTY, "10");
+        final ChangeSetAccount account = ChangeSetAccount.forSession(mockSession);
+        ChangeSetAccount.touched(mockNode);
+        ChangeSetAccount.discarded(mockSession);
+        assertEquals(0, account.getNodes());
+    }
+
+    @Test
+    public void testSessionWithoutAccount() throws RepositoryException {
+        System.setProperty(NODES_PROPERTY, "10");
+        ChangeSetAccount.forSession(mockSession);
+        when(mockNode.getSession()).thenReturn(otherSession);
+        ChangeSetAccount.touched(mockNode);
+        assertEquals(0, ChangeSetAccount.forSession(otherSession).getNodes());
+    }
+
+    @Test
+    public void testNoAccountWithoutLimits() throws RepositoryException {
+        assertNull(ChangeSetAccount.forSession(otherSession));
+        when(mockNode.getSession()).thenReturn(otherSession);
+        ChangeSetAccount.touched(mockNode);
+        final InputStream content = new ByteArrayInputStream(new byte[0]);
+        assertSame(content, ChangeSetAccount.binaryContent(mockNode, content));
+        assertNull(ChangeSetAccount.forSession(otherSession));
+    }
+
+    @Test
+    public void testRemovingStopsAtLimit() throws RepositoryException {
+        System.setProperty(NODES_PROPERTY + ".soft", "3");
+        final ChangeSetAccount account = ChangeSetAccount.forSession(mockSession);
+        final Node child = mock(Node.class);
+        final NodeIterator children = mock(NodeIterator.class);
+        when(children.hasNext()).thenReturn(true);
+        when(children.nextNode()).thenReturn(child);
+        when(child.getNodes()).thenReturn(children);
+        when(mockNode.getNodes()).thenReturn(children);
+        ChangeSetAccount.removing(mockNode);
+        assertEquals(4, account.getNodes());
+        verify(children, times(3)).nextNode();
+    }
+
+    @Test
+    public void testSoftLimit() {
+        System.setProperty(NODES_PROPERTY + ".soft", "1");
+        final ChangeSetAccount account = ChangeSetAccount.forSession(mockSession);
+        final long exceeded = ChangeSetAccount.SOFT_LIMIT_EXCEEDED.getCount();
+        ChangeSetAccount.touched(mockNode);
+        ChangeSetAccount.touched(otherNode);
+        account.check();
+        assertEquals(2, account.getNodes());
+        assertEquals(exceeded + 1, ChangeSetAccount.SOFT_LIMIT_EXCEEDED.getCount());
+    }
+
+    @Test(expected = ChangeSetTooLargeException.class)
+    public void testNodeLimit() {
+        System.setProperty(NODES_PROPERTY, "1");
+        ChangeSetAccount.forSession(mockSession);
+        ChangeSetAccount.touched(mockNode);
+        ChangeSetAccount.touched(otherNode);
+    }
+
+    @Test(expected = ChangeSetTooLargeException.class)
+    public void testPropertyLimit() {
+        System.setProperty(PROPERTIES_PROPERTY, "1");
+        ChangeSetAccount.forSession(mockSession);
+        ChangeSetAccount.propertyChanged(mockNode);
+        ChangeSetAccount.propertyChanged(mockNode);
+    }
+
+    @Test(expected = InsufficientStorageException.class)
+    public void testBinaryLimit() {
+        System.setProperty(BINARY_BYTES_PROPERTY, "10");
+        ChangeSetAccount.forSession(mockSession);
+        ChangeSetAccount.binaryWritten(mockNode, 11);
+    }
+
+    @Test
+    public void testBinaryContentLimit() throws IOException {
+        System.setProperty(BINARY_BYTES_PROPERTY, "10");
+        ChangeSetAccount.forSession(mockSession);
+        ChangeSetAccount.binaryWritten(mockNode, 6);
+        final InputStream content = ChangeSetAccount.binaryContent(mockNode, new ByteArrayInputStream(new byte[8]));
+        assertEquals(4, content.read(new byte[4]));
+        try {
+            content.read(new byte[4]);
+            fail("Reading content past the limit should fail");
+        } catch (final InsufficientStorageException e) {
+            assertEquals(6, ChangeSetAccount.forSession(mockSession).getBinaryBytes());
+        }
+    }
+}
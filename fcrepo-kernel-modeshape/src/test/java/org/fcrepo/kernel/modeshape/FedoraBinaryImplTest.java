@@ -93,6 +93,8 @@ public class FedoraBinaryImplTest implements FedoraTypes {
             when(mockDsNode.getName()).thenReturn(testDsId);
             when(mockContent.getSession()).thenReturn(mockSession);
             when(mockContent.getParent()).thenReturn(mockParentNode);
+            when(mockContent.getPath()).thenReturn("/" + testDsId + "/" + JCR_CONTENT);
+            when(mockParentNode.getPath()).thenReturn("/" + testDsId);
             final NodeType mockNodeType = mock(NodeType.class);
             when(mockNodeType.getName()).thenReturn("nt:file");
             when(mockDsNode.getPrimaryNodeType()).thenReturn(mockNodeType);
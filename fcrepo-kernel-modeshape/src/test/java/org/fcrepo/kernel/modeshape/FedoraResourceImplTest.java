@@ -39,6 +39,7 @@ import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.modeshape.jcr.api.JcrConstants.JCR_CONTENT;
@@ -67,6 +68,7 @@ import org.fcrepo.kernel.api.RdfStream;
 import org.fcrepo.kernel.modeshape.rdf.JcrRdfTools;
 import org.fcrepo.kernel.modeshape.rdf.impl.DefaultIdentifierTranslator;
 import org.fcrepo.kernel.modeshape.testutilities.TestPropertyIterator;
+import org.fcrepo.kernel.modeshape.utils.SaveCounter;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -333,6 +335,67 @@ public class FedoraResourceImplTest {
                 .getEtagValue());
     }
 
+    @Test
+    public void testMetadataIsReadOnceUntilWritten() throws RepositoryException {
+        final Property mockMod = mock(Property.class);
+        final Calendar modDate = Calendar.getInstance();
+        when(mockNode.getPath()).thenReturn("some-path");
+        when(mockNode.hasProperty(FEDORA_LASTMODIFIED)).thenReturn(true);
+        when(mockNode.getProperty(FEDORA_LASTMODIFIED)).thenReturn(mockMod);
+        when(mockMod.getDate()).thenReturn(modDate);
+
+        final String etag = testObj.getEtagValue();
+        assertEquals(etag, testObj.getEtagValue());
+        assertEquals(modDate.getTimeInMillis(), testObj.getLastModifiedDate().toEpochMilli());
+        verify(mockMod, times(1)).getDate();
+
+        testObj.addType("some:type");
+        testObj.getLastModifiedDate();
+        verify(mockMod, times(2)).getDate();
+    }
+
+    @Test
+    public void testMetadataIsReadAgainAfterAnySave() throws RepositoryException {
+        final Property mockMod = mock(Property.class);
+        when(mockNode.hasProperty(FEDORA_LASTMODIFIED)).thenReturn(true);
+        when(mockNode.getProperty(FEDORA_LASTMODIFIED)).thenReturn(mockMod);
+        when(mockMod.getDate()).thenReturn(Calendar.getInstance());
+
+        testObj.getLastModifiedDate();
+        testObj.getLastModifiedDate();
+        verify(mockMod, times(1)).getDate();
+
+        // e.g. a write saved through another instance of the same resource
+        SaveCounter.saved();
+        testObj.getLastModifiedDate();
+        verify(mockMod, times(2)).getDate();
+    }
+
+    @Test
+    public void testHasTypeIsReadOnceUntilSaved() throws RepositoryException {
+        when(mockNode.isNodeType("some:type")).thenReturn(true);
+        assertTrue(testObj.hasType("some:type"));
+        assertTrue(testObj.hasType("some:type"));
+        verify(mockNode, times(1)).isNodeType("some:type");
+
+        SaveCounter.saved();
+        assertTrue(testObj.hasType("some:type"));
+        verify(mockNode, times(2)).isNodeType("some:type");
+    }
+
+    @Test
+    public void testMetadataIsNotKeptForModifiedNode() throws RepositoryException {
+        final Property mockMod = mock(Property.class);
+        when(mockNode.isModified()).thenReturn(true);
+        when(mockNode.hasProperty(FEDORA_LASTMODIFIED)).thenReturn(true);
+        when(mockNode.getProperty(FEDORA_LASTMODIFIED)).thenReturn(mockMod);
+        when(mockMod.getDate()).thenReturn(Calendar.getInstance());
+
+        testObj.getLastModifiedDate();
+        testObj.getLastModifiedDate();
+        verify(mockMod, times(2)).getDate();
+    }
+
     @Test
     public void testGetContainer() throws RepositoryException {
         when(mockNode.getParent()).thenReturn(mockContainer);
@@ -443,7 +506,9 @@ public class FedoraResourceImplTest {
         when(mockContainer.getPath()).thenReturn("b");
         when(mockContainer.getSession()).thenReturn(mockSession);
         when(mockSession.nodeExists(anyString())).thenReturn(false);
+        when(mockSession.getNode(anyString())).thenReturn(mockChild);
         when(mockSession.getNode("b")).thenReturn(mockContainer);
+        when(mockChild.getSession()).thenReturn(mockSession);
         testObj.delete();
         verify(mockNode).remove();
         verify(mockContainer).addNode("a", FEDORA_TOMBSTONE);
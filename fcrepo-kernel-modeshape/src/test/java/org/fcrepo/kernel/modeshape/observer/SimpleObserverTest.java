@@ -17,13 +17,20 @@
  */
 package org.fcrepo.kernel.modeshape.observer;
 
+import static javax.jcr.observation.Event.NODE_MOVED;
 import static org.fcrepo.kernel.modeshape.observer.SimpleObserver.EVENT_TYPES;
 import static org.fcrepo.kernel.modeshape.utils.TestHelpers.setField;
-import static org.mockito.Matchers.any;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.Mockito.mock;
+import static org.springframework.test.util.ReflectionTestUtils.getField;
+
+import java.util.concurrent.ThreadPoolExecutor;
 
 import javax.jcr.NamespaceRegistry;
 import javax.jcr.RepositoryException;
@@ -35,18 +42,21 @@ import javax.jcr.observation.ObservationManager;
 
 import org.fcrepo.kernel.api.FedoraRepository;
 import org.fcrepo.kernel.api.observer.FedoraEvent;
+import org.fcrepo.kernel.api.observer.MovedDescendants;
 import org.fcrepo.kernel.modeshape.FedoraRepositoryImpl;
 import org.fcrepo.kernel.modeshape.observer.eventmappings.OneToOne;
 
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.modeshape.jcr.api.Repository;
 import org.modeshape.jcr.api.observation.Event;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.eventbus.EventBus;
 
 /**
@@ -122,13 +132,38 @@ public class SimpleObserverTest {
     @Test
     public void testOnEvent() throws RepositoryException {
         testObserver.onEvent(mockEvents);
-        verify(mockBus).post(any(FedoraEvent.class));
+        verify(mockBus, timeout(1000)).post(isA(FedoraEvent.class));
+    }
+
+    @Test
+    public void testOnMoveEvent() throws RepositoryException {
+        when(mockEvent.getType()).thenReturn(NODE_MOVED);
+        when(mockEvent.getInfo()).thenReturn(ImmutableMap.of("srcAbsPath", "/bar", "destAbsPath", "/foo"));
+        testObserver.onEvent(mockEvents);
+        verify(mockBus, timeout(1000)).post(isA(MovedDescendants.class));
+        final InOrder inOrder = inOrder(mockBus);
+        inOrder.verify(mockBus).post(isA(FedoraEvent.class));
+        inOrder.verify(mockBus).post(isA(MovedDescendants.class));
+        // the descendants are read only by the consumers that want them
+        verify(mockRepository).login();
+    }
+
+    @Test
+    public void testOnMoveEventAfterShutdown() throws RepositoryException {
+        when(mockWS.getObservationManager()).thenReturn(mockOM);
+        when(mockEvent.getType()).thenReturn(NODE_MOVED);
+        when(mockEvent.getInfo()).thenReturn(ImmutableMap.of("srcAbsPath", "/bar", "destAbsPath", "/foo"));
+        testObserver.stopListening();
+        testObserver.onEvent(mockEvents);
+        verify(mockBus).post(isA(FedoraEvent.class));
+        verify(mockBus).post(isA(MovedDescendants.class));
+        assertTrue(((ThreadPoolExecutor) getField(testObserver, "posting")).getQueue().isEmpty());
     }
 
     @Test
     public void testOnEventAllFiltered() {
         setField(testObserver, "eventFilter", (EventFilter) e -> false);
         testObserver.onEvent(mockEvents);
-        verify(mockBus, never()).post(any(FedoraEvent.class));
+        verify(mockBus, never()).post(isA(FedoraEvent.class));
     }
 }
@@ -28,6 +28,7 @@ import org.mockito.Mock;
 import org.modeshape.jcr.api.NamespaceRegistry;
 
 import javax.jcr.Node;
+import javax.jcr.Repository;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Workspace;
@@ -39,10 +40,15 @@ import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static java.util.Collections.emptyMap;
 import static javax.jcr.PropertyType.REFERENCE;
 import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
+import static org.fcrepo.kernel.modeshape.rdf.converters.PropertyConverter.FCR_PREFIX;
 import static org.fcrepo.kernel.modeshape.rdf.converters.PropertyConverter.getPropertyNameFromPredicate;
 import static org.fcrepo.kernel.modeshape.utils.FedoraTypesUtils.getReferencePropertyName;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.listen;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -68,6 +74,9 @@ public class PropertyConverterTest {
     @Mock
     private NamespaceRegistry mockNsRegistry;
 
+    @Mock(answer = RETURNS_DEEP_STUBS)
+    private Repository mockRepository;
+
     private static final String mockUri = "http://example.com/";
 
     private PropertyConverter testObj;
@@ -112,7 +121,7 @@ public class PropertyConverterTest {
     public final void shouldRejectFcrPredicates() throws RepositoryException {
         final Property p = createProperty(mockUri, "fcr");
         final Map<String, String> nsMap = new HashMap<>();
-        nsMap.put("fcr", mockUri);
+        nsMap.put(FCR_PREFIX, mockUri);
         PropertyConverter.getPropertyNameFromPredicate(mockNode, p, nsMap);
     }
 
@@ -131,6 +140,17 @@ public class PropertyConverterTest {
         assertEquals("ns001:uuid", getPropertyNameFromPredicate(mockNode, p, EMPTY_NAMESPACE_MAP));
     }
 
+    @Test
+    public final void shouldCheckANamespaceIsRegisteredOnce() throws RepositoryException {
+        when(mockSession.getRepository()).thenReturn(mockRepository);
+        listen(mockRepository);
+        final Property p = createProperty(mockUri, "uuid");
+        getPropertyNameFromPredicate(mockNode, p, EMPTY_NAMESPACE_MAP);
+        getPropertyNameFromPredicate(mockNode, p, EMPTY_NAMESPACE_MAP);
+        // once to decide whether the cache of type names is invalidated, and once for each name
+        verify(mockNsRegistry, times(3)).isRegisteredUri(mockUri);
+    }
+
     @Test (expected = UnsupportedOperationException.class)
     public void shouldThrowOnBackward() {
         final Property property = testObj.convert(mockNamespacedProperty);
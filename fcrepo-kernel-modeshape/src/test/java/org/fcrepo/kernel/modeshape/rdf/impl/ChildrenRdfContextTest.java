@@ -44,7 +44,6 @@ import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Stream;
 
 /**
  * ChildrenRdfContextTest class.
@@ -65,7 +64,7 @@ public class ChildrenRdfContextTest {
     private Session mockSession;
 
     @Mock
-    private FedoraResourceImpl mockResource, mockRes1, mockRes2, mockRes3;
+    private FedoraResourceImpl mockResource;
 
     private IdentifierConverter<Resource, FedoraResource> idTranslator;
 
@@ -96,16 +95,9 @@ public class ChildrenRdfContextTest {
 
     @Test
     public void testChildren() throws RepositoryException {
-        when(mockRes1.getPath()).thenReturn(RDF_PATH + "/res1");
-        when(mockRes2.getPath()).thenReturn(RDF_PATH + "/res2");
-        when(mockRes3.getPath()).thenReturn(RDF_PATH + "/res3");
-        when(mockRes1.getDescribedResource()).thenReturn(mockRes1);
-        when(mockRes2.getDescribedResource()).thenReturn(mockRes2);
-        when(mockRes3.getDescribedResource()).thenReturn(mockRes3);
         when(mockResourceNode.hasNodes()).thenReturn(true);
-        final Stream<FedoraResource> first = of(mockRes1, mockRes2, mockRes3);
-        final Stream<FedoraResource> second = of(mockRes1, mockRes2, mockRes3);
-        when(mockResource.getChildren()).thenReturn(first).thenReturn(second);
+        when(mockResource.getChildPaths(null)).thenReturn(of(RDF_PATH + "/res1", RDF_PATH + "/res2",
+                RDF_PATH + "/res3"));
 
         try (final ChildrenRdfContext context = new ChildrenRdfContext(mockResource, idTranslator)) {
             final Model results = context.collect(toModel());
@@ -117,6 +109,8 @@ public class ChildrenRdfContextTest {
             assertTrue("There should have been a statement!", stmts.hasNext());
             stmts.forEachRemaining(stmt -> {
                         assertTrue("Object should be a URI! " + stmt.getObject(), stmt.getObject().isURIResource());
+                        assertTrue("Object should be a child! " + stmt.getObject(),
+                                stmt.getObject().asResource().getURI().startsWith(subject.getURI() + "/res"));
                         count.incrementAndGet();
                     }
             );
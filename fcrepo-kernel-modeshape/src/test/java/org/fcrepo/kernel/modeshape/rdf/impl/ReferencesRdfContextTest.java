@@ -25,18 +25,25 @@ import org.junit.Test;
 import org.mockito.Mock;
 import org.mockito.stubbing.Answer;
 
+import javax.jcr.NamespaceRegistry;
 import javax.jcr.Node;
 import javax.jcr.Property;
 import javax.jcr.PropertyIterator;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 import javax.jcr.Value;
+import javax.jcr.Workspace;
 
 import static org.apache.jena.rdf.model.ResourceFactory.createProperty;
 import static org.apache.jena.rdf.model.ResourceFactory.createResource;
 import static javax.jcr.PropertyType.REFERENCE;
 import static javax.jcr.PropertyType.WEAKREFERENCE;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_HAS_MEMBER_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INDIRECT_CONTAINER;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_INSERTED_CONTENT_RELATION;
+import static org.fcrepo.kernel.api.FedoraTypes.LDP_MEMBER_RESOURCE;
 import static org.fcrepo.kernel.api.RdfCollectors.toModel;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -77,6 +84,27 @@ public class ReferencesRdfContextTest {
     @Mock
     private PropertyIterator mockPropertyIterator;
 
+    @Mock
+    private Node mockContainer;
+
+    @Mock
+    private Node mockMembershipResource;
+
+    @Mock
+    private Property mockMembershipResourceProperty;
+
+    @Mock
+    private Property mockHasMemberRelation;
+
+    @Mock
+    private Property mockInsertedContentRelation;
+
+    @Mock
+    private Workspace mockWorkspace;
+
+    @Mock
+    private NamespaceRegistry mockNamespaceRegistry;
+
     @Before
     public void setUp() throws RepositoryException {
         initMocks(this);
@@ -133,5 +161,32 @@ public class ReferencesRdfContextTest {
 
     }
 
-
+    @Test
+    public void testIndirectReferences() throws RepositoryException {
+        when(mockPropertyParent.getDepth()).thenReturn(2);
+        when(mockPropertyParent.getParent()).thenReturn(mockContainer);
+        when(mockContainer.isNodeType(LDP_INDIRECT_CONTAINER)).thenReturn(true);
+        when(mockContainer.hasProperty(LDP_MEMBER_RESOURCE)).thenReturn(true);
+        when(mockContainer.hasProperty(LDP_HAS_MEMBER_RELATION)).thenReturn(true);
+        when(mockContainer.hasProperty(LDP_INSERTED_CONTENT_RELATION)).thenReturn(true);
+        when(mockContainer.getProperty(LDP_MEMBER_RESOURCE)).thenReturn(mockMembershipResourceProperty);
+        when(mockContainer.getProperty(LDP_HAS_MEMBER_RELATION)).thenReturn(mockHasMemberRelation);
+        when(mockContainer.getProperty(LDP_INSERTED_CONTENT_RELATION)).thenReturn(mockInsertedContentRelation);
+        when(mockMembershipResourceProperty.getNode()).thenReturn(mockMembershipResource);
+        when(mockMembershipResource.getPath()).thenReturn("/c");
+        when(mockHasMemberRelation.getString()).thenReturn("http://example.org/hasMember");
+        when(mockInsertedContentRelation.getString()).thenReturn("http://example.org/proxyFor");
+        when(mockWeakProperty.getName()).thenReturn("ex:proxyFor_ref");
+        when(mockWeakProperty.getSession()).thenReturn(mockSession);
+        when(mockStrongProperty.getSession()).thenReturn(mockSession);
+        when(mockSession.getWorkspace()).thenReturn(mockWorkspace);
+        when(mockWorkspace.getNamespaceRegistry()).thenReturn(mockNamespaceRegistry);
+        when(mockNamespaceRegistry.getPrefix("http://example.org/")).thenReturn("ex");
+
+        final Model model = new ReferencesRdfContext(mockResource, translator).collect(toModel());
+        assertTrue(model.contains(createResource("info:fedora/c"),
+                createProperty("http://example.org/hasMember"),
+                createResource("info:fedora/a")));
+        assertEquals(3, model.size());
+    }
 }
@@ -25,6 +25,8 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +38,7 @@ import javax.jcr.NamespaceException;
 import javax.jcr.RepositoryException;
 import javax.jcr.Session;
 
+import org.fcrepo.kernel.api.ChangeSetSize;
 import org.fcrepo.kernel.api.FedoraSession;
 import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
 import org.fcrepo.kernel.api.exception.SessionMissingException;
@@ -71,6 +74,9 @@ public class BatchServiceImplTest {
     @Mock
     private Session mockSession;
 
+    @Mock
+    private ChangeSetSize mockChangeSet;
+
     private FedoraSession fedoraSession;
 
     @Before
@@ -79,6 +85,7 @@ public class BatchServiceImplTest {
         service = new BatchServiceImpl();
         when(mockTx.getId()).thenReturn(IS_A_TX);
         when(mockTx.getUserURI()).thenReturn(null);
+        when(mockTx.getChangeSetSize()).thenReturn(mockChangeSet);
         final Field txsField =
                 BatchServiceImpl.class.getDeclaredField("sessions");
         txsField.setAccessible(true);
@@ -93,8 +100,10 @@ public class BatchServiceImplTest {
     public void testExpiration() {
         final Instant fiveSecondsAgo = now().minusSeconds(5);
         when(mockTx.getExpires()).thenReturn(of(fiveSecondsAgo));
+        service.begin(mockTx);
         service.removeExpired();
         verify(mockTx).expire();
+        assertFalse(service.exists(IS_A_TX));
     }
 
     @Test
@@ -102,7 +111,48 @@ public class BatchServiceImplTest {
         final Instant fiveSecondsAgo = now().minusSeconds(5);
         doThrow(new RepositoryRuntimeException("")).when(mockTx).expire();
         when(mockTx.getExpires()).thenReturn(of(fiveSecondsAgo));
+        service.begin(mockTx);
+        service.removeExpired();
+        assertFalse(service.exists(IS_A_TX));
+    }
+
+    @Test
+    public void testNoExpirationBeforeDue() {
+        when(mockTx.getExpires()).thenReturn(of(now().plusSeconds(60)));
+        service.begin(mockTx);
+        service.removeExpired();
+        // only read when it was queued
+        verify(mockTx, times(1)).getExpires();
+        verify(mockTx, never()).expire();
+        assertTrue(service.exists(IS_A_TX));
+    }
+
+    @Test
+    public void testRefreshedBeforeDue() {
+        when(mockTx.getExpires()).thenReturn(of(now().minusSeconds(5)));
+        service.begin(mockTx);
+        when(mockTx.getExpires()).thenReturn(of(now().plusSeconds(60)));
         service.removeExpired();
+        verify(mockTx, never()).expire();
+        assertTrue(service.exists(IS_A_TX));
+    }
+
+    @Test
+    public void testNoExpirationAfterCommit() {
+        when(mockTx.getExpires()).thenReturn(of(now().minusSeconds(5)));
+        service.begin(mockTx);
+        service.commit(IS_A_TX);
+        service.removeExpired();
+        verify(mockTx, never()).expire();
+    }
+
+    @Test
+    public void testCommitRecordsChangeSet() {
+        when(mockChangeSet.getNodes()).thenReturn(3L);
+        final long count = BatchServiceImpl.CHANGED_NODES.getCount();
+        service.commit(IS_A_TX);
+        assertEquals(count + 1, BatchServiceImpl.CHANGED_NODES.getCount());
+        assertEquals(count + 1, BatchServiceImpl.BINARY_BYTES.getCount());
     }
 
     @Test
@@ -66,6 +66,9 @@ public class BinaryServiceImplTest {
         when(mockDsNode.getNode(JCR_CONTENT)).thenReturn(mockNode);
         when(mockDsNode.getParent()).thenReturn(mockRoot);
         when(mockRoot.isNew()).thenReturn(false);
+        when(mockRoot.getPath()).thenReturn("/");
+        when(mockDsNode.getPath()).thenReturn("/foo/bar");
+        when(mockNode.getPath()).thenReturn("/foo/bar/" + JCR_CONTENT);
     }
 
     @Test
@@ -78,6 +78,9 @@ public class ContainerServiceImplTest implements FedoraTypes {
         when(mockRoot.getNode(testPath.substring(1))).thenReturn(mockNode);
         when(mockNode.getParent()).thenReturn(mockRoot);
         when(mockRoot.isNew()).thenReturn(false);
+        when(mockRoot.getPath()).thenReturn("/");
+        when(mockParent.getPath()).thenReturn("/parent");
+        when(mockNode.getPath()).thenReturn(testPath);
     }
 
     @Test
@@ -0,0 +1,129 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.services;
+
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.DELETIONS;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETED_RESOURCES;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETING;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.FEDORA_DELETION_STARTED;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Calendar;
+import java.util.Optional;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.FedoraSession;
+import org.fcrepo.kernel.api.exception.RepositoryRuntimeException;
+import org.fcrepo.kernel.api.services.DeletionService;
+import org.fcrepo.kernel.api.services.DeletionService.Progress;
+import org.fcrepo.kernel.modeshape.FedoraSessionImpl;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class DeletionServiceImplTest {
+
+    @Mock
+    private Session mockSession;
+
+    @Mock
+    private Node mockNode;
+
+    @Mock
+    private Property mockStarted, mockDeleted;
+
+    private DeletionService testObj;
+
+    private FedoraSession testSession;
+
+    private final String testPath = "/foo";
+
+    @Before
+    public void setUp() throws RepositoryException {
+        testObj = new DeletionServiceImpl();
+        testSession = new FedoraSessionImpl(mockSession);
+        when(mockSession.nodeExists(testPath)).thenReturn(true);
+        when(mockSession.getNode(testPath)).thenReturn(mockNode);
+    }
+
+    @Test
+    public void testGetProgress() throws RepositoryException {
+        final Calendar started = Calendar.getInstance();
+        when(mockNode.isNodeType(FEDORA_DELETING)).thenReturn(true);
+        when(mockNode.getProperty(FEDORA_DELETION_STARTED)).thenReturn(mockStarted);
+        when(mockNode.getProperty(FEDORA_DELETED_RESOURCES)).thenReturn(mockDeleted);
+        when(mockStarted.getDate()).thenReturn(started);
+        when(mockDeleted.getLong()).thenReturn(42L);
+
+        final Progress progress = testObj.getProgress(testSession, testPath).get();
+        assertEquals(started.toInstant(), progress.getStarted());
+        assertEquals(42L, progress.getDeleted());
+    }
+
+    @Test
+    public void testGetProgressNotDeleting() {
+        assertFalse(testObj.getProgress(testSession, testPath).isPresent());
+    }
+
+    @Test
+    public void testGetProgressMissing() {
+        assertEquals(Optional.empty(), testObj.getProgress(testSession, "/bar"));
+    }
+
+    @Test(expected = RepositoryRuntimeException.class)
+    public void testDeleteRootInBackground() throws RepositoryException {
+        when(mockSession.getNode("/")).thenReturn(mockNode);
+        try {
+            testObj.deleteInBackground(testSession, "/");
+        } finally {
+            verify(mockNode, never()).addMixin(anyString());
+        }
+    }
+
+    @Test
+    public void testIsDeleted() {
+        assertTrue(DeletionServiceImpl.isDeleted("/" + DELETIONS + "/1234/foo/bar"));
+        assertFalse(DeletionServiceImpl.isDeleted("/" + DELETIONS));
+        assertFalse(DeletionServiceImpl.isDeleted(testPath));
+    }
+
+    @Test
+    public void testIsDeletions() throws RepositoryException {
+        when(mockNode.getDepth()).thenReturn(1);
+        when(mockNode.getName()).thenReturn(DELETIONS);
+        assertTrue(DeletionServiceImpl.isDeletions(mockNode));
+        when(mockNode.getDepth()).thenReturn(2);
+        assertFalse(DeletionServiceImpl.isDeletions(mockNode));
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.fcrepo.kernel.modeshape.services;
 
+import static org.fcrepo.kernel.modeshape.testutilities.TestNodeIterator.nodeIterator;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -109,6 +110,7 @@ public class NodeServiceImplTest {
         when(mockSession.getWorkspace()).thenReturn(mockWorkspace);
         when(mockSession.getNode("bar")).thenReturn(mockObjNode);
         when(mockObjNode.getDepth()).thenReturn(0);
+        when(mockObjNode.getNodes()).thenReturn(nodeIterator());
         testObj.copyObject(testSession, "foo", "bar");
         verify(mockWorkspace).copy("foo", "bar");
     }
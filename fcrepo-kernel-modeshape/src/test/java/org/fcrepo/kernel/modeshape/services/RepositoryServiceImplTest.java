@@ -31,6 +31,7 @@ import static org.springframework.test.util.ReflectionTestUtils.setField;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 import javax.jcr.Node;
 import javax.jcr.NodeIterator;
@@ -133,6 +134,9 @@ public class RepositoryServiceImplTest implements FedoraTypes {
     @Mock
     private NamespaceRegistry mockNamespaceRegistry;
 
+    @Mock
+    private RepositoryStatistics mockStatistics;
+
     private Map<String, String> expectedNS;
 
 
@@ -192,6 +196,32 @@ public class RepositoryServiceImplTest implements FedoraTypes {
         assertEquals(EXPECTED_COUNT, actual);
     }
 
+    @Test
+    public void testGetRepositoryStatistics() throws RepositoryException {
+        setField(testObj, "statistics", mockStatistics);
+        when(mockStatistics.getSize()).thenReturn(Optional.of(42L));
+        when(mockStatistics.getObjectCount()).thenReturn(Optional.of(7L));
+        assertEquals(Long.valueOf(42L), testObj.getRepositorySize());
+        assertEquals(Long.valueOf(7L), testObj.getRepositoryObjectCount());
+        verify(mockQueryManager, never()).createQuery(anyString(), eq(JCR_SQL2));
+    }
+
+    @Test
+    public void testGetRepositoryStatisticsNotLoaded() {
+        setField(testObj, "statistics", mockStatistics);
+        when(mockStatistics.getSize()).thenReturn(Optional.empty());
+        when(mockStatistics.getObjectCount()).thenReturn(Optional.empty());
+        assertEquals(EXPECTED_SIZE, testObj.getRepositorySize());
+        assertEquals(EXPECTED_COUNT, testObj.getRepositoryObjectCount());
+    }
+
+    @Test
+    public void testReconcileRepositoryStatistics() {
+        setField(testObj, "statistics", mockStatistics);
+        testObj.reconcileRepositoryStatistics();
+        verify(mockStatistics).reconcile();
+    }
+
     @Test
     public void testGetObjectSize() throws RepositoryException {
 
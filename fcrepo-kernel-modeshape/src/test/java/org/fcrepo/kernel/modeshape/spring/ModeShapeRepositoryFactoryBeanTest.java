@@ -20,6 +20,7 @@ package org.fcrepo.kernel.modeshape.spring;
 import static org.fcrepo.kernel.modeshape.FedoraRepositoryImpl.getJcrRepository;
 import static org.fcrepo.kernel.modeshape.utils.TestHelpers.setField;
 import static org.junit.Assert.assertEquals;
+import static org.mockito.Answers.RETURNS_DEEP_STUBS;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -49,13 +50,13 @@ public class ModeShapeRepositoryFactoryBeanTest {
     private final Resource config = new ClassPathResource(
             "config/testing/repository.json");
 
-    @Mock
+    @Mock(answer = RETURNS_DEEP_STUBS)
     private JcrRepository mockRepo;
 
     @Mock
     private ModeShapeEngine mockModeShapeEngine;
 
-    @Mock
+    @Mock(answer = RETURNS_DEEP_STUBS)
     private JcrSession mockSession;
 
     @Mock
@@ -0,0 +1,140 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singleton;
+import static org.fcrepo.kernel.modeshape.testutilities.TestNodeIterator.nodeIterator;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Iterator;
+import java.util.function.Predicate;
+
+import javax.jcr.Node;
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+
+import org.fcrepo.kernel.api.exception.PathNotFoundRuntimeException;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class ChildNodeIteratorTest {
+
+    @Mock
+    private Node mockParent, mockA, mockPairtree, mockB, mockHidden, mockC;
+
+    @Mock
+    private Session mockSession;
+
+    @Mock
+    private Repository mockRepository;
+
+    private final Predicate<Node> skip = n -> n == mockHidden;
+
+    private final Predicate<Node> descend = n -> n == mockPairtree;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        when(mockParent.getPath()).thenReturn("/parent");
+        when(mockParent.getSession()).thenReturn(mockSession);
+        when(mockA.getName()).thenReturn("a");
+        when(mockPairtree.getName()).thenReturn("pt");
+        when(mockB.getName()).thenReturn("b");
+        when(mockC.getName()).thenReturn("c");
+        when(mockHidden.getName()).thenReturn("hidden");
+        when(mockParent.getNodes()).thenAnswer(i -> nodeIterator(mockA, mockPairtree, mockHidden, mockC));
+        when(mockPairtree.getNodes()).thenAnswer(i -> nodeIterator(mockB));
+    }
+
+    @Test
+    public void testLooksThroughIntermediateNodes() {
+        final Iterator<Node> children = new ChildNodeIterator(mockParent, skip, descend, null);
+        assertSame(mockA, children.next());
+        assertSame(mockB, children.next());
+        assertSame(mockC, children.next());
+        assertFalse(children.hasNext());
+    }
+
+    @Test
+    public void testReadsLazily() throws RepositoryException {
+        final Iterator<Node> children = new ChildNodeIterator(mockParent, skip, descend, null);
+        assertSame(mockA, children.next());
+        verify(mockPairtree, never()).getNodes();
+    }
+
+    @Test
+    public void testStartsAfterChild() throws RepositoryException {
+        when(mockSession.nodeExists("/parent/pt/b")).thenReturn(true);
+        final Iterator<Node> children = new ChildNodeIterator(mockParent, skip, descend, "/parent/pt/b");
+        assertSame(mockC, children.next());
+        assertFalse(children.hasNext());
+    }
+
+    @Test
+    public void testStartsAfterListedChild() throws RepositoryException {
+        when(mockSession.getRepository()).thenReturn(mockRepository);
+        when(mockSession.nodeExists("/parent/a")).thenReturn(true);
+        when(mockParent.getIdentifier()).thenReturn("parent");
+        for (final Node child : new Node[] { mockA, mockPairtree, mockHidden, mockC }) {
+            final String name = child.getName();
+            when(mockParent.hasNode(name)).thenReturn(true);
+            when(mockParent.getNode(name)).thenReturn(child);
+        }
+        ChildNodeIterator.listen(mockRepository);
+        try {
+            for (int i = 0; i < 2; i++) {
+                final Iterator<Node> children = new ChildNodeIterator(mockParent, skip, descend, "/parent/a");
+                assertSame(mockB, children.next());
+                assertSame(mockC, children.next());
+                assertFalse(children.hasNext());
+            }
+            verify(mockParent, times(1)).getNodes();
+
+            ChildNodeIterator.changed(mockRepository, singleton("/parent"), emptySet());
+            final Iterator<Node> children = new ChildNodeIterator(mockParent, skip, descend, "/parent/a");
+            assertSame(mockB, children.next());
+            verify(mockParent, times(2)).getNodes();
+        } finally {
+            ChildNodeIterator.forget(mockRepository);
+        }
+    }
+
+    @Test(expected = PathNotFoundRuntimeException.class)
+    public void testStartsAfterMissingChild() {
+        new ChildNodeIterator(mockParent, skip, descend, "/parent/x");
+    }
+
+    @Test(expected = PathNotFoundRuntimeException.class)
+    public void testStartsAfterNonDescendant() throws RepositoryException {
+        when(mockSession.nodeExists("/other/a")).thenReturn(true);
+        new ChildNodeIterator(mockParent, skip, descend, "/other/a");
+    }
+}
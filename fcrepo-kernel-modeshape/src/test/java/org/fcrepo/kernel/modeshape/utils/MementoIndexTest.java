@@ -0,0 +1,131 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static java.time.ZoneOffset.UTC;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.fcrepo.kernel.modeshape.FedoraJcrConstants.MEMENTO_DATETIMES;
+import static org.fcrepo.kernel.modeshape.utils.MementoIndex.closest;
+import static org.fcrepo.kernel.modeshape.utils.MementoIndex.getDatetimes;
+import static org.fcrepo.kernel.modeshape.utils.MementoIndex.range;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.jcr.Node;
+import javax.jcr.Property;
+import javax.jcr.RepositoryException;
+import javax.jcr.Value;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class MementoIndexTest {
+
+    private static final Instant T0 = Instant.parse("2017-10-01T00:00:00Z");
+
+    private static final Instant T1 = Instant.parse("2017-10-02T00:00:00Z");
+
+    private static final Instant T2 = Instant.parse("2017-10-04T00:00:00Z");
+
+    private final List<Instant> datetimes = asList(T0, T1, T2);
+
+    @Mock
+    private Node mockTimeMap;
+
+    @Mock
+    private Property mockProperty;
+
+    @Test
+    public void testClosest() {
+        assertEquals(T1, closest(datetimes, T1).get());
+        assertEquals(T1, closest(datetimes, T1.plusSeconds(60)).get());
+        assertEquals(T2, closest(datetimes, T2.minusSeconds(60)).get());
+    }
+
+    @Test
+    public void testClosestTie() {
+        assertEquals(T1, closest(datetimes, Instant.parse("2017-10-03T00:00:00Z")).get());
+    }
+
+    @Test
+    public void testClosestOutOfRange() {
+        assertEquals(T0, closest(datetimes, T0.minusSeconds(60)).get());
+        assertEquals(T2, closest(datetimes, T2.plusSeconds(60)).get());
+    }
+
+    @Test
+    public void testClosestEmpty() {
+        assertFalse(closest(emptyList(), T0).isPresent());
+    }
+
+    @Test
+    public void testRange() {
+        assertEquals(datetimes, range(datetimes, null, null));
+        assertEquals(asList(T1, T2), range(datetimes, T1, null));
+        assertEquals(asList(T0, T1), range(datetimes, null, T1));
+        assertEquals(asList(T1), range(datetimes, T0.plusSeconds(1), T2.minusSeconds(1)));
+    }
+
+    @Test
+    public void testRangeEmpty() {
+        assertTrue(range(datetimes, T2.plusSeconds(1), null).isEmpty());
+        assertTrue(range(datetimes, T2, T0).isEmpty());
+    }
+
+    @Test
+    public void testLookupReadsFewDatetimes() throws RepositoryException {
+        final AtomicInteger reads = new AtomicInteger();
+        final Value[] values = new Value[1024];
+        for (int i = 0; i < values.length; i++) {
+            final Calendar date = GregorianCalendar.from(ZonedDateTime.ofInstant(T0.plusSeconds(i), UTC));
+            values[i] = mock(Value.class);
+            when(values[i].getDate()).thenAnswer(invocation -> {
+                reads.incrementAndGet();
+                return date;
+            });
+        }
+        when(mockTimeMap.hasProperty(MEMENTO_DATETIMES)).thenReturn(true);
+        when(mockTimeMap.getProperty(MEMENTO_DATETIMES)).thenReturn(mockProperty);
+        when(mockProperty.getValues()).thenReturn(values);
+
+        assertEquals(T0.plusSeconds(500), closest(getDatetimes(mockTimeMap), T0.plusSeconds(500)).get());
+        assertTrue("Read " + reads.get() + " datetimes", reads.get() <= 12);
+
+        reads.set(0);
+        assertEquals(asList(T0.plusSeconds(10), T0.plusSeconds(11)),
+                range(getDatetimes(mockTimeMap), T0.plusSeconds(10), T0.plusSeconds(11)));
+        assertTrue("Read " + reads.get() + " datetimes", reads.get() <= 24);
+    }
+}
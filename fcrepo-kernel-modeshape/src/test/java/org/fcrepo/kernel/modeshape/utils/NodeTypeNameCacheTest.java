@@ -0,0 +1,195 @@
+/*
+ * Licensed to DuraSpace under one or more contributor license agreements.
+ * See the NOTICE file distributed with this work for additional information
+ * regarding copyright ownership.
+ *
+ * DuraSpace licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in
+ * compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.fcrepo.kernel.modeshape.utils;
+
+import static org.apache.jena.rdf.model.ResourceFactory.createResource;
+import static org.fcrepo.kernel.api.RdfLexicon.REPOSITORY_NAMESPACE;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getNamespace;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getNodeTypeName;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getPrefix;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.getTypeURI;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.invalidate;
+import static org.fcrepo.kernel.modeshape.utils.NodeTypeNameCache.listen;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.URI;
+import java.util.Optional;
+
+import javax.jcr.Repository;
+import javax.jcr.RepositoryException;
+import javax.jcr.Session;
+import javax.jcr.Workspace;
+import javax.jcr.observation.Event;
+import javax.jcr.observation.EventIterator;
+import javax.jcr.observation.EventListener;
+import javax.jcr.observation.ObservationManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.modeshape.jcr.api.NamespaceRegistry;
+
+/**
+ * @author agent
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class NodeTypeNameCacheTest {
+
+    private static final String EX_NAMESPACE = "http://example.org/ns#";
+
+    @Mock
+    private Session mockSession;
+
+    @Mock
+    private Session mockOtherSession;
+
+    @Mock
+    private Repository mockRepository;
+
+    @Mock
+    private Repository mockOtherRepository;
+
+    @Mock
+    private Workspace mockWorkspace;
+
+    @Mock
+    private NamespaceRegistry mockRegistry;
+
+    @Mock
+    private Session mockListenerSession;
+
+    @Mock
+    private Workspace mockListenerWorkspace;
+
+    @Mock
+    private ObservationManager mockObservationManager;
+
+    @Mock
+    private EventIterator mockEvents;
+
+    @Mock
+    private Event mockEvent;
+
+    private EventListener listener;
+
+    @Before
+    public void setUp() throws RepositoryException {
+        when(mockSession.getRepository()).thenReturn(mockRepository);
+        when(mockSession.getWorkspace()).thenReturn(mockWorkspace);
+        when(mockOtherSession.getRepository()).thenReturn(mockRepository);
+        when(mockOtherSession.getWorkspace()).thenReturn(mockWorkspace);
+        when(mockWorkspace.getNamespaceRegistry()).thenReturn(mockRegistry);
+        when(mockRegistry.getURI("fedora")).thenReturn(REPOSITORY_NAMESPACE);
+        when(mockRegistry.getURI("ex")).thenReturn(EX_NAMESPACE);
+        when(mockRegistry.isRegisteredUri(EX_NAMESPACE)).thenReturn(true);
+        when(mockRegistry.getPrefix(EX_NAMESPACE)).thenReturn("ex");
+        when(mockRepository.login()).thenReturn(mockListenerSession);
+        when(mockListenerSession.getWorkspace()).thenReturn(mockListenerWorkspace);
+        when(mockListenerWorkspace.getObservationManager()).thenReturn(mockObservationManager);
+        listen(mockRepository);
+        final ArgumentCaptor<EventListener> captor = ArgumentCaptor.forClass(EventListener.class);
+        verify(mockObservationManager).addEventListener(captor.capture(), anyInt(), eq("/jcr:system"), anyBoolean(),
+                any(String[].class), any(String[].class), anyBoolean());
+        listener = captor.getValue();
+        when(mockEvents.hasNext()).thenReturn(true, false);
+        when(mockEvents.nextEvent()).thenReturn(mockEvent);
+    }
+
+    @Test
+    public void testGetTypeURI() throws RepositoryException {
+        assertEquals(URI.create(REPOSITORY_NAMESPACE + "Container"), getTypeURI(mockSession, "fedora:Container"));
+        assertEquals(URI.create(REPOSITORY_NAMESPACE + "Container"),
+                getTypeURI(mockOtherSession, "fedora:Container"));
+        assertEquals(REPOSITORY_NAMESPACE, getNamespace(mockSession, "fedora:Container"));
+        verify(mockRegistry).getURI("fedora");
+    }
+
+    @Test
+    public void testInvalidate() throws RepositoryException {
+        getTypeURI(mockSession, "ex:Thing");
+        when(mockRegistry.getURI("ex")).thenReturn("http://example.org/other#");
+        assertEquals(URI.create(EX_NAMESPACE + "Thing"), getTypeURI(mockSession, "ex:Thing"));
+
+        invalidate(mockSession);
+        assertEquals(URI.create("http://example.org/other#Thing"), getTypeURI(mockSession, "ex:Thing"));
+        verify(mockRegistry, times(2)).getURI("ex");
+    }
+
+    @Test
+    public void testInvalidatedByRegistryChange() throws RepositoryException {
+        getTypeURI(mockSession, "ex:Thing");
+        getPrefix(mockSession, EX_NAMESPACE);
+        when(mockRegistry.getURI("ex")).thenReturn("http://example.org/other#");
+        when(mockRegistry.getPrefix(EX_NAMESPACE)).thenReturn("ex2");
+
+        // e.g. registered by another member of a cluster
+        when(mockEvent.getPath()).thenReturn("/jcr:system/mode:namespaces/ex/mode:uri");
+        listener.onEvent(mockEvents);
+        assertEquals(URI.create("http://example.org/other#Thing"), getTypeURI(mockSession, "ex:Thing"));
+        assertEquals(Optional.of("ex2"), getPrefix(mockSession, EX_NAMESPACE));
+    }
+
+    @Test
+    public void testNotInvalidatedByOtherSystemChange() throws RepositoryException {
+        getTypeURI(mockSession, "ex:Thing");
+        when(mockEvent.getPath()).thenReturn("/jcr:system/jcr:versionStorage/ab");
+        listener.onEvent(mockEvents);
+        getTypeURI(mockSession, "ex:Thing");
+        verify(mockRegistry).getURI("ex");
+    }
+
+    @Test
+    public void testGetNodeTypeName() throws RepositoryException {
+        assertEquals(Optional.of("ex:Thing"), getNodeTypeName(mockSession, createResource(EX_NAMESPACE + "Thing")));
+        assertEquals(Optional.of("ex:Thing"), getNodeTypeName(mockSession, createResource(EX_NAMESPACE + "Thing")));
+        verify(mockRegistry).getPrefix(EX_NAMESPACE);
+    }
+
+    @Test
+    public void testGetNodeTypeNameUnregistered() {
+        assertFalse(getNodeTypeName(mockSession, createResource("http://example.org/unknown#Thing")).isPresent());
+    }
+
+    @Test
+    public void testNotCachedUntilListened() throws RepositoryException {
+        getTypeURI(mockSession, "fedora:Container");
+        when(mockSession.getRepository()).thenReturn(mockOtherRepository);
+        getTypeURI(mockSession, "fedora:Container");
+        getTypeURI(mockSession, "fedora:Container");
+        verify(mockRegistry, times(3)).getURI("fedora");
+    }
+
+    @Test
+    public void testNotCachedWithoutRepository() throws RepositoryException {
+        when(mockSession.getRepository()).thenReturn(null);
+        getTypeURI(mockSession, "fedora:Container");
+        getTypeURI(mockSession, "fedora:Container");
+        verify(mockRegistry, times(2)).getURI("fedora");
+    }
+}